@@ -0,0 +1,33 @@
+/**
+ * generative gestaltung
+ *
+ */
+package de.hfkbremen.generativegestaltung.implicitsurface;
+
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+
+/**
+ * runs the implicitsurface benchmarks headless with the gc profiler, which adds the allocation rate per operation (
+ * gc.alloc.rate.norm ) to the results. an optional argument restricts the run to benchmarks matching a regular
+ * expression, e.g. <code>MarchingCubes</code>.
+ * <p>
+ * the benchmarks are plain JMH benchmarks and can also be run with JMH's own main and its command line options.
+ */
+public class BenchmarkRunner {
+
+    public static void main(String[] args) throws RunnerException {
+        final String mInclude = args.length > 0 ? args[0] : BenchmarkRunner.class.getPackage().getName();
+        final Options mOptions = new OptionsBuilder()
+                .include(mInclude)
+                .addProfiler(GCProfiler.class)
+                .jvmArgsAppend("-Djava.awt.headless=true")
+                .build();
+        new Runner(mOptions).run();
+    }
+}
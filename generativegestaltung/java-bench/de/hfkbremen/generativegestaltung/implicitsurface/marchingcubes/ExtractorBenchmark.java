@@ -0,0 +1,95 @@
+/**
+ * generative gestaltung
+ *
+ */
+package de.hfkbremen.generativegestaltung.implicitsurface.marchingcubes;
+
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+
+/**
+ * the isosurface extractors on the same pre-sampled fields, with and without normals. the mesh counters show how many
+ * triangles and vertices each algorithm produces for the same surface.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ExtractorBenchmark {
+
+    static final String MARCHING_CUBES = "marchingcubes";
+
+    static final String SURFACE_NETS = "surfacenets";
+
+    static final String MARCHING_TETRAHEDRA = "tetrahedra";
+
+    @Param({MARCHING_CUBES, SURFACE_NETS, MARCHING_TETRAHEDRA})
+    public String extractor;
+
+    @Param({"32", "64", "128"})
+    public int size;
+
+    @Param({Fields.NOISE, Fields.SPHERE, Fields.METABALLS})
+    public String field;
+
+    @Param({"32"})
+    public int metaballs;
+
+    private IsoSurfaceExtractor mExtractor;
+
+    private ScalarField3D mField;
+
+    private float mThreshold;
+
+    private final IndexedMesh mMesh = new IndexedMesh();
+
+    private final IndexedMesh mMeshWithNormals = new IndexedMesh();
+
+    @Setup
+    public void setup() {
+        if (MARCHING_CUBES.equals(extractor)) {
+            mExtractor = new MarchingCubesExtractor();
+        } else if (SURFACE_NETS.equals(extractor)) {
+            mExtractor = new SurfaceNets();
+        } else if (MARCHING_TETRAHEDRA.equals(extractor)) {
+            mExtractor = new MarchingTetrahedra();
+        } else {
+            throw new IllegalArgumentException("unknown extractor " + extractor);
+        }
+        mField = Fields.sample(field, metaballs, size);
+        mThreshold = Fields.threshold(field);
+        mMeshWithNormals.normals(true);
+    }
+
+    @Benchmark
+    public IndexedMesh extract(TriangleCounter pCounter) {
+        mMesh.clear();
+        mExtractor.extract(mMesh, mField, mThreshold, null);
+        pCounter.triangles += mMesh.triangleCount();
+        pCounter.vertices += mMesh.vertexCount();
+        return mMesh;
+    }
+
+    @Benchmark
+    public IndexedMesh extractNormals(TriangleCounter pCounter) {
+        mMeshWithNormals.clear();
+        mExtractor.extract(mMeshWithNormals, mField, mThreshold, null);
+        pCounter.triangles += mMeshWithNormals.triangleCount();
+        pCounter.vertices += mMeshWithNormals.vertexCount();
+        return mMeshWithNormals;
+    }
+}
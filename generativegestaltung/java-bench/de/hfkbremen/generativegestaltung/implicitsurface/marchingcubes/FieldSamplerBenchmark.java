@@ -0,0 +1,75 @@
+/**
+ * generative gestaltung
+ *
+ */
+package de.hfkbremen.generativegestaltung.implicitsurface.marchingcubes;
+
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+
+/**
+ * field evaluation: batch sampling on one thread and on the fork/join pool against point by point evaluation.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FieldSamplerBenchmark {
+
+    @Param({"32", "64", "128", "256"})
+    public int size;
+
+    @Param({Fields.NOISE, Fields.SPHERE, Fields.METABALLS})
+    public String field;
+
+    @Param({"32"})
+    public int metaballs;
+
+    private ScalarFunction mFunction;
+
+    private ScalarField3D mField;
+
+    @Setup
+    public void setup() {
+        mFunction = Fields.function(field, metaballs);
+        mField = new ScalarField3D(size, size, size);
+    }
+
+    @Benchmark
+    public ScalarField3D pointByPoint() {
+        for (int x = 0; x < size; x++) {
+            for (int y = 0; y < size; y++) {
+                for (int z = 0; z < size; z++) {
+                    mField.set(x, y, z, mFunction.value(mField.positionX(x), mField.positionY(y), mField.positionZ(z)));
+                }
+            }
+        }
+        return mField;
+    }
+
+    @Benchmark
+    public ScalarField3D batchSerial() {
+        FieldSampler.sample(mFunction, mField, 0, size);
+        return mField;
+    }
+
+    @Benchmark
+    public ScalarField3D batchParallel() {
+        FieldSampler.sample(mFunction, mField);
+        return mField;
+    }
+}
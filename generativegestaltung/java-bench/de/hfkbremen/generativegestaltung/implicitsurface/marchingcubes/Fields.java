@@ -0,0 +1,72 @@
+/**
+ * generative gestaltung
+ *
+ */
+package de.hfkbremen.generativegestaltung.implicitsurface.marchingcubes;
+
+
+import java.util.Random;
+import java.util.Vector;
+import processing.core.PVector;
+
+
+/**
+ * field types shared by the benchmarks. all functions are defined on the unit cube and extracted at the iso level
+ * returned by <code>threshold</code>.
+ */
+class Fields {
+
+    static final String NOISE = "noise";
+
+    static final String SPHERE = "sphere";
+
+    static final String METABALLS = "metaballs";
+
+    static ScalarFunction function(String pType, int pMetaballs) {
+        if (NOISE.equals(pType)) {
+            final GradientNoiseFunction mNoise = new GradientNoiseFunction(23);
+            mNoise.octaves(1);
+            mNoise.frequency(6);
+            return mNoise;
+        } else if (SPHERE.equals(pType)) {
+            return new SphereFunction(0.5f, 0.5f, 0.5f, 0.35f);
+        } else if (METABALLS.equals(pType)) {
+            final MetaballFunction mFunction = new MetaballFunction();
+            mFunction.set(metaballs(pMetaballs, 1));
+            return mFunction;
+        }
+        throw new IllegalArgumentException("unknown field type " + pType);
+    }
+
+    static float threshold(String pType) {
+        if (NOISE.equals(pType)) {
+            return 0.5f;
+        } else if (METABALLS.equals(pType)) {
+            return 0.1f;
+        }
+        return 0;
+    }
+
+    /**
+     * random balls inside a cube of the given size, the same for the same count.
+     */
+    static Vector<Metaball> metaballs(int pCount, float pSize) {
+        final Random mRandom = new Random(pCount);
+        final Vector<Metaball> mMetaballs = new Vector<Metaball>();
+        final float mRadius = pSize * 0.6f / (float) Math.cbrt(pCount);
+        for (int i = 0; i < pCount; i++) {
+            mMetaballs.add(new Metaball(new PVector(mRandom.nextFloat() * pSize,
+                                                    mRandom.nextFloat() * pSize,
+                                                    mRandom.nextFloat() * pSize),
+                                        0.5f + mRandom.nextFloat(),
+                                        mRadius * (0.5f + mRandom.nextFloat())));
+        }
+        return mMetaballs;
+    }
+
+    static ScalarField3D sample(String pType, int pMetaballs, int pSize) {
+        final ScalarField3D mField = new ScalarField3D(pSize, pSize, pSize);
+        FieldSampler.sample(function(pType, pMetaballs), mField);
+        return mField;
+    }
+}
@@ -0,0 +1,102 @@
+/**
+ * generative gestaltung
+ *
+ */
+package de.hfkbremen.generativegestaltung.implicitsurface.marchingcubes;
+
+
+import java.util.Vector;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import processing.core.PVector;
+
+
+/**
+ * extraction of a pre-sampled field with the different output paths of <code>MarchingCubes</code>.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MarchingCubesBenchmark {
+
+    @Param({"32", "64", "128", "256"})
+    public int size;
+
+    @Param({Fields.NOISE, Fields.SPHERE, Fields.METABALLS})
+    public String field;
+
+    @Param({"32"})
+    public int metaballs;
+
+    private ScalarField3D mField;
+
+    private float mThreshold;
+
+    private final IndexedMesh mMesh = new IndexedMesh();
+
+    private final CountingSink mCountingSink = new CountingSink();
+
+    private final DirectBufferSink mBufferSink = new DirectBufferSink(false);
+
+    @Setup
+    public void setup() {
+        mField = Fields.sample(field, metaballs, size);
+        mThreshold = Fields.threshold(field);
+    }
+
+    @Benchmark
+    public Vector<PVector> triangles(TriangleCounter pCounter) {
+        final Vector<PVector> mTriangles = new Vector<PVector>();
+        MarchingCubes.triangles(mTriangles, mField, mThreshold);
+        pCounter.triangles += mTriangles.size() / 3;
+        return mTriangles;
+    }
+
+    @Benchmark
+    public IndexedMesh indexed(TriangleCounter pCounter) {
+        mMesh.clear();
+        MarchingCubes.trianglesIndexed(mMesh, mField, mThreshold);
+        pCounter.triangles += mMesh.triangleCount();
+        pCounter.vertices += mMesh.vertexCount();
+        return mMesh;
+    }
+
+    @Benchmark
+    public IndexedMesh indexedParallel(TriangleCounter pCounter) {
+        mMesh.clear();
+        ParallelMarchingCubes.trianglesIndexed(mMesh, mField, mThreshold);
+        pCounter.triangles += mMesh.triangleCount();
+        pCounter.vertices += mMesh.vertexCount();
+        return mMesh;
+    }
+
+    @Benchmark
+    public DirectBufferSink directBuffer(TriangleCounter pCounter) {
+        mBufferSink.begin();
+        MarchingCubes.triangles(mBufferSink, mField, mThreshold);
+        mBufferSink.end();
+        pCounter.triangles += mBufferSink.triangleCount();
+        return mBufferSink;
+    }
+
+    @Benchmark
+    public int counting(TriangleCounter pCounter) {
+        mCountingSink.clear();
+        MarchingCubes.triangles(mCountingSink, mField, mThreshold);
+        pCounter.triangles += mCountingSink.triangleCount();
+        return mCountingSink.triangleCount();
+    }
+}
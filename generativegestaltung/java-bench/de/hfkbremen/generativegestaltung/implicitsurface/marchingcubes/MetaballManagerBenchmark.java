@@ -0,0 +1,70 @@
+/**
+ * generative gestaltung
+ *
+ */
+package de.hfkbremen.generativegestaltung.implicitsurface.marchingcubes;
+
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+
+/**
+ * a full <code>MetaballManager.update()</code> per operation with one ball moving, like a frame of a sketch.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MetaballManagerBenchmark {
+
+    @Param({"32", "64", "128", "256"})
+    public int size;
+
+    @Param({"4", "32", "256"})
+    public int metaballs;
+
+    @Param({"dense", "sparse", "incremental"})
+    public String mode;
+
+    @Param({"false", "true"})
+    public boolean normals;
+
+    private MetaballManager mManager;
+
+    private int mFrame;
+
+    @Setup
+    public void setup() {
+        mManager = new MetaballManager();
+        mManager.gridsize().set(size, size, size);
+        mManager.scale().set(1, 1, 1);
+        mManager.threshold(Fields.threshold(Fields.METABALLS));
+        mManager.sparse("sparse".equals(mode));
+        mManager.incremental("incremental".equals(mode));
+        mManager.normals(normals);
+        mManager.metaballs().addAll(Fields.metaballs(metaballs, 1));
+        mManager.update();
+    }
+
+    @Benchmark
+    public MetaballManager update(TriangleCounter pCounter) {
+        final Metaball mMetaball = mManager.metaballs().get(mFrame++ % metaballs);
+        mMetaball.position.x += (mFrame & 1) == 0 ? 0.01f : -0.01f;
+        mManager.update();
+        pCounter.triangles += mManager.triangles().size() / 3;
+        return mManager;
+    }
+}
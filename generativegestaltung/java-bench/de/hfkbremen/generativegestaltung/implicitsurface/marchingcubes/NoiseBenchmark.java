@@ -0,0 +1,85 @@
+/**
+ * generative gestaltung
+ *
+ */
+package de.hfkbremen.generativegestaltung.implicitsurface.marchingcubes;
+
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import processing.core.PApplet;
+
+
+/**
+ * noise volumes: the per sample <code>noise()</code> loop of <code>SketchEnergyField</code> against
+ * <code>GradientNoiseFunction</code> filling the volume on one thread and on the fork/join pool. both use the same
+ * number of octaves and a falloff of 0.5.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class NoiseBenchmark {
+
+    @Param({"20", "64", "128"})
+    public int size;
+
+    @Param({"1", "4"})
+    public int octaves;
+
+    private static final float mNoiseScale = 6.0f;
+
+    private PApplet mApplet;
+
+    private GradientNoiseFunction mNoise;
+
+    private ScalarField3D mField;
+
+    @Setup
+    public void setup() {
+        mApplet = new PApplet();
+        mApplet.noiseSeed(23);
+        mApplet.noiseDetail(octaves, 0.5f);
+        mNoise = new GradientNoiseFunction(23);
+        mNoise.octaves(octaves);
+        mNoise.frequency(1.0f / mNoiseScale);
+        mField = new ScalarField3D(size, size, size);
+        mField.spacing(1, 1, 1);
+    }
+
+    @Benchmark
+    public ScalarField3D processingNoise() {
+        for (int x = 0; x < size; x++) {
+            for (int y = 0; y < size; y++) {
+                for (int z = 0; z < size; z++) {
+                    mField.set(x, y, z, mApplet.noise(x / mNoiseScale, y / mNoiseScale, z / mNoiseScale));
+                }
+            }
+        }
+        return mField;
+    }
+
+    @Benchmark
+    public ScalarField3D gradientSerial() {
+        mNoise.fill(mField, 0, size);
+        return mField;
+    }
+
+    @Benchmark
+    public ScalarField3D gradientParallel() {
+        mNoise.fill(mField);
+        return mField;
+    }
+}
@@ -0,0 +1,33 @@
+/**
+ * generative gestaltung
+ *
+ */
+package de.hfkbremen.generativegestaltung.implicitsurface.marchingcubes;
+
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+
+/**
+ * extra JMH counters, reported as triangles and vertices per second next to the operations per second of a
+ * benchmark. divided by the operations per second they give the size of one mesh. vertices are only counted by
+ * benchmarks that build indexed meshes.
+ */
+@State(Scope.Thread)
+@AuxCounters(AuxCounters.Type.OPERATIONS)
+public class TriangleCounter {
+
+    public long triangles;
+
+    public long vertices;
+
+    @Setup(Level.Iteration)
+    public void reset() {
+        triangles = 0;
+        vertices = 0;
+    }
+}
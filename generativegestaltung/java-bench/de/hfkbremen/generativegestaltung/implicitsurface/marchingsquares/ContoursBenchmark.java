@@ -0,0 +1,97 @@
+/**
+ * generative gestaltung
+ *
+ */
+package de.hfkbremen.generativegestaltung.implicitsurface.marchingsquares;
+
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+
+/**
+ * a stack of iso levels over a field of metacircles: one pass per level against the single pass of
+ * <code>MarchingSquares.contours</code>, with and without isobands.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ContoursBenchmark {
+
+    @Param({"256", "1024"})
+    public int size;
+
+    @Param({"5", "20", "50"})
+    public int levels;
+
+    private float[][] mField;
+
+    private float[] mLevels;
+
+    private Isolines[] mLines;
+
+    private final Isobands mBands = new Isobands();
+
+    @Setup
+    public void setup() {
+        final Random mRandom = new Random(64);
+        final float[] mCircles = new float[64 * 3];
+        for (int i = 0; i < mCircles.length; i += 3) {
+            mCircles[i] = mRandom.nextFloat() * size;
+            mCircles[i + 1] = mRandom.nextFloat() * size;
+            mCircles[i + 2] = (0.5f + mRandom.nextFloat()) * size / 16;
+        }
+        mField = new float[size][size];
+        for (int x = 0; x < size; x++) {
+            for (int y = 0; y < size; y++) {
+                float f = 0;
+                for (int i = 0; i < mCircles.length; i += 3) {
+                    final float dx = x - mCircles[i];
+                    final float dy = y - mCircles[i + 1];
+                    f += mCircles[i + 2] * mCircles[i + 2] / (dx * dx + dy * dy + 1);
+                }
+                mField[x][y] = f;
+            }
+        }
+        mLevels = new float[levels];
+        mLines = new Isolines[levels];
+        for (int i = 0; i < levels; i++) {
+            mLevels[i] = 0.5f + 4.0f * i / levels;
+            mLines[i] = new Isolines();
+        }
+    }
+
+    @Benchmark
+    public Isolines[] passPerLevel() {
+        for (int i = 0; i < levels; i++) {
+            MarchingSquares.isolines(mLines[i], mField, mLevels[i]);
+        }
+        return mLines;
+    }
+
+    @Benchmark
+    public Isolines[] contours() {
+        MarchingSquares.contours(mLines, null, mField, mLevels);
+        return mLines;
+    }
+
+    @Benchmark
+    public Isobands contoursAndBands() {
+        MarchingSquares.contours(mLines, mBands, mField, mLevels);
+        return mBands;
+    }
+}
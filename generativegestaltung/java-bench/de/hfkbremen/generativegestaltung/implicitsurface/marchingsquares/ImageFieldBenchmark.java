@@ -0,0 +1,88 @@
+/**
+ * generative gestaltung
+ *
+ */
+package de.hfkbremen.generativegestaltung.implicitsurface.marchingsquares;
+
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import processing.core.PApplet;
+import processing.core.PGraphics;
+import processing.core.PImage;
+
+
+/**
+ * image to field conversion: the per pixel <code>brightness( get( x, y ) )</code> loop formerly used by
+ * <code>SketchStackedImageFields</code> against <code>ImageFieldStack.luminance</code> on the pixel array, with and
+ * without downsampling.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ImageFieldBenchmark {
+
+    @Param({"160", "640"})
+    public int width;
+
+    private PGraphics mGraphics;
+
+    private PImage mImage;
+
+    private float[][] mField;
+
+    private float[][] mDownsampledField;
+
+    @Setup
+    public void setup() {
+        mGraphics = new PGraphics();
+        mGraphics.colorMode(PApplet.RGB, 255);
+        final int mHeight = width * 3 / 4;
+        mImage = new PImage(width, mHeight, PApplet.RGB);
+        mImage.loadPixels();
+        final Random mRandom = new Random(23);
+        for (int i = 0; i < mImage.pixels.length; i++) {
+            mImage.pixels[i] = 0xFF000000 | mRandom.nextInt(0x1000000);
+        }
+        mImage.updatePixels();
+        mField = new float[width][mHeight];
+        mDownsampledField = new float[width / 2][mHeight / 2];
+    }
+
+    @Benchmark
+    public float[][] brightness() {
+        mImage.loadPixels();
+        for (int x = 0; x < mImage.width; x++) {
+            for (int y = 0; y < mImage.height; y++) {
+                mField[x][y] = mGraphics.brightness(mImage.get(x, y));
+            }
+        }
+        return mField;
+    }
+
+    @Benchmark
+    public float[][] luminance() {
+        ImageFieldStack.luminance(mImage.pixels, mImage.width, mImage.height, 1, mField);
+        return mField;
+    }
+
+    @Benchmark
+    public float[][] luminanceDownsampled() {
+        ImageFieldStack.luminance(mImage.pixels, mImage.width, mImage.height, 2, mDownsampledField);
+        return mDownsampledField;
+    }
+}
@@ -0,0 +1,81 @@
+/**
+ * generative gestaltung
+ *
+ */
+package de.hfkbremen.generativegestaltung.implicitsurface.marchingsquares;
+
+
+import java.util.Random;
+import java.util.Vector;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import processing.core.PVector;
+
+
+/**
+ * isolines of a field of metacircles.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MarchingSquaresBenchmark {
+
+    @Param({"64", "256", "1024"})
+    public int size;
+
+    @Param({"8", "64"})
+    public int circles;
+
+    private float[][] mField;
+
+    private final Isolines mIsolines = new Isolines();
+
+    @Setup
+    public void setup() {
+        final Random mRandom = new Random(circles);
+        final float[] mCircles = new float[circles * 3];
+        for (int i = 0; i < mCircles.length; i += 3) {
+            mCircles[i] = mRandom.nextFloat() * size;
+            mCircles[i + 1] = mRandom.nextFloat() * size;
+            mCircles[i + 2] = (0.5f + mRandom.nextFloat()) * size / 16;
+        }
+        mField = new float[size][size];
+        for (int x = 0; x < size; x++) {
+            for (int y = 0; y < size; y++) {
+                float f = 0;
+                for (int i = 0; i < mCircles.length; i += 3) {
+                    final float dx = x - mCircles[i];
+                    final float dy = y - mCircles[i + 1];
+                    f += mCircles[i + 2] * mCircles[i + 2] / (dx * dx + dy * dy + 1);
+                }
+                mField[x][y] = f;
+            }
+        }
+    }
+
+    @Benchmark
+    public Vector<PVector> lines() {
+        final Vector<PVector> mLines = new Vector<PVector>();
+        MarchingSquares.lines(mLines, mField, 1);
+        return mLines;
+    }
+
+    @Benchmark
+    public Isolines isolines() {
+        MarchingSquares.isolines(mIsolines, mField, 1);
+        return mIsolines;
+    }
+}
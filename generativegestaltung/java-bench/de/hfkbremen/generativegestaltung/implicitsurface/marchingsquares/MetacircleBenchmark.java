@@ -0,0 +1,90 @@
+/**
+ * generative gestaltung
+ *
+ */
+package de.hfkbremen.generativegestaltung.implicitsurface.marchingsquares;
+
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+
+/**
+ * filling the 128 x 96 grid of a 640 x 480 sketch with metacircles: every cell summing every circle against
+ * <code>MetacircleField</code>, including the rebuild of its quadtree that a sketch with moving circles pays every
+ * frame.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MetacircleBenchmark {
+
+    @Param({"10", "1000", "10000"})
+    public int balls;
+
+    @Param({"0.3", "0.5"})
+    public float theta;
+
+    private static final float mScale = 5;
+
+    private float[] mBalls;
+
+    private final float[][] mGrid = new float[128][96];
+
+    private final MetacircleField mField = new MetacircleField();
+
+    @Setup
+    public void setup() {
+        final Random mRandom = new Random(5);
+        mBalls = new float[balls * 3];
+        for (int i = 0; i < mBalls.length; i += 3) {
+            mBalls[i] = mRandom.nextFloat() * 640;
+            mBalls[i + 1] = mRandom.nextFloat() * 480;
+            mBalls[i + 2] = 5000 + mRandom.nextFloat() * 45000;
+        }
+        mField.theta(theta);
+    }
+
+    @Benchmark
+    public float[][] bruteForce() {
+        for (int x = 0; x < mGrid.length; x++) {
+            for (int y = 0; y < mGrid[x].length; y++) {
+                float f = 0;
+                for (int i = 0; i < mBalls.length; i += 3) {
+                    final float dx = mBalls[i] - x * mScale;
+                    final float dy = mBalls[i + 1] - y * mScale;
+                    final float r2 = dx * dx + dy * dy;
+                    if (r2 != 0.0f) {
+                        f += mBalls[i + 2] / r2;
+                    }
+                }
+                mGrid[x][y] = f;
+            }
+        }
+        return mGrid;
+    }
+
+    @Benchmark
+    public float[][] barnesHut() {
+        mField.clear();
+        for (int i = 0; i < mBalls.length; i += 3) {
+            mField.add(mBalls[i], mBalls[i + 1], mBalls[i + 2]);
+        }
+        mField.fill(mGrid, mScale, mScale);
+        return mGrid;
+    }
+}
@@ -0,0 +1,65 @@
+/**
+ * generative gestaltung
+ *
+ */
+package de.hfkbremen.generativegestaltung.implicitsurface.marchingcubes;
+
+
+import processing.core.PVector;
+
+
+/**
+ * keeps the axis aligned bounding box of a surface without storing its triangles. the bounds are empty ( min
+ * greater than max ) until the first triangle arrives.
+ */
+public class BoundsSink
+        implements IsoSurfaceSink {
+
+    private final PVector mMin = new PVector();
+
+    private final PVector mMax = new PVector();
+
+    private int mTriangleCount;
+
+    public BoundsSink() {
+        clear();
+    }
+
+    public void clear() {
+        mMin.set(Float.POSITIVE_INFINITY, Float.POSITIVE_INFINITY, Float.POSITIVE_INFINITY);
+        mMax.set(Float.NEGATIVE_INFINITY, Float.NEGATIVE_INFINITY, Float.NEGATIVE_INFINITY);
+        mTriangleCount = 0;
+    }
+
+    public boolean normals() {
+        return false;
+    }
+
+    public void triangle(float[] pPositions, float[] pNormals) {
+        for (int i = 0; i < 9; i += 3) {
+            mMin.x = Math.min(mMin.x, pPositions[i]);
+            mMin.y = Math.min(mMin.y, pPositions[i + 1]);
+            mMin.z = Math.min(mMin.z, pPositions[i + 2]);
+            mMax.x = Math.max(mMax.x, pPositions[i]);
+            mMax.y = Math.max(mMax.y, pPositions[i + 1]);
+            mMax.z = Math.max(mMax.z, pPositions[i + 2]);
+        }
+        mTriangleCount++;
+    }
+
+    public boolean isEmpty() {
+        return mTriangleCount == 0;
+    }
+
+    public PVector min() {
+        return mMin;
+    }
+
+    public PVector max() {
+        return mMax;
+    }
+
+    public int triangleCount() {
+        return mTriangleCount;
+    }
+}
@@ -0,0 +1,430 @@
+/**
+ * generative gestaltung
+ *
+ */
+package de.hfkbremen.generativegestaltung.implicitsurface.marchingcubes;
+
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.Vector;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.PriorityBlockingQueue;
+
+
+/**
+ * meshes an unbounded <code>ScalarFunction</code> chunk by chunk around a moving camera. space is divided into cubic
+ * chunks ( see <code>ChunkMesher</code> ) which are meshed on worker threads and kept in a least recently used cache
+ * with a memory budget. the cache is keyed by chunk coordinate and a parameter key, so switching back to earlier
+ * parameters finds the chunks meshed with them if they were not evicted yet.
+ * <p>
+ * <code>update</code> is called once per frame from the animation thread. it collects the meshes finished since the
+ * last update, requests the missing chunks within <code>radius()</code> of the camera, closest first, and returns the
+ * cached meshes in range. it never waits for the workers, chunks that are not meshed yet are simply missing.
+ * <p>
+ * the function is evaluated on the worker threads while the animation thread goes on, so it must not be changed
+ * after it was passed to <code>function</code>. to change parameters pass a new function with a new key.
+ */
+public class ChunkManager {
+
+    private final int mCells;
+
+    private final float mChunkSize;
+
+    private long mBudget;
+
+    private float mRadius;
+
+    private boolean mNormals;
+
+    private ScalarFunction mFunction;
+
+    private ScalarGradient mGradient;
+
+    private float mThreshold;
+
+    private long mParameters;
+
+    private final LinkedHashMap<ChunkKey, ChunkMesh> mCache = new LinkedHashMap<ChunkKey, ChunkMesh>(256, 0.75f, true);
+
+    /* chunks queued or being meshed */
+    private final Set<ChunkKey> mPending = new HashSet<ChunkKey>();
+
+    private final PriorityBlockingQueue<ChunkRequest> mQueue = new PriorityBlockingQueue<ChunkRequest>();
+
+    private final ConcurrentLinkedQueue<ChunkRequest> mFinished = new ConcurrentLinkedQueue<ChunkRequest>();
+
+    private final ArrayList<ChunkRequest> mDropped = new ArrayList<ChunkRequest>();
+
+    private final Vector<ChunkMesh> mVisible = new Vector<ChunkMesh>();
+
+    private final ChunkWorker[] mWorkers;
+
+    private long mSequence;
+
+    private long mResidentBytes;
+
+    private long mHits;
+
+    private long mMisses;
+
+    private long mEvictions;
+
+    /**
+     * @param pCells cells per chunk edge, a power of two
+     * @param pChunkSize edge length of a chunk in world space
+     * @param pBudget memory the cached meshes may hold in bytes
+     * @param pThreads number of worker threads
+     */
+    public ChunkManager(int pCells, float pChunkSize, long pBudget, int pThreads) {
+        mCells = pCells;
+        mChunkSize = pChunkSize;
+        mBudget = pBudget;
+        mRadius = pChunkSize * 4;
+        mWorkers = new ChunkWorker[Math.max(1, pThreads)];
+        for (int i = 0; i < mWorkers.length; i++) {
+            mWorkers[i] = new ChunkWorker(i);
+            mWorkers[i].start();
+        }
+    }
+
+    /**
+     * uses one worker thread less than there are processors, but at least one.
+     */
+    public ChunkManager(int pCells, float pChunkSize, long pBudget) {
+        this(pCells, pChunkSize, pBudget, Runtime.getRuntime().availableProcessors() - 1);
+    }
+
+    /**
+     * sets the function for all following requests.
+     *
+     * @param pGradient analytic gradient of the function or null to use central differences
+     * @param pParameters key that identifies the function and its parameters, e.g. a hash of seed and scale
+     */
+    public void function(ScalarFunction pFunction, ScalarGradient pGradient, float pThreshold, long pParameters) {
+        mFunction = pFunction;
+        mGradient = pGradient;
+        mThreshold = pThreshold;
+        mParameters = pParameters;
+    }
+
+    /**
+     * collects finished meshes, requests the missing chunks around the camera and returns the meshes in range.
+     *
+     * @return cached meshes within <code>radius()</code> of the camera. the list is reused by the next update.
+     */
+    public Vector<ChunkMesh> update(float x, float y, float z) {
+        collect();
+
+        /* requests of the last update are replaced by the ones for the current camera position */
+        mDropped.clear();
+        mQueue.drainTo(mDropped);
+        for (int i = 0; i < mDropped.size(); i++) {
+            mPending.remove(mDropped.get(i).key);
+        }
+
+        mVisible.clear();
+        if (mFunction == null) {
+            return mVisible;
+        }
+        final int mThresholdBits = Float.floatToIntBits(mThreshold);
+        final int mReach = (int) Math.ceil(mRadius / mChunkSize);
+        final int cx = (int) Math.floor(x / mChunkSize);
+        final int cy = (int) Math.floor(y / mChunkSize);
+        final int cz = (int) Math.floor(z / mChunkSize);
+        final ChunkKey mLookup = new ChunkKey(0, 0, 0, 0, 0, false);
+        for (int i = cx - mReach; i <= cx + mReach; i++) {
+            final float dx = distance(x, i);
+            for (int j = cy - mReach; j <= cy + mReach; j++) {
+                final float dy = distance(y, j);
+                for (int k = cz - mReach; k <= cz + mReach; k++) {
+                    final float dz = distance(z, k);
+                    final float mDistanceSquared = dx * dx + dy * dy + dz * dz;
+                    if (mDistanceSquared > mRadius * mRadius) {
+                        continue;
+                    }
+                    mLookup.set(i, j, k, mParameters, mThresholdBits, mNormals);
+                    final ChunkMesh mMesh = mCache.get(mLookup);
+                    if (mMesh != null) {
+                        mHits++;
+                        mVisible.add(mMesh);
+                    } else {
+                        mMisses++;
+                        if (mPending.contains(mLookup)) {
+                            continue;
+                        }
+                        final ChunkKey mKey = new ChunkKey(i, j, k, mParameters, mThresholdBits, mNormals);
+                        mPending.add(mKey);
+                        mQueue.add(new ChunkRequest(mKey, mFunction, mGradient, mThreshold, mDistanceSquared,
+                                                    mSequence++));
+                    }
+                }
+            }
+        }
+        return mVisible;
+    }
+
+    /**
+     * stops the worker threads. the manager can not be used afterwards.
+     */
+    public void dispose() {
+        for (int i = 0; i < mWorkers.length; i++) {
+            mWorkers[i].interrupt();
+        }
+    }
+
+    /**
+     * drops all cached meshes.
+     */
+    public void clear() {
+        mCache.clear();
+        mResidentBytes = 0;
+    }
+
+    /**
+     * distance to the camera within which chunks are meshed and returned.
+     */
+    public void radius(float pRadius) {
+        mRadius = pRadius;
+    }
+
+    public float radius() {
+        return mRadius;
+    }
+
+    /**
+     * memory the cached meshes may hold in bytes. least recently used meshes are evicted beyond that.
+     */
+    public void budget(long pBudget) {
+        mBudget = pBudget;
+        evict();
+    }
+
+    public long budget() {
+        return mBudget;
+    }
+
+    /**
+     * enables vertex normals for chunks requested from now on.
+     */
+    public void normals(boolean pNormals) {
+        mNormals = pNormals;
+    }
+
+    public boolean normals() {
+        return mNormals;
+    }
+
+    /**
+     * @return chunks found in the cache divided by all chunks looked up, 0 before the first lookup. both are counted
+     * per visible chunk and call of <code>update</code>, so a chunk that stays missing while it is being meshed counts
+     * as a miss on every frame it is looked up.
+     */
+    public float hitRate() {
+        final long mLookups = mHits + mMisses;
+        return mLookups == 0 ? 0 : (float) mHits / mLookups;
+    }
+
+    /**
+     * @return number of chunks found in the cache, counted per visible chunk and call of <code>update</code>
+     */
+    public long hits() {
+        return mHits;
+    }
+
+    /**
+     * @return number of chunks looked up but not found in the cache, counted like <code>hits()</code>
+     */
+    public long misses() {
+        return mMisses;
+    }
+
+    public long evictions() {
+        return mEvictions;
+    }
+
+    /**
+     * @return approximate memory held by the cached meshes in bytes
+     */
+    public long residentBytes() {
+        return mResidentBytes;
+    }
+
+    public int residentChunks() {
+        return mCache.size();
+    }
+
+    /**
+     * @return number of chunks queued or being meshed
+     */
+    public int pending() {
+        return mPending.size();
+    }
+
+    /* moves finished meshes into the cache */
+    private void collect() {
+        ChunkRequest mRequest;
+        while ((mRequest = mFinished.poll()) != null) {
+            mPending.remove(mRequest.key);
+            if (mRequest.error != null) {
+                throw mRequest.error;
+            }
+            final ChunkMesh mReplaced = mCache.put(mRequest.key, mRequest.mesh);
+            if (mReplaced != null) {
+                mResidentBytes -= mReplaced.bytes();
+            }
+            mResidentBytes += mRequest.mesh.bytes();
+        }
+        evict();
+    }
+
+    private void evict() {
+        final Iterator<Map.Entry<ChunkKey, ChunkMesh>> mEntries = mCache.entrySet().iterator();
+        while (mResidentBytes > mBudget && mEntries.hasNext()) {
+            mResidentBytes -= mEntries.next().getValue().bytes();
+            mEntries.remove();
+            mEvictions++;
+        }
+    }
+
+    /* distance along one axis from a coordinate to the closest point of a chunk */
+    private float distance(float pPosition, int pChunk) {
+        final float mMin = pChunk * mChunkSize;
+        if (pPosition < mMin) {
+            return mMin - pPosition;
+        }
+        if (pPosition > mMin + mChunkSize) {
+            return pPosition - mMin - mChunkSize;
+        }
+        return 0;
+    }
+
+    private static final class ChunkKey {
+
+        int x;
+
+        int y;
+
+        int z;
+
+        long parameters;
+
+        int threshold;
+
+        boolean normals;
+
+        ChunkKey(int x, int y, int z, long pParameters, int pThreshold, boolean pNormals) {
+            set(x, y, z, pParameters, pThreshold, pNormals);
+        }
+
+        void set(int x, int y, int z, long pParameters, int pThreshold, boolean pNormals) {
+            this.x = x;
+            this.y = y;
+            this.z = z;
+            parameters = pParameters;
+            threshold = pThreshold;
+            normals = pNormals;
+        }
+
+        public boolean equals(Object pObject) {
+            if (!(pObject instanceof ChunkKey)) {
+                return false;
+            }
+            final ChunkKey mKey = (ChunkKey) pObject;
+            return x == mKey.x && y == mKey.y && z == mKey.z && parameters == mKey.parameters
+                    && threshold == mKey.threshold && normals == mKey.normals;
+        }
+
+        public int hashCode() {
+            int mHash = x;
+            mHash = mHash * 31 + y;
+            mHash = mHash * 31 + z;
+            mHash = mHash * 31 + (int) (parameters ^ (parameters >>> 32));
+            mHash = mHash * 31 + threshold;
+            return mHash * 2 + (normals ? 1 : 0);
+        }
+    }
+
+    private static final class ChunkRequest
+            implements Comparable<ChunkRequest> {
+
+        final ChunkKey key;
+
+        final ScalarFunction function;
+
+        final ScalarGradient gradient;
+
+        final float threshold;
+
+        /* squared distance to the camera when requested, closer chunks are meshed first */
+        final float priority;
+
+        final long sequence;
+
+        ChunkMesh mesh;
+
+        RuntimeException error;
+
+        ChunkRequest(ChunkKey pKey,
+                     ScalarFunction pFunction,
+                     ScalarGradient pGradient,
+                     float pThreshold,
+                     float pPriority,
+                     long pSequence) {
+            key = pKey;
+            function = pFunction;
+            gradient = pGradient;
+            threshold = pThreshold;
+            priority = pPriority;
+            sequence = pSequence;
+        }
+
+        public int compareTo(ChunkRequest pRequest) {
+            if (priority != pRequest.priority) {
+                return priority < pRequest.priority ? -1 : 1;
+            }
+            return sequence < pRequest.sequence ? -1 : sequence > pRequest.sequence ? 1 : 0;
+        }
+    }
+
+    private class ChunkWorker
+            extends Thread {
+
+        private final ChunkMesher mMesher = new ChunkMesher(mCells, mChunkSize);
+
+        private final ChunkMesh.Builder mPlain = new ChunkMesh.Builder(false);
+
+        private final ChunkMesh.Builder mWithNormals = new ChunkMesh.Builder(true);
+
+        ChunkWorker(int pIndex) {
+            super("ChunkWorker-" + pIndex);
+            setDaemon(true);
+        }
+
+        public void run() {
+            while (!isInterrupted()) {
+                final ChunkRequest mRequest;
+                try {
+                    mRequest = mQueue.take();
+                } catch (InterruptedException ex) {
+                    return;
+                }
+                final ChunkKey mKey = mRequest.key;
+                final ChunkMesh.Builder mBuilder = mKey.normals ? mWithNormals : mPlain;
+                try {
+                    mBuilder.clear();
+                    mMesher.mesh(mBuilder, mRequest.function, mRequest.threshold, mRequest.gradient,
+                                 mKey.x, mKey.y, mKey.z, 0);
+                    mRequest.mesh = mBuilder.build(mKey.x, mKey.y, mKey.z);
+                } catch (RuntimeException ex) {
+                    mRequest.error = ex;
+                }
+                mFinished.add(mRequest);
+            }
+        }
+    }
+}
@@ -0,0 +1,128 @@
+/**
+ * generative gestaltung
+ *
+ */
+package de.hfkbremen.generativegestaltung.implicitsurface.marchingcubes;
+
+
+import java.util.Arrays;
+
+
+/**
+ * triangles of a single chunk as flat arrays, three positions ( x, y, z ) per triangle. immutable once built, so it
+ * can be handed from a worker thread to the animation thread and kept in a cache.
+ */
+public final class ChunkMesh {
+
+    /* rough size of the object headers of a mesh and its arrays */
+    private static final int mOverheadBytes = 64;
+
+    private final int mX;
+
+    private final int mY;
+
+    private final int mZ;
+
+    private final float[] mPositions;
+
+    private final float[] mNormals;
+
+    private final int mTriangleCount;
+
+    ChunkMesh(int x, int y, int z, float[] pPositions, float[] pNormals, int pTriangleCount) {
+        mX = x;
+        mY = y;
+        mZ = z;
+        mPositions = pPositions;
+        mNormals = pNormals;
+        mTriangleCount = pTriangleCount;
+    }
+
+    public int x() {
+        return mX;
+    }
+
+    public int y() {
+        return mY;
+    }
+
+    public int z() {
+        return mZ;
+    }
+
+    /**
+     * @return positions of the triangle vertices, 9 floats per triangle. must not be modified.
+     */
+    public float[] positions() {
+        return mPositions;
+    }
+
+    /**
+     * @return normals of the triangle vertices or null if the mesh has none. must not be modified.
+     */
+    public float[] normals() {
+        return mNormals;
+    }
+
+    public int triangleCount() {
+        return mTriangleCount;
+    }
+
+    public int vertexCount() {
+        return mTriangleCount * 3;
+    }
+
+    /**
+     * @return approximate memory held by the mesh
+     */
+    public long bytes() {
+        return mOverheadBytes + 4L * mPositions.length + (mNormals != null ? 4L * mNormals.length : 0);
+    }
+
+    /* collects triangles into growing arrays and trims them when done */
+    static class Builder
+            implements IsoSurfaceSink {
+
+        private final boolean mHasNormals;
+
+        private float[] mPositions = new float[9 * 64];
+
+        private float[] mNormals;
+
+        private int mCount;
+
+        Builder(boolean pNormals) {
+            mHasNormals = pNormals;
+            mNormals = pNormals ? new float[9 * 64] : null;
+        }
+
+        void clear() {
+            mCount = 0;
+        }
+
+        public boolean normals() {
+            return mHasNormals;
+        }
+
+        public void triangle(float[] pPositions, float[] pNormals) {
+            if ((mCount + 1) * 9 > mPositions.length) {
+                mPositions = Arrays.copyOf(mPositions, mPositions.length * 2);
+                if (mHasNormals) {
+                    mNormals = Arrays.copyOf(mNormals, mNormals.length * 2);
+                }
+            }
+            System.arraycopy(pPositions, 0, mPositions, mCount * 9, 9);
+            if (mHasNormals) {
+                System.arraycopy(pNormals, 0, mNormals, mCount * 9, 9);
+            }
+            mCount++;
+        }
+
+        ChunkMesh build(int x, int y, int z) {
+            return new ChunkMesh(x, y, z,
+                                 Arrays.copyOf(mPositions, mCount * 9),
+                                 mHasNormals ? Arrays.copyOf(mNormals, mCount * 9) : null,
+                                 mCount);
+        }
+    }
+}
@@ -0,0 +1,426 @@
+/**
+ * generative gestaltung
+ *
+ */
+package de.hfkbremen.generativegestaltung.implicitsurface.marchingcubes;
+
+
+/**
+ * meshes single cubic chunks of an unbounded <code>ScalarFunction</code> at a level of detail. at level 0 a chunk has
+ * <code>cells</code> cells per edge, every level halves that number. chunk ( x, y, z ) covers the box from
+ * <code>origin + ( x, y, z ) * chunkSize</code> to <code>origin + ( x + 1, y + 1, z + 1 ) * chunkSize</code>.
+ * <p>
+ * all chunks sample the function on one global lattice, so neighbouring chunks of the same level share their boundary
+ * values and their triangles meet exactly. where a neighbour is coarser the values on the shared face are replaced by
+ * the bilinear interpolation of the coarse lattice, which moves the crossings on the coarse edges to the same points
+ * the coarse chunk uses. edges take the values of the coarsest of the four chunks around them. the remaining gaps
+ * inside coarse face cells are covered by skirts, strips of triangles that hang from the boundary of the fine surface
+ * against its normal. this adapts the idea of transvoxel transition cells without its transition case tables.
+ * <p>
+ * a mesher keeps its scratch field, use one mesher per thread.
+ */
+public class ChunkMesher {
+
+    private final int mCells;
+
+    private final float mChunkSize;
+
+    private float mOriginX;
+
+    private float mOriginY;
+
+    private float mOriginZ;
+
+    private final ScalarField3D mField;
+
+    private float[] mX = new float[0];
+
+    private float[] mY = new float[0];
+
+    private float[] mZ = new float[0];
+
+    private float[] mLayer = new float[0];
+
+    private final ChunkSink mSink = new ChunkSink();
+
+    private final ChunkGradient mGradient = new ChunkGradient();
+
+    /**
+     * @param pCells cells per chunk edge at level 0, a power of two
+     * @param pChunkSize edge length of a chunk in world space
+     */
+    public ChunkMesher(int pCells, float pChunkSize) {
+        if (pCells < 1 || (pCells & (pCells - 1)) != 0) {
+            throw new IllegalArgumentException("cells per chunk must be a power of two");
+        }
+        mCells = pCells;
+        mChunkSize = pChunkSize;
+        mField = new ScalarField3D(2, 2, 2);
+    }
+
+    public void origin(float x, float y, float z) {
+        mOriginX = x;
+        mOriginY = y;
+        mOriginZ = z;
+    }
+
+    public float originX() {
+        return mOriginX;
+    }
+
+    public float originY() {
+        return mOriginY;
+    }
+
+    public float originZ() {
+        return mOriginZ;
+    }
+
+    public int cells() {
+        return mCells;
+    }
+
+    public float chunkSize() {
+        return mChunkSize;
+    }
+
+    /**
+     * @return coarsest level, a chunk has at least one cell per edge
+     */
+    public int maxLevel() {
+        return Integer.numberOfTrailingZeros(mCells);
+    }
+
+    /**
+     * meshes a chunk without coarser neighbours.
+     */
+    public void mesh(IsoSurfaceSink pSink,
+                     ScalarFunction pFunction,
+                     float pThreshold,
+                     ScalarGradient pGradient,
+                     int x, int y, int z,
+                     int pLevel) {
+        mesh(pSink, pFunction, pThreshold, pGradient, x, y, z, pLevel, null);
+    }
+
+    /**
+     * meshes a chunk into a sink, positions are in world space.
+     *
+     * @param pGradient analytic gradient of the function or null to use central differences of the samples
+     * @param pLevel level of detail of the chunk
+     * @param pNeighbourLevels levels of the 3 x 3 x 3 block of chunks around the chunk, chunk ( x + i, y + j, z + k )
+     * at <code>( i + 1 ) * 9 + ( j + 1 ) * 3 + k + 1</code>, or null. faces and edges shared with chunks of a higher
+     * level get transitions.
+     */
+    public void mesh(IsoSurfaceSink pSink,
+                     ScalarFunction pFunction,
+                     float pThreshold,
+                     ScalarGradient pGradient,
+                     int x, int y, int z,
+                     int pLevel,
+                     int[] pNeighbourLevels) {
+        if (pLevel < 0 || pLevel > maxLevel()) {
+            throw new IllegalArgumentException("level out of range: " + pLevel);
+        }
+        final int mStep = 1 << pLevel;
+        final int mSize = (mCells >> pLevel) + 1;
+        if (mField.sizeX() != mSize || mField.sizeY() != mSize || mField.sizeZ() != mSize) {
+            mField.resize(mSize, mSize, mSize);
+        }
+        /* the field works in lattice units of the chunk, the sink moves the triangles into world space */
+        mField.origin(0, 0, 0);
+        mField.spacing(mStep, mStep, mStep);
+        sample(pFunction, x, y, z, mStep, mSize);
+
+        mSink.begin(pSink, x, y, z);
+        if (pNeighbourLevels != null) {
+            for (int f = 0; f < 6; f++) {
+                final int mLevel = pNeighbourLevels[neighbour(f / 2, (f & 1) * 2 - 1, 0, 0)];
+                if (mLevel > pLevel) {
+                    transition(f, 1 << (mLevel - pLevel), mSize);
+                    mSink.skirt(f, 1 << mLevel);
+                }
+            }
+            /* the four chunks around an edge have to agree on its values, the coarsest of them wins */
+            for (int mAxis = 0; mAxis < 3; mAxis++) {
+                for (int b = -1; b <= 1; b += 2) {
+                    for (int c = -1; c <= 1; c += 2) {
+                        final int mLevel = Math.max(pNeighbourLevels[neighbour(mAxis, 0, b, 0)],
+                                                    Math.max(pNeighbourLevels[neighbour(mAxis, 0, 0, c)],
+                                                             pNeighbourLevels[neighbour(mAxis, 0, b, c)]));
+                        if (mLevel > pLevel) {
+                            transition(mAxis, b < 0 ? 0 : mSize - 1, c < 0 ? 0 : mSize - 1,
+                                       1 << (mLevel - pLevel), mSize);
+                        }
+                    }
+                }
+            }
+        }
+        ScalarGradient mChunkGradient = null;
+        if (pGradient != null) {
+            mGradient.begin(pGradient, x, y, z);
+            mChunkGradient = mGradient;
+        }
+        MarchingCubes.triangles(mSink, mField, pThreshold, mChunkGradient);
+        mSink.end();
+    }
+
+    /* samples the chunk on the global lattice, layer by layer like FieldSampler */
+    private void sample(ScalarFunction pFunction, int x, int y, int z, int pStep, int pSize) {
+        final int mLayerSize = pSize * pSize;
+        if (mLayer.length < mLayerSize) {
+            mX = new float[mLayerSize];
+            mY = new float[mLayerSize];
+            mZ = new float[mLayerSize];
+            mLayer = new float[mLayerSize];
+        }
+        final float mCellSize = mChunkSize / mCells;
+        int i = 0;
+        for (int j = 0; j < pSize; j++) {
+            final float py = mOriginY + (y * mCells + j * pStep) * mCellSize;
+            for (int k = 0; k < pSize; k++) {
+                mY[i] = py;
+                mZ[i] = mOriginZ + (z * mCells + k * pStep) * mCellSize;
+                i++;
+            }
+        }
+        for (int j = 0; j < pSize; j++) {
+            final float px = mOriginX + (x * mCells + j * pStep) * mCellSize;
+            for (int k = 0; k < mLayerSize; k++) {
+                mX[k] = px;
+            }
+            pFunction.values(mX, mY, mZ, mLayer, mLayerSize);
+            System.arraycopy(mLayer, 0, mField.values(), mField.index(j, 0, 0), mLayerSize);
+        }
+    }
+
+    /* replaces the values on a face by the bilinear interpolation of the lattice of a neighbour pRatio times coarser */
+    private void transition(int pFace, int pRatio, int pSize) {
+        final int mAxis = pFace / 2;
+        final int mSide = (pFace & 1) == 0 ? 0 : pSize - 1;
+        final int mLast = pSize - 1;
+        final float[] v = mField.values();
+        for (int u = 0; u < pSize; u++) {
+            final int u0 = u / pRatio * pRatio;
+            final int u1 = Math.min(u0 + pRatio, mLast);
+            final float fu = u1 == u0 ? 0 : (float) (u - u0) / (u1 - u0);
+            for (int w = 0; w < pSize; w++) {
+                if (u == u0 && w % pRatio == 0) {
+                    continue;
+                }
+                final int w0 = w / pRatio * pRatio;
+                final int w1 = Math.min(w0 + pRatio, mLast);
+                final float fw = w1 == w0 ? 0 : (float) (w - w0) / (w1 - w0);
+                final float a = v[faceIndex(mAxis, mSide, u0, w0)];
+                final float b = v[faceIndex(mAxis, mSide, u1, w0)];
+                final float c = v[faceIndex(mAxis, mSide, u0, w1)];
+                final float d = v[faceIndex(mAxis, mSide, u1, w1)];
+                final float ab = a + fu * (b - a);
+                final float cd = c + fu * (d - c);
+                v[faceIndex(mAxis, mSide, u, w)] = ab + fw * (cd - ab);
+            }
+        }
+    }
+
+    /* replaces the values on an edge along pAxis by the linear interpolation of a pRatio times coarser lattice */
+    private void transition(int pAxis, int pSideB, int pSideC, int pRatio, int pSize) {
+        final int mLast = pSize - 1;
+        final float[] v = mField.values();
+        for (int t = 0; t < pSize; t++) {
+            if (t % pRatio == 0) {
+                continue;
+            }
+            final int t0 = t / pRatio * pRatio;
+            final int t1 = Math.min(t0 + pRatio, mLast);
+            final float a = v[edgeIndex(pAxis, pSideB, pSideC, t0)];
+            final float b = v[edgeIndex(pAxis, pSideB, pSideC, t1)];
+            v[edgeIndex(pAxis, pSideB, pSideC, t)] = a + (float) (t - t0) / (t1 - t0) * (b - a);
+        }
+    }
+
+    /* index of a 3 x 3 x 3 neighbour given as offsets along pAxis and the two other axes in x, y, z order */
+    private static int neighbour(int pAxis, int a, int b, int c) {
+        switch (pAxis) {
+            case 0:
+                return (a + 1) * 9 + (b + 1) * 3 + c + 1;
+            case 1:
+                return (b + 1) * 9 + (a + 1) * 3 + c + 1;
+            default:
+                return (b + 1) * 9 + (c + 1) * 3 + a + 1;
+        }
+    }
+
+    private int edgeIndex(int pAxis, int pSideB, int pSideC, int t) {
+        switch (pAxis) {
+            case 0:
+                return mField.index(t, pSideB, pSideC);
+            case 1:
+                return mField.index(pSideB, t, pSideC);
+            default:
+                return mField.index(pSideB, pSideC, t);
+        }
+    }
+
+    private int faceIndex(int pAxis, int pSide, int u, int w) {
+        switch (pAxis) {
+            case 0:
+                return mField.index(pSide, u, w);
+            case 1:
+                return mField.index(u, pSide, w);
+            default:
+                return mField.index(u, w, pSide);
+        }
+    }
+
+    /* moves triangles from lattice units into world space and adds skirts along transition faces */
+    private class ChunkSink
+            implements IsoSurfaceSink {
+
+        private IsoSurfaceSink mTarget;
+
+        private float mOffsetX;
+
+        private float mOffsetY;
+
+        private float mOffsetZ;
+
+        /* skirt depth in lattice units per face, 0 for faces without transition */
+        private final float[] mSkirts = new float[6];
+
+        private boolean mHasSkirts;
+
+        private final float[] mPositions = new float[9];
+
+        private final float[] mSkirtPositions = new float[9];
+
+        private final float[] mSkirtNormals = new float[9];
+
+        private final float[] mLowered = new float[6];
+
+        void begin(IsoSurfaceSink pTarget, int x, int y, int z) {
+            mTarget = pTarget;
+            mOffsetX = x * mCells;
+            mOffsetY = y * mCells;
+            mOffsetZ = z * mCells;
+            for (int i = 0; i < 6; i++) {
+                mSkirts[i] = 0;
+            }
+            mHasSkirts = false;
+        }
+
+        void skirt(int pFace, float pDepth) {
+            mSkirts[pFace] = pDepth;
+            mHasSkirts = true;
+        }
+
+        void end() {
+            mTarget = null;
+        }
+
+        public boolean normals() {
+            return mTarget.normals();
+        }
+
+        public void triangle(float[] pPositions, float[] pNormals) {
+            emit(mPositions, pPositions, pNormals);
+            if (!mHasSkirts) {
+                return;
+            }
+            for (int e = 0; e < 3; e++) {
+                final int a = e * 3;
+                final int b = (e + 1) % 3 * 3;
+                for (int f = 0; f < 6; f++) {
+                    if (mSkirts[f] == 0) {
+                        continue;
+                    }
+                    final int mAxis = f / 2;
+                    final float mPlane = (f & 1) == 0 ? 0 : mCells;
+                    if (pPositions[a + mAxis] == mPlane && pPositions[b + mAxis] == mPlane) {
+                        skirt(pPositions, pNormals, a, b, mSkirts[f]);
+                        break;
+                    }
+                }
+            }
+        }
+
+        /* hangs a quad from the edge a, b against the triangle normal, facing away from the triangle */
+        private void skirt(float[] pPositions, float[] pNormals, int a, int b, float pDepth) {
+            final float ux = pPositions[3] - pPositions[0];
+            final float uy = pPositions[4] - pPositions[1];
+            final float uz = pPositions[5] - pPositions[2];
+            final float vx = pPositions[6] - pPositions[0];
+            final float vy = pPositions[7] - pPositions[1];
+            final float vz = pPositions[8] - pPositions[2];
+            float nx = uy * vz - uz * vy;
+            float ny = uz * vx - ux * vz;
+            float nz = ux * vy - uy * vx;
+            final float mLength = (float) Math.sqrt(nx * nx + ny * ny + nz * nz);
+            if (mLength == 0) {
+                return;
+            }
+            nx *= pDepth / mLength;
+            ny *= pDepth / mLength;
+            nz *= pDepth / mLength;
+            mLowered[0] = pPositions[a] - nx;
+            mLowered[1] = pPositions[a + 1] - ny;
+            mLowered[2] = pPositions[a + 2] - nz;
+            mLowered[3] = pPositions[b] - nx;
+            mLowered[4] = pPositions[b + 1] - ny;
+            mLowered[5] = pPositions[b + 2] - nz;
+
+            /* ( a, a', b' ) and ( a, b', b ) */
+            System.arraycopy(pPositions, a, mSkirtPositions, 0, 3);
+            System.arraycopy(mLowered, 0, mSkirtPositions, 3, 6);
+            if (pNormals != null) {
+                System.arraycopy(pNormals, a, mSkirtNormals, 0, 3);
+                System.arraycopy(pNormals, a, mSkirtNormals, 3, 3);
+                System.arraycopy(pNormals, b, mSkirtNormals, 6, 3);
+            }
+            emit(mPositions, mSkirtPositions, pNormals != null ? mSkirtNormals : null);
+            System.arraycopy(mLowered, 3, mSkirtPositions, 3, 3);
+            System.arraycopy(pPositions, b, mSkirtPositions, 6, 3);
+            if (pNormals != null) {
+                System.arraycopy(pNormals, b, mSkirtNormals, 3, 3);
+            }
+            emit(mPositions, mSkirtPositions, pNormals != null ? mSkirtNormals : null);
+        }
+
+        private void emit(float[] pWorld, float[] pLattice, float[] pNormals) {
+            final float mCellSize = mChunkSize / mCells;
+            for (int i = 0; i < 9; i += 3) {
+                pWorld[i] = mOriginX + (mOffsetX + pLattice[i]) * mCellSize;
+                pWorld[i + 1] = mOriginY + (mOffsetY + pLattice[i + 1]) * mCellSize;
+                pWorld[i + 2] = mOriginZ + (mOffsetZ + pLattice[i + 2]) * mCellSize;
+            }
+            mTarget.triangle(pWorld, pNormals);
+        }
+    }
+
+    /* evaluates a world space gradient at lattice positions */
+    private class ChunkGradient
+            implements ScalarGradient {
+
+        private ScalarGradient mGradient;
+
+        private float mOffsetX;
+
+        private float mOffsetY;
+
+        private float mOffsetZ;
+
+        void begin(ScalarGradient pGradient, int x, int y, int z) {
+            mGradient = pGradient;
+            mOffsetX = x * mCells;
+            mOffsetY = y * mCells;
+            mOffsetZ = z * mCells;
+        }
+
+        public void gradient(float x, float y, float z, float[] pGradient) {
+            final float mCellSize = mChunkSize / mCells;
+            mGradient.gradient(mOriginX + (mOffsetX + x) * mCellSize,
+                               mOriginY + (mOffsetY + y) * mCellSize,
+                               mOriginZ + (mOffsetZ + z) * mCellSize,
+                               pGradient);
+        }
+    }
+}
@@ -0,0 +1,155 @@
+/**
+ * generative gestaltung
+ *
+ */
+package de.hfkbremen.generativegestaltung.implicitsurface.marchingcubes;
+
+
+/**
+ * extracts the isosurface of a <code>ScalarFunction</code> in a box of chunks, every chunk at a level of detail chosen
+ * from its distance to a viewpoint. chunks closer than <code>distance()</code> are meshed at full resolution, every
+ * doubling of the distance halves the resolution. the number of triangles therefore grows with the logarithm of the
+ * scene size instead of its volume. faces and edges between chunks of different levels are stitched by
+ * <code>ChunkMesher</code>.
+ */
+public class ChunkedMarchingCubes {
+
+    private final ChunkMesher mMesher;
+
+    private final int mChunksX;
+
+    private final int mChunksY;
+
+    private final int mChunksZ;
+
+    private final int[] mLevels;
+
+    private final int[] mNeighbourLevels = new int[27];
+
+    private float mViewX;
+
+    private float mViewY;
+
+    private float mViewZ;
+
+    private float mDistance;
+
+    /**
+     * @param pChunksX number of chunks along x
+     * @param pChunksY number of chunks along y
+     * @param pChunksZ number of chunks along z
+     * @param pCells cells per chunk edge at full resolution, a power of two
+     * @param pChunkSize edge length of a chunk in world space
+     */
+    public ChunkedMarchingCubes(int pChunksX, int pChunksY, int pChunksZ, int pCells, float pChunkSize) {
+        mMesher = new ChunkMesher(pCells, pChunkSize);
+        mChunksX = pChunksX;
+        mChunksY = pChunksY;
+        mChunksZ = pChunksZ;
+        mLevels = new int[pChunksX * pChunksY * pChunksZ];
+        mDistance = pChunkSize;
+    }
+
+    /**
+     * position of the corner of chunk ( 0, 0, 0 ).
+     */
+    public void origin(float x, float y, float z) {
+        mMesher.origin(x, y, z);
+    }
+
+    public void viewpoint(float x, float y, float z) {
+        mViewX = x;
+        mViewY = y;
+        mViewZ = z;
+    }
+
+    /**
+     * distance to the viewpoint up to which chunks are meshed at full resolution.
+     */
+    public void distance(float pDistance) {
+        mDistance = pDistance;
+    }
+
+    public float distance() {
+        return mDistance;
+    }
+
+    /**
+     * @return level of detail of a chunk chosen by the last extraction, 0 is full resolution
+     */
+    public int level(int x, int y, int z) {
+        return mLevels[chunk(x, y, z)];
+    }
+
+    public void triangles(IsoSurfaceSink pSink, ScalarFunction pFunction, float pThreshold) {
+        triangles(pSink, pFunction, pThreshold, null);
+    }
+
+    /**
+     * chooses the level of every chunk and extracts all chunks into a sink.
+     *
+     * @param pGradient analytic gradient of the function or null to use central differences
+     */
+    public void triangles(IsoSurfaceSink pSink, ScalarFunction pFunction, float pThreshold, ScalarGradient pGradient) {
+        updateLevels();
+        for (int x = 0; x < mChunksX; x++) {
+            for (int y = 0; y < mChunksY; y++) {
+                for (int z = 0; z < mChunksZ; z++) {
+                    for (int i = -1; i <= 1; i++) {
+                        for (int j = -1; j <= 1; j++) {
+                            for (int k = -1; k <= 1; k++) {
+                                mNeighbourLevels[(i + 1) * 9 + (j + 1) * 3 + k + 1] = levelOrZero(x + i, y + j, z + k);
+                            }
+                        }
+                    }
+                    mMesher.mesh(pSink, pFunction, pThreshold, pGradient, x, y, z, level(x, y, z), mNeighbourLevels);
+                }
+            }
+        }
+    }
+
+    private void updateLevels() {
+        final float mSize = mMesher.chunkSize();
+        for (int x = 0; x < mChunksX; x++) {
+            for (int y = 0; y < mChunksY; y++) {
+                for (int z = 0; z < mChunksZ; z++) {
+                    /* distance to the closest point of the chunk */
+                    final float dx = distance(mViewX, mMesher.originX() + x * mSize, mSize);
+                    final float dy = distance(mViewY, mMesher.originY() + y * mSize, mSize);
+                    final float dz = distance(mViewZ, mMesher.originZ() + z * mSize, mSize);
+                    mLevels[chunk(x, y, z)] = level((float) Math.sqrt(dx * dx + dy * dy + dz * dz));
+                }
+            }
+        }
+    }
+
+    /* chunks outside the box have no surface, they never force a transition */
+    private int levelOrZero(int x, int y, int z) {
+        if (x < 0 || x >= mChunksX || y < 0 || y >= mChunksY || z < 0 || z >= mChunksZ) {
+            return 0;
+        }
+        return level(x, y, z);
+    }
+
+    private int level(float pDistance) {
+        if (pDistance < mDistance) {
+            return 0;
+        }
+        final int mLevel = 1 + (int) Math.floor(Math.log(pDistance / mDistance) / Math.log(2));
+        return Math.min(mLevel, mMesher.maxLevel());
+    }
+
+    private static float distance(float pView, float pMin, float pSize) {
+        if (pView < pMin) {
+            return pMin - pView;
+        }
+        if (pView > pMin + pSize) {
+            return pView - pMin - pSize;
+        }
+        return 0;
+    }
+
+    private int chunk(int x, int y, int z) {
+        return (x * mChunksY + y) * mChunksZ + z;
+    }
+}
@@ -0,0 +1,333 @@
+/**
+ * generative gestaltung
+ *
+ */
+package de.hfkbremen.generativegestaltung.implicitsurface.marchingcubes;
+
+
+import java.util.Arrays;
+import java.util.Vector;
+import processing.core.PVector;
+
+
+/**
+ * surface following variant of <code>MarchingCubes</code> for animated fields. instead of scanning every cell, the
+ * extraction starts from the cells the surface crossed in the previous frame and flood fills from cell to cell
+ * through the faces the surface passes. the cost grows with the area of the surface instead of the volume of the
+ * grid.
+ * <p>
+ * a surface that appears away from the previous one can not be found this way. seed points, e.g. the centers of
+ * metaballs, are followed along the x-axis to the first crossed cell to pick up new blobs. if a previously crossed
+ * cell and all of its neighbours are no longer crossed, the surface moved faster than a cell per frame and the grid is
+ * scanned completely. the same happens if the x-row of a seed is not crossed at all. the first extraction and every
+ * extraction after <code>reset()</code> is a full scan.
+ * <p>
+ * the triangles are the same as those of <code>MarchingCubes</code>, but in a different order.
+ */
+public class ContinuationMarchingCubes {
+
+    /* corners on the faces -x, +x, -y, +y, -z, +z of a cell in the order used by MarchingCubes.polygoniseCube */
+    private static final int[] mFaceMasks = {
+        (1 << 0) | (1 << 3) | (1 << 4) | (1 << 7),
+        (1 << 1) | (1 << 2) | (1 << 5) | (1 << 6),
+        (1 << 0) | (1 << 1) | (1 << 2) | (1 << 3),
+        (1 << 4) | (1 << 5) | (1 << 6) | (1 << 7),
+        (1 << 2) | (1 << 3) | (1 << 6) | (1 << 7),
+        (1 << 0) | (1 << 1) | (1 << 4) | (1 << 5)
+    };
+
+    private int mCellsX;
+
+    private int mCellsY;
+
+    private int mCellsZ;
+
+    /* mStamp if a cell was tested this frame and is empty, mStamp + 1 if it is crossed */
+    private int[] mStates = new int[0];
+
+    private int mStamp;
+
+    /* crossed cells of this frame, also used as flood fill queue */
+    private int[] mActive = new int[256];
+
+    private int mActiveCount;
+
+    private int[] mPrevious = new int[256];
+
+    private int mPreviousCount;
+
+    private boolean mInitialized;
+
+    private float[] mSeeds = new float[48];
+
+    private int mSeedCount;
+
+    private boolean mFullScan;
+
+    private int mTestedCells;
+
+    private ScalarField3D mField;
+
+    private float mThreshold;
+
+    private final float[] mValues = new float[8];
+
+    /**
+     * adds a point inside or near a blob of the surface that should be found even if the blob is new.
+     */
+    public void seed(float x, float y, float z) {
+        if (mSeedCount * 3 == mSeeds.length) {
+            mSeeds = Arrays.copyOf(mSeeds, mSeeds.length * 2);
+        }
+        mSeeds[mSeedCount * 3] = x;
+        mSeeds[mSeedCount * 3 + 1] = y;
+        mSeeds[mSeedCount * 3 + 2] = z;
+        mSeedCount++;
+    }
+
+    public void clearSeeds() {
+        mSeedCount = 0;
+    }
+
+    /**
+     * forgets the previous surface, the next extraction scans the whole grid.
+     */
+    public void reset() {
+        mInitialized = false;
+        mPreviousCount = 0;
+    }
+
+    public void triangles(Vector<PVector> pTriangles,
+                          Vector<PVector> pNormals,
+                          ScalarField3D pField,
+                          float pThreshold,
+                          ScalarGradient pGradient) {
+        triangles(new MarchingCubes.VectorSink(pTriangles, pNormals), pField, pThreshold, pGradient);
+    }
+
+    public void triangles(IsoSurfaceSink pSink, ScalarField3D pField, float pThreshold) {
+        triangles(pSink, pField, pThreshold, null);
+    }
+
+    /**
+     * extracts the surface starting from the cells crossed by the previous extraction and the seed points.
+     */
+    public void triangles(IsoSurfaceSink pSink, ScalarField3D pField, float pThreshold, ScalarGradient pGradient) {
+        prepare(pField, pThreshold);
+        mFullScan = !mInitialized || (mPreviousCount == 0 && mSeedCount == 0) || !follow();
+        if (mFullScan) {
+            scan();
+        }
+        final MarchingCubes.CellMarcher mMarcher = new MarchingCubes.CellMarcher(pSink, pField, pThreshold, pGradient);
+        for (int i = 0; i < mActiveCount; i++) {
+            final int c = mActive[i];
+            mMarcher.polygonise(c / (mCellsY * mCellsZ), (c / mCellsZ) % mCellsY, c % mCellsZ);
+        }
+
+        /* crossed cells of this frame are the starting points of the next */
+        final int[] mCells = mPrevious;
+        mPrevious = mActive;
+        mPreviousCount = mActiveCount;
+        mActive = mCells;
+        mInitialized = true;
+        mField = null;
+    }
+
+    /**
+     * @return true if the last extraction had to scan the whole grid
+     */
+    public boolean fullScan() {
+        return mFullScan;
+    }
+
+    /**
+     * @return number of cells crossed by the surface in the last extraction
+     */
+    public int activeCells() {
+        return mPreviousCount;
+    }
+
+    /**
+     * @return number of cells tested in the last extraction, the volume of the grid for a full scan
+     */
+    public int testedCells() {
+        return mTestedCells;
+    }
+
+    private void prepare(ScalarField3D pField, float pThreshold) {
+        mField = pField;
+        mThreshold = pThreshold;
+        final int mCells = (pField.sizeX() - 1) * (pField.sizeY() - 1) * (pField.sizeZ() - 1);
+        if (pField.sizeX() - 1 != mCellsX || pField.sizeY() - 1 != mCellsY || pField.sizeZ() - 1 != mCellsZ) {
+            mCellsX = pField.sizeX() - 1;
+            mCellsY = pField.sizeY() - 1;
+            mCellsZ = pField.sizeZ() - 1;
+            reset();
+        }
+        if (mStates.length < mCells) {
+            mStates = new int[mCells];
+            mStamp = 0;
+        }
+        mStamp += 2;
+        if (mStamp < 0) {
+            Arrays.fill(mStates, 0);
+            mStamp = 2;
+        }
+        mActiveCount = 0;
+        mTestedCells = 0;
+    }
+
+    /**
+     * collects the crossed cells reachable from the previous surface and the seeds.
+     *
+     * @return false if a part of the previous surface got lost or a seed did not lead to a crossed cell
+     */
+    private boolean follow() {
+        for (int i = 0; i < mSeedCount; i++) {
+            if (!walk(mSeeds[i * 3], mSeeds[i * 3 + 1], mSeeds[i * 3 + 2])) {
+                return false;
+            }
+        }
+
+        /*
+         * a lost cell is not searched along its x-row, the first crossed cell there may belong to another blob and the
+         * moved one would be dropped
+         */
+        for (int i = 0; i < mPreviousCount; i++) {
+            final int c = mPrevious[i];
+            if (!test(c) && !testNeighbours(c)) {
+                return false;
+            }
+        }
+
+        /* flood fill through the faces the surface crosses */
+        for (int i = 0; i < mActiveCount; i++) {
+            final int c = mActive[i];
+            final int x = c / (mCellsY * mCellsZ);
+            final int y = (c / mCellsZ) % mCellsY;
+            final int z = c % mCellsZ;
+            final int mCubeIndex = cubeIndex(x, y, z);
+            for (int f = 0; f < 6; f++) {
+                final int mCorners = mCubeIndex & mFaceMasks[f];
+                if (mCorners == 0 || mCorners == mFaceMasks[f]) {
+                    continue;
+                }
+                final int nx = x + (f == 0 ? -1 : f == 1 ? 1 : 0);
+                final int ny = y + (f == 2 ? -1 : f == 3 ? 1 : 0);
+                final int nz = z + (f == 4 ? -1 : f == 5 ? 1 : 0);
+                if (nx >= 0 && nx < mCellsX && ny >= 0 && ny < mCellsY && nz >= 0 && nz < mCellsZ) {
+                    test(cell(nx, ny, nz));
+                }
+            }
+        }
+        return true;
+    }
+
+    /* follows the x-axis in both directions from the cell of a point to the first crossed cell */
+    private boolean walk(float x, float y, float z) {
+        final int cx = clamp((int) Math.floor((x - mField.originX()) / mField.spacingX()), mCellsX);
+        final int cy = clamp((int) Math.floor((y - mField.originY()) / mField.spacingY()), mCellsY);
+        final int cz = clamp((int) Math.floor((z - mField.originZ()) / mField.spacingZ()), mCellsZ);
+        return walk(cell(cx, cy, cz));
+    }
+
+    private boolean walk(int c) {
+        final int x = c / (mCellsY * mCellsZ);
+        final int mStride = mCellsY * mCellsZ;
+        for (int i = x; i < mCellsX; i++) {
+            if (test(c + (i - x) * mStride)) {
+                return true;
+            }
+        }
+        for (int i = x - 1; i >= 0; i--) {
+            if (test(c + (i - x) * mStride)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /* true if any of the 26 neighbours of a cell is crossed */
+    private boolean testNeighbours(int c) {
+        final int x = c / (mCellsY * mCellsZ);
+        final int y = (c / mCellsZ) % mCellsY;
+        final int z = c % mCellsZ;
+        boolean mCrossed = false;
+        for (int nx = Math.max(0, x - 1); nx <= Math.min(mCellsX - 1, x + 1); nx++) {
+            for (int ny = Math.max(0, y - 1); ny <= Math.min(mCellsY - 1, y + 1); ny++) {
+                for (int nz = Math.max(0, z - 1); nz <= Math.min(mCellsZ - 1, z + 1); nz++) {
+                    mCrossed |= test(cell(nx, ny, nz));
+                }
+            }
+        }
+        return mCrossed;
+    }
+
+    /* tests a cell once per frame, crossed cells are added to the active cells */
+    private boolean test(int c) {
+        if (mStates[c] == mStamp) {
+            return false;
+        }
+        if (mStates[c] == mStamp + 1) {
+            return true;
+        }
+        mTestedCells++;
+        final int x = c / (mCellsY * mCellsZ);
+        final int y = (c / mCellsZ) % mCellsY;
+        final int z = c % mCellsZ;
+        final int mCubeIndex = cubeIndex(x, y, z);
+        if (mCubeIndex == 0 || mCubeIndex == 255) {
+            mStates[c] = mStamp;
+            return false;
+        }
+        mStates[c] = mStamp + 1;
+        addActive(c);
+        return true;
+    }
+
+    private void scan() {
+        mActiveCount = 0;
+        mTestedCells = mCellsX * mCellsY * mCellsZ;
+        for (int x = 0; x < mCellsX; x++) {
+            for (int y = 0; y < mCellsY; y++) {
+                for (int z = 0; z < mCellsZ; z++) {
+                    final int mCubeIndex = cubeIndex(x, y, z);
+                    if (mCubeIndex != 0 && mCubeIndex != 255) {
+                        addActive(cell(x, y, z));
+                    }
+                }
+            }
+        }
+    }
+
+    private void addActive(int c) {
+        if (mActiveCount == mActive.length) {
+            mActive = Arrays.copyOf(mActive, mActive.length * 2);
+        }
+        mActive[mActiveCount++] = c;
+    }
+
+    private int cubeIndex(int x, int y, int z) {
+        final float[] v = mField.values();
+        final int sx = mField.strideX();
+        final int sy = mField.strideY();
+        final int i = x * sx + y * sy + z;
+        mValues[0] = v[i + 1];
+        mValues[1] = v[i + sx + 1];
+        mValues[2] = v[i + sx];
+        mValues[3] = v[i];
+        mValues[4] = v[i + sy + 1];
+        mValues[5] = v[i + sx + sy + 1];
+        mValues[6] = v[i + sx + sy];
+        mValues[7] = v[i + sy];
+        return MarchingCubes.cubeIndex(mValues, mThreshold);
+    }
+
+    private int cell(int x, int y, int z) {
+        return (x * mCellsY + y) * mCellsZ + z;
+    }
+
+    private static int clamp(int pCell, int pCells) {
+        return Math.max(0, Math.min(pCells - 1, pCell));
+    }
+}
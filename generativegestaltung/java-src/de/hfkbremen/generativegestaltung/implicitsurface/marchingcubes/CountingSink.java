@@ -0,0 +1,35 @@
+/**
+ * generative gestaltung
+ *
+ */
+package de.hfkbremen.generativegestaltung.implicitsurface.marchingcubes;
+
+
+/**
+ * counts triangles without storing them, e.g. to size buffers or to measure the complexity of a surface.
+ */
+public class CountingSink
+        implements IsoSurfaceSink {
+
+    private int mTriangleCount;
+
+    public void clear() {
+        mTriangleCount = 0;
+    }
+
+    public boolean normals() {
+        return false;
+    }
+
+    public void triangle(float[] pPositions, float[] pNormals) {
+        mTriangleCount++;
+    }
+
+    public int triangleCount() {
+        return mTriangleCount;
+    }
+
+    public int vertexCount() {
+        return mTriangleCount * 3;
+    }
+}
@@ -0,0 +1,133 @@
+/**
+ * generative gestaltung
+ *
+ */
+package de.hfkbremen.generativegestaltung.implicitsurface.marchingcubes;
+
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.FloatBuffer;
+
+
+/**
+ * writes triangles straight into direct, native ordered float buffers ( x, y, z, x, y, z, ... ) that can be handed
+ * to OpenGL without going through <code>PVector</code> or <code>vertex()</code>.
+ * <p>
+ * the sink is double buffered. extraction between <code>begin()</code> and <code>end()</code> writes into the back
+ * buffers while the front buffers returned by <code>positionBuffer()</code> and <code>normalBuffer()</code> stay
+ * untouched until <code>end()</code> swaps them. buffers grow geometrically and are reused, so a surface of stable
+ * size does not allocate after the first few frames.
+ */
+public class DirectBufferSink
+        implements IsoSurfaceSink {
+
+    private static final int mFloatBytes = 4;
+
+    private final boolean mNormals;
+
+    private FloatBuffer mBackPositions;
+
+    private FloatBuffer mBackNormals;
+
+    private FloatBuffer mFrontPositions;
+
+    private FloatBuffer mFrontNormals;
+
+    private int mFrontVertexCount;
+
+    public DirectBufferSink(boolean pNormals) {
+        this(pNormals, 4096);
+    }
+
+    public DirectBufferSink(boolean pNormals, int pVertexCapacity) {
+        mNormals = pNormals;
+        final int mCapacity = Math.max(3, pVertexCapacity) * 3;
+        mBackPositions = allocate(mCapacity);
+        mFrontPositions = allocate(mCapacity);
+        mFrontPositions.limit(0);
+        if (mNormals) {
+            mBackNormals = allocate(mCapacity);
+            mFrontNormals = allocate(mCapacity);
+            mFrontNormals.limit(0);
+        }
+    }
+
+    /**
+     * starts writing a new surface into the back buffers.
+     */
+    public void begin() {
+        mBackPositions.clear();
+        if (mNormals) {
+            mBackNormals.clear();
+        }
+    }
+
+    /**
+     * finishes the surface and makes it the front buffer.
+     */
+    public void end() {
+        mFrontVertexCount = mBackPositions.position() / 3;
+        mBackPositions.flip();
+        final FloatBuffer mPositions = mFrontPositions;
+        mFrontPositions = mBackPositions;
+        mBackPositions = mPositions;
+        if (mNormals) {
+            mBackNormals.flip();
+            final FloatBuffer mNormalBuffer = mFrontNormals;
+            mFrontNormals = mBackNormals;
+            mBackNormals = mNormalBuffer;
+        }
+    }
+
+    public boolean normals() {
+        return mNormals;
+    }
+
+    public void triangle(float[] pPositions, float[] pNormals) {
+        if (mBackPositions.remaining() < 9) {
+            mBackPositions = grow(mBackPositions);
+            if (mNormals) {
+                mBackNormals = grow(mBackNormals);
+            }
+        }
+        mBackPositions.put(pPositions, 0, 9);
+        if (mNormals) {
+            mBackNormals.put(pNormals, 0, 9);
+        }
+    }
+
+    /**
+     * @return front position buffer, position 0 and limit <code>vertexCount() * 3</code>. the buffer is reused
+     * after the next <code>end()</code>.
+     */
+    public FloatBuffer positionBuffer() {
+        return mFrontPositions;
+    }
+
+    /**
+     * @return front normal buffer parallel to <code>positionBuffer()</code> or null if the sink has no normals.
+     */
+    public FloatBuffer normalBuffer() {
+        return mFrontNormals;
+    }
+
+    public int vertexCount() {
+        return mFrontVertexCount;
+    }
+
+    public int triangleCount() {
+        return mFrontVertexCount / 3;
+    }
+
+    private static FloatBuffer grow(FloatBuffer pBuffer) {
+        final FloatBuffer mBuffer = allocate(pBuffer.capacity() * 2);
+        pBuffer.flip();
+        mBuffer.put(pBuffer);
+        return mBuffer;
+    }
+
+    private static FloatBuffer allocate(int pFloats) {
+        return ByteBuffer.allocateDirect(pFloats * mFloatBytes).order(ByteOrder.nativeOrder()).asFloatBuffer();
+    }
+}
@@ -0,0 +1,70 @@
+/**
+ * generative gestaltung
+ *
+ */
+package de.hfkbremen.generativegestaltung.implicitsurface.marchingcubes;
+
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+
+/**
+ * fills a <code>ScalarField3D</code> by evaluating a <code>ScalarFunction</code> at its grid points. every x-layer of
+ * the field is evaluated with a single batch call, and the layers are split into slabs that are sampled in parallel
+ * on the common fork/join pool. the function is called from several threads at the same time and must not change
+ * while sampling.
+ */
+public class FieldSampler {
+
+    /* slabs per worker thread, see ParallelMarchingCubes */
+    private static final int mSlabsPerThread = 4;
+
+    public static void sample(final ScalarFunction pFunction, final ScalarField3D pField) {
+        final int mLayers = pField.sizeX();
+        final int mChunks = Math.max(1, Math.min(mLayers, ForkJoinPool.getCommonPoolParallelism() * mSlabsPerThread));
+        final RecursiveAction[] mTasks = new RecursiveAction[mChunks];
+        for (int i = 0; i < mChunks; i++) {
+            final int mFromX = (int) ((long) mLayers * i / mChunks);
+            final int mToX = (int) ((long) mLayers * (i + 1) / mChunks);
+            mTasks[i] = new RecursiveAction() {
+                protected void compute() {
+                    sample(pFunction, pField, mFromX, mToX);
+                }
+            };
+        }
+        ForkJoinPool.commonPool().invoke(new RecursiveAction() {
+            protected void compute() {
+                invokeAll(mTasks);
+            }
+        });
+    }
+
+    /**
+     * samples the layers [ pFromX, pToX ) on the calling thread.
+     */
+    public static void sample(ScalarFunction pFunction, ScalarField3D pField, int pFromX, int pToX) {
+        final int mLayerSize = pField.sizeY() * pField.sizeZ();
+        final float[] mX = new float[mLayerSize];
+        final float[] mY = new float[mLayerSize];
+        final float[] mZ = new float[mLayerSize];
+        final float[] mLayer = new float[mLayerSize];
+        int i = 0;
+        for (int y = 0; y < pField.sizeY(); y++) {
+            final float py = pField.positionY(y);
+            for (int z = 0; z < pField.sizeZ(); z++) {
+                mY[i] = py;
+                mZ[i] = pField.positionZ(z);
+                i++;
+            }
+        }
+        for (int x = pFromX; x < pToX; x++) {
+            final float px = pField.positionX(x);
+            for (int j = 0; j < mLayerSize; j++) {
+                mX[j] = px;
+            }
+            pFunction.values(mX, mY, mZ, mLayer, mLayerSize);
+            System.arraycopy(mLayer, 0, pField.values(), pField.index(x, 0, 0), mLayerSize);
+        }
+    }
+}
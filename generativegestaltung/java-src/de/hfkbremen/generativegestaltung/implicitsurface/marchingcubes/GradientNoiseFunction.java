@@ -0,0 +1,380 @@
+/**
+ * generative gestaltung
+ *
+ */
+package de.hfkbremen.generativegestaltung.implicitsurface.marchingcubes;
+
+
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+
+/**
+ * fractal 3D gradient noise ( perlin's improved noise ) in the range 0 - 1, a replacement for filling fields with
+ * processing's <code>noise()</code>. every octave multiplies the frequency by <code>lacunarity</code> and the
+ * amplitude by <code>gain</code>, by default four octaves with a falloff of 0.5 like <code>noise()</code>. with a
+ * single octave it is a smooth noise for e.g. endless fields meshed chunk by chunk.
+ * <p>
+ * permutation and gradient tables are generated once from a seed, so the same seed always gives the same field. the
+ * function only reads its tables while evaluating, so several threads can use it at the same time.
+ * <p>
+ * <code>fill</code> walks the field in rows along z, where x and y stay constant. the noise along such a row is a
+ * blend of two functions that are linear within a lattice cell, so hashing the corners and interpolating along x and
+ * y is done once per lattice plane instead of once per sample. lattice cell and fade along z do not depend on x and y
+ * and are computed once per octave for the whole field. what is left per sample and octave is a handful of multiply
+ * adds, also for the high octaves where every sample lies in a new lattice cell.
+ */
+public class GradientNoiseFunction
+        implements ScalarFunction {
+
+    private static final int mTableSize = 256;
+
+    private static final int mTableMask = mTableSize - 1;
+
+    /* slabs per worker thread, see ParallelMarchingCubes */
+    private static final int mSlabsPerThread = 4;
+
+    /* the 12 edge midpoints of a cube */
+    private static final float[] mGradients = {
+        1, 1, 0, -1, 1, 0, 1, -1, 0, -1, -1, 0,
+        1, 0, 1, -1, 0, 1, 1, 0, -1, -1, 0, -1,
+        0, 1, 1, 0, -1, 1, 0, 1, -1, 0, -1, -1
+    };
+
+    private final int[] mPermutation = new int[mTableSize * 2];
+
+    /* gradient of every permutation entry, looked up directly instead of through the gradient table */
+    private final float[] mGradientX = new float[mTableSize * 2];
+
+    private final float[] mGradientY = new float[mTableSize * 2];
+
+    private final float[] mGradientZ = new float[mTableSize * 2];
+
+    private float mFrequency = 1;
+
+    private float mOffsetX;
+
+    private float mOffsetY;
+
+    private float mOffsetZ;
+
+    private int mOctaves = 4;
+
+    private float mLacunarity = 2;
+
+    private float mGain = 0.5f;
+
+    public GradientNoiseFunction() {
+        this(0);
+    }
+
+    public GradientNoiseFunction(long pSeed) {
+        seed(pSeed);
+    }
+
+    public void seed(long pSeed) {
+        final Random mRandom = new Random(pSeed);
+        for (int i = 0; i < mTableSize; i++) {
+            mPermutation[i] = i;
+        }
+        for (int i = mTableSize - 1; i > 0; i--) {
+            final int j = mRandom.nextInt(i + 1);
+            final int t = mPermutation[i];
+            mPermutation[i] = mPermutation[j];
+            mPermutation[j] = t;
+        }
+        System.arraycopy(mPermutation, 0, mPermutation, mTableSize, mTableSize);
+        for (int i = 0; i < mPermutation.length; i++) {
+            final int g = (mPermutation[i] % 12) * 3;
+            mGradientX[i] = mGradients[g];
+            mGradientY[i] = mGradients[g + 1];
+            mGradientZ[i] = mGradients[g + 2];
+        }
+    }
+
+    /**
+     * @param pFrequency lattice cells per unit of the first octave
+     */
+    public void frequency(float pFrequency) {
+        mFrequency = pFrequency;
+    }
+
+    public float frequency() {
+        return mFrequency;
+    }
+
+    /**
+     * moves the noise through space, e.g. to animate it along one axis. applied after scaling by the frequency.
+     */
+    public void offset(float x, float y, float z) {
+        mOffsetX = x;
+        mOffsetY = y;
+        mOffsetZ = z;
+    }
+
+    public void octaves(int pOctaves) {
+        mOctaves = Math.max(1, pOctaves);
+    }
+
+    public int octaves() {
+        return mOctaves;
+    }
+
+    /**
+     * @param pLacunarity frequency factor from one octave to the next
+     */
+    public void lacunarity(float pLacunarity) {
+        mLacunarity = pLacunarity;
+    }
+
+    public float lacunarity() {
+        return mLacunarity;
+    }
+
+    /**
+     * @param pGain amplitude factor from one octave to the next, like the falloff of <code>noiseDetail()</code>
+     */
+    public void gain(float pGain) {
+        mGain = pGain;
+    }
+
+    public float gain() {
+        return mGain;
+    }
+
+    public float value(float x, float y, float z) {
+        float mFrequency = this.mFrequency;
+        float mAmplitude = 1;
+        float mSum = 0;
+        float mAmplitudes = 0;
+        for (int o = 0; o < mOctaves; o++) {
+            mSum += mAmplitude * noise(x * mFrequency + mOffsetX, y * mFrequency + mOffsetY, z * mFrequency + mOffsetZ);
+            mAmplitudes += mAmplitude;
+            mFrequency *= mLacunarity;
+            mAmplitude *= mGain;
+        }
+        return 0.5f + 0.5f * mSum / mAmplitudes;
+    }
+
+    public void values(float[] pX, float[] pY, float[] pZ, float[] pValues, int pCount) {
+        float mAmplitudes = 0;
+        float mAmplitude = 1;
+        for (int o = 0; o < mOctaves; o++) {
+            mAmplitudes += mAmplitude;
+            mAmplitude *= mGain;
+        }
+        final float mScale = 0.5f / mAmplitudes;
+        for (int i = 0; i < pCount; i++) {
+            float mFrequency = this.mFrequency;
+            float mSum = 0;
+            mAmplitude = 1;
+            for (int o = 0; o < mOctaves; o++) {
+                mSum += mAmplitude * noise(pX[i] * mFrequency + mOffsetX,
+                                           pY[i] * mFrequency + mOffsetY,
+                                           pZ[i] * mFrequency + mOffsetZ);
+                mFrequency *= mLacunarity;
+                mAmplitude *= mGain;
+            }
+            pValues[i] = 0.5f + mSum * mScale;
+        }
+    }
+
+    /**
+     * fills a field with noise at the world space positions of its grid points. slabs of x-layers are filled in
+     * parallel on the common fork/join pool.
+     */
+    public void fill(final ScalarField3D pField) {
+        final int mLayers = pField.sizeX();
+        final int mChunks = Math.max(1, Math.min(mLayers, ForkJoinPool.getCommonPoolParallelism() * mSlabsPerThread));
+        final RecursiveAction[] mTasks = new RecursiveAction[mChunks];
+        for (int i = 0; i < mChunks; i++) {
+            final int mFromX = (int) ((long) mLayers * i / mChunks);
+            final int mToX = (int) ((long) mLayers * (i + 1) / mChunks);
+            mTasks[i] = new RecursiveAction() {
+                protected void compute() {
+                    fill(pField, mFromX, mToX);
+                }
+            };
+        }
+        ForkJoinPool.commonPool().invoke(new RecursiveAction() {
+            protected void compute() {
+                invokeAll(mTasks);
+            }
+        });
+    }
+
+    /**
+     * fills the x-layers [ pFromX, pToX ) of a field on the calling thread.
+     */
+    public void fill(ScalarField3D pField, int pFromX, int pToX) {
+        final float[] mValues = pField.values();
+        final int mSizeZ = pField.sizeZ();
+        float mAmplitudes = 0;
+        float mAmplitude = 1;
+        for (int o = 0; o < mOctaves; o++) {
+            mAmplitudes += mAmplitude;
+            mAmplitude *= mGain;
+        }
+        final float mScale = 0.5f / mAmplitudes;
+
+        /* lattice cell, position within the cell and its fade along z are the same for every row of an octave */
+        final int[] mCells = new int[mOctaves * mSizeZ];
+        final float[] mFractions = new float[mOctaves * mSizeZ];
+        final float[] mFades = new float[mOctaves * mSizeZ];
+        float mFrequency = this.mFrequency;
+        for (int o = 0; o < mOctaves; o++) {
+            for (int z = 0; z < mSizeZ; z++) {
+                final float mZ = pField.positionZ(z) * mFrequency + mOffsetZ;
+                final int iz = fastFloor(mZ);
+                mCells[o * mSizeZ + z] = iz;
+                mFractions[o * mSizeZ + z] = mZ - iz;
+                mFades[o * mSizeZ + z] = fade(mZ - iz);
+            }
+            mFrequency *= mLacunarity;
+        }
+
+        for (int x = pFromX; x < pToX; x++) {
+            for (int y = 0; y < pField.sizeY(); y++) {
+                final int mRow = pField.index(x, y, 0);
+                mFrequency = this.mFrequency;
+                mAmplitude = mScale;
+                for (int o = 0; o < mOctaves; o++) {
+                    row(mValues, mRow, mSizeZ,
+                        pField.positionX(x) * mFrequency + mOffsetX,
+                        pField.positionY(y) * mFrequency + mOffsetY,
+                        mCells, mFractions, mFades, o * mSizeZ,
+                        mAmplitude, o == 0);
+                    mFrequency *= mLacunarity;
+                    mAmplitude *= mGain;
+                }
+            }
+        }
+    }
+
+    /*
+     * adds one octave of a row along z, already scaled to the output range. x and y are in lattice space, cells,
+     * fractions and fades along z start at pOffset.
+     */
+    private void row(float[] pValues,
+                     int pRow,
+                     int pSizeZ,
+                     float x,
+                     float y,
+                     int[] pCells,
+                     float[] pFractions,
+                     float[] pFades,
+                     int pOffset,
+                     float pAmplitude,
+                     boolean pFirst) {
+        final int ix = fastFloor(x);
+        final int iy = fastFloor(y);
+        final float fx = x - ix;
+        final float fy = y - iy;
+        final float u = fade(fx);
+        final float v = fade(fy);
+        final int[] p = mPermutation;
+        final int a = p[ix & mTableMask] + (iy & mTableMask);
+        final int b = p[(ix + 1) & mTableMask] + (iy & mTableMask);
+        final int aa = p[a];
+        final int ab = p[a + 1];
+        final int ba = p[b];
+        final int bb = p[b + 1];
+
+        /*
+         * on a lattice plane z = k the noise is c( k ) + d( k ) * ( z - k ), with c the corner gradients dotted with
+         * the x and y offsets and d the gradients along z, both interpolated along x and y. within a cell the noise is
+         * lerp( c( k ) + d( k ) * fz, c( k + 1 ) + d( k + 1 ) * ( fz - 1 ), fade( fz ) ). every plane is computed
+         * once and shared by the cells on both of its sides, as long as the row moves along z one cell at a time.
+         */
+        int mLower = Integer.MIN_VALUE;
+        float c0 = 0;
+        float d0 = 0;
+        float c1 = 0;
+        float d1 = 0;
+        for (int z = 0; z < pSizeZ; z++) {
+            final int iz = pCells[pOffset + z];
+            if (iz != mLower) {
+                if (iz == mLower + 1) {
+                    /* the next cell along z, its lower plane is the upper plane of the last one */
+                    c0 = c1 + d1;
+                    d0 = d1;
+                } else {
+                    final int k0 = iz & mTableMask;
+                    c0 = pAmplitude * bilerp(constant(aa + k0, fx, fy), constant(ba + k0, fx - 1, fy),
+                                             constant(ab + k0, fx, fy - 1), constant(bb + k0, fx - 1, fy - 1), u, v);
+                    d0 = pAmplitude * bilerp(mGradientZ[p[aa + k0]], mGradientZ[p[ba + k0]],
+                                             mGradientZ[p[ab + k0]], mGradientZ[p[bb + k0]], u, v);
+                }
+                final int k1 = (iz + 1) & mTableMask;
+                c1 = pAmplitude * bilerp(constant(aa + k1, fx, fy), constant(ba + k1, fx - 1, fy),
+                                         constant(ab + k1, fx, fy - 1), constant(bb + k1, fx - 1, fy - 1), u, v);
+                d1 = pAmplitude * bilerp(mGradientZ[p[aa + k1]], mGradientZ[p[ba + k1]],
+                                         mGradientZ[p[ab + k1]], mGradientZ[p[bb + k1]], u, v);
+                /* the value at fz = 1 of the upper plane, so that n1 below is c1 + d1 * ( fz - 1 ) */
+                c1 -= d1;
+                mLower = iz;
+            }
+            final float fz = pFractions[pOffset + z];
+            final float n0 = c0 + d0 * fz;
+            final float n1 = c1 + d1 * fz;
+            final float n = n0 + pFades[pOffset + z] * (n1 - n0);
+            if (pFirst) {
+                pValues[pRow + z] = 0.5f + n;
+            } else {
+                pValues[pRow + z] += n;
+            }
+        }
+    }
+
+    /* gradient of a hashed corner dotted with the x and y offsets */
+    private float constant(int pHash, float x, float y) {
+        final int h = mPermutation[pHash];
+        return mGradientX[h] * x + mGradientY[h] * y;
+    }
+
+    /* single octave gradient noise in the range -1 - 1 */
+    private float noise(float x, float y, float z) {
+        final int ix = fastFloor(x);
+        final int iy = fastFloor(y);
+        final int iz = fastFloor(z);
+        final float fx = x - ix;
+        final float fy = y - iy;
+        final float fz = z - iz;
+        final int[] p = mPermutation;
+        final int a = p[ix & mTableMask] + (iy & mTableMask);
+        final int b = p[(ix + 1) & mTableMask] + (iy & mTableMask);
+        final int aa = p[a] + (iz & mTableMask);
+        final int ab = p[a + 1] + (iz & mTableMask);
+        final int ba = p[b] + (iz & mTableMask);
+        final int bb = p[b + 1] + (iz & mTableMask);
+        final float u = fade(fx);
+        final float v = fade(fy);
+        final float w = fade(fz);
+        final float n0 = bilerp(dot(aa, fx, fy, fz), dot(ba, fx - 1, fy, fz),
+                                dot(ab, fx, fy - 1, fz), dot(bb, fx - 1, fy - 1, fz), u, v);
+        final float n1 = bilerp(dot(aa + 1, fx, fy, fz - 1), dot(ba + 1, fx - 1, fy, fz - 1),
+                                dot(ab + 1, fx, fy - 1, fz - 1), dot(bb + 1, fx - 1, fy - 1, fz - 1), u, v);
+        return n0 + w * (n1 - n0);
+    }
+
+    private float dot(int pHash, float x, float y, float z) {
+        final int h = mPermutation[pHash];
+        return mGradientX[h] * x + mGradientY[h] * y + mGradientZ[h] * z;
+    }
+
+    private static float bilerp(float a, float b, float c, float d, float u, float v) {
+        final float ab = a + u * (b - a);
+        final float cd = c + u * (d - c);
+        return ab + v * (cd - ab);
+    }
+
+    private static float fade(float t) {
+        return t * t * t * (t * (t * 6 - 15) + 10);
+    }
+
+    private static int fastFloor(float x) {
+        final int i = (int) x;
+        return x < i ? i - 1 : i;
+    }
+}
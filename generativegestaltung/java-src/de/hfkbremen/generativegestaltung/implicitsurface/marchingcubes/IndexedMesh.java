@@ -0,0 +1,122 @@
+/**
+ * generative gestaltung
+ *
+ */
+package de.hfkbremen.generativegestaltung.implicitsurface.marchingcubes;
+
+
+import java.util.Arrays;
+
+
+/**
+ * compact triangle mesh made of a shared vertex array ( x, y, z, x, y, z, ... ) and an index array with three
+ * indices per triangle. both arrays grow on demand and are kept across <code>clear()</code> so a mesh can be
+ * reused from frame to frame without allocating. optionally a normal array parallel to the vertex array is kept.
+ */
+public class IndexedMesh {
+
+    private float[] mVertices;
+
+    private int[] mIndices;
+
+    private float[] mNormals;
+
+    private int mVertexCount;
+
+    private int mIndexCount;
+
+    public IndexedMesh() {
+        this(1024, 1024);
+    }
+
+    public IndexedMesh(int pVertexCapacity, int pTriangleCapacity) {
+        mVertices = new float[Math.max(1, pVertexCapacity) * 3];
+        mIndices = new int[Math.max(1, pTriangleCapacity) * 3];
+    }
+
+    public void clear() {
+        mVertexCount = 0;
+        mIndexCount = 0;
+    }
+
+    /**
+     * enables or disables the normal array. extractors write a normal for every vertex if it is enabled.
+     */
+    public void normals(boolean pNormals) {
+        if (pNormals && mNormals == null) {
+            mNormals = new float[mVertices.length];
+        } else if (!pNormals) {
+            mNormals = null;
+        }
+    }
+
+    public boolean hasNormals() {
+        return mNormals != null;
+    }
+
+    public int addVertex(float x, float y, float z) {
+        final int i = mVertexCount * 3;
+        if (i + 3 > mVertices.length) {
+            mVertices = Arrays.copyOf(mVertices, Math.max(i + 3, mVertices.length * 2));
+            if (mNormals != null) {
+                mNormals = Arrays.copyOf(mNormals, mVertices.length);
+            }
+        }
+        mVertices[i] = x;
+        mVertices[i + 1] = y;
+        mVertices[i + 2] = z;
+        return mVertexCount++;
+    }
+
+    public int addVertex(float x, float y, float z, float nx, float ny, float nz) {
+        final int mIndex = addVertex(x, y, z);
+        if (mNormals != null) {
+            mNormals[mIndex * 3] = nx;
+            mNormals[mIndex * 3 + 1] = ny;
+            mNormals[mIndex * 3 + 2] = nz;
+        }
+        return mIndex;
+    }
+
+    public void addTriangle(int a, int b, int c) {
+        if (mIndexCount + 3 > mIndices.length) {
+            mIndices = Arrays.copyOf(mIndices, Math.max(mIndexCount + 3, mIndices.length * 2));
+        }
+        mIndices[mIndexCount++] = a;
+        mIndices[mIndexCount++] = b;
+        mIndices[mIndexCount++] = c;
+    }
+
+    /**
+     * @return backing vertex array. only the first <code>vertexCount() * 3</code> entries are valid.
+     */
+    public float[] vertices() {
+        return mVertices;
+    }
+
+    /**
+     * @return backing index array. only the first <code>indexCount()</code> entries are valid.
+     */
+    public int[] indices() {
+        return mIndices;
+    }
+
+    /**
+     * @return backing normal array parallel to <code>vertices()</code> or null if normals are disabled.
+     */
+    public float[] normals() {
+        return mNormals;
+    }
+
+    public int vertexCount() {
+        return mVertexCount;
+    }
+
+    public int indexCount() {
+        return mIndexCount;
+    }
+
+    public int triangleCount() {
+        return mIndexCount / 3;
+    }
+}
@@ -0,0 +1,199 @@
+/**
+ * generative gestaltung
+ *
+ */
+package de.hfkbremen.generativegestaltung.implicitsurface.marchingcubes;
+
+
+import java.util.Vector;
+import processing.core.PVector;
+
+
+/**
+ * keeps a field and its isosurface between frames and recomputes only the stage whose inputs changed. the field is
+ * regenerated when its parameter key changes, the mesh is re-extracted when the field was regenerated or the iso level
+ * changed. a sketch with sliders for field parameters and threshold then only pays for re-extraction while the
+ * threshold slider moves, and for nothing while no slider moves.
+ * <p>
+ * the cache can not see changes it is not told about. if the generator depends on something that is not part of the
+ * key, or the field is modified from outside, call <code>invalidateField()</code>.
+ */
+public class IsoSurfaceCache {
+
+    /**
+     * fills a field, called by the cache whenever the field needs to be regenerated.
+     */
+    public interface FieldGenerator {
+
+        void generate(ScalarField3D pField);
+    }
+
+    private final ScalarField3D mField;
+
+    private boolean mFieldValid;
+
+    private long mFieldKey;
+
+    /* incremented whenever the field is regenerated */
+    private int mFieldVersion;
+
+    private final Vector<PVector> mTriangles = new Vector<PVector>();
+
+    private final Vector<PVector> mNormals = new Vector<PVector>();
+
+    private boolean mComputeNormals;
+
+    private boolean mMeshValid;
+
+    private int mMeshFieldVersion;
+
+    private float mMeshThreshold;
+
+    private ScalarGradient mGradient;
+
+    private IsoSurfaceExtractor mExtractor;
+
+    private final IndexedMesh mMesh = new IndexedMesh();
+
+    private int mFieldUpdates;
+
+    private int mMeshUpdates;
+
+    public IsoSurfaceCache(int pSizeX, int pSizeY, int pSizeZ) {
+        mField = new ScalarField3D(pSizeX, pSizeY, pSizeZ);
+    }
+
+    /**
+     * makes sure the field matches a parameter key, calling the generator only if the key changed since the last
+     * generation or the field was invalidated.
+     *
+     * @param pParameters key of everything the generator depends on, e.g. a hash of scale and seed
+     * @return true if the field was regenerated
+     */
+    public boolean field(long pParameters, FieldGenerator pGenerator) {
+        if (mFieldValid && mFieldKey == pParameters) {
+            return false;
+        }
+        pGenerator.generate(mField);
+        mFieldKey = pParameters;
+        mFieldValid = true;
+        mFieldVersion++;
+        mFieldUpdates++;
+        return true;
+    }
+
+    /**
+     * @return the cached field. origin and spacing may be set on it, they are used for the triangles. changing its
+     * values requires <code>invalidateMesh()</code>.
+     */
+    public ScalarField3D field() {
+        return mField;
+    }
+
+    /**
+     * @return triangles of the isosurface of the current field, re-extracted only if field or threshold changed. the
+     * list and its points are reused and must not be modified.
+     */
+    public Vector<PVector> triangles(float pThreshold) {
+        if (!mMeshValid || mMeshFieldVersion != mFieldVersion || mMeshThreshold != pThreshold) {
+            mTriangles.clear();
+            mNormals.clear();
+            if (mExtractor == null) {
+                MarchingCubes.triangles(mTriangles, mComputeNormals ? mNormals : null, mField, pThreshold, mGradient);
+            } else {
+                extract(pThreshold);
+            }
+            mMeshValid = true;
+            mMeshFieldVersion = mFieldVersion;
+            mMeshThreshold = pThreshold;
+            mMeshUpdates++;
+        }
+        return mTriangles;
+    }
+
+    /**
+     * @return normals of the last extraction, empty unless normals are enabled
+     */
+    public Vector<PVector> normals() {
+        return mNormals;
+    }
+
+    /**
+     * enables normals, the next call to <code>triangles</code> re-extracts if they were off.
+     */
+    public void normals(boolean pNormals) {
+        if (pNormals != mComputeNormals) {
+            mComputeNormals = pNormals;
+            mMeshValid = false;
+        }
+    }
+
+    /**
+     * analytic gradient for the normals or null for central differences of the field.
+     */
+    public void gradient(ScalarGradient pGradient) {
+        if (pGradient != mGradient) {
+            mGradient = pGradient;
+            mMeshValid = false;
+        }
+    }
+
+    /**
+     * algorithm for the mesh or null for <code>MarchingCubes.triangles</code>. the indexed mesh of the extractor is
+     * expanded into the triangle list, so the list has the same layout for every algorithm.
+     */
+    public void extractor(IsoSurfaceExtractor pExtractor) {
+        if (pExtractor != mExtractor) {
+            mExtractor = pExtractor;
+            mMeshValid = false;
+        }
+    }
+
+    public IsoSurfaceExtractor extractor() {
+        return mExtractor;
+    }
+
+    /**
+     * regenerates the field on the next call to <code>field</code>, and with it the mesh.
+     */
+    public void invalidateField() {
+        mFieldValid = false;
+    }
+
+    /**
+     * re-extracts the mesh on the next call to <code>triangles</code>, the field is kept.
+     */
+    public void invalidateMesh() {
+        mMeshValid = false;
+    }
+
+    private void extract(float pThreshold) {
+        mMesh.clear();
+        mMesh.normals(mComputeNormals);
+        mExtractor.extract(mMesh, mField, pThreshold, mGradient);
+        final float[] mVertices = mMesh.vertices();
+        final float[] mMeshNormals = mMesh.normals();
+        final int[] mIndices = mMesh.indices();
+        for (int i = 0; i < mMesh.indexCount(); i++) {
+            final int j = mIndices[i] * 3;
+            mTriangles.add(new PVector(mVertices[j], mVertices[j + 1], mVertices[j + 2]));
+            if (mComputeNormals) {
+                mNormals.add(new PVector(mMeshNormals[j], mMeshNormals[j + 1], mMeshNormals[j + 2]));
+            }
+        }
+    }
+
+    /**
+     * @return number of times the field was generated
+     */
+    public int fieldUpdates() {
+        return mFieldUpdates;
+    }
+
+    /**
+     * @return number of times the mesh was extracted
+     */
+    public int meshUpdates() {
+        return mMeshUpdates;
+    }
+}
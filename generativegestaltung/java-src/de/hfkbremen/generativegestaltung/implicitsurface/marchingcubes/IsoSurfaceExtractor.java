@@ -0,0 +1,23 @@
+/**
+ * generative gestaltung
+ *
+ */
+package de.hfkbremen.generativegestaltung.implicitsurface.marchingcubes;
+
+
+/**
+ * algorithm that turns the isosurface of a sampled field into an indexed mesh. the implementations differ in
+ * triangle quality, vertex count and speed, see <code>MarchingCubesExtractor</code>, <code>SurfaceNets</code> and
+ * <code>MarchingTetrahedra</code>. all of them place vertices in the world space of the field, wind triangles the
+ * same way and write normals pointing towards decreasing field values if the mesh has normals enabled.
+ */
+public interface IsoSurfaceExtractor {
+
+    /**
+     * @param pMesh mesh to append vertices and triangles to
+     * @param pField scalar field
+     * @param pThreshold iso level
+     * @param pGradient analytic gradient of the field or null to interpolate central differences of the field
+     */
+    void extract(IndexedMesh pMesh, ScalarField3D pField, float pThreshold, ScalarGradient pGradient);
+}
@@ -0,0 +1,24 @@
+/**
+ * generative gestaltung
+ *
+ */
+package de.hfkbremen.generativegestaltung.implicitsurface.marchingcubes;
+
+
+/**
+ * receives the triangles of an isosurface one by one while it is extracted. the arrays passed to
+ * <code>triangle</code> are reused by the extractor, implementations must copy what they want to keep.
+ */
+public interface IsoSurfaceSink {
+
+    /**
+     * @return true if the extractor should compute vertex normals for this sink
+     */
+    boolean normals();
+
+    /**
+     * @param pPositions x, y, z of the three vertices
+     * @param pNormals x, y, z of the three vertex normals or null if <code>normals()</code> is false
+     */
+    void triangle(float[] pPositions, float[] pNormals);
+}
@@ -0,0 +1,105 @@
+/**
+ * generative gestaltung
+ *
+ */
+package de.hfkbremen.generativegestaltung.implicitsurface.marchingcubes;
+
+
+import java.util.Arrays;
+
+
+/**
+ * open addressing hash map from non-negative long keys to int values. used to share vertices and samples between
+ * cells that are not visited in grid order.
+ */
+class LongIntMap {
+
+    private static final long mEmpty = -1;
+
+    private long[] mKeys;
+
+    private int[] mValues;
+
+    private int mSize;
+
+    LongIntMap() {
+        this(1024);
+    }
+
+    LongIntMap(int pCapacity) {
+        final int mCapacity = Integer.highestOneBit(Math.max(16, pCapacity) - 1) << 1;
+        mKeys = new long[mCapacity];
+        mValues = new int[mCapacity];
+        Arrays.fill(mKeys, mEmpty);
+    }
+
+    /**
+     * @return slot of the key or -1 if the key is not in the map
+     */
+    int find(long pKey) {
+        final int mMask = mKeys.length - 1;
+        int i = hash(pKey) & mMask;
+        while (mKeys[i] != mEmpty) {
+            if (mKeys[i] == pKey) {
+                return i;
+            }
+            i = (i + 1) & mMask;
+        }
+        return -1;
+    }
+
+    int valueAt(int pSlot) {
+        return mValues[pSlot];
+    }
+
+    void put(long pKey, int pValue) {
+        if ((mSize + 1) * 2 > mKeys.length) {
+            grow();
+        }
+        final int mMask = mKeys.length - 1;
+        int i = hash(pKey) & mMask;
+        while (mKeys[i] != mEmpty) {
+            if (mKeys[i] == pKey) {
+                mValues[i] = pValue;
+                return;
+            }
+            i = (i + 1) & mMask;
+        }
+        mKeys[i] = pKey;
+        mValues[i] = pValue;
+        mSize++;
+    }
+
+    void clear() {
+        if (mSize > 0) {
+            Arrays.fill(mKeys, mEmpty);
+            mSize = 0;
+        }
+    }
+
+    int size() {
+        return mSize;
+    }
+
+    private void grow() {
+        final long[] mOldKeys = mKeys;
+        final int[] mOldValues = mValues;
+        mKeys = new long[mOldKeys.length * 2];
+        mValues = new int[mOldValues.length * 2];
+        Arrays.fill(mKeys, mEmpty);
+        mSize = 0;
+        for (int i = 0; i < mOldKeys.length; i++) {
+            if (mOldKeys[i] != mEmpty) {
+                put(mOldKeys[i], mOldValues[i]);
+            }
+        }
+    }
+
+    private static int hash(long pKey) {
+        long h = pKey;
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        return (int) h;
+    }
+}
@@ -0,0 +1,208 @@
+/**
+ * generative gestaltung
+ *
+ */
+package de.hfkbremen.generativegestaltung.implicitsurface.marchingcubes;
+
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+
+
+/**
+ * isosurface extraction from raw 8 or 16 bit voxel files that are too large for the heap. the file is memory mapped
+ * in windows of whole slices and streamed through <code>MarchingCubes</code> one slab of two slices at a time,
+ * triangles go straight to a sink. heap usage only depends on the size of a slice, not on the number of slices.
+ * <p>
+ * voxels are expected without padding, x varying fastest, then y, then z ( one slice per z ). values are unsigned
+ * unless <code>signed</code> is set, positions are <code>( x, y, z ) * spacing</code>. normals, if the sink wants
+ * them, use one-sided differences between the two resident slices.
+ */
+public class MappedVolume {
+
+    /* upper limit for a single mapping, MappedByteBuffer is indexed with int */
+    private static final long mMaxWindowBytes = 1L << 28;
+
+    private final File mFile;
+
+    private final int mSizeX;
+
+    private final int mSizeY;
+
+    private final int mSizeZ;
+
+    private final int mBytesPerVoxel;
+
+    private ByteOrder mByteOrder = ByteOrder.LITTLE_ENDIAN;
+
+    private boolean mSigned;
+
+    private long mHeaderBytes;
+
+    private float mSpacingX = 1;
+
+    private float mSpacingY = 1;
+
+    private float mSpacingZ = 1;
+
+    /**
+     * @param pBytesPerVoxel 1 or 2
+     */
+    public MappedVolume(File pFile, int pSizeX, int pSizeY, int pSizeZ, int pBytesPerVoxel) {
+        if (pBytesPerVoxel != 1 && pBytesPerVoxel != 2) {
+            throw new IllegalArgumentException("only 8 and 16 bit voxels are supported");
+        }
+        if (pSizeX < 2 || pSizeY < 2 || pSizeZ < 2) {
+            throw new IllegalArgumentException("volume needs at least 2 voxels per axis");
+        }
+        mFile = pFile;
+        mSizeX = pSizeX;
+        mSizeY = pSizeY;
+        mSizeZ = pSizeZ;
+        mBytesPerVoxel = pBytesPerVoxel;
+    }
+
+    /**
+     * byte order of 16 bit voxels, little endian by default.
+     */
+    public void byteOrder(ByteOrder pByteOrder) {
+        mByteOrder = pByteOrder;
+    }
+
+    public void signed(boolean pSigned) {
+        mSigned = pSigned;
+    }
+
+    /**
+     * number of bytes to skip at the beginning of the file.
+     */
+    public void header(long pHeaderBytes) {
+        mHeaderBytes = pHeaderBytes;
+    }
+
+    public void spacing(float x, float y, float z) {
+        mSpacingX = x;
+        mSpacingY = y;
+        mSpacingZ = z;
+    }
+
+    public int sizeX() {
+        return mSizeX;
+    }
+
+    public int sizeY() {
+        return mSizeY;
+    }
+
+    public int sizeZ() {
+        return mSizeZ;
+    }
+
+    /**
+     * streams the whole volume through the extractor.
+     */
+    public void triangles(IsoSurfaceSink pSink, float pThreshold) throws IOException {
+        final long mSliceBytes = (long) mSizeX * mSizeY * mBytesPerVoxel;
+        if (mSliceBytes > mMaxWindowBytes) {
+            throw new IllegalArgumentException("slices larger than " + mMaxWindowBytes + " bytes are not supported");
+        }
+        final long mRequired = mHeaderBytes + mSliceBytes * mSizeZ;
+        final int mSlicesPerWindow = (int) Math.max(1, Math.min(mSizeZ, mMaxWindowBytes / mSliceBytes));
+
+        /*
+         * the two resident slices are stored as a field of two x-layers so that a file row ( x fastest ) is a
+         * contiguous z-row of the field. field x, y, z are file z, y, x, the sink swaps them back.
+         */
+        final ScalarField3D mSlab = new ScalarField3D(2, mSizeY, mSizeX);
+        mSlab.spacing(mSpacingZ, mSpacingY, mSpacingX);
+        final SwappedSink mSwappedSink = new SwappedSink(pSink);
+        final float[] mValues = mSlab.values();
+        final int mSliceSize = mSizeX * mSizeY;
+
+        final RandomAccessFile mRandomAccessFile = new RandomAccessFile(mFile, "r");
+        try {
+            final FileChannel mChannel = mRandomAccessFile.getChannel();
+            if (mChannel.size() < mRequired) {
+                throw new IOException("file is smaller than " + mRequired + " bytes");
+            }
+            MappedByteBuffer mWindow = null;
+            int mWindowStart = 0;
+            for (int z = 0; z < mSizeZ; z++) {
+                if (mWindow == null || z >= mWindowStart + mSlicesPerWindow) {
+                    mWindowStart = z;
+                    final int mSlices = Math.min(mSlicesPerWindow, mSizeZ - z);
+                    mWindow = mChannel.map(FileChannel.MapMode.READ_ONLY,
+                                           mHeaderBytes + mSliceBytes * z,
+                                           mSliceBytes * mSlices);
+                    mWindow.order(mByteOrder);
+                }
+                read(mWindow, (int) (mSliceBytes * (z - mWindowStart)), mValues, z > 0 ? mSliceSize : 0);
+                if (z == 0) {
+                    continue;
+                }
+                mSlab.origin((z - 1) * mSpacingZ, 0, 0);
+                MarchingCubes.triangles(mSwappedSink, mSlab, pThreshold, null, 0, 1, 0, mSizeY - 1, 0, mSizeX - 1);
+                /* the upper slice of this slab is the lower slice of the next one */
+                System.arraycopy(mValues, mSliceSize, mValues, 0, mSliceSize);
+            }
+        } finally {
+            mRandomAccessFile.close();
+        }
+    }
+
+    /* converts one slice starting at a byte offset in the window into floats */
+    private void read(MappedByteBuffer pWindow, int pOffset, float[] pValues, int pStart) {
+        final int mCount = mSizeX * mSizeY;
+        if (mBytesPerVoxel == 1) {
+            for (int i = 0; i < mCount; i++) {
+                final byte b = pWindow.get(pOffset + i);
+                pValues[pStart + i] = mSigned ? b : b & 0xFF;
+            }
+        } else {
+            for (int i = 0; i < mCount; i++) {
+                final short s = pWindow.getShort(pOffset + i * 2);
+                pValues[pStart + i] = mSigned ? s : s & 0xFFFF;
+            }
+        }
+    }
+
+    /* swaps x and z of positions and normals back into file space. the swap mirrors, so winding is flipped too */
+    private static class SwappedSink
+            implements IsoSurfaceSink {
+
+        private final IsoSurfaceSink mSink;
+
+        private final float[] mPositions = new float[9];
+
+        private final float[] mNormals = new float[9];
+
+        SwappedSink(IsoSurfaceSink pSink) {
+            mSink = pSink;
+        }
+
+        public boolean normals() {
+            return mSink.normals();
+        }
+
+        public void triangle(float[] pPositions, float[] pNormals) {
+            swap(pPositions, mPositions);
+            if (pNormals != null) {
+                swap(pNormals, mNormals);
+            }
+            mSink.triangle(mPositions, pNormals != null ? mNormals : null);
+        }
+
+        private static void swap(float[] pIn, float[] pOut) {
+            for (int i = 0; i < 3; i++) {
+                final int j = i == 0 ? 0 : 3 - i;
+                pOut[j * 3] = pIn[i * 3 + 2];
+                pOut[j * 3 + 1] = pIn[i * 3 + 1];
+                pOut[j * 3 + 2] = pIn[i * 3];
+            }
+        }
+    }
+}
@@ -1,451 +1,927 @@
-/**
- * generative gestaltung
- *
- */
-/*
- Given a grid cell and an isolevel, calculate the triangular
- facets required to represent the isosurface through the cell.
- Return the number of triangular facets, the array "triangles"
- will be loaded up with the vertices at most 5 triangular facets.
- 0 will be returned if the grid cell is either totally above
- of totally below the isolevel.
-
- class contains methods for taking 8 points and turning it into a corresponding set of triangles
- taken heavily from http://astronomy.swin.edu.au/~pbourke/modelling/polygonise/
- */
-package de.hfkbremen.generativegestaltung.implicitsurface.marchingcubes;
-
-
-import java.util.Vector;
-import processing.core.PVector;
-
-
-public class MarchingCubes {
-
-    private static final int[] mEdgeTable = {0x0, 0x109, 0x203, 0x30a, 0x406, 0x50f, 0x605, 0x70c, 0x80c,
-                                             0x905, 0xa0f, 0xb06, 0xc0a, 0xd03, 0xe09, 0xf00, 0x190, 0x99, 0x393, 0x29a, 0x596,
-                                             0x49f, 0x795, 0x69c, 0x99c, 0x895, 0xb9f, 0xa96, 0xd9a, 0xc93, 0xf99, 0xe90, 0x230,
-                                             0x339, 0x33, 0x13a, 0x636, 0x73f, 0x435, 0x53c, 0xa3c, 0xb35, 0x83f, 0x936, 0xe3a,
-                                             0xf33, 0xc39, 0xd30, 0x3a0, 0x2a9, 0x1a3, 0xaa, 0x7a6, 0x6af, 0x5a5, 0x4ac, 0xbac,
-                                             0xaa5, 0x9af, 0x8a6, 0xfaa, 0xea3, 0xda9, 0xca0, 0x460, 0x569, 0x663, 0x76a, 0x66,
-                                             0x16f, 0x265, 0x36c, 0xc6c, 0xd65, 0xe6f, 0xf66, 0x86a, 0x963, 0xa69, 0xb60, 0x5f0,
-                                             0x4f9, 0x7f3, 0x6fa, 0x1f6, 0xff, 0x3f5, 0x2fc, 0xdfc, 0xcf5, 0xfff, 0xef6, 0x9fa,
-                                             0x8f3, 0xbf9, 0xaf0, 0x650, 0x759, 0x453, 0x55a, 0x256, 0x35f, 0x55, 0x15c, 0xe5c,
-                                             0xf55, 0xc5f, 0xd56, 0xa5a, 0xb53, 0x859, 0x950, 0x7c0, 0x6c9, 0x5c3, 0x4ca, 0x3c6,
-                                             0x2cf, 0x1c5, 0xcc, 0xfcc, 0xec5, 0xdcf, 0xcc6, 0xbca, 0xac3, 0x9c9, 0x8c0, 0x8c0,
-                                             0x9c9, 0xac3, 0xbca, 0xcc6, 0xdcf, 0xec5, 0xfcc, 0xcc, 0x1c5, 0x2cf, 0x3c6, 0x4ca,
-                                             0x5c3, 0x6c9, 0x7c0, 0x950, 0x859, 0xb53, 0xa5a, 0xd56, 0xc5f, 0xf55, 0xe5c, 0x15c,
-                                             0x55, 0x35f, 0x256, 0x55a, 0x453, 0x759, 0x650, 0xaf0, 0xbf9, 0x8f3, 0x9fa, 0xef6,
-                                             0xfff, 0xcf5, 0xdfc, 0x2fc, 0x3f5, 0xff, 0x1f6, 0x6fa, 0x7f3, 0x4f9, 0x5f0, 0xb60,
-                                             0xa69, 0x963, 0x86a, 0xf66, 0xe6f, 0xd65, 0xc6c, 0x36c, 0x265, 0x16f, 0x66, 0x76a,
-                                             0x663, 0x569, 0x460, 0xca0, 0xda9, 0xea3, 0xfaa, 0x8a6, 0x9af, 0xaa5, 0xbac, 0x4ac,
-                                             0x5a5, 0x6af, 0x7a6, 0xaa, 0x1a3, 0x2a9, 0x3a0, 0xd30, 0xc39, 0xf33, 0xe3a, 0x936,
-                                             0x83f, 0xb35, 0xa3c, 0x53c, 0x435, 0x73f, 0x636, 0x13a, 0x33, 0x339, 0x230, 0xe90,
-                                             0xf99, 0xc93, 0xd9a, 0xa96, 0xb9f, 0x895, 0x99c, 0x69c, 0x795, 0x49f, 0x596, 0x29a,
-                                             0x393, 0x99, 0x190, 0xf00, 0xe09, 0xd03, 0xc0a, 0xb06, 0xa0f, 0x905, 0x80c, 0x70c,
-                                             0x605, 0x50f, 0x406, 0x30a, 0x203, 0x109, 0x0};
-
-    private static final int mTriTable[][] = {
-        {-1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1},
-        {0, 8, 3, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1},
-        {0, 1, 9, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1},
-        {1, 8, 3, 9, 8, 1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1},
-        {1, 2, 10, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1},
-        {0, 8, 3, 1, 2, 10, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1},
-        {9, 2, 10, 0, 2, 9, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1},
-        {2, 8, 3, 2, 10, 8, 10, 9, 8, -1, -1, -1, -1, -1, -1, -1},
-        {3, 11, 2, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1},
-        {0, 11, 2, 8, 11, 0, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1},
-        {1, 9, 0, 2, 3, 11, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1},
-        {1, 11, 2, 1, 9, 11, 9, 8, 11, -1, -1, -1, -1, -1, -1, -1},
-        {3, 10, 1, 11, 10, 3, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1},
-        {0, 10, 1, 0, 8, 10, 8, 11, 10, -1, -1, -1, -1, -1, -1, -1},
-        {3, 9, 0, 3, 11, 9, 11, 10, 9, -1, -1, -1, -1, -1, -1, -1},
-        {9, 8, 10, 10, 8, 11, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1},
-        {4, 7, 8, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1},
-        {4, 3, 0, 7, 3, 4, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1},
-        {0, 1, 9, 8, 4, 7, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1},
-        {4, 1, 9, 4, 7, 1, 7, 3, 1, -1, -1, -1, -1, -1, -1, -1},
-        {1, 2, 10, 8, 4, 7, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1},
-        {3, 4, 7, 3, 0, 4, 1, 2, 10, -1, -1, -1, -1, -1, -1, -1},
-        {9, 2, 10, 9, 0, 2, 8, 4, 7, -1, -1, -1, -1, -1, -1, -1},
-        {2, 10, 9, 2, 9, 7, 2, 7, 3, 7, 9, 4, -1, -1, -1, -1},
-        {8, 4, 7, 3, 11, 2, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1},
-        {11, 4, 7, 11, 2, 4, 2, 0, 4, -1, -1, -1, -1, -1, -1, -1},
-        {9, 0, 1, 8, 4, 7, 2, 3, 11, -1, -1, -1, -1, -1, -1, -1},
-        {4, 7, 11, 9, 4, 11, 9, 11, 2, 9, 2, 1, -1, -1, -1, -1},
-        {3, 10, 1, 3, 11, 10, 7, 8, 4, -1, -1, -1, -1, -1, -1, -1},
-        {1, 11, 10, 1, 4, 11, 1, 0, 4, 7, 11, 4, -1, -1, -1, -1},
-        {4, 7, 8, 9, 0, 11, 9, 11, 10, 11, 0, 3, -1, -1, -1, -1},
-        {4, 7, 11, 4, 11, 9, 9, 11, 10, -1, -1, -1, -1, -1, -1, -1},
-        {9, 5, 4, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1},
-        {9, 5, 4, 0, 8, 3, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1},
-        {0, 5, 4, 1, 5, 0, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1},
-        {8, 5, 4, 8, 3, 5, 3, 1, 5, -1, -1, -1, -1, -1, -1, -1},
-        {1, 2, 10, 9, 5, 4, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1},
-        {3, 0, 8, 1, 2, 10, 4, 9, 5, -1, -1, -1, -1, -1, -1, -1},
-        {5, 2, 10, 5, 4, 2, 4, 0, 2, -1, -1, -1, -1, -1, -1, -1},
-        {2, 10, 5, 3, 2, 5, 3, 5, 4, 3, 4, 8, -1, -1, -1, -1},
-        {9, 5, 4, 2, 3, 11, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1},
-        {0, 11, 2, 0, 8, 11, 4, 9, 5, -1, -1, -1, -1, -1, -1, -1},
-        {0, 5, 4, 0, 1, 5, 2, 3, 11, -1, -1, -1, -1, -1, -1, -1},
-        {2, 1, 5, 2, 5, 8, 2, 8, 11, 4, 8, 5, -1, -1, -1, -1},
-        {10, 3, 11, 10, 1, 3, 9, 5, 4, -1, -1, -1, -1, -1, -1, -1},
-        {4, 9, 5, 0, 8, 1, 8, 10, 1, 8, 11, 10, -1, -1, -1, -1},
-        {5, 4, 0, 5, 0, 11, 5, 11, 10, 11, 0, 3, -1, -1, -1, -1},
-        {5, 4, 8, 5, 8, 10, 10, 8, 11, -1, -1, -1, -1, -1, -1, -1},
-        {9, 7, 8, 5, 7, 9, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1},
-        {9, 3, 0, 9, 5, 3, 5, 7, 3, -1, -1, -1, -1, -1, -1, -1},
-        {0, 7, 8, 0, 1, 7, 1, 5, 7, -1, -1, -1, -1, -1, -1, -1},
-        {1, 5, 3, 3, 5, 7, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1},
-        {9, 7, 8, 9, 5, 7, 10, 1, 2, -1, -1, -1, -1, -1, -1, -1},
-        {10, 1, 2, 9, 5, 0, 5, 3, 0, 5, 7, 3, -1, -1, -1, -1},
-        {8, 0, 2, 8, 2, 5, 8, 5, 7, 10, 5, 2, -1, -1, -1, -1},
-        {2, 10, 5, 2, 5, 3, 3, 5, 7, -1, -1, -1, -1, -1, -1, -1},
-        {7, 9, 5, 7, 8, 9, 3, 11, 2, -1, -1, -1, -1, -1, -1, -1},
-        {9, 5, 7, 9, 7, 2, 9, 2, 0, 2, 7, 11, -1, -1, -1, -1},
-        {2, 3, 11, 0, 1, 8, 1, 7, 8, 1, 5, 7, -1, -1, -1, -1},
-        {11, 2, 1, 11, 1, 7, 7, 1, 5, -1, -1, -1, -1, -1, -1, -1},
-        {9, 5, 8, 8, 5, 7, 10, 1, 3, 10, 3, 11, -1, -1, -1, -1},
-        {5, 7, 0, 5, 0, 9, 7, 11, 0, 1, 0, 10, 11, 10, 0, -1},
-        {11, 10, 0, 11, 0, 3, 10, 5, 0, 8, 0, 7, 5, 7, 0, -1},
-        {11, 10, 5, 7, 11, 5, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1},
-        {10, 6, 5, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1},
-        {0, 8, 3, 5, 10, 6, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1},
-        {9, 0, 1, 5, 10, 6, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1},
-        {1, 8, 3, 1, 9, 8, 5, 10, 6, -1, -1, -1, -1, -1, -1, -1},
-        {1, 6, 5, 2, 6, 1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1},
-        {1, 6, 5, 1, 2, 6, 3, 0, 8, -1, -1, -1, -1, -1, -1, -1},
-        {9, 6, 5, 9, 0, 6, 0, 2, 6, -1, -1, -1, -1, -1, -1, -1},
-        {5, 9, 8, 5, 8, 2, 5, 2, 6, 3, 2, 8, -1, -1, -1, -1},
-        {2, 3, 11, 10, 6, 5, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1},
-        {11, 0, 8, 11, 2, 0, 10, 6, 5, -1, -1, -1, -1, -1, -1, -1},
-        {0, 1, 9, 2, 3, 11, 5, 10, 6, -1, -1, -1, -1, -1, -1, -1},
-        {5, 10, 6, 1, 9, 2, 9, 11, 2, 9, 8, 11, -1, -1, -1, -1},
-        {6, 3, 11, 6, 5, 3, 5, 1, 3, -1, -1, -1, -1, -1, -1, -1},
-        {0, 8, 11, 0, 11, 5, 0, 5, 1, 5, 11, 6, -1, -1, -1, -1},
-        {3, 11, 6, 0, 3, 6, 0, 6, 5, 0, 5, 9, -1, -1, -1, -1},
-        {6, 5, 9, 6, 9, 11, 11, 9, 8, -1, -1, -1, -1, -1, -1, -1},
-        {5, 10, 6, 4, 7, 8, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1},
-        {4, 3, 0, 4, 7, 3, 6, 5, 10, -1, -1, -1, -1, -1, -1, -1},
-        {1, 9, 0, 5, 10, 6, 8, 4, 7, -1, -1, -1, -1, -1, -1, -1},
-        {10, 6, 5, 1, 9, 7, 1, 7, 3, 7, 9, 4, -1, -1, -1, -1},
-        {6, 1, 2, 6, 5, 1, 4, 7, 8, -1, -1, -1, -1, -1, -1, -1},
-        {1, 2, 5, 5, 2, 6, 3, 0, 4, 3, 4, 7, -1, -1, -1, -1},
-        {8, 4, 7, 9, 0, 5, 0, 6, 5, 0, 2, 6, -1, -1, -1, -1},
-        {7, 3, 9, 7, 9, 4, 3, 2, 9, 5, 9, 6, 2, 6, 9, -1},
-        {3, 11, 2, 7, 8, 4, 10, 6, 5, -1, -1, -1, -1, -1, -1, -1},
-        {5, 10, 6, 4, 7, 2, 4, 2, 0, 2, 7, 11, -1, -1, -1, -1},
-        {0, 1, 9, 4, 7, 8, 2, 3, 11, 5, 10, 6, -1, -1, -1, -1},
-        {9, 2, 1, 9, 11, 2, 9, 4, 11, 7, 11, 4, 5, 10, 6, -1},
-        {8, 4, 7, 3, 11, 5, 3, 5, 1, 5, 11, 6, -1, -1, -1, -1},
-        {5, 1, 11, 5, 11, 6, 1, 0, 11, 7, 11, 4, 0, 4, 11, -1},
-        {0, 5, 9, 0, 6, 5, 0, 3, 6, 11, 6, 3, 8, 4, 7, -1},
-        {6, 5, 9, 6, 9, 11, 4, 7, 9, 7, 11, 9, -1, -1, -1, -1},
-        {10, 4, 9, 6, 4, 10, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1},
-        {4, 10, 6, 4, 9, 10, 0, 8, 3, -1, -1, -1, -1, -1, -1, -1},
-        {10, 0, 1, 10, 6, 0, 6, 4, 0, -1, -1, -1, -1, -1, -1, -1},
-        {8, 3, 1, 8, 1, 6, 8, 6, 4, 6, 1, 10, -1, -1, -1, -1},
-        {1, 4, 9, 1, 2, 4, 2, 6, 4, -1, -1, -1, -1, -1, -1, -1},
-        {3, 0, 8, 1, 2, 9, 2, 4, 9, 2, 6, 4, -1, -1, -1, -1},
-        {0, 2, 4, 4, 2, 6, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1},
-        {8, 3, 2, 8, 2, 4, 4, 2, 6, -1, -1, -1, -1, -1, -1, -1},
-        {10, 4, 9, 10, 6, 4, 11, 2, 3, -1, -1, -1, -1, -1, -1, -1},
-        {0, 8, 2, 2, 8, 11, 4, 9, 10, 4, 10, 6, -1, -1, -1, -1},
-        {3, 11, 2, 0, 1, 6, 0, 6, 4, 6, 1, 10, -1, -1, -1, -1},
-        {6, 4, 1, 6, 1, 10, 4, 8, 1, 2, 1, 11, 8, 11, 1, -1},
-        {9, 6, 4, 9, 3, 6, 9, 1, 3, 11, 6, 3, -1, -1, -1, -1},
-        {8, 11, 1, 8, 1, 0, 11, 6, 1, 9, 1, 4, 6, 4, 1, -1},
-        {3, 11, 6, 3, 6, 0, 0, 6, 4, -1, -1, -1, -1, -1, -1, -1},
-        {6, 4, 8, 11, 6, 8, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1},
-        {7, 10, 6, 7, 8, 10, 8, 9, 10, -1, -1, -1, -1, -1, -1, -1},
-        {0, 7, 3, 0, 10, 7, 0, 9, 10, 6, 7, 10, -1, -1, -1, -1},
-        {10, 6, 7, 1, 10, 7, 1, 7, 8, 1, 8, 0, -1, -1, -1, -1},
-        {10, 6, 7, 10, 7, 1, 1, 7, 3, -1, -1, -1, -1, -1, -1, -1},
-        {1, 2, 6, 1, 6, 8, 1, 8, 9, 8, 6, 7, -1, -1, -1, -1},
-        {2, 6, 9, 2, 9, 1, 6, 7, 9, 0, 9, 3, 7, 3, 9, -1},
-        {7, 8, 0, 7, 0, 6, 6, 0, 2, -1, -1, -1, -1, -1, -1, -1},
-        {7, 3, 2, 6, 7, 2, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1},
-        {2, 3, 11, 10, 6, 8, 10, 8, 9, 8, 6, 7, -1, -1, -1, -1},
-        {2, 0, 7, 2, 7, 11, 0, 9, 7, 6, 7, 10, 9, 10, 7, -1},
-        {1, 8, 0, 1, 7, 8, 1, 10, 7, 6, 7, 10, 2, 3, 11, -1},
-        {11, 2, 1, 11, 1, 7, 10, 6, 1, 6, 7, 1, -1, -1, -1, -1},
-        {8, 9, 6, 8, 6, 7, 9, 1, 6, 11, 6, 3, 1, 3, 6, -1},
-        {0, 9, 1, 11, 6, 7, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1},
-        {7, 8, 0, 7, 0, 6, 3, 11, 0, 11, 6, 0, -1, -1, -1, -1},
-        {7, 11, 6, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1},
-        {7, 6, 11, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1},
-        {3, 0, 8, 11, 7, 6, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1},
-        {0, 1, 9, 11, 7, 6, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1},
-        {8, 1, 9, 8, 3, 1, 11, 7, 6, -1, -1, -1, -1, -1, -1, -1},
-        {10, 1, 2, 6, 11, 7, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1},
-        {1, 2, 10, 3, 0, 8, 6, 11, 7, -1, -1, -1, -1, -1, -1, -1},
-        {2, 9, 0, 2, 10, 9, 6, 11, 7, -1, -1, -1, -1, -1, -1, -1},
-        {6, 11, 7, 2, 10, 3, 10, 8, 3, 10, 9, 8, -1, -1, -1, -1},
-        {7, 2, 3, 6, 2, 7, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1},
-        {7, 0, 8, 7, 6, 0, 6, 2, 0, -1, -1, -1, -1, -1, -1, -1},
-        {2, 7, 6, 2, 3, 7, 0, 1, 9, -1, -1, -1, -1, -1, -1, -1},
-        {1, 6, 2, 1, 8, 6, 1, 9, 8, 8, 7, 6, -1, -1, -1, -1},
-        {10, 7, 6, 10, 1, 7, 1, 3, 7, -1, -1, -1, -1, -1, -1, -1},
-        {10, 7, 6, 1, 7, 10, 1, 8, 7, 1, 0, 8, -1, -1, -1, -1},
-        {0, 3, 7, 0, 7, 10, 0, 10, 9, 6, 10, 7, -1, -1, -1, -1},
-        {7, 6, 10, 7, 10, 8, 8, 10, 9, -1, -1, -1, -1, -1, -1, -1},
-        {6, 8, 4, 11, 8, 6, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1},
-        {3, 6, 11, 3, 0, 6, 0, 4, 6, -1, -1, -1, -1, -1, -1, -1},
-        {8, 6, 11, 8, 4, 6, 9, 0, 1, -1, -1, -1, -1, -1, -1, -1},
-        {9, 4, 6, 9, 6, 3, 9, 3, 1, 11, 3, 6, -1, -1, -1, -1},
-        {6, 8, 4, 6, 11, 8, 2, 10, 1, -1, -1, -1, -1, -1, -1, -1},
-        {1, 2, 10, 3, 0, 11, 0, 6, 11, 0, 4, 6, -1, -1, -1, -1},
-        {4, 11, 8, 4, 6, 11, 0, 2, 9, 2, 10, 9, -1, -1, -1, -1},
-        {10, 9, 3, 10, 3, 2, 9, 4, 3, 11, 3, 6, 4, 6, 3, -1},
-        {8, 2, 3, 8, 4, 2, 4, 6, 2, -1, -1, -1, -1, -1, -1, -1},
-        {0, 4, 2, 4, 6, 2, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1},
-        {1, 9, 0, 2, 3, 4, 2, 4, 6, 4, 3, 8, -1, -1, -1, -1},
-        {1, 9, 4, 1, 4, 2, 2, 4, 6, -1, -1, -1, -1, -1, -1, -1},
-        {8, 1, 3, 8, 6, 1, 8, 4, 6, 6, 10, 1, -1, -1, -1, -1},
-        {10, 1, 0, 10, 0, 6, 6, 0, 4, -1, -1, -1, -1, -1, -1, -1},
-        {4, 6, 3, 4, 3, 8, 6, 10, 3, 0, 3, 9, 10, 9, 3, -1},
-        {10, 9, 4, 6, 10, 4, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1},
-        {4, 9, 5, 7, 6, 11, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1},
-        {0, 8, 3, 4, 9, 5, 11, 7, 6, -1, -1, -1, -1, -1, -1, -1},
-        {5, 0, 1, 5, 4, 0, 7, 6, 11, -1, -1, -1, -1, -1, -1, -1},
-        {11, 7, 6, 8, 3, 4, 3, 5, 4, 3, 1, 5, -1, -1, -1, -1},
-        {9, 5, 4, 10, 1, 2, 7, 6, 11, -1, -1, -1, -1, -1, -1, -1},
-        {6, 11, 7, 1, 2, 10, 0, 8, 3, 4, 9, 5, -1, -1, -1, -1},
-        {7, 6, 11, 5, 4, 10, 4, 2, 10, 4, 0, 2, -1, -1, -1, -1},
-        {3, 4, 8, 3, 5, 4, 3, 2, 5, 10, 5, 2, 11, 7, 6, -1},
-        {7, 2, 3, 7, 6, 2, 5, 4, 9, -1, -1, -1, -1, -1, -1, -1},
-        {9, 5, 4, 0, 8, 6, 0, 6, 2, 6, 8, 7, -1, -1, -1, -1},
-        {3, 6, 2, 3, 7, 6, 1, 5, 0, 5, 4, 0, -1, -1, -1, -1},
-        {6, 2, 8, 6, 8, 7, 2, 1, 8, 4, 8, 5, 1, 5, 8, -1},
-        {9, 5, 4, 10, 1, 6, 1, 7, 6, 1, 3, 7, -1, -1, -1, -1},
-        {1, 6, 10, 1, 7, 6, 1, 0, 7, 8, 7, 0, 9, 5, 4, -1},
-        {4, 0, 10, 4, 10, 5, 0, 3, 10, 6, 10, 7, 3, 7, 10, -1},
-        {7, 6, 10, 7, 10, 8, 5, 4, 10, 4, 8, 10, -1, -1, -1, -1},
-        {6, 9, 5, 6, 11, 9, 11, 8, 9, -1, -1, -1, -1, -1, -1, -1},
-        {3, 6, 11, 0, 6, 3, 0, 5, 6, 0, 9, 5, -1, -1, -1, -1},
-        {0, 11, 8, 0, 5, 11, 0, 1, 5, 5, 6, 11, -1, -1, -1, -1},
-        {6, 11, 3, 6, 3, 5, 5, 3, 1, -1, -1, -1, -1, -1, -1, -1},
-        {1, 2, 10, 9, 5, 11, 9, 11, 8, 11, 5, 6, -1, -1, -1, -1},
-        {0, 11, 3, 0, 6, 11, 0, 9, 6, 5, 6, 9, 1, 2, 10, -1},
-        {11, 8, 5, 11, 5, 6, 8, 0, 5, 10, 5, 2, 0, 2, 5, -1},
-        {6, 11, 3, 6, 3, 5, 2, 10, 3, 10, 5, 3, -1, -1, -1, -1},
-        {5, 8, 9, 5, 2, 8, 5, 6, 2, 3, 8, 2, -1, -1, -1, -1},
-        {9, 5, 6, 9, 6, 0, 0, 6, 2, -1, -1, -1, -1, -1, -1, -1},
-        {1, 5, 8, 1, 8, 0, 5, 6, 8, 3, 8, 2, 6, 2, 8, -1},
-        {1, 5, 6, 2, 1, 6, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1},
-        {1, 3, 6, 1, 6, 10, 3, 8, 6, 5, 6, 9, 8, 9, 6, -1},
-        {10, 1, 0, 10, 0, 6, 9, 5, 0, 5, 6, 0, -1, -1, -1, -1},
-        {0, 3, 8, 5, 6, 10, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1},
-        {10, 5, 6, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1},
-        {11, 5, 10, 7, 5, 11, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1},
-        {11, 5, 10, 11, 7, 5, 8, 3, 0, -1, -1, -1, -1, -1, -1, -1},
-        {5, 11, 7, 5, 10, 11, 1, 9, 0, -1, -1, -1, -1, -1, -1, -1},
-        {10, 7, 5, 10, 11, 7, 9, 8, 1, 8, 3, 1, -1, -1, -1, -1},
-        {11, 1, 2, 11, 7, 1, 7, 5, 1, -1, -1, -1, -1, -1, -1, -1},
-        {0, 8, 3, 1, 2, 7, 1, 7, 5, 7, 2, 11, -1, -1, -1, -1},
-        {9, 7, 5, 9, 2, 7, 9, 0, 2, 2, 11, 7, -1, -1, -1, -1},
-        {7, 5, 2, 7, 2, 11, 5, 9, 2, 3, 2, 8, 9, 8, 2, -1},
-        {2, 5, 10, 2, 3, 5, 3, 7, 5, -1, -1, -1, -1, -1, -1, -1},
-        {8, 2, 0, 8, 5, 2, 8, 7, 5, 10, 2, 5, -1, -1, -1, -1},
-        {9, 0, 1, 5, 10, 3, 5, 3, 7, 3, 10, 2, -1, -1, -1, -1},
-        {9, 8, 2, 9, 2, 1, 8, 7, 2, 10, 2, 5, 7, 5, 2, -1},
-        {1, 3, 5, 3, 7, 5, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1},
-        {0, 8, 7, 0, 7, 1, 1, 7, 5, -1, -1, -1, -1, -1, -1, -1},
-        {9, 0, 3, 9, 3, 5, 5, 3, 7, -1, -1, -1, -1, -1, -1, -1},
-        {9, 8, 7, 5, 9, 7, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1},
-        {5, 8, 4, 5, 10, 8, 10, 11, 8, -1, -1, -1, -1, -1, -1, -1},
-        {5, 0, 4, 5, 11, 0, 5, 10, 11, 11, 3, 0, -1, -1, -1, -1},
-        {0, 1, 9, 8, 4, 10, 8, 10, 11, 10, 4, 5, -1, -1, -1, -1},
-        {10, 11, 4, 10, 4, 5, 11, 3, 4, 9, 4, 1, 3, 1, 4, -1},
-        {2, 5, 1, 2, 8, 5, 2, 11, 8, 4, 5, 8, -1, -1, -1, -1},
-        {0, 4, 11, 0, 11, 3, 4, 5, 11, 2, 11, 1, 5, 1, 11, -1},
-        {0, 2, 5, 0, 5, 9, 2, 11, 5, 4, 5, 8, 11, 8, 5, -1},
-        {9, 4, 5, 2, 11, 3, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1},
-        {2, 5, 10, 3, 5, 2, 3, 4, 5, 3, 8, 4, -1, -1, -1, -1},
-        {5, 10, 2, 5, 2, 4, 4, 2, 0, -1, -1, -1, -1, -1, -1, -1},
-        {3, 10, 2, 3, 5, 10, 3, 8, 5, 4, 5, 8, 0, 1, 9, -1},
-        {5, 10, 2, 5, 2, 4, 1, 9, 2, 9, 4, 2, -1, -1, -1, -1},
-        {8, 4, 5, 8, 5, 3, 3, 5, 1, -1, -1, -1, -1, -1, -1, -1},
-        {0, 4, 5, 1, 0, 5, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1},
-        {8, 4, 5, 8, 5, 3, 9, 0, 5, 0, 3, 5, -1, -1, -1, -1},
-        {9, 4, 5, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1},
-        {4, 11, 7, 4, 9, 11, 9, 10, 11, -1, -1, -1, -1, -1, -1, -1},
-        {0, 8, 3, 4, 9, 7, 9, 11, 7, 9, 10, 11, -1, -1, -1, -1},
-        {1, 10, 11, 1, 11, 4, 1, 4, 0, 7, 4, 11, -1, -1, -1, -1},
-        {3, 1, 4, 3, 4, 8, 1, 10, 4, 7, 4, 11, 10, 11, 4, -1},
-        {4, 11, 7, 9, 11, 4, 9, 2, 11, 9, 1, 2, -1, -1, -1, -1},
-        {9, 7, 4, 9, 11, 7, 9, 1, 11, 2, 11, 1, 0, 8, 3, -1},
-        {11, 7, 4, 11, 4, 2, 2, 4, 0, -1, -1, -1, -1, -1, -1, -1},
-        {11, 7, 4, 11, 4, 2, 8, 3, 4, 3, 2, 4, -1, -1, -1, -1},
-        {2, 9, 10, 2, 7, 9, 2, 3, 7, 7, 4, 9, -1, -1, -1, -1},
-        {9, 10, 7, 9, 7, 4, 10, 2, 7, 8, 7, 0, 2, 0, 7, -1},
-        {3, 7, 10, 3, 10, 2, 7, 4, 10, 1, 10, 0, 4, 0, 10, -1},
-        {1, 10, 2, 8, 7, 4, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1},
-        {4, 9, 1, 4, 1, 7, 7, 1, 3, -1, -1, -1, -1, -1, -1, -1},
-        {4, 9, 1, 4, 1, 7, 0, 8, 1, 8, 7, 1, -1, -1, -1, -1},
-        {4, 0, 3, 7, 4, 3, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1},
-        {4, 8, 7, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1},
-        {9, 10, 8, 10, 11, 8, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1},
-        {3, 0, 9, 3, 9, 11, 11, 9, 10, -1, -1, -1, -1, -1, -1, -1},
-        {0, 1, 10, 0, 10, 8, 8, 10, 11, -1, -1, -1, -1, -1, -1, -1},
-        {3, 1, 10, 11, 3, 10, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1},
-        {1, 2, 11, 1, 11, 9, 9, 11, 8, -1, -1, -1, -1, -1, -1, -1},
-        {3, 0, 9, 3, 9, 11, 1, 2, 9, 2, 11, 9, -1, -1, -1, -1},
-        {0, 2, 11, 8, 0, 11, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1},
-        {3, 2, 11, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1},
-        {2, 3, 8, 2, 8, 10, 10, 8, 9, -1, -1, -1, -1, -1, -1, -1},
-        {9, 10, 2, 0, 9, 2, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1},
-        {2, 3, 8, 2, 8, 10, 0, 1, 8, 1, 10, 8, -1, -1, -1, -1},
-        {1, 10, 2, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1},
-        {1, 3, 8, 9, 1, 8, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1},
-        {0, 9, 1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1},
-        {0, 3, 8, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1},
-        {-1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1}
-    };
-
-    public static void polygoniseCube(float[] pValues, PVector[] pPositions, float pIsoLevel, Vector<PVector> pTriangleList) {
-
-        /* Determine the index into the edge table which
-         tells us which vertices are inside of the surface
-         */
-
-        int cubeindex = 0;
-        if (pValues[0] < pIsoLevel) {
-            cubeindex |= 1;
-        }
-        if (pValues[1] < pIsoLevel) {
-            cubeindex |= 2;
-        }
-        if (pValues[2] < pIsoLevel) {
-            cubeindex |= 4;
-        }
-        if (pValues[3] < pIsoLevel) {
-            cubeindex |= 8;
-        }
-        if (pValues[4] < pIsoLevel) {
-            cubeindex |= 16;
-        }
-        if (pValues[5] < pIsoLevel) {
-            cubeindex |= 32;
-        }
-        if (pValues[6] < pIsoLevel) {
-            cubeindex |= 64;
-        }
-        if (pValues[7] < pIsoLevel) {
-            cubeindex |= 128;
-        }
-        /* Cube is entirely in/out of the surface */
-        if (mEdgeTable[cubeindex] == 0) {
-            return;
-        }
-
-        /* Find the vertices where the surface intersects the cube */
-        PVector[] vertlist = new PVector[12];
-        if ((mEdgeTable[cubeindex] & 1) > 0) {
-            vertlist[0] = VertexInterp(pIsoLevel, pPositions[0], pPositions[1], pValues[0], pValues[1]);
-        }
-        if ((mEdgeTable[cubeindex] & 2) > 0) {
-            vertlist[1] = VertexInterp(pIsoLevel, pPositions[1], pPositions[2], pValues[1], pValues[2]);
-        }
-        if ((mEdgeTable[cubeindex] & 4) > 0) {
-            vertlist[2] = VertexInterp(pIsoLevel, pPositions[2], pPositions[3], pValues[2], pValues[3]);
-        }
-        if ((mEdgeTable[cubeindex] & 8) > 0) {
-            vertlist[3] = VertexInterp(pIsoLevel, pPositions[3], pPositions[0], pValues[3], pValues[0]);
-        }
-        if ((mEdgeTable[cubeindex] & 16) > 0) {
-            vertlist[4] = VertexInterp(pIsoLevel, pPositions[4], pPositions[5], pValues[4], pValues[5]);
-        }
-        if ((mEdgeTable[cubeindex] & 32) > 0) {
-            vertlist[5] = VertexInterp(pIsoLevel, pPositions[5], pPositions[6], pValues[5], pValues[6]);
-        }
-        if ((mEdgeTable[cubeindex] & 64) > 0) {
-            vertlist[6] = VertexInterp(pIsoLevel, pPositions[6], pPositions[7], pValues[6], pValues[7]);
-        }
-        if ((mEdgeTable[cubeindex] & 128) > 0) {
-            vertlist[7] = VertexInterp(pIsoLevel, pPositions[7], pPositions[4], pValues[7], pValues[4]);
-        }
-        if ((mEdgeTable[cubeindex] & 256) > 0) {
-            vertlist[8] = VertexInterp(pIsoLevel, pPositions[0], pPositions[4], pValues[0], pValues[4]);
-        }
-        if ((mEdgeTable[cubeindex] & 512) > 0) {
-            vertlist[9] = VertexInterp(pIsoLevel, pPositions[1], pPositions[5], pValues[1], pValues[5]);
-        }
-        if ((mEdgeTable[cubeindex] & 1024) > 0) {
-            vertlist[10] = VertexInterp(pIsoLevel, pPositions[2], pPositions[6], pValues[2], pValues[6]);
-        }
-        if ((mEdgeTable[cubeindex] & 2048) > 0) {
-            vertlist[11] = VertexInterp(pIsoLevel, pPositions[3], pPositions[7], pValues[3], pValues[7]);
-        }
-        /* Create the triangle */
-        /**
-         * @todo this should actually create triangles not points!
-         */
-        for (int i = 0; mTriTable[cubeindex][i] != -1; i += 3) {
-            pTriangleList.add(vertlist[mTriTable[cubeindex][i]].get());
-            pTriangleList.add(vertlist[mTriTable[cubeindex][i + 1]].get());
-            pTriangleList.add(vertlist[mTriTable[cubeindex][i + 2]].get());
-        }
-    }
-
-    /**
-     * Linearly interpolate the position where an isosurface cuts an edge
-     * between two vertices, each with their own scalar value
-     *
-     * @param isolevel float
-     * @param p1 Point3f
-     * @param p2 Point3f
-     * @param valp1 float
-     * @param valp2 float
-     * @return Point3f
-     */
-    private static PVector VertexInterp(float isolevel,
-                                        PVector p1,
-                                        PVector p2,
-                                        float valp1,
-                                        float valp2) {
-        float mu = (isolevel - valp1) / (valp2 - valp1);
-        float x = p1.x + mu * (p2.x - p1.x);
-        float y = p1.y + mu * (p2.y - p1.y);
-        float z = p1.z + mu * (p2.z - p1.z);
-        return new PVector(x, y, z);
-    }
-
-    public static void triangles(Vector<PVector> mTriangles, float[][][] pGridValues, float pThreshold) {
-        final PVector[] positions = new PVector[8];
-        final float[] values = new float[8];
-        for (int x = 0; x < pGridValues.length - 1; x++) {
-            final int nX = (x + 1) % pGridValues.length;
-            for (int y = 0; y < pGridValues[x].length - 1; y++) {
-                final int nY = (y + 1) % pGridValues[x].length;
-                for (int z = 0; z < pGridValues[x][y].length - 1; z++) {
-                    final int nZ = (z + 1) % pGridValues[x][y].length;
-                    positions[0] = new PVector(x, y, nZ);
-                    positions[1] = new PVector(nX, y, nZ);
-                    positions[2] = new PVector(nX, y, z);
-                    positions[3] = new PVector(x, y, z);
-                    positions[4] = new PVector(x, nY, nZ);
-                    positions[5] = new PVector(nX, nY, nZ);
-                    positions[6] = new PVector(nX, nY, z);
-                    positions[7] = new PVector(x, nY, z);
-                    /*  normalize XYZ values */
-                    for (int i = 0; i < positions.length; i++) {
-                        positions[i].x /= pGridValues.length;
-                        positions[i].x /= pGridValues[x].length;
-                        positions[i].x /= pGridValues[x][y].length;
-                    }
-                    values[0] = pGridValues[x][y][nZ];
-                    values[1] = pGridValues[nX][y][nZ];
-                    values[2] = pGridValues[nX][y][z];
-                    values[3] = pGridValues[x][y][z];
-                    values[4] = pGridValues[x][nY][nZ];
-                    values[5] = pGridValues[nX][nY][nZ];
-                    values[6] = pGridValues[nX][nY][z];
-                    values[7] = pGridValues[x][nY][z];
-                    polygoniseCube(values, positions, pThreshold, mTriangles);
-                }
-            }
-        }
-    }
-}
+/**
+ * generative gestaltung
+ *
+ */
+/*
+ Given a grid cell and an isolevel, calculate the triangular
+ facets required to represent the isosurface through the cell.
+ Return the number of triangular facets, the array "triangles"
+ will be loaded up with the vertices at most 5 triangular facets.
+ 0 will be returned if the grid cell is either totally above
+ of totally below the isolevel.
+
+ class contains methods for taking 8 points and turning it into a corresponding set of triangles
+ taken heavily from http://astronomy.swin.edu.au/~pbourke/modelling/polygonise/
+ */
+package de.hfkbremen.generativegestaltung.implicitsurface.marchingcubes;
+
+
+import java.util.Arrays;
+import java.util.Vector;
+import processing.core.PVector;
+
+
+public class MarchingCubes {
+
+    private static final int[] mEdgeTable = {0x0, 0x109, 0x203, 0x30a, 0x406, 0x50f, 0x605, 0x70c, 0x80c,
+                                             0x905, 0xa0f, 0xb06, 0xc0a, 0xd03, 0xe09, 0xf00, 0x190, 0x99, 0x393, 0x29a, 0x596,
+                                             0x49f, 0x795, 0x69c, 0x99c, 0x895, 0xb9f, 0xa96, 0xd9a, 0xc93, 0xf99, 0xe90, 0x230,
+                                             0x339, 0x33, 0x13a, 0x636, 0x73f, 0x435, 0x53c, 0xa3c, 0xb35, 0x83f, 0x936, 0xe3a,
+                                             0xf33, 0xc39, 0xd30, 0x3a0, 0x2a9, 0x1a3, 0xaa, 0x7a6, 0x6af, 0x5a5, 0x4ac, 0xbac,
+                                             0xaa5, 0x9af, 0x8a6, 0xfaa, 0xea3, 0xda9, 0xca0, 0x460, 0x569, 0x663, 0x76a, 0x66,
+                                             0x16f, 0x265, 0x36c, 0xc6c, 0xd65, 0xe6f, 0xf66, 0x86a, 0x963, 0xa69, 0xb60, 0x5f0,
+                                             0x4f9, 0x7f3, 0x6fa, 0x1f6, 0xff, 0x3f5, 0x2fc, 0xdfc, 0xcf5, 0xfff, 0xef6, 0x9fa,
+                                             0x8f3, 0xbf9, 0xaf0, 0x650, 0x759, 0x453, 0x55a, 0x256, 0x35f, 0x55, 0x15c, 0xe5c,
+                                             0xf55, 0xc5f, 0xd56, 0xa5a, 0xb53, 0x859, 0x950, 0x7c0, 0x6c9, 0x5c3, 0x4ca, 0x3c6,
+                                             0x2cf, 0x1c5, 0xcc, 0xfcc, 0xec5, 0xdcf, 0xcc6, 0xbca, 0xac3, 0x9c9, 0x8c0, 0x8c0,
+                                             0x9c9, 0xac3, 0xbca, 0xcc6, 0xdcf, 0xec5, 0xfcc, 0xcc, 0x1c5, 0x2cf, 0x3c6, 0x4ca,
+                                             0x5c3, 0x6c9, 0x7c0, 0x950, 0x859, 0xb53, 0xa5a, 0xd56, 0xc5f, 0xf55, 0xe5c, 0x15c,
+                                             0x55, 0x35f, 0x256, 0x55a, 0x453, 0x759, 0x650, 0xaf0, 0xbf9, 0x8f3, 0x9fa, 0xef6,
+                                             0xfff, 0xcf5, 0xdfc, 0x2fc, 0x3f5, 0xff, 0x1f6, 0x6fa, 0x7f3, 0x4f9, 0x5f0, 0xb60,
+                                             0xa69, 0x963, 0x86a, 0xf66, 0xe6f, 0xd65, 0xc6c, 0x36c, 0x265, 0x16f, 0x66, 0x76a,
+                                             0x663, 0x569, 0x460, 0xca0, 0xda9, 0xea3, 0xfaa, 0x8a6, 0x9af, 0xaa5, 0xbac, 0x4ac,
+                                             0x5a5, 0x6af, 0x7a6, 0xaa, 0x1a3, 0x2a9, 0x3a0, 0xd30, 0xc39, 0xf33, 0xe3a, 0x936,
+                                             0x83f, 0xb35, 0xa3c, 0x53c, 0x435, 0x73f, 0x636, 0x13a, 0x33, 0x339, 0x230, 0xe90,
+                                             0xf99, 0xc93, 0xd9a, 0xa96, 0xb9f, 0x895, 0x99c, 0x69c, 0x795, 0x49f, 0x596, 0x29a,
+                                             0x393, 0x99, 0x190, 0xf00, 0xe09, 0xd03, 0xc0a, 0xb06, 0xa0f, 0x905, 0x80c, 0x70c,
+                                             0x605, 0x50f, 0x406, 0x30a, 0x203, 0x109, 0x0};
+
+    private static final int mTriTable[][] = {
+        {-1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1},
+        {0, 8, 3, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1},
+        {0, 1, 9, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1},
+        {1, 8, 3, 9, 8, 1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1},
+        {1, 2, 10, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1},
+        {0, 8, 3, 1, 2, 10, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1},
+        {9, 2, 10, 0, 2, 9, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1},
+        {2, 8, 3, 2, 10, 8, 10, 9, 8, -1, -1, -1, -1, -1, -1, -1},
+        {3, 11, 2, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1},
+        {0, 11, 2, 8, 11, 0, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1},
+        {1, 9, 0, 2, 3, 11, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1},
+        {1, 11, 2, 1, 9, 11, 9, 8, 11, -1, -1, -1, -1, -1, -1, -1},
+        {3, 10, 1, 11, 10, 3, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1},
+        {0, 10, 1, 0, 8, 10, 8, 11, 10, -1, -1, -1, -1, -1, -1, -1},
+        {3, 9, 0, 3, 11, 9, 11, 10, 9, -1, -1, -1, -1, -1, -1, -1},
+        {9, 8, 10, 10, 8, 11, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1},
+        {4, 7, 8, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1},
+        {4, 3, 0, 7, 3, 4, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1},
+        {0, 1, 9, 8, 4, 7, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1},
+        {4, 1, 9, 4, 7, 1, 7, 3, 1, -1, -1, -1, -1, -1, -1, -1},
+        {1, 2, 10, 8, 4, 7, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1},
+        {3, 4, 7, 3, 0, 4, 1, 2, 10, -1, -1, -1, -1, -1, -1, -1},
+        {9, 2, 10, 9, 0, 2, 8, 4, 7, -1, -1, -1, -1, -1, -1, -1},
+        {2, 10, 9, 2, 9, 7, 2, 7, 3, 7, 9, 4, -1, -1, -1, -1},
+        {8, 4, 7, 3, 11, 2, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1},
+        {11, 4, 7, 11, 2, 4, 2, 0, 4, -1, -1, -1, -1, -1, -1, -1},
+        {9, 0, 1, 8, 4, 7, 2, 3, 11, -1, -1, -1, -1, -1, -1, -1},
+        {4, 7, 11, 9, 4, 11, 9, 11, 2, 9, 2, 1, -1, -1, -1, -1},
+        {3, 10, 1, 3, 11, 10, 7, 8, 4, -1, -1, -1, -1, -1, -1, -1},
+        {1, 11, 10, 1, 4, 11, 1, 0, 4, 7, 11, 4, -1, -1, -1, -1},
+        {4, 7, 8, 9, 0, 11, 9, 11, 10, 11, 0, 3, -1, -1, -1, -1},
+        {4, 7, 11, 4, 11, 9, 9, 11, 10, -1, -1, -1, -1, -1, -1, -1},
+        {9, 5, 4, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1},
+        {9, 5, 4, 0, 8, 3, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1},
+        {0, 5, 4, 1, 5, 0, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1},
+        {8, 5, 4, 8, 3, 5, 3, 1, 5, -1, -1, -1, -1, -1, -1, -1},
+        {1, 2, 10, 9, 5, 4, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1},
+        {3, 0, 8, 1, 2, 10, 4, 9, 5, -1, -1, -1, -1, -1, -1, -1},
+        {5, 2, 10, 5, 4, 2, 4, 0, 2, -1, -1, -1, -1, -1, -1, -1},
+        {2, 10, 5, 3, 2, 5, 3, 5, 4, 3, 4, 8, -1, -1, -1, -1},
+        {9, 5, 4, 2, 3, 11, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1},
+        {0, 11, 2, 0, 8, 11, 4, 9, 5, -1, -1, -1, -1, -1, -1, -1},
+        {0, 5, 4, 0, 1, 5, 2, 3, 11, -1, -1, -1, -1, -1, -1, -1},
+        {2, 1, 5, 2, 5, 8, 2, 8, 11, 4, 8, 5, -1, -1, -1, -1},
+        {10, 3, 11, 10, 1, 3, 9, 5, 4, -1, -1, -1, -1, -1, -1, -1},
+        {4, 9, 5, 0, 8, 1, 8, 10, 1, 8, 11, 10, -1, -1, -1, -1},
+        {5, 4, 0, 5, 0, 11, 5, 11, 10, 11, 0, 3, -1, -1, -1, -1},
+        {5, 4, 8, 5, 8, 10, 10, 8, 11, -1, -1, -1, -1, -1, -1, -1},
+        {9, 7, 8, 5, 7, 9, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1},
+        {9, 3, 0, 9, 5, 3, 5, 7, 3, -1, -1, -1, -1, -1, -1, -1},
+        {0, 7, 8, 0, 1, 7, 1, 5, 7, -1, -1, -1, -1, -1, -1, -1},
+        {1, 5, 3, 3, 5, 7, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1},
+        {9, 7, 8, 9, 5, 7, 10, 1, 2, -1, -1, -1, -1, -1, -1, -1},
+        {10, 1, 2, 9, 5, 0, 5, 3, 0, 5, 7, 3, -1, -1, -1, -1},
+        {8, 0, 2, 8, 2, 5, 8, 5, 7, 10, 5, 2, -1, -1, -1, -1},
+        {2, 10, 5, 2, 5, 3, 3, 5, 7, -1, -1, -1, -1, -1, -1, -1},
+        {7, 9, 5, 7, 8, 9, 3, 11, 2, -1, -1, -1, -1, -1, -1, -1},
+        {9, 5, 7, 9, 7, 2, 9, 2, 0, 2, 7, 11, -1, -1, -1, -1},
+        {2, 3, 11, 0, 1, 8, 1, 7, 8, 1, 5, 7, -1, -1, -1, -1},
+        {11, 2, 1, 11, 1, 7, 7, 1, 5, -1, -1, -1, -1, -1, -1, -1},
+        {9, 5, 8, 8, 5, 7, 10, 1, 3, 10, 3, 11, -1, -1, -1, -1},
+        {5, 7, 0, 5, 0, 9, 7, 11, 0, 1, 0, 10, 11, 10, 0, -1},
+        {11, 10, 0, 11, 0, 3, 10, 5, 0, 8, 0, 7, 5, 7, 0, -1},
+        {11, 10, 5, 7, 11, 5, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1},
+        {10, 6, 5, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1},
+        {0, 8, 3, 5, 10, 6, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1},
+        {9, 0, 1, 5, 10, 6, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1},
+        {1, 8, 3, 1, 9, 8, 5, 10, 6, -1, -1, -1, -1, -1, -1, -1},
+        {1, 6, 5, 2, 6, 1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1},
+        {1, 6, 5, 1, 2, 6, 3, 0, 8, -1, -1, -1, -1, -1, -1, -1},
+        {9, 6, 5, 9, 0, 6, 0, 2, 6, -1, -1, -1, -1, -1, -1, -1},
+        {5, 9, 8, 5, 8, 2, 5, 2, 6, 3, 2, 8, -1, -1, -1, -1},
+        {2, 3, 11, 10, 6, 5, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1},
+        {11, 0, 8, 11, 2, 0, 10, 6, 5, -1, -1, -1, -1, -1, -1, -1},
+        {0, 1, 9, 2, 3, 11, 5, 10, 6, -1, -1, -1, -1, -1, -1, -1},
+        {5, 10, 6, 1, 9, 2, 9, 11, 2, 9, 8, 11, -1, -1, -1, -1},
+        {6, 3, 11, 6, 5, 3, 5, 1, 3, -1, -1, -1, -1, -1, -1, -1},
+        {0, 8, 11, 0, 11, 5, 0, 5, 1, 5, 11, 6, -1, -1, -1, -1},
+        {3, 11, 6, 0, 3, 6, 0, 6, 5, 0, 5, 9, -1, -1, -1, -1},
+        {6, 5, 9, 6, 9, 11, 11, 9, 8, -1, -1, -1, -1, -1, -1, -1},
+        {5, 10, 6, 4, 7, 8, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1},
+        {4, 3, 0, 4, 7, 3, 6, 5, 10, -1, -1, -1, -1, -1, -1, -1},
+        {1, 9, 0, 5, 10, 6, 8, 4, 7, -1, -1, -1, -1, -1, -1, -1},
+        {10, 6, 5, 1, 9, 7, 1, 7, 3, 7, 9, 4, -1, -1, -1, -1},
+        {6, 1, 2, 6, 5, 1, 4, 7, 8, -1, -1, -1, -1, -1, -1, -1},
+        {1, 2, 5, 5, 2, 6, 3, 0, 4, 3, 4, 7, -1, -1, -1, -1},
+        {8, 4, 7, 9, 0, 5, 0, 6, 5, 0, 2, 6, -1, -1, -1, -1},
+        {7, 3, 9, 7, 9, 4, 3, 2, 9, 5, 9, 6, 2, 6, 9, -1},
+        {3, 11, 2, 7, 8, 4, 10, 6, 5, -1, -1, -1, -1, -1, -1, -1},
+        {5, 10, 6, 4, 7, 2, 4, 2, 0, 2, 7, 11, -1, -1, -1, -1},
+        {0, 1, 9, 4, 7, 8, 2, 3, 11, 5, 10, 6, -1, -1, -1, -1},
+        {9, 2, 1, 9, 11, 2, 9, 4, 11, 7, 11, 4, 5, 10, 6, -1},
+        {8, 4, 7, 3, 11, 5, 3, 5, 1, 5, 11, 6, -1, -1, -1, -1},
+        {5, 1, 11, 5, 11, 6, 1, 0, 11, 7, 11, 4, 0, 4, 11, -1},
+        {0, 5, 9, 0, 6, 5, 0, 3, 6, 11, 6, 3, 8, 4, 7, -1},
+        {6, 5, 9, 6, 9, 11, 4, 7, 9, 7, 11, 9, -1, -1, -1, -1},
+        {10, 4, 9, 6, 4, 10, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1},
+        {4, 10, 6, 4, 9, 10, 0, 8, 3, -1, -1, -1, -1, -1, -1, -1},
+        {10, 0, 1, 10, 6, 0, 6, 4, 0, -1, -1, -1, -1, -1, -1, -1},
+        {8, 3, 1, 8, 1, 6, 8, 6, 4, 6, 1, 10, -1, -1, -1, -1},
+        {1, 4, 9, 1, 2, 4, 2, 6, 4, -1, -1, -1, -1, -1, -1, -1},
+        {3, 0, 8, 1, 2, 9, 2, 4, 9, 2, 6, 4, -1, -1, -1, -1},
+        {0, 2, 4, 4, 2, 6, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1},
+        {8, 3, 2, 8, 2, 4, 4, 2, 6, -1, -1, -1, -1, -1, -1, -1},
+        {10, 4, 9, 10, 6, 4, 11, 2, 3, -1, -1, -1, -1, -1, -1, -1},
+        {0, 8, 2, 2, 8, 11, 4, 9, 10, 4, 10, 6, -1, -1, -1, -1},
+        {3, 11, 2, 0, 1, 6, 0, 6, 4, 6, 1, 10, -1, -1, -1, -1},
+        {6, 4, 1, 6, 1, 10, 4, 8, 1, 2, 1, 11, 8, 11, 1, -1},
+        {9, 6, 4, 9, 3, 6, 9, 1, 3, 11, 6, 3, -1, -1, -1, -1},
+        {8, 11, 1, 8, 1, 0, 11, 6, 1, 9, 1, 4, 6, 4, 1, -1},
+        {3, 11, 6, 3, 6, 0, 0, 6, 4, -1, -1, -1, -1, -1, -1, -1},
+        {6, 4, 8, 11, 6, 8, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1},
+        {7, 10, 6, 7, 8, 10, 8, 9, 10, -1, -1, -1, -1, -1, -1, -1},
+        {0, 7, 3, 0, 10, 7, 0, 9, 10, 6, 7, 10, -1, -1, -1, -1},
+        {10, 6, 7, 1, 10, 7, 1, 7, 8, 1, 8, 0, -1, -1, -1, -1},
+        {10, 6, 7, 10, 7, 1, 1, 7, 3, -1, -1, -1, -1, -1, -1, -1},
+        {1, 2, 6, 1, 6, 8, 1, 8, 9, 8, 6, 7, -1, -1, -1, -1},
+        {2, 6, 9, 2, 9, 1, 6, 7, 9, 0, 9, 3, 7, 3, 9, -1},
+        {7, 8, 0, 7, 0, 6, 6, 0, 2, -1, -1, -1, -1, -1, -1, -1},
+        {7, 3, 2, 6, 7, 2, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1},
+        {2, 3, 11, 10, 6, 8, 10, 8, 9, 8, 6, 7, -1, -1, -1, -1},
+        {2, 0, 7, 2, 7, 11, 0, 9, 7, 6, 7, 10, 9, 10, 7, -1},
+        {1, 8, 0, 1, 7, 8, 1, 10, 7, 6, 7, 10, 2, 3, 11, -1},
+        {11, 2, 1, 11, 1, 7, 10, 6, 1, 6, 7, 1, -1, -1, -1, -1},
+        {8, 9, 6, 8, 6, 7, 9, 1, 6, 11, 6, 3, 1, 3, 6, -1},
+        {0, 9, 1, 11, 6, 7, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1},
+        {7, 8, 0, 7, 0, 6, 3, 11, 0, 11, 6, 0, -1, -1, -1, -1},
+        {7, 11, 6, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1},
+        {7, 6, 11, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1},
+        {3, 0, 8, 11, 7, 6, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1},
+        {0, 1, 9, 11, 7, 6, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1},
+        {8, 1, 9, 8, 3, 1, 11, 7, 6, -1, -1, -1, -1, -1, -1, -1},
+        {10, 1, 2, 6, 11, 7, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1},
+        {1, 2, 10, 3, 0, 8, 6, 11, 7, -1, -1, -1, -1, -1, -1, -1},
+        {2, 9, 0, 2, 10, 9, 6, 11, 7, -1, -1, -1, -1, -1, -1, -1},
+        {6, 11, 7, 2, 10, 3, 10, 8, 3, 10, 9, 8, -1, -1, -1, -1},
+        {7, 2, 3, 6, 2, 7, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1},
+        {7, 0, 8, 7, 6, 0, 6, 2, 0, -1, -1, -1, -1, -1, -1, -1},
+        {2, 7, 6, 2, 3, 7, 0, 1, 9, -1, -1, -1, -1, -1, -1, -1},
+        {1, 6, 2, 1, 8, 6, 1, 9, 8, 8, 7, 6, -1, -1, -1, -1},
+        {10, 7, 6, 10, 1, 7, 1, 3, 7, -1, -1, -1, -1, -1, -1, -1},
+        {10, 7, 6, 1, 7, 10, 1, 8, 7, 1, 0, 8, -1, -1, -1, -1},
+        {0, 3, 7, 0, 7, 10, 0, 10, 9, 6, 10, 7, -1, -1, -1, -1},
+        {7, 6, 10, 7, 10, 8, 8, 10, 9, -1, -1, -1, -1, -1, -1, -1},
+        {6, 8, 4, 11, 8, 6, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1},
+        {3, 6, 11, 3, 0, 6, 0, 4, 6, -1, -1, -1, -1, -1, -1, -1},
+        {8, 6, 11, 8, 4, 6, 9, 0, 1, -1, -1, -1, -1, -1, -1, -1},
+        {9, 4, 6, 9, 6, 3, 9, 3, 1, 11, 3, 6, -1, -1, -1, -1},
+        {6, 8, 4, 6, 11, 8, 2, 10, 1, -1, -1, -1, -1, -1, -1, -1},
+        {1, 2, 10, 3, 0, 11, 0, 6, 11, 0, 4, 6, -1, -1, -1, -1},
+        {4, 11, 8, 4, 6, 11, 0, 2, 9, 2, 10, 9, -1, -1, -1, -1},
+        {10, 9, 3, 10, 3, 2, 9, 4, 3, 11, 3, 6, 4, 6, 3, -1},
+        {8, 2, 3, 8, 4, 2, 4, 6, 2, -1, -1, -1, -1, -1, -1, -1},
+        {0, 4, 2, 4, 6, 2, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1},
+        {1, 9, 0, 2, 3, 4, 2, 4, 6, 4, 3, 8, -1, -1, -1, -1},
+        {1, 9, 4, 1, 4, 2, 2, 4, 6, -1, -1, -1, -1, -1, -1, -1},
+        {8, 1, 3, 8, 6, 1, 8, 4, 6, 6, 10, 1, -1, -1, -1, -1},
+        {10, 1, 0, 10, 0, 6, 6, 0, 4, -1, -1, -1, -1, -1, -1, -1},
+        {4, 6, 3, 4, 3, 8, 6, 10, 3, 0, 3, 9, 10, 9, 3, -1},
+        {10, 9, 4, 6, 10, 4, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1},
+        {4, 9, 5, 7, 6, 11, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1},
+        {0, 8, 3, 4, 9, 5, 11, 7, 6, -1, -1, -1, -1, -1, -1, -1},
+        {5, 0, 1, 5, 4, 0, 7, 6, 11, -1, -1, -1, -1, -1, -1, -1},
+        {11, 7, 6, 8, 3, 4, 3, 5, 4, 3, 1, 5, -1, -1, -1, -1},
+        {9, 5, 4, 10, 1, 2, 7, 6, 11, -1, -1, -1, -1, -1, -1, -1},
+        {6, 11, 7, 1, 2, 10, 0, 8, 3, 4, 9, 5, -1, -1, -1, -1},
+        {7, 6, 11, 5, 4, 10, 4, 2, 10, 4, 0, 2, -1, -1, -1, -1},
+        {3, 4, 8, 3, 5, 4, 3, 2, 5, 10, 5, 2, 11, 7, 6, -1},
+        {7, 2, 3, 7, 6, 2, 5, 4, 9, -1, -1, -1, -1, -1, -1, -1},
+        {9, 5, 4, 0, 8, 6, 0, 6, 2, 6, 8, 7, -1, -1, -1, -1},
+        {3, 6, 2, 3, 7, 6, 1, 5, 0, 5, 4, 0, -1, -1, -1, -1},
+        {6, 2, 8, 6, 8, 7, 2, 1, 8, 4, 8, 5, 1, 5, 8, -1},
+        {9, 5, 4, 10, 1, 6, 1, 7, 6, 1, 3, 7, -1, -1, -1, -1},
+        {1, 6, 10, 1, 7, 6, 1, 0, 7, 8, 7, 0, 9, 5, 4, -1},
+        {4, 0, 10, 4, 10, 5, 0, 3, 10, 6, 10, 7, 3, 7, 10, -1},
+        {7, 6, 10, 7, 10, 8, 5, 4, 10, 4, 8, 10, -1, -1, -1, -1},
+        {6, 9, 5, 6, 11, 9, 11, 8, 9, -1, -1, -1, -1, -1, -1, -1},
+        {3, 6, 11, 0, 6, 3, 0, 5, 6, 0, 9, 5, -1, -1, -1, -1},
+        {0, 11, 8, 0, 5, 11, 0, 1, 5, 5, 6, 11, -1, -1, -1, -1},
+        {6, 11, 3, 6, 3, 5, 5, 3, 1, -1, -1, -1, -1, -1, -1, -1},
+        {1, 2, 10, 9, 5, 11, 9, 11, 8, 11, 5, 6, -1, -1, -1, -1},
+        {0, 11, 3, 0, 6, 11, 0, 9, 6, 5, 6, 9, 1, 2, 10, -1},
+        {11, 8, 5, 11, 5, 6, 8, 0, 5, 10, 5, 2, 0, 2, 5, -1},
+        {6, 11, 3, 6, 3, 5, 2, 10, 3, 10, 5, 3, -1, -1, -1, -1},
+        {5, 8, 9, 5, 2, 8, 5, 6, 2, 3, 8, 2, -1, -1, -1, -1},
+        {9, 5, 6, 9, 6, 0, 0, 6, 2, -1, -1, -1, -1, -1, -1, -1},
+        {1, 5, 8, 1, 8, 0, 5, 6, 8, 3, 8, 2, 6, 2, 8, -1},
+        {1, 5, 6, 2, 1, 6, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1},
+        {1, 3, 6, 1, 6, 10, 3, 8, 6, 5, 6, 9, 8, 9, 6, -1},
+        {10, 1, 0, 10, 0, 6, 9, 5, 0, 5, 6, 0, -1, -1, -1, -1},
+        {0, 3, 8, 5, 6, 10, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1},
+        {10, 5, 6, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1},
+        {11, 5, 10, 7, 5, 11, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1},
+        {11, 5, 10, 11, 7, 5, 8, 3, 0, -1, -1, -1, -1, -1, -1, -1},
+        {5, 11, 7, 5, 10, 11, 1, 9, 0, -1, -1, -1, -1, -1, -1, -1},
+        {10, 7, 5, 10, 11, 7, 9, 8, 1, 8, 3, 1, -1, -1, -1, -1},
+        {11, 1, 2, 11, 7, 1, 7, 5, 1, -1, -1, -1, -1, -1, -1, -1},
+        {0, 8, 3, 1, 2, 7, 1, 7, 5, 7, 2, 11, -1, -1, -1, -1},
+        {9, 7, 5, 9, 2, 7, 9, 0, 2, 2, 11, 7, -1, -1, -1, -1},
+        {7, 5, 2, 7, 2, 11, 5, 9, 2, 3, 2, 8, 9, 8, 2, -1},
+        {2, 5, 10, 2, 3, 5, 3, 7, 5, -1, -1, -1, -1, -1, -1, -1},
+        {8, 2, 0, 8, 5, 2, 8, 7, 5, 10, 2, 5, -1, -1, -1, -1},
+        {9, 0, 1, 5, 10, 3, 5, 3, 7, 3, 10, 2, -1, -1, -1, -1},
+        {9, 8, 2, 9, 2, 1, 8, 7, 2, 10, 2, 5, 7, 5, 2, -1},
+        {1, 3, 5, 3, 7, 5, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1},
+        {0, 8, 7, 0, 7, 1, 1, 7, 5, -1, -1, -1, -1, -1, -1, -1},
+        {9, 0, 3, 9, 3, 5, 5, 3, 7, -1, -1, -1, -1, -1, -1, -1},
+        {9, 8, 7, 5, 9, 7, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1},
+        {5, 8, 4, 5, 10, 8, 10, 11, 8, -1, -1, -1, -1, -1, -1, -1},
+        {5, 0, 4, 5, 11, 0, 5, 10, 11, 11, 3, 0, -1, -1, -1, -1},
+        {0, 1, 9, 8, 4, 10, 8, 10, 11, 10, 4, 5, -1, -1, -1, -1},
+        {10, 11, 4, 10, 4, 5, 11, 3, 4, 9, 4, 1, 3, 1, 4, -1},
+        {2, 5, 1, 2, 8, 5, 2, 11, 8, 4, 5, 8, -1, -1, -1, -1},
+        {0, 4, 11, 0, 11, 3, 4, 5, 11, 2, 11, 1, 5, 1, 11, -1},
+        {0, 2, 5, 0, 5, 9, 2, 11, 5, 4, 5, 8, 11, 8, 5, -1},
+        {9, 4, 5, 2, 11, 3, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1},
+        {2, 5, 10, 3, 5, 2, 3, 4, 5, 3, 8, 4, -1, -1, -1, -1},
+        {5, 10, 2, 5, 2, 4, 4, 2, 0, -1, -1, -1, -1, -1, -1, -1},
+        {3, 10, 2, 3, 5, 10, 3, 8, 5, 4, 5, 8, 0, 1, 9, -1},
+        {5, 10, 2, 5, 2, 4, 1, 9, 2, 9, 4, 2, -1, -1, -1, -1},
+        {8, 4, 5, 8, 5, 3, 3, 5, 1, -1, -1, -1, -1, -1, -1, -1},
+        {0, 4, 5, 1, 0, 5, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1},
+        {8, 4, 5, 8, 5, 3, 9, 0, 5, 0, 3, 5, -1, -1, -1, -1},
+        {9, 4, 5, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1},
+        {4, 11, 7, 4, 9, 11, 9, 10, 11, -1, -1, -1, -1, -1, -1, -1},
+        {0, 8, 3, 4, 9, 7, 9, 11, 7, 9, 10, 11, -1, -1, -1, -1},
+        {1, 10, 11, 1, 11, 4, 1, 4, 0, 7, 4, 11, -1, -1, -1, -1},
+        {3, 1, 4, 3, 4, 8, 1, 10, 4, 7, 4, 11, 10, 11, 4, -1},
+        {4, 11, 7, 9, 11, 4, 9, 2, 11, 9, 1, 2, -1, -1, -1, -1},
+        {9, 7, 4, 9, 11, 7, 9, 1, 11, 2, 11, 1, 0, 8, 3, -1},
+        {11, 7, 4, 11, 4, 2, 2, 4, 0, -1, -1, -1, -1, -1, -1, -1},
+        {11, 7, 4, 11, 4, 2, 8, 3, 4, 3, 2, 4, -1, -1, -1, -1},
+        {2, 9, 10, 2, 7, 9, 2, 3, 7, 7, 4, 9, -1, -1, -1, -1},
+        {9, 10, 7, 9, 7, 4, 10, 2, 7, 8, 7, 0, 2, 0, 7, -1},
+        {3, 7, 10, 3, 10, 2, 7, 4, 10, 1, 10, 0, 4, 0, 10, -1},
+        {1, 10, 2, 8, 7, 4, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1},
+        {4, 9, 1, 4, 1, 7, 7, 1, 3, -1, -1, -1, -1, -1, -1, -1},
+        {4, 9, 1, 4, 1, 7, 0, 8, 1, 8, 7, 1, -1, -1, -1, -1},
+        {4, 0, 3, 7, 4, 3, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1},
+        {4, 8, 7, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1},
+        {9, 10, 8, 10, 11, 8, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1},
+        {3, 0, 9, 3, 9, 11, 11, 9, 10, -1, -1, -1, -1, -1, -1, -1},
+        {0, 1, 10, 0, 10, 8, 8, 10, 11, -1, -1, -1, -1, -1, -1, -1},
+        {3, 1, 10, 11, 3, 10, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1},
+        {1, 2, 11, 1, 11, 9, 9, 11, 8, -1, -1, -1, -1, -1, -1, -1},
+        {3, 0, 9, 3, 9, 11, 1, 2, 9, 2, 11, 9, -1, -1, -1, -1},
+        {0, 2, 11, 8, 0, 11, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1},
+        {3, 2, 11, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1},
+        {2, 3, 8, 2, 8, 10, 10, 8, 9, -1, -1, -1, -1, -1, -1, -1},
+        {9, 10, 2, 0, 9, 2, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1},
+        {2, 3, 8, 2, 8, 10, 0, 1, 8, 1, 10, 8, -1, -1, -1, -1},
+        {1, 10, 2, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1},
+        {1, 3, 8, 9, 1, 8, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1},
+        {0, 9, 1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1},
+        {0, 3, 8, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1},
+        {-1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1, -1}
+    };
+
+    /**
+     * lattice edge for each of the 12 cube edges used in <code>polygoniseCube</code> as { axis, x, y, z } where axis
+     * is the direction ( 0 = x, 1 = y, 2 = z ) of the edge and x, y, z is the offset of its lower grid point relative
+     * to the cell.
+     */
+    private static final int[][] mEdgeLattice = {
+        {0, 0, 0, 1}, {2, 1, 0, 0}, {0, 0, 0, 0}, {2, 0, 0, 0},
+        {0, 0, 1, 1}, {2, 1, 1, 0}, {0, 0, 1, 0}, {2, 0, 1, 0},
+        {1, 0, 0, 1}, {1, 1, 0, 1}, {1, 1, 0, 0}, {1, 0, 0, 0}
+    };
+
+    /*
+     * index of the slice cache holding an edge: x-edges, y-edges on lower and upper layer, z-edges on lower and
+     * upper layer
+     */
+    private static final int[] mEdgeSlot = {0, 4, 0, 3, 0, 4, 0, 3, 1, 2, 2, 1};
+
+    /* corners connected by each of the 12 cube edges */
+    private static final int[][] mEdgeCorners = {
+        {0, 1}, {1, 2}, {2, 3}, {3, 0}, {4, 5}, {5, 6}, {6, 7}, {7, 4}, {0, 4}, {1, 5}, {2, 6}, {3, 7}
+    };
+
+    private static final ThreadLocal<int[][]> mEdgeCaches = new ThreadLocal<int[][]>();
+
+    public static void polygoniseCube(float[] pValues,
+                                      PVector[] pPositions,
+                                      float pIsoLevel,
+                                      Vector<PVector> pTriangleList) {
+
+        /* Determine the index into the edge table which
+         tells us which vertices are inside of the surface
+         */
+
+        final int cubeindex = cubeIndex(pValues, pIsoLevel);
+        /* Cube is entirely in/out of the surface */
+        if (mEdgeTable[cubeindex] == 0) {
+            return;
+        }
+
+        /* Find the vertices where the surface intersects the cube */
+        PVector[] vertlist = new PVector[12];
+        if ((mEdgeTable[cubeindex] & 1) > 0) {
+            vertlist[0] = VertexInterp(pIsoLevel, pPositions[0], pPositions[1], pValues[0], pValues[1]);
+        }
+        if ((mEdgeTable[cubeindex] & 2) > 0) {
+            vertlist[1] = VertexInterp(pIsoLevel, pPositions[1], pPositions[2], pValues[1], pValues[2]);
+        }
+        if ((mEdgeTable[cubeindex] & 4) > 0) {
+            vertlist[2] = VertexInterp(pIsoLevel, pPositions[2], pPositions[3], pValues[2], pValues[3]);
+        }
+        if ((mEdgeTable[cubeindex] & 8) > 0) {
+            vertlist[3] = VertexInterp(pIsoLevel, pPositions[3], pPositions[0], pValues[3], pValues[0]);
+        }
+        if ((mEdgeTable[cubeindex] & 16) > 0) {
+            vertlist[4] = VertexInterp(pIsoLevel, pPositions[4], pPositions[5], pValues[4], pValues[5]);
+        }
+        if ((mEdgeTable[cubeindex] & 32) > 0) {
+            vertlist[5] = VertexInterp(pIsoLevel, pPositions[5], pPositions[6], pValues[5], pValues[6]);
+        }
+        if ((mEdgeTable[cubeindex] & 64) > 0) {
+            vertlist[6] = VertexInterp(pIsoLevel, pPositions[6], pPositions[7], pValues[6], pValues[7]);
+        }
+        if ((mEdgeTable[cubeindex] & 128) > 0) {
+            vertlist[7] = VertexInterp(pIsoLevel, pPositions[7], pPositions[4], pValues[7], pValues[4]);
+        }
+        if ((mEdgeTable[cubeindex] & 256) > 0) {
+            vertlist[8] = VertexInterp(pIsoLevel, pPositions[0], pPositions[4], pValues[0], pValues[4]);
+        }
+        if ((mEdgeTable[cubeindex] & 512) > 0) {
+            vertlist[9] = VertexInterp(pIsoLevel, pPositions[1], pPositions[5], pValues[1], pValues[5]);
+        }
+        if ((mEdgeTable[cubeindex] & 1024) > 0) {
+            vertlist[10] = VertexInterp(pIsoLevel, pPositions[2], pPositions[6], pValues[2], pValues[6]);
+        }
+        if ((mEdgeTable[cubeindex] & 2048) > 0) {
+            vertlist[11] = VertexInterp(pIsoLevel, pPositions[3], pPositions[7], pValues[3], pValues[7]);
+        }
+        /* Create the triangle */
+        /**
+         * @todo this should actually create triangles not points!
+         */
+        for (int i = 0; mTriTable[cubeindex][i] != -1; i += 3) {
+            pTriangleList.add(vertlist[mTriTable[cubeindex][i]].get());
+            pTriangleList.add(vertlist[mTriTable[cubeindex][i + 1]].get());
+            pTriangleList.add(vertlist[mTriTable[cubeindex][i + 2]].get());
+        }
+    }
+
+    /**
+     * Linearly interpolate the position where an isosurface cuts an edge
+     * between two vertices, each with their own scalar value
+     *
+     * @param isolevel float
+     * @param p1 Point3f
+     * @param p2 Point3f
+     * @param valp1 float
+     * @param valp2 float
+     * @return Point3f
+     */
+    private static PVector VertexInterp(float isolevel,
+                                        PVector p1,
+                                        PVector p2,
+                                        float valp1,
+                                        float valp2) {
+        float mu = (isolevel - valp1) / (valp2 - valp1);
+        float x = p1.x + mu * (p2.x - p1.x);
+        float y = p1.y + mu * (p2.y - p1.y);
+        float z = p1.z + mu * (p2.z - p1.z);
+        return new PVector(x, y, z);
+    }
+
+    public static void triangles(Vector<PVector> mTriangles, float[][][] pGridValues, float pThreshold) {
+        triangles(mTriangles, toField(pGridValues), pThreshold);
+    }
+
+    /**
+     * extracts the isosurface as a list of triangles ( three consecutive points per triangle ). positions are in the
+     * world space of the field.
+     *
+     * @param pTriangles list to append triangle vertices to
+     * @param pField scalar field
+     * @param pThreshold iso level
+     */
+    public static void triangles(Vector<PVector> pTriangles, ScalarField3D pField, float pThreshold) {
+        triangles(pTriangles, pField, pThreshold, 0, pField.sizeX() - 1);
+    }
+
+    /* polygonises the cells of the slabs [ pFromX, pToX ) */
+    static void triangles(Vector<PVector> pTriangles, ScalarField3D pField, float pThreshold, int pFromX, int pToX) {
+        triangles(pTriangles, pField, pThreshold, pFromX, pToX, 0, pField.sizeY() - 1, 0, pField.sizeZ() - 1);
+    }
+
+    /**
+     * polygonises the cells in the box [ pFromX, pToX ) x [ pFromY, pToY ) x [ pFromZ, pToZ ). cells are addressed
+     * by their lowest grid point.
+     */
+    public static void triangles(Vector<PVector> pTriangles,
+                                 ScalarField3D pField,
+                                 float pThreshold,
+                                 int pFromX, int pToX,
+                                 int pFromY, int pToY,
+                                 int pFromZ, int pToZ) {
+        triangles(pTriangles, null, pField, pThreshold, null, pFromX, pToX, pFromY, pToY, pFromZ, pToZ);
+    }
+
+    /**
+     * extracts the isosurface as a list of triangles and writes a smooth normal for every triangle vertex into a
+     * parallel list. normals are interpolated from the central differences of the field.
+     */
+    public static void triangles(Vector<PVector> pTriangles,
+                                 Vector<PVector> pNormals,
+                                 ScalarField3D pField,
+                                 float pThreshold) {
+        triangles(pTriangles, pNormals, pField, pThreshold, null);
+    }
+
+    /**
+     * extracts the isosurface as a list of triangles and writes a smooth normal for every triangle vertex into a
+     * parallel list. normals point towards decreasing field values.
+     *
+     * @param pGradient analytic gradient of the field or null to use central differences
+     */
+    public static void triangles(Vector<PVector> pTriangles,
+                                 Vector<PVector> pNormals,
+                                 ScalarField3D pField,
+                                 float pThreshold,
+                                 ScalarGradient pGradient) {
+        triangles(pTriangles, pNormals, pField, pThreshold, pGradient,
+                  0, pField.sizeX() - 1, 0, pField.sizeY() - 1, 0, pField.sizeZ() - 1);
+    }
+
+    /**
+     * polygonises the cells in the box [ pFromX, pToX ) x [ pFromY, pToY ) x [ pFromZ, pToZ ). if
+     * <code>pNormals</code> is not null a normal is written for every triangle vertex.
+     */
+    public static void triangles(Vector<PVector> pTriangles,
+                                 Vector<PVector> pNormals,
+                                 ScalarField3D pField,
+                                 float pThreshold,
+                                 ScalarGradient pGradient,
+                                 int pFromX, int pToX,
+                                 int pFromY, int pToY,
+                                 int pFromZ, int pToZ) {
+        triangles(new VectorSink(pTriangles, pNormals), pField, pThreshold, pGradient,
+                  pFromX, pToX, pFromY, pToY, pFromZ, pToZ);
+    }
+
+    /**
+     * extracts the isosurface triangle by triangle into a sink. positions are in the world space of the field.
+     */
+    public static void triangles(IsoSurfaceSink pSink, ScalarField3D pField, float pThreshold) {
+        triangles(pSink, pField, pThreshold, null);
+    }
+
+    /**
+     * extracts the isosurface triangle by triangle into a sink. if the sink wants normals they point towards
+     * decreasing field values.
+     *
+     * @param pGradient analytic gradient of the field or null to interpolate central differences of the field
+     */
+    public static void triangles(IsoSurfaceSink pSink,
+                                 ScalarField3D pField,
+                                 float pThreshold,
+                                 ScalarGradient pGradient) {
+        triangles(pSink, pField, pThreshold, pGradient,
+                  0, pField.sizeX() - 1, 0, pField.sizeY() - 1, 0, pField.sizeZ() - 1);
+    }
+
+    /**
+     * extracts the cells in the box [ pFromX, pToX ) x [ pFromY, pToY ) x [ pFromZ, pToZ ) into a sink. does not
+     * allocate per cell or per triangle.
+     */
+    public static void triangles(IsoSurfaceSink pSink,
+                                 ScalarField3D pField,
+                                 float pThreshold,
+                                 ScalarGradient pGradient,
+                                 int pFromX, int pToX,
+                                 int pFromY, int pToY,
+                                 int pFromZ, int pToZ) {
+        final CellMarcher mMarcher = new CellMarcher(pSink, pField, pThreshold, pGradient);
+        for (int x = pFromX; x < pToX; x++) {
+            for (int y = pFromY; y < pToY; y++) {
+                for (int z = pFromZ; z < pToZ; z++) {
+                    mMarcher.polygonise(x, y, z);
+                }
+            }
+        }
+    }
+
+    private static void setCorner(float[] pPositions, int pCorner, float x, float y, float z) {
+        pPositions[pCorner * 3] = x;
+        pPositions[pCorner * 3 + 1] = y;
+        pPositions[pCorner * 3 + 2] = z;
+    }
+
+    /**
+     * extracts the isosurface as an indexed mesh. edge intersections are cached per slice so that every vertex is
+     * created exactly once and shared by all triangles touching it. triangles are emitted in the same order as
+     * <code>triangles</code>, positions are normalized ( 0 - 1 ) in the same way.
+     *
+     * @param pMesh mesh to append vertices and triangles to
+     * @param pGridValues scalar field
+     * @param pThreshold iso level
+     */
+    public static void trianglesIndexed(IndexedMesh pMesh, float[][][] pGridValues, float pThreshold) {
+        trianglesIndexed(pMesh, toField(pGridValues), pThreshold);
+    }
+
+    /**
+     * extracts the isosurface as an indexed mesh with positions in the world space of the field. does not allocate
+     * once the mesh and the per thread edge cache have grown to size.
+     *
+     * @param pMesh mesh to append vertices and triangles to
+     * @param pField scalar field
+     * @param pThreshold iso level
+     */
+    public static void trianglesIndexed(IndexedMesh pMesh, ScalarField3D pField, float pThreshold) {
+        trianglesIndexed(pMesh, pField, pThreshold, null, 0, pField.sizeX() - 1, null);
+    }
+
+    /**
+     * extracts the isosurface as an indexed mesh. if the mesh has normals enabled they are computed from an analytic
+     * gradient while the vertices are created. normals point towards decreasing field values.
+     *
+     * @param pGradient analytic gradient of the field or null to interpolate central differences of the field
+     */
+    public static void trianglesIndexed(IndexedMesh pMesh,
+                                        ScalarField3D pField,
+                                        float pThreshold,
+                                        ScalarGradient pGradient) {
+        trianglesIndexed(pMesh, pField, pThreshold, pGradient, 0, pField.sizeX() - 1, null);
+    }
+
+    /**
+     * polygonises the cells of the slabs [ pFromX, pToX ). if <code>pBoundary</code> is not null it receives copies
+     * of the vertex indices of the y- and z-edges on the first ( slots 0 and 1 ) and last ( slots 2 and 3 ) layer.
+     */
+    static void trianglesIndexed(IndexedMesh pMesh,
+                                 ScalarField3D pField,
+                                 float pThreshold,
+                                 ScalarGradient pGradient,
+                                 int pFromX,
+                                 int pToX,
+                                 int[][] pBoundary) {
+        final int mLayerSize = pField.sizeY() * pField.sizeZ();
+        final int[][] mEdgeCache = edgeCache(mLayerSize);
+        final float[] values = new float[8];
+        final int[] vertices = new int[12];
+        final float[] mGradients = new float[6];
+        final float[] v = pField.values();
+        final int sx = pField.strideX();
+        final int sy = pField.strideY();
+        for (int x = pFromX; x < pToX; x++) {
+            for (int y = 0; y < pField.sizeY() - 1; y++) {
+                for (int z = 0; z < pField.sizeZ() - 1; z++) {
+                    final int i = x * sx + y * sy + z;
+                    values[0] = v[i + 1];
+                    values[1] = v[i + sx + 1];
+                    values[2] = v[i + sx];
+                    values[3] = v[i];
+                    values[4] = v[i + sy + 1];
+                    values[5] = v[i + sx + sy + 1];
+                    values[6] = v[i + sx + sy];
+                    values[7] = v[i + sy];
+                    final int cubeindex = cubeIndex(values, pThreshold);
+                    final int mEdges = mEdgeTable[cubeindex];
+                    if (mEdges == 0) {
+                        continue;
+                    }
+                    for (int j = 0; j < 12; j++) {
+                        if ((mEdges & (1 << j)) != 0) {
+                            vertices[j] = edgeVertex(pMesh, mEdgeCache, pField, pThreshold, pGradient, mGradients,
+                                                     x, y, z, j);
+                        }
+                    }
+                    for (int j = 0; mTriTable[cubeindex][j] != -1; j += 3) {
+                        pMesh.addTriangle(vertices[mTriTable[cubeindex][j]],
+                                          vertices[mTriTable[cubeindex][j + 1]],
+                                          vertices[mTriTable[cubeindex][j + 2]]);
+                    }
+                }
+            }
+            if (pBoundary != null && x == pFromX) {
+                System.arraycopy(mEdgeCache[1], 0, pBoundary[0], 0, mLayerSize);
+                System.arraycopy(mEdgeCache[3], 0, pBoundary[1], 0, mLayerSize);
+            }
+            /* upper layer becomes lower layer of the next slice */
+            int[] mTemp = mEdgeCache[1];
+            mEdgeCache[1] = mEdgeCache[2];
+            mEdgeCache[2] = mTemp;
+            mTemp = mEdgeCache[3];
+            mEdgeCache[3] = mEdgeCache[4];
+            mEdgeCache[4] = mTemp;
+            Arrays.fill(mEdgeCache[0], 0, mLayerSize, -1);
+            Arrays.fill(mEdgeCache[2], 0, mLayerSize, -1);
+            Arrays.fill(mEdgeCache[4], 0, mLayerSize, -1);
+        }
+        if (pBoundary != null) {
+            System.arraycopy(mEdgeCache[1], 0, pBoundary[2], 0, mLayerSize);
+            System.arraycopy(mEdgeCache[3], 0, pBoundary[3], 0, mLayerSize);
+        }
+    }
+
+    private static int edgeVertex(IndexedMesh pMesh,
+                                  int[][] pEdgeCache,
+                                  ScalarField3D pField,
+                                  float pIsoLevel,
+                                  ScalarGradient pGradient,
+                                  float[] pGradients,
+                                  int x, int y, int z,
+                                  int pEdge) {
+        final int[] mLattice = mEdgeLattice[pEdge];
+        final int[] mCache = pEdgeCache[mEdgeSlot[pEdge]];
+        final int ax = x + mLattice[1];
+        final int ay = y + mLattice[2];
+        final int az = z + mLattice[3];
+        final int mKey = ay * pField.sizeZ() + az;
+        if (mCache[mKey] < 0) {
+            final int bx = mLattice[0] == 0 ? ax + 1 : ax;
+            final int by = mLattice[0] == 1 ? ay + 1 : ay;
+            final int bz = mLattice[0] == 2 ? az + 1 : az;
+            final float va = pField.get(ax, ay, az);
+            final float vb = pField.get(bx, by, bz);
+            final float mu = (pIsoLevel - va) / (vb - va);
+            final float px = pField.positionX(ax + mu * (bx - ax));
+            final float py = pField.positionY(ay + mu * (by - ay));
+            final float pz = pField.positionZ(az + mu * (bz - az));
+            if (pMesh.hasNormals()) {
+                if (pGradient != null) {
+                    pGradient.gradient(px, py, pz, pGradients);
+                } else {
+                    /* interpolate the gradients of both edge end points */
+                    pField.gradient(bx, by, bz, pGradients);
+                    final float gx = pGradients[0];
+                    final float gy = pGradients[1];
+                    final float gz = pGradients[2];
+                    pField.gradient(ax, ay, az, pGradients);
+                    pGradients[0] += mu * (gx - pGradients[0]);
+                    pGradients[1] += mu * (gy - pGradients[1]);
+                    pGradients[2] += mu * (gz - pGradients[2]);
+                }
+                normalizeNegated(pGradients);
+                mCache[mKey] = pMesh.addVertex(px, py, pz, pGradients[0], pGradients[1], pGradients[2]);
+            } else {
+                mCache[mKey] = pMesh.addVertex(px, py, pz);
+            }
+        }
+        return mCache[mKey];
+    }
+
+    /* interpolates vectors given at the corners of a unit cube, corner index is x * 4 + y * 2 + z */
+    static void trilinear(float[] pCorners, float u, float v, float w, float[] pResult) {
+        for (int i = 0; i < 3; i++) {
+            final float a = pCorners[i] + w * (pCorners[3 + i] - pCorners[i]);
+            final float b = pCorners[6 + i] + w * (pCorners[9 + i] - pCorners[6 + i]);
+            final float c = pCorners[12 + i] + w * (pCorners[15 + i] - pCorners[12 + i]);
+            final float d = pCorners[18 + i] + w * (pCorners[21 + i] - pCorners[18 + i]);
+            final float e = a + v * (b - a);
+            final float f = c + v * (d - c);
+            pResult[i] = e + u * (f - e);
+        }
+    }
+
+    /* turns a gradient into a unit normal pointing towards decreasing values */
+    static void normalizeNegated(float[] pVector) {
+        final float mLength = (float) Math.sqrt(pVector[0] * pVector[0]
+                                                + pVector[1] * pVector[1]
+                                                + pVector[2] * pVector[2]);
+        if (mLength > 0) {
+            pVector[0] /= -mLength;
+            pVector[1] /= -mLength;
+            pVector[2] /= -mLength;
+        }
+    }
+
+    /* table access for the other extractors of this package */
+
+    static int edgeFlags(int pCubeIndex) {
+        return mEdgeTable[pCubeIndex];
+    }
+
+    static int[] triangleTable(int pCubeIndex) {
+        return mTriTable[pCubeIndex];
+    }
+
+    static int[] edgeLattice(int pEdge) {
+        return mEdgeLattice[pEdge];
+    }
+
+    static int cubeIndex(float[] pValues, float pIsoLevel) {
+        int cubeindex = 0;
+        for (int i = 0; i < 8; i++) {
+            if (pValues[i] < pIsoLevel) {
+                cubeindex |= 1 << i;
+            }
+        }
+        return cubeindex;
+    }
+
+    private static ScalarField3D toField(float[][][] pGridValues) {
+        final ScalarField3D mField = new ScalarField3D(pGridValues.length,
+                                                       pGridValues[0].length,
+                                                       pGridValues[0][0].length);
+        mField.set(pGridValues);
+        return mField;
+    }
+
+    /* slice cache of vertex indices, reused per thread and reset to -1 */
+    private static int[][] edgeCache(int pLayerSize) {
+        int[][] mCache = mEdgeCaches.get();
+        if (mCache == null || mCache[0].length < pLayerSize) {
+            mCache = new int[5][pLayerSize];
+            mEdgeCaches.set(mCache);
+        }
+        for (int i = 0; i < mCache.length; i++) {
+            Arrays.fill(mCache[i], 0, pLayerSize, -1);
+        }
+        return mCache;
+    }
+
+    /**
+     * polygonises single cells of a field into a sink. the scratch arrays are kept, so a marcher can polygonise any
+     * number of cells without allocating. not thread safe, use one marcher per thread.
+     */
+    static final class CellMarcher {
+
+        private final IsoSurfaceSink mSink;
+
+        private final ScalarField3D mField;
+
+        private final float mThreshold;
+
+        private final ScalarGradient mGradient;
+
+        private final boolean mNormals;
+
+        private final float[] mCornerGradients = new float[24];
+
+        private final float[] mCornerGradient = new float[3];
+
+        private final float[] positions = new float[24];
+
+        private final float[] values = new float[8];
+
+        private final float[] mEdgePositions = new float[36];
+
+        private final float[] mEdgeNormals = new float[36];
+
+        private final float[] mTriangle = new float[9];
+
+        private final float[] mTriangleNormals;
+
+        CellMarcher(IsoSurfaceSink pSink, ScalarField3D pField, float pThreshold, ScalarGradient pGradient) {
+            mSink = pSink;
+            mField = pField;
+            mThreshold = pThreshold;
+            mGradient = pGradient;
+            mNormals = pSink.normals();
+            mTriangleNormals = mNormals ? new float[9] : null;
+        }
+
+        /**
+         * @return corner mask of the cell, a bit is set for every corner below the iso level
+         */
+        int cubeIndex(int x, int y, int z) {
+            final float[] v = mField.values();
+            final int sx = mField.strideX();
+            final int sy = mField.strideY();
+            final int i = x * sx + y * sy + z;
+            values[0] = v[i + 1];
+            values[1] = v[i + sx + 1];
+            values[2] = v[i + sx];
+            values[3] = v[i];
+            values[4] = v[i + sy + 1];
+            values[5] = v[i + sx + sy + 1];
+            values[6] = v[i + sx + sy];
+            values[7] = v[i + sy];
+            return MarchingCubes.cubeIndex(values, mThreshold);
+        }
+
+        /**
+         * @return corner mask of the cell
+         */
+        int polygonise(int x, int y, int z) {
+            final int cubeindex = cubeIndex(x, y, z);
+            final int mEdges = mEdgeTable[cubeindex];
+            if (mEdges == 0) {
+                return cubeindex;
+            }
+            final float px0 = mField.positionX(x);
+            final float px1 = mField.positionX(x + 1);
+            final float py0 = mField.positionY(y);
+            final float py1 = mField.positionY(y + 1);
+            final float pz0 = mField.positionZ(z);
+            final float pz1 = mField.positionZ(z + 1);
+            setCorner(positions, 0, px0, py0, pz1);
+            setCorner(positions, 1, px1, py0, pz1);
+            setCorner(positions, 2, px1, py0, pz0);
+            setCorner(positions, 3, px0, py0, pz0);
+            setCorner(positions, 4, px0, py1, pz1);
+            setCorner(positions, 5, px1, py1, pz1);
+            setCorner(positions, 6, px1, py1, pz0);
+            setCorner(positions, 7, px0, py1, pz0);
+            if (mNormals && mGradient == null) {
+                for (int c = 0; c < 8; c++) {
+                    mField.gradient(x + (c >> 2), y + ((c >> 1) & 1), z + (c & 1), mCornerGradient);
+                    System.arraycopy(mCornerGradient, 0, mCornerGradients, c * 3, 3);
+                }
+            }
+
+            /* find the vertices where the surface intersects the cube, interpolated like VertexInterp */
+            for (int e = 0; e < 12; e++) {
+                if ((mEdges & (1 << e)) == 0) {
+                    continue;
+                }
+                final int a = mEdgeCorners[e][0] * 3;
+                final int b = mEdgeCorners[e][1] * 3;
+                final float mu = (mThreshold - values[a / 3]) / (values[b / 3] - values[a / 3]);
+                final float ex = positions[a] + mu * (positions[b] - positions[a]);
+                final float ey = positions[a + 1] + mu * (positions[b + 1] - positions[a + 1]);
+                final float ez = positions[a + 2] + mu * (positions[b + 2] - positions[a + 2]);
+                mEdgePositions[e * 3] = ex;
+                mEdgePositions[e * 3 + 1] = ey;
+                mEdgePositions[e * 3 + 2] = ez;
+                if (mNormals) {
+                    if (mGradient != null) {
+                        mGradient.gradient(ex, ey, ez, mCornerGradient);
+                    } else {
+                        trilinear(mCornerGradients,
+                                  (ex - px0) / (px1 - px0),
+                                  (ey - py0) / (py1 - py0),
+                                  (ez - pz0) / (pz1 - pz0),
+                                  mCornerGradient);
+                    }
+                    normalizeNegated(mCornerGradient);
+                    System.arraycopy(mCornerGradient, 0, mEdgeNormals, e * 3, 3);
+                }
+            }
+
+            /* create the triangles */
+            for (int j = 0; mTriTable[cubeindex][j] != -1; j += 3) {
+                for (int k = 0; k < 3; k++) {
+                    System.arraycopy(mEdgePositions, mTriTable[cubeindex][j + k] * 3, mTriangle, k * 3, 3);
+                    if (mNormals) {
+                        System.arraycopy(mEdgeNormals, mTriTable[cubeindex][j + k] * 3, mTriangleNormals, k * 3, 3);
+                    }
+                }
+                mSink.triangle(mTriangle, mTriangleNormals);
+            }
+            return cubeindex;
+        }
+    }
+
+    /* appends triangles to lists of points, the sink behind the PVector variants of triangles */
+    static class VectorSink
+            implements IsoSurfaceSink {
+
+        private final Vector<PVector> mTriangles;
+
+        private final Vector<PVector> mNormals;
+
+        VectorSink(Vector<PVector> pTriangles, Vector<PVector> pNormals) {
+            mTriangles = pTriangles;
+            mNormals = pNormals;
+        }
+
+        public boolean normals() {
+            return mNormals != null;
+        }
+
+        public void triangle(float[] pPositions, float[] pNormals) {
+            for (int i = 0; i < 9; i += 3) {
+                mTriangles.add(new PVector(pPositions[i], pPositions[i + 1], pPositions[i + 2]));
+                if (mNormals != null) {
+                    mNormals.add(new PVector(pNormals[i], pNormals[i + 1], pNormals[i + 2]));
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,22 @@
+/**
+ * generative gestaltung
+ *
+ */
+package de.hfkbremen.generativegestaltung.implicitsurface.marchingcubes;
+
+
+/**
+ * <code>MarchingCubes.trianglesIndexed</code> as an extractor. up to five triangles per cell with vertices shared
+ * between neighbouring cells, many of them slivers where the surface passes close to a grid point.
+ */
+public class MarchingCubesExtractor
+        implements IsoSurfaceExtractor {
+
+    public void extract(IndexedMesh pMesh, ScalarField3D pField, float pThreshold, ScalarGradient pGradient) {
+        MarchingCubes.trianglesIndexed(pMesh, pField, pThreshold, pGradient);
+    }
+
+    public String toString() {
+        return "marching cubes";
+    }
+}
@@ -0,0 +1,250 @@
+/**
+ * generative gestaltung
+ *
+ */
+package de.hfkbremen.generativegestaltung.implicitsurface.marchingcubes;
+
+
+import java.util.Arrays;
+
+
+/**
+ * marching tetrahedra. every cell is split into six tetrahedra around its diagonal from corner ( 0, 0, 0 ) to
+ * ( 1, 1, 1 ) and each tetrahedron is polygonised with one of three cases: no surface, one triangle or a quad. the
+ * split is the same in every cell, so neighbouring cells agree on their shared faces and the mesh has no cracks and
+ * none of the ambiguous cases of marching cubes.
+ * <p>
+ * vertices lie on the cell edges and on the diagonals of the faces and the cell, so the surface is sampled more
+ * densely than with marching cubes and the mesh has about three times the triangles. an instance keeps its vertex
+ * index buffers between calls and must not be shared between threads.
+ */
+public class MarchingTetrahedra
+        implements IsoSurfaceExtractor {
+
+    /* the six tetrahedra of a cell, corner index is x * 4 + y * 2 + z. every tetrahedron walks from corner 0 to
+     * corner 7 along one axis after the other, so of any two of its corners one is the other plus some axes */
+    private static final int[][] mTetrahedra = {
+        {0, 4, 6, 7},
+        {0, 4, 5, 7},
+        {0, 2, 6, 7},
+        {0, 2, 3, 7},
+        {0, 1, 5, 7},
+        {0, 1, 3, 7}
+    };
+
+    /* triangles per tetrahedron and case as edges ( lower corner << 3 | upper corner ), case bit j is set if corner j
+     * of the tetrahedron is below the iso level */
+    private static final int[][][] mTriangles = new int[mTetrahedra.length][16][];
+
+    static {
+        for (int t = 0; t < mTetrahedra.length; t++) {
+            for (int mCase = 0; mCase < 16; mCase++) {
+                mTriangles[t][mCase] = triangles(mTetrahedra[t], mCase);
+            }
+        }
+    }
+
+    /* vertex indices of the edges starting at the grid points of layer x and x + 1, by edge direction */
+    private int[][][] mEdgeCache = new int[2][8][0];
+
+    private final float[] mValues = new float[8];
+
+    private final float[] mGradients = new float[6];
+
+    public void extract(IndexedMesh pMesh, ScalarField3D pField, float pThreshold, ScalarGradient pGradient) {
+        final int mLayerSize = pField.sizeY() * pField.sizeZ();
+        if (mEdgeCache[0][0].length < mLayerSize) {
+            mEdgeCache = new int[2][8][mLayerSize];
+        }
+        for (int i = 0; i < 8; i++) {
+            Arrays.fill(mEdgeCache[0][i], 0, mLayerSize, -1);
+            Arrays.fill(mEdgeCache[1][i], 0, mLayerSize, -1);
+        }
+        final float[] v = pField.values();
+        final int sx = pField.strideX();
+        final int sy = pField.strideY();
+        for (int x = 0; x < pField.sizeX() - 1; x++) {
+            for (int y = 0; y < pField.sizeY() - 1; y++) {
+                for (int z = 0; z < pField.sizeZ() - 1; z++) {
+                    final int i = x * sx + y * sy + z;
+                    mValues[0] = v[i];
+                    mValues[1] = v[i + 1];
+                    mValues[2] = v[i + sy];
+                    mValues[3] = v[i + sy + 1];
+                    mValues[4] = v[i + sx];
+                    mValues[5] = v[i + sx + 1];
+                    mValues[6] = v[i + sx + sy];
+                    mValues[7] = v[i + sx + sy + 1];
+                    int mMask = 0;
+                    for (int k = 0; k < 8; k++) {
+                        if (mValues[k] < pThreshold) {
+                            mMask |= 1 << k;
+                        }
+                    }
+                    if (mMask == 0 || mMask == 0xff) {
+                        continue;
+                    }
+                    for (int t = 0; t < mTetrahedra.length; t++) {
+                        final int[] mCorners = mTetrahedra[t];
+                        final int mCase = ((mMask >> mCorners[0]) & 1)
+                                          | ((mMask >> mCorners[1]) & 1) << 1
+                                          | ((mMask >> mCorners[2]) & 1) << 2
+                                          | ((mMask >> mCorners[3]) & 1) << 3;
+                        final int[] mEdges = mTriangles[t][mCase];
+                        for (int j = 0; j < mEdges.length; j += 3) {
+                            pMesh.addTriangle(edgeVertex(pMesh, pField, pThreshold, pGradient, x, y, z, mEdges[j]),
+                                              edgeVertex(pMesh, pField, pThreshold, pGradient, x, y, z, mEdges[j + 1]),
+                                              edgeVertex(pMesh, pField, pThreshold, pGradient, x, y, z, mEdges[j + 2]));
+                        }
+                    }
+                }
+            }
+            /* upper layer becomes lower layer of the next slice */
+            final int[][] mTemp = mEdgeCache[0];
+            mEdgeCache[0] = mEdgeCache[1];
+            mEdgeCache[1] = mTemp;
+            for (int i = 0; i < 8; i++) {
+                Arrays.fill(mEdgeCache[1][i], 0, mLayerSize, -1);
+            }
+        }
+    }
+
+    private int edgeVertex(IndexedMesh pMesh,
+                           ScalarField3D pField,
+                           float pThreshold,
+                           ScalarGradient pGradient,
+                           int x, int y, int z,
+                           int pEdge) {
+        final int a = pEdge >> 3;
+        final int b = pEdge & 7;
+        final int[] mCache = mEdgeCache[a >> 2][a ^ b];
+        final int ax = x + (a >> 2);
+        final int ay = y + ((a >> 1) & 1);
+        final int az = z + (a & 1);
+        final int mKey = ay * pField.sizeZ() + az;
+        if (mCache[mKey] < 0) {
+            final int bx = x + (b >> 2);
+            final int by = y + ((b >> 1) & 1);
+            final int bz = z + (b & 1);
+            final float va = mValues[a];
+            final float vb = mValues[b];
+            final float mu = (pThreshold - va) / (vb - va);
+            final float px = pField.positionX(ax + mu * (bx - ax));
+            final float py = pField.positionY(ay + mu * (by - ay));
+            final float pz = pField.positionZ(az + mu * (bz - az));
+            if (pMesh.hasNormals()) {
+                if (pGradient != null) {
+                    pGradient.gradient(px, py, pz, mGradients);
+                } else {
+                    /* interpolate the gradients of both edge end points */
+                    pField.gradient(bx, by, bz, mGradients);
+                    final float gx = mGradients[0];
+                    final float gy = mGradients[1];
+                    final float gz = mGradients[2];
+                    pField.gradient(ax, ay, az, mGradients);
+                    mGradients[0] += mu * (gx - mGradients[0]);
+                    mGradients[1] += mu * (gy - mGradients[1]);
+                    mGradients[2] += mu * (gz - mGradients[2]);
+                }
+                MarchingCubes.normalizeNegated(mGradients);
+                mCache[mKey] = pMesh.addVertex(px, py, pz, mGradients[0], mGradients[1], mGradients[2]);
+            } else {
+                mCache[mKey] = pMesh.addVertex(px, py, pz);
+            }
+        }
+        return mCache[mKey];
+    }
+
+    /* builds the triangles of one case, wound so that their normals point towards the corners below the iso level */
+    private static int[] triangles(int[] pCorners, int pCase) {
+        final int mBelow = Integer.bitCount(pCase);
+        if (mBelow == 0 || mBelow == 4) {
+            return new int[0];
+        }
+        final int[] mEdges;
+        if (mBelow == 2) {
+            final int[] mIn = new int[2];
+            final int[] mOut = new int[2];
+            int mInCount = 0;
+            int mOutCount = 0;
+            for (int j = 0; j < 4; j++) {
+                if ((pCase & (1 << j)) != 0) {
+                    mIn[mInCount++] = pCorners[j];
+                } else {
+                    mOut[mOutCount++] = pCorners[j];
+                }
+            }
+            /* quad around the four edges between the two pairs */
+            final int ik = edge(mIn[0], mOut[0]);
+            final int il = edge(mIn[0], mOut[1]);
+            final int jl = edge(mIn[1], mOut[1]);
+            final int jk = edge(mIn[1], mOut[0]);
+            mEdges = new int[]{ik, il, jl, ik, jl, jk};
+        } else {
+            /* the corner that is alone on its side */
+            int mLone = 0;
+            for (int j = 0; j < 4; j++) {
+                if (((pCase >> j) & 1) == (mBelow == 1 ? 1 : 0)) {
+                    mLone = j;
+                }
+            }
+            mEdges = new int[3];
+            int n = 0;
+            for (int j = 0; j < 4; j++) {
+                if (j != mLone) {
+                    mEdges[n++] = edge(pCorners[mLone], pCorners[j]);
+                }
+            }
+        }
+
+        /* any corner below minus any corner above points to the side of decreasing values */
+        int mLow = 0;
+        int mHigh = 0;
+        for (int j = 0; j < 4; j++) {
+            if ((pCase & (1 << j)) != 0) {
+                mLow = pCorners[j];
+            } else {
+                mHigh = pCorners[j];
+            }
+        }
+        final float dx = (mLow >> 2) - (mHigh >> 2);
+        final float dy = ((mLow >> 1) & 1) - ((mHigh >> 1) & 1);
+        final float dz = (mLow & 1) - (mHigh & 1);
+        for (int j = 0; j < mEdges.length; j += 3) {
+            final float[] p0 = midpoint(mEdges[j]);
+            final float[] p1 = midpoint(mEdges[j + 1]);
+            final float[] p2 = midpoint(mEdges[j + 2]);
+            final float ux = p1[0] - p0[0];
+            final float uy = p1[1] - p0[1];
+            final float uz = p1[2] - p0[2];
+            final float vx = p2[0] - p0[0];
+            final float vy = p2[1] - p0[1];
+            final float vz = p2[2] - p0[2];
+            final float nx = uy * vz - uz * vy;
+            final float ny = uz * vx - ux * vz;
+            final float nz = ux * vy - uy * vx;
+            if (nx * dx + ny * dy + nz * dz < 0) {
+                final int mTemp = mEdges[j + 1];
+                mEdges[j + 1] = mEdges[j + 2];
+                mEdges[j + 2] = mTemp;
+            }
+        }
+        return mEdges;
+    }
+
+    private static int edge(int a, int b) {
+        return Math.min(a, b) << 3 | Math.max(a, b);
+    }
+
+    private static float[] midpoint(int pEdge) {
+        final int a = pEdge >> 3;
+        final int b = pEdge & 7;
+        return new float[]{((a >> 2) + (b >> 2)) * 0.5f,
+                           (((a >> 1) & 1) + ((b >> 1) & 1)) * 0.5f,
+                           ((a & 1) + (b & 1)) * 0.5f};
+    }
+
+    public String toString() {
+        return "marching tetrahedra";
+    }
+}
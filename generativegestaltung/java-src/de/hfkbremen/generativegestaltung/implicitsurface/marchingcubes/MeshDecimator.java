@@ -0,0 +1,548 @@
+/**
+ * generative gestaltung
+ *
+ */
+package de.hfkbremen.generativegestaltung.implicitsurface.marchingcubes;
+
+
+import java.util.Arrays;
+
+
+/**
+ * simplifies indexed meshes by collapsing edges in order of their quadric error ( garland and heckbert, "surface
+ * simplification using quadric error metrics", 1997 ). flat and slowly curving regions of an isosurface lose most of
+ * their triangles while features are kept.
+ * <p>
+ * vertices on the boundary of the mesh ( edges with a single triangle ) and on non-manifold edges are never moved,
+ * so open borders, e.g. where a surface leaves the grid, stay exactly where they are. collapses that would flip a
+ * triangle or make the mesh non-manifold are skipped.
+ * <p>
+ * a decimator keeps its working arrays between calls, so decimating every few frames does not allocate once the
+ * arrays are large enough. an instance must not be used by several threads at the same time, but it can run on a
+ * background thread while the last result is drawn.
+ */
+public class MeshDecimator {
+
+    private int mVertexCount;
+
+    private int mFaceCount;
+
+    private int mLiveFaces;
+
+    private float[] mPositions = new float[0];
+
+    private float[] mNormals = new float[0];
+
+    private boolean mHasNormals;
+
+    /* a2, ab, ac, ad, b2, bc, bd, c2, cd, d2 per vertex */
+    private double[] mQuadrics = new double[0];
+
+    private boolean[] mLocked = new boolean[0];
+
+    private boolean[] mDeadVertices = new boolean[0];
+
+    /* incremented whenever the quadric or position of a vertex changes, invalidates its queued edges */
+    private int[] mVersions = new int[0];
+
+    private int[] mFaces = new int[0];
+
+    private boolean[] mDeadFaces = new boolean[0];
+
+    /* corners ( face * 3 + i ) around every vertex as singly linked lists */
+    private int[] mFirstCorner = new int[0];
+
+    private int[] mNextCorner = new int[0];
+
+    private int[] mMarks = new int[0];
+
+    private int mMark;
+
+    private int[] mRemap = new int[0];
+
+    private final LongIntMap mEdges = new LongIntMap();
+
+    /* candidate collapses, cost, end points and their versions when the candidate was queued */
+    private float[] mCandidateCost = new float[0];
+
+    private int[] mCandidateVertices = new int[0];
+
+    private int[] mCandidateVersions = new int[0];
+
+    private int mCandidateCount;
+
+    /* binary min heap of candidates */
+    private int[] mHeap = new int[0];
+
+    private int mHeapSize;
+
+    private final double[] mQuadric = new double[10];
+
+    private final float[] mPosition = new float[3];
+
+    private float mError;
+
+    /**
+     * decimates a mesh until it has at most <code>pTargetTriangles</code> triangles or the error of the next collapse
+     * exceeds <code>pMaxError</code>, whichever comes first. <code>pMesh</code> and <code>pResult</code> may be the
+     * same mesh. normals are carried over if the input has them.
+     * <p>
+     * the error of a collapse is the root of its quadric error, the summed squared distances of the new vertex from
+     * the planes of the original triangles around the collapsed vertices. a plane can count more than once. the error
+     * is never smaller than the distance from any single plane, so <code>pMaxError</code> bounds that distance, but
+     * loosely where many triangles are merged.
+     *
+     * @param pTargetTriangles number of triangles to stop at, 0 to only use the error bound
+     * @param pMaxError largest root of the summed quadric error of a collapse, use Float.MAX_VALUE to only use the
+     * target count
+     */
+    public void decimate(IndexedMesh pMesh, IndexedMesh pResult, int pTargetTriangles, float pMaxError) {
+        load(pMesh);
+        final double mMaxCost = (double) pMaxError * pMaxError;
+        mError = 0;
+        while (mLiveFaces > pTargetTriangles && mHeapSize > 0) {
+            final int mCandidate = pop();
+            final float mCost = mCandidateCost[mCandidate];
+            final int a = mCandidateVertices[mCandidate * 2];
+            final int b = mCandidateVertices[mCandidate * 2 + 1];
+            if (mDeadVertices[a] || mDeadVertices[b]
+                    || mVersions[a] != mCandidateVersions[mCandidate * 2]
+                    || mVersions[b] != mCandidateVersions[mCandidate * 2 + 1]) {
+                continue;
+            }
+            if (mCost > mMaxCost) {
+                break;
+            }
+            cost(a, b, mPosition);
+            if (!linkConditionHolds(a, b) || flips(a, b, mPosition) || flips(b, a, mPosition)) {
+                continue;
+            }
+            collapse(a, b, mPosition);
+            mError = Math.max(mError, mCost);
+            queueEdges(a);
+        }
+        store(pResult);
+    }
+
+    /**
+     * @return root of the largest summed quadric error of the collapses of the last <code>decimate</code>, see
+     * <code>decimate</code>
+     */
+    public float error() {
+        return (float) Math.sqrt(mError);
+    }
+
+    private void load(IndexedMesh pMesh) {
+        mVertexCount = pMesh.vertexCount();
+        mFaceCount = pMesh.triangleCount();
+        mLiveFaces = mFaceCount;
+        mHasNormals = pMesh.hasNormals();
+        if (mLocked.length < mVertexCount) {
+            final int mCapacity = Math.max(mVertexCount, mLocked.length * 2);
+            mPositions = new float[mCapacity * 3];
+            mNormals = new float[mCapacity * 3];
+            mQuadrics = new double[mCapacity * 10];
+            mLocked = new boolean[mCapacity];
+            mDeadVertices = new boolean[mCapacity];
+            mVersions = new int[mCapacity];
+            mFirstCorner = new int[mCapacity];
+            mMarks = new int[mCapacity];
+            mRemap = new int[mCapacity];
+        }
+        if (mDeadFaces.length < mFaceCount) {
+            final int mCapacity = Math.max(mFaceCount, mDeadFaces.length * 2);
+            mFaces = new int[mCapacity * 3];
+            mNextCorner = new int[mCapacity * 3];
+            mDeadFaces = new boolean[mCapacity];
+        }
+        System.arraycopy(pMesh.vertices(), 0, mPositions, 0, mVertexCount * 3);
+        if (mHasNormals) {
+            System.arraycopy(pMesh.normals(), 0, mNormals, 0, mVertexCount * 3);
+        }
+        System.arraycopy(pMesh.indices(), 0, mFaces, 0, mFaceCount * 3);
+        Arrays.fill(mQuadrics, 0, mVertexCount * 10, 0);
+        Arrays.fill(mLocked, 0, mVertexCount, false);
+        Arrays.fill(mDeadVertices, 0, mVertexCount, false);
+        Arrays.fill(mVersions, 0, mVertexCount, 0);
+        Arrays.fill(mMarks, 0, mVertexCount, 0);
+        Arrays.fill(mFirstCorner, 0, mVertexCount, -1);
+        Arrays.fill(mDeadFaces, 0, mFaceCount, false);
+        mMark = 0;
+
+        /* corner lists and plane quadrics */
+        for (int c = mFaceCount * 3 - 1; c >= 0; c--) {
+            mNextCorner[c] = mFirstCorner[mFaces[c]];
+            mFirstCorner[mFaces[c]] = c;
+        }
+        for (int f = 0; f < mFaceCount; f++) {
+            addPlaneQuadric(f);
+        }
+
+        /* count the triangles of every edge, vertices of boundary and non-manifold edges are locked */
+        mEdges.clear();
+        for (int c = 0; c < mFaceCount * 3; c++) {
+            final long mKey = edgeKey(mFaces[c], mFaces[next(c)]);
+            final int mSlot = mEdges.find(mKey);
+            mEdges.put(mKey, mSlot >= 0 ? mEdges.valueAt(mSlot) + 1 : 1);
+        }
+        for (int c = 0; c < mFaceCount * 3; c++) {
+            final int a = mFaces[c];
+            final int b = mFaces[next(c)];
+            if (mEdges.valueAt(mEdges.find(edgeKey(a, b))) != 2) {
+                mLocked[a] = true;
+                mLocked[b] = true;
+            }
+        }
+
+        /* queue every edge once */
+        mCandidateCount = 0;
+        mHeapSize = 0;
+        for (int c = 0; c < mFaceCount * 3; c++) {
+            final int a = mFaces[c];
+            final int b = mFaces[next(c)];
+            final long mKey = edgeKey(a, b);
+            if (mEdges.valueAt(mEdges.find(mKey)) > 0) {
+                mEdges.put(mKey, 0);
+                if (!mLocked[a] && !mLocked[b]) {
+                    push(a, b);
+                }
+            }
+        }
+    }
+
+    private void store(IndexedMesh pResult) {
+        pResult.clear();
+        pResult.normals(mHasNormals);
+        Arrays.fill(mRemap, 0, mVertexCount, -1);
+        for (int f = 0; f < mFaceCount; f++) {
+            if (mDeadFaces[f]) {
+                continue;
+            }
+            for (int i = 0; i < 3; i++) {
+                final int v = mFaces[f * 3 + i];
+                if (mRemap[v] < 0) {
+                    final int j = v * 3;
+                    if (mHasNormals) {
+                        mRemap[v] = pResult.addVertex(mPositions[j], mPositions[j + 1], mPositions[j + 2],
+                                                      mNormals[j], mNormals[j + 1], mNormals[j + 2]);
+                    } else {
+                        mRemap[v] = pResult.addVertex(mPositions[j], mPositions[j + 1], mPositions[j + 2]);
+                    }
+                }
+            }
+            pResult.addTriangle(mRemap[mFaces[f * 3]], mRemap[mFaces[f * 3 + 1]], mRemap[mFaces[f * 3 + 2]]);
+        }
+    }
+
+    private void addPlaneQuadric(int pFace) {
+        final int a = mFaces[pFace * 3] * 3;
+        final int b = mFaces[pFace * 3 + 1] * 3;
+        final int c = mFaces[pFace * 3 + 2] * 3;
+        final double ux = mPositions[b] - mPositions[a];
+        final double uy = mPositions[b + 1] - mPositions[a + 1];
+        final double uz = mPositions[b + 2] - mPositions[a + 2];
+        final double vx = mPositions[c] - mPositions[a];
+        final double vy = mPositions[c + 1] - mPositions[a + 1];
+        final double vz = mPositions[c + 2] - mPositions[a + 2];
+        double nx = uy * vz - uz * vy;
+        double ny = uz * vx - ux * vz;
+        double nz = ux * vy - uy * vx;
+        final double mLength = Math.sqrt(nx * nx + ny * ny + nz * nz);
+        if (mLength == 0) {
+            return;
+        }
+        nx /= mLength;
+        ny /= mLength;
+        nz /= mLength;
+        final double d = -(nx * mPositions[a] + ny * mPositions[a + 1] + nz * mPositions[a + 2]);
+        for (int i = 0; i < 3; i++) {
+            final int q = mFaces[pFace * 3 + i] * 10;
+            mQuadrics[q] += nx * nx;
+            mQuadrics[q + 1] += nx * ny;
+            mQuadrics[q + 2] += nx * nz;
+            mQuadrics[q + 3] += nx * d;
+            mQuadrics[q + 4] += ny * ny;
+            mQuadrics[q + 5] += ny * nz;
+            mQuadrics[q + 6] += ny * d;
+            mQuadrics[q + 7] += nz * nz;
+            mQuadrics[q + 8] += nz * d;
+            mQuadrics[q + 9] += d * d;
+        }
+    }
+
+    /**
+     * error of collapsing an edge and the position of the remaining vertex. the position minimizes the combined
+     * quadric if it is well conditioned, otherwise the best of the end points and the midpoint is used.
+     */
+    private double cost(int a, int b, float[] pPosition) {
+        final double[] q = mQuadric;
+        for (int i = 0; i < 10; i++) {
+            q[i] = mQuadrics[a * 10 + i] + mQuadrics[b * 10 + i];
+        }
+        final float ax = mPositions[a * 3];
+        final float ay = mPositions[a * 3 + 1];
+        final float az = mPositions[a * 3 + 2];
+        final float bx = mPositions[b * 3];
+        final float by = mPositions[b * 3 + 1];
+        final float bz = mPositions[b * 3 + 2];
+
+        /* solve A v = -b with cramer's rule */
+        final double c0 = q[4] * q[7] - q[5] * q[5];
+        final double c1 = q[2] * q[5] - q[1] * q[7];
+        final double c2 = q[1] * q[5] - q[2] * q[4];
+        final double mDet = q[0] * c0 + q[1] * c1 + q[2] * c2;
+        final double mScale = q[0] + q[4] + q[7];
+        if (Math.abs(mDet) > 1e-6 * mScale * mScale * mScale) {
+            final double x = -(q[3] * c0 + q[6] * c1 + q[8] * c2) / mDet;
+            final double y = -(q[3] * c1
+                               + q[6] * (q[0] * q[7] - q[2] * q[2])
+                               + q[8] * (q[1] * q[2] - q[0] * q[5])) / mDet;
+            final double z = -(q[3] * c2
+                               + q[6] * (q[2] * q[1] - q[0] * q[5])
+                               + q[8] * (q[0] * q[4] - q[1] * q[1])) / mDet;
+            /* reject optima far away from the edge, they come from nearly flat regions */
+            final double mx = x - (ax + bx) * 0.5;
+            final double my = y - (ay + by) * 0.5;
+            final double mz = z - (az + bz) * 0.5;
+            final double ex = bx - ax;
+            final double ey = by - ay;
+            final double ez = bz - az;
+            if (mx * mx + my * my + mz * mz <= 4 * (ex * ex + ey * ey + ez * ez)) {
+                pPosition[0] = (float) x;
+                pPosition[1] = (float) y;
+                pPosition[2] = (float) z;
+                return error(q, pPosition[0], pPosition[1], pPosition[2]);
+            }
+        }
+        double mBest = error(q, ax, ay, az);
+        pPosition[0] = ax;
+        pPosition[1] = ay;
+        pPosition[2] = az;
+        final double mErrorB = error(q, bx, by, bz);
+        if (mErrorB < mBest) {
+            mBest = mErrorB;
+            pPosition[0] = bx;
+            pPosition[1] = by;
+            pPosition[2] = bz;
+        }
+        final float cx = (ax + bx) * 0.5f;
+        final float cy = (ay + by) * 0.5f;
+        final float cz = (az + bz) * 0.5f;
+        final double mErrorC = error(q, cx, cy, cz);
+        if (mErrorC < mBest) {
+            mBest = mErrorC;
+            pPosition[0] = cx;
+            pPosition[1] = cy;
+            pPosition[2] = cz;
+        }
+        return mBest;
+    }
+
+    private static double error(double[] q, double x, double y, double z) {
+        final double e = q[0] * x * x + 2 * q[1] * x * y + 2 * q[2] * x * z + 2 * q[3] * x
+                         + q[4] * y * y + 2 * q[5] * y * z + 2 * q[6] * y
+                         + q[7] * z * z + 2 * q[8] * z
+                         + q[9];
+        return Math.max(0, e);
+    }
+
+    /* an edge can be collapsed without creating non-manifold geometry if its end points share exactly the vertices
+     * opposite to it */
+    private boolean linkConditionHolds(int a, int b) {
+        final int mMarkA = ++mMark;
+        final int mMarkShared = ++mMark;
+        int mSharedFaces = 0;
+        for (int c = mFirstCorner[a]; c >= 0; c = mNextCorner[c]) {
+            final int f = c / 3;
+            if (mDeadFaces[f]) {
+                continue;
+            }
+            final int v1 = mFaces[next(c)];
+            final int v2 = mFaces[next(next(c))];
+            if (v1 == b || v2 == b) {
+                mSharedFaces++;
+            }
+            mMarks[v1] = mMarkA;
+            mMarks[v2] = mMarkA;
+        }
+        int mSharedVertices = 0;
+        for (int c = mFirstCorner[b]; c >= 0; c = mNextCorner[c]) {
+            if (mDeadFaces[c / 3]) {
+                continue;
+            }
+            for (int i = 1; i < 3; i++) {
+                final int v = mFaces[i == 1 ? next(c) : next(next(c))];
+                if (v != a && mMarks[v] == mMarkA) {
+                    mMarks[v] = mMarkShared;
+                    mSharedVertices++;
+                }
+            }
+        }
+        return mSharedFaces == 2 && mSharedVertices == 2;
+    }
+
+    /* true if moving a to the position flips one of the triangles of a that does not contain b */
+    private boolean flips(int a, int b, float[] pPosition) {
+        for (int c = mFirstCorner[a]; c >= 0; c = mNextCorner[c]) {
+            if (mDeadFaces[c / 3]) {
+                continue;
+            }
+            final int v1 = mFaces[next(c)] * 3;
+            final int v2 = mFaces[next(next(c))] * 3;
+            if (v1 == b * 3 || v2 == b * 3) {
+                continue;
+            }
+            final int p = a * 3;
+            final float e1x = mPositions[v1] - mPositions[p];
+            final float e1y = mPositions[v1 + 1] - mPositions[p + 1];
+            final float e1z = mPositions[v1 + 2] - mPositions[p + 2];
+            final float e2x = mPositions[v2] - mPositions[p];
+            final float e2y = mPositions[v2 + 1] - mPositions[p + 1];
+            final float e2z = mPositions[v2 + 2] - mPositions[p + 2];
+            final float f1x = mPositions[v1] - pPosition[0];
+            final float f1y = mPositions[v1 + 1] - pPosition[1];
+            final float f1z = mPositions[v1 + 2] - pPosition[2];
+            final float f2x = mPositions[v2] - pPosition[0];
+            final float f2y = mPositions[v2 + 1] - pPosition[1];
+            final float f2z = mPositions[v2 + 2] - pPosition[2];
+            final float nx = e1y * e2z - e1z * e2y;
+            final float ny = e1z * e2x - e1x * e2z;
+            final float nz = e1x * e2y - e1y * e2x;
+            final float mx = f1y * f2z - f1z * f2y;
+            final float my = f1z * f2x - f1x * f2z;
+            final float mz = f1x * f2y - f1y * f2x;
+            if (nx * mx + ny * my + nz * mz <= 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /* moves a to the position and removes b */
+    private void collapse(int a, int b, float[] pPosition) {
+        mPositions[a * 3] = pPosition[0];
+        mPositions[a * 3 + 1] = pPosition[1];
+        mPositions[a * 3 + 2] = pPosition[2];
+        if (mHasNormals) {
+            float nx = mNormals[a * 3] + mNormals[b * 3];
+            float ny = mNormals[a * 3 + 1] + mNormals[b * 3 + 1];
+            float nz = mNormals[a * 3 + 2] + mNormals[b * 3 + 2];
+            final float mLength = (float) Math.sqrt(nx * nx + ny * ny + nz * nz);
+            if (mLength > 0) {
+                mNormals[a * 3] = nx / mLength;
+                mNormals[a * 3 + 1] = ny / mLength;
+                mNormals[a * 3 + 2] = nz / mLength;
+            }
+        }
+        for (int i = 0; i < 10; i++) {
+            mQuadrics[a * 10 + i] += mQuadrics[b * 10 + i];
+        }
+
+        /* triangles of b either contained the edge and vanish or now use a */
+        for (int c = mFirstCorner[b]; c >= 0; c = mNextCorner[c]) {
+            final int f = c / 3;
+            if (mDeadFaces[f]) {
+                continue;
+            }
+            if (mFaces[next(c)] == a || mFaces[next(next(c))] == a) {
+                mDeadFaces[f] = true;
+                mLiveFaces--;
+            } else {
+                mFaces[c] = a;
+            }
+        }
+
+        /* merge the corner lists and drop dead triangles on the way */
+        int mHead = -1;
+        for (int i = 0; i < 2; i++) {
+            int c = mFirstCorner[i == 0 ? a : b];
+            while (c >= 0) {
+                final int mNext = mNextCorner[c];
+                if (!mDeadFaces[c / 3]) {
+                    mNextCorner[c] = mHead;
+                    mHead = c;
+                }
+                c = mNext;
+            }
+        }
+        mFirstCorner[a] = mHead;
+        mFirstCorner[b] = -1;
+        mDeadVertices[b] = true;
+        mVersions[a]++;
+    }
+
+    /* queues the edges from a to its unlocked neighbours */
+    private void queueEdges(int a) {
+        final int mMarkQueued = ++mMark;
+        for (int c = mFirstCorner[a]; c >= 0; c = mNextCorner[c]) {
+            for (int i = 1; i < 3; i++) {
+                final int v = mFaces[i == 1 ? next(c) : next(next(c))];
+                if (mMarks[v] != mMarkQueued) {
+                    mMarks[v] = mMarkQueued;
+                    if (!mLocked[v]) {
+                        push(a, v);
+                    }
+                }
+            }
+        }
+    }
+
+    private void push(int a, int b) {
+        if (mCandidateCount == mCandidateCost.length) {
+            final int mCapacity = Math.max(64, mCandidateCost.length * 2);
+            mCandidateCost = Arrays.copyOf(mCandidateCost, mCapacity);
+            mCandidateVertices = Arrays.copyOf(mCandidateVertices, mCapacity * 2);
+            mCandidateVersions = Arrays.copyOf(mCandidateVersions, mCapacity * 2);
+            mHeap = Arrays.copyOf(mHeap, mCapacity);
+        }
+        final int mCandidate = mCandidateCount++;
+        final float mCost = (float) cost(a, b, mPosition);
+        mCandidateCost[mCandidate] = mCost;
+        mCandidateVertices[mCandidate * 2] = a;
+        mCandidateVertices[mCandidate * 2 + 1] = b;
+        mCandidateVersions[mCandidate * 2] = mVersions[a];
+        mCandidateVersions[mCandidate * 2 + 1] = mVersions[b];
+        int i = mHeapSize++;
+        while (i > 0) {
+            final int mParent = (i - 1) / 2;
+            if (mCandidateCost[mHeap[mParent]] <= mCost) {
+                break;
+            }
+            mHeap[i] = mHeap[mParent];
+            i = mParent;
+        }
+        mHeap[i] = mCandidate;
+    }
+
+    /* removes and returns the cheapest candidate */
+    private int pop() {
+        final int mTop = mHeap[0];
+        final int mLast = mHeap[--mHeapSize];
+        final float mCost = mCandidateCost[mLast];
+        int i = 0;
+        while (true) {
+            int mChild = i * 2 + 1;
+            if (mChild >= mHeapSize) {
+                break;
+            }
+            if (mChild + 1 < mHeapSize && mCandidateCost[mHeap[mChild + 1]] < mCandidateCost[mHeap[mChild]]) {
+                mChild++;
+            }
+            if (mCandidateCost[mHeap[mChild]] >= mCost) {
+                break;
+            }
+            mHeap[i] = mHeap[mChild];
+            i = mChild;
+        }
+        mHeap[i] = mLast;
+        return mTop;
+    }
+
+    private static int next(int pCorner) {
+        return pCorner % 3 == 2 ? pCorner - 2 : pCorner + 1;
+    }
+
+    private static long edgeKey(int a, int b) {
+        return a < b ? ((long) a << 32) | b : ((long) b << 32) | a;
+    }
+}
@@ -0,0 +1,139 @@
+/**
+ * generative gestaltung
+ *
+ */
+package de.hfkbremen.generativegestaltung.implicitsurface.marchingcubes;
+
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.util.List;
+import processing.core.PVector;
+
+
+/**
+ * base of the binary mesh writers. triangles are encoded into a direct little endian buffer that is written to a
+ * file channel whenever it is full, so meshes of any size are streamed with a constant amount of memory. as an
+ * <code>IsoSurfaceSink</code> a writer can be passed directly to the extractors.
+ * <p>
+ * <code>triangle</code> can not throw checked exceptions, io errors during streaming are rethrown as
+ * <code>UncheckedIOException</code>.
+ */
+public abstract class MeshWriter
+        implements IsoSurfaceSink, Closeable {
+
+    private static final int mBufferSize = 1 << 16;
+
+    private final RandomAccessFile mFile;
+
+    protected final FileChannel mChannel;
+
+    protected final ByteBuffer mBuffer;
+
+    private final float[] mPositions = new float[9];
+
+    private final float[] mNormals = new float[9];
+
+    protected MeshWriter(File pFile) throws IOException {
+        mFile = new RandomAccessFile(pFile, "rw");
+        mFile.setLength(0);
+        mChannel = mFile.getChannel();
+        mBuffer = ByteBuffer.allocateDirect(mBufferSize).order(ByteOrder.LITTLE_ENDIAN);
+    }
+
+    /**
+     * writes the triangles of an indexed mesh, with its normals if it has them and the writer wants them.
+     */
+    public void write(IndexedMesh pMesh) {
+        final float[] mVertices = pMesh.vertices();
+        final float[] mMeshNormals = pMesh.normals();
+        final boolean mWithNormals = normals() && mMeshNormals != null;
+        final int[] mIndices = pMesh.indices();
+        for (int i = 0; i < pMesh.indexCount(); i += 3) {
+            for (int j = 0; j < 3; j++) {
+                System.arraycopy(mVertices, mIndices[i + j] * 3, mPositions, j * 3, 3);
+                if (mWithNormals) {
+                    System.arraycopy(mMeshNormals, mIndices[i + j] * 3, mNormals, j * 3, 3);
+                }
+            }
+            triangle(mPositions, mWithNormals ? mNormals : null);
+        }
+    }
+
+    /**
+     * writes triangles stored as lists of points, e.g. from <code>MetaballManager</code>.
+     *
+     * @param pNormals a normal per point or null
+     */
+    public void write(List<PVector> pTriangles, List<PVector> pNormals) {
+        final boolean mWithNormals = normals() && pNormals != null;
+        for (int i = 0; i + 2 < pTriangles.size(); i += 3) {
+            for (int j = 0; j < 3; j++) {
+                final PVector p = pTriangles.get(i + j);
+                mPositions[j * 3] = p.x;
+                mPositions[j * 3 + 1] = p.y;
+                mPositions[j * 3 + 2] = p.z;
+                if (mWithNormals) {
+                    final PVector n = pNormals.get(i + j);
+                    mNormals[j * 3] = n.x;
+                    mNormals[j * 3 + 1] = n.y;
+                    mNormals[j * 3 + 2] = n.z;
+                }
+            }
+            triangle(mPositions, mWithNormals ? mNormals : null);
+        }
+    }
+
+    /**
+     * writes the remaining data, completes the file and closes it.
+     */
+    public void close() throws IOException {
+        try {
+            finish();
+            flush();
+        } finally {
+            mFile.close();
+        }
+    }
+
+    /**
+     * called by <code>close</code> before the buffer is flushed for the last time.
+     */
+    protected abstract void finish() throws IOException;
+
+    /**
+     * makes sure the buffer can take the next pBytes.
+     */
+    protected void reserve(int pBytes) {
+        if (mBuffer.remaining() < pBytes) {
+            try {
+                flush();
+            } catch (IOException ex) {
+                throw new UncheckedIOException(ex);
+            }
+        }
+    }
+
+    protected void flush() throws IOException {
+        mBuffer.flip();
+        while (mBuffer.hasRemaining()) {
+            mChannel.write(mBuffer);
+        }
+        mBuffer.clear();
+    }
+
+    /**
+     * writes bytes at an absolute position of the file, e.g. to fill in counts that are known only at the end.
+     */
+    protected void patch(long pPosition, ByteBuffer pBytes) throws IOException {
+        while (pBytes.hasRemaining()) {
+            pPosition += mChannel.write(pBytes, pPosition);
+        }
+    }
+}
@@ -0,0 +1,104 @@
+/**
+ * generative gestaltung
+ *
+ */
+package de.hfkbremen.generativegestaltung.implicitsurface.marchingcubes;
+
+
+import java.util.List;
+
+
+/**
+ * sum of the falloffs ( 1 - d^2 / r^2 )^2 * strength of a set of metaballs. the balls are copied into a flat array with
+ * <code>set</code>, so the function is a snapshot that can be evaluated from several threads while the balls keep
+ * moving.
+ */
+public class MetaballFunction
+        implements ScalarFunction, ScalarGradient {
+
+    /* x, y, z, radius squared, strength per ball */
+    private float[] mBalls = new float[0];
+
+    private int mCount;
+
+    public void set(List<Metaball> pMetaballs) {
+        if (mBalls.length < pMetaballs.size() * 5) {
+            mBalls = new float[pMetaballs.size() * 5];
+        }
+        mCount = pMetaballs.size();
+        for (int i = 0; i < mCount; i++) {
+            final Metaball myMetaball = pMetaballs.get(i);
+            mBalls[i * 5] = myMetaball.position.x;
+            mBalls[i * 5 + 1] = myMetaball.position.y;
+            mBalls[i * 5 + 2] = myMetaball.position.z;
+            mBalls[i * 5 + 3] = myMetaball.radius * myMetaball.radius;
+            mBalls[i * 5 + 4] = myMetaball.strength;
+        }
+    }
+
+    public int count() {
+        return mCount;
+    }
+
+    public float value(float x, float y, float z) {
+        float f = 0;
+        for (int i = 0; i < mCount * 5; i += 5) {
+            final float dx = mBalls[i] - x;
+            final float dy = mBalls[i + 1] - y;
+            final float dz = mBalls[i + 2] - z;
+            final float myDistanceSquared = dx * dx + dy * dy + dz * dz;
+            final float myRadiusSquared = mBalls[i + 3];
+            if (myDistanceSquared < myRadiusSquared) {
+                final float fallOff = 1f - (myDistanceSquared / myRadiusSquared);
+                f += fallOff * fallOff * mBalls[i + 4];
+            }
+        }
+        return f;
+    }
+
+    /**
+     * iterates the balls in the outer loop so the inner loop over the points is branch free.
+     */
+    public void values(float[] pX, float[] pY, float[] pZ, float[] pValues, int pCount) {
+        for (int i = 0; i < pCount; i++) {
+            pValues[i] = 0;
+        }
+        for (int j = 0; j < mCount * 5; j += 5) {
+            final float bx = mBalls[j];
+            final float by = mBalls[j + 1];
+            final float bz = mBalls[j + 2];
+            final float myRadiusSquared = mBalls[j + 3];
+            final float mStrength = mBalls[j + 4];
+            if (myRadiusSquared <= 0) {
+                continue;
+            }
+            for (int i = 0; i < pCount; i++) {
+                final float dx = bx - pX[i];
+                final float dy = by - pY[i];
+                final float dz = bz - pZ[i];
+                final float fallOff = Math.max(0, 1f - ((dx * dx + dy * dy + dz * dz) / myRadiusSquared));
+                pValues[i] += fallOff * fallOff * mStrength;
+            }
+        }
+    }
+
+    public void gradient(float x, float y, float z, float[] pGradient) {
+        pGradient[0] = 0;
+        pGradient[1] = 0;
+        pGradient[2] = 0;
+        for (int i = 0; i < mCount * 5; i += 5) {
+            final float dx = x - mBalls[i];
+            final float dy = y - mBalls[i + 1];
+            final float dz = z - mBalls[i + 2];
+            final float myDistanceSquared = dx * dx + dy * dy + dz * dz;
+            final float myRadiusSquared = mBalls[i + 3];
+            if (myDistanceSquared < myRadiusSquared) {
+                final float fallOff = 1f - (myDistanceSquared / myRadiusSquared);
+                final float f = -4 * fallOff * mBalls[i + 4] / myRadiusSquared;
+                pGradient[0] += f * dx;
+                pGradient[1] += f * dy;
+                pGradient[2] += f * dz;
+            }
+        }
+    }
+}
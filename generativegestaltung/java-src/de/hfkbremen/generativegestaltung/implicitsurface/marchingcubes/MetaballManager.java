@@ -1,119 +1,551 @@
-/**
- * generative gestaltung
- *
- */
-package de.hfkbremen.generativegestaltung.implicitsurface.marchingcubes;
-
-
-import de.hfkbremen.generativegestaltung.util.PVectorUtil;
-import java.util.Vector;
-import processing.core.PVector;
-
-
-public class MetaballManager {
-
-    private Vector<Metaball> mMetaballs = new Vector<Metaball>();
-
-    private float mThreshold;
-
-    private PVector mGridSize;
-
-    private float[][][] mGridValues;
-
-    private Vector<PVector> mTriangles;
-
-    private PVector mScale;
-
-    private PVector mTranslate;
-
-    public MetaballManager(float pThreshold, PVector pGridSize) {
-        mThreshold = pThreshold;
-        mGridSize = pGridSize.get();
-    }
-
-    public MetaballManager() {
-        mThreshold = 0.1f;
-        mGridSize = new PVector(10, 10, 10);
-        mScale = new PVector(1, 1, 1);
-        mTranslate = new PVector(0, 0, 0);
-        mTriangles = new Vector<PVector>();
-    }
-
-    public void update() {
-        updateGridValues();
-        mTriangles.clear();
-        MarchingCubes.triangles(mTriangles, mGridValues, mThreshold);
-        /* transform triangels back into manager space  */
-        // TODO transform matrix?
-        for (int i = 0; i < mTriangles.size(); i++) {
-            final PVector mPosition = mTriangles.get(i);
-            PVectorUtil.mult(mPosition, mScale);
-            mPosition.add(mTranslate);
-        }
-    }
-
-    private void updateGridValues() {
-        mGridValues = new float[(int) mGridSize.x][(int) mGridSize.y][(int) mGridSize.z];
-        for (int x = 0; x < mGridValues.length; x++) {
-            for (int y = 0; y < mGridValues[x].length; y++) {
-                for (int z = 0; z < mGridValues[x][y].length; z++) {
-                    final PVector mPosition = new PVector(x, y, z);
-                    PVectorUtil.mult(mPosition, mScale);
-                    PVectorUtil.div(mPosition, mGridSize);   /* normalize XYZ values */
-                    mPosition.add(mTranslate);
-                    mGridValues[x][y][z] = getForceFieldValue(mPosition);
-                }
-            }
-        }
-    }
-
-    private float getForceFieldValue(PVector thePosition) {
-        float f = 0;
-        for (final Metaball myMetaball : mMetaballs) {
-            float myDistanceSquared = myMetaball.position.dist(thePosition.get());
-            myDistanceSquared *= myDistanceSquared;
-            float myRadiusSquared = myMetaball.radius * myMetaball.radius;
-            if (myDistanceSquared < myRadiusSquared) {
-                float fallOff = 1f - (myDistanceSquared / myRadiusSquared);
-                f += fallOff * fallOff * myMetaball.strength;
-            }
-        }
-        return f;
-    }
-
-    public Vector<Metaball> metaballs() {
-        return mMetaballs;
-    }
-
-    public Vector<PVector> triangles() {
-        return mTriangles;
-    }
-
-    public void add(Metaball myMetaball) {
-        mMetaballs.add(myMetaball);
-    }
-
-    public void remove(Metaball myMetaball) {
-        mMetaballs.remove(myMetaball);
-    }
-
-    public void threshold(float threshold) {
-        mThreshold = threshold;
-    }
-
-    public float threshold() {
-        return mThreshold;
-    }
-
-    public PVector gridsize() {
-        return mGridSize;
-    }
-
-    public PVector scale() {
-        return mScale;
-    }
-
-    public PVector translate() {
-        return mTranslate;
-    }
-}
+/**
+ * generative gestaltung
+ *
+ */
+package de.hfkbremen.generativegestaltung.implicitsurface.marchingcubes;
+
+
+import java.util.Arrays;
+import java.util.Vector;
+import processing.core.PVector;
+
+
+public class MetaballManager {
+
+    private Vector<Metaball> mMetaballs = new Vector<Metaball>();
+
+    private float mThreshold;
+
+    private PVector mGridSize;
+
+    private final ScalarField3D mField;
+
+    private Vector<PVector> mTriangles;
+
+    private final Vector<PVector> mNormals = new Vector<PVector>();
+
+    private boolean mComputeNormals;
+
+    /* snapshot of the balls for batch evaluation, its analytic gradient is used for vertex normals */
+    private final MetaballFunction mFunction = new MetaballFunction();
+
+    private PVector mScale;
+
+    private PVector mTranslate;
+
+    /* edge length of the bricks of cells that are marched or skipped as a whole in sparse mode */
+    private static final int mBrickSize = 8;
+
+    private boolean mSparse;
+
+    private boolean mFieldCleared;
+
+    private boolean[] mActiveBricks = new boolean[0];
+
+    private int mBricksX;
+
+    private int mBricksY;
+
+    private int mBricksZ;
+
+    /* grid point boxes ( from x, to x, from y, to y, from z, to z ) written by the last sparse update */
+    private int[] mSplats = new int[0];
+
+    private int mSplatCount;
+
+    private final int[] mBox = new int[6];
+
+    private boolean mIncremental;
+
+    /* true while the brick caches match field layout, threshold and the tracked state of the balls */
+    private boolean mBricksValid;
+
+    private boolean[] mDirtyBricks = new boolean[0];
+
+    private final Vector<Vector<PVector>> mBrickTriangles = new Vector<Vector<PVector>>();
+
+    private final Vector<Vector<PVector>> mBrickNormals = new Vector<Vector<PVector>>();
+
+    private final Vector<Metaball> mTracked = new Vector<Metaball>();
+
+    /* position, radius and strength of the tracked balls at the last update */
+    private float[] mTrackedState = new float[0];
+
+    private float mTrackedThreshold;
+
+    private boolean mTrackedNormals;
+
+    private MetaballWorker mWorker;
+
+    /* follows the surface of the previous update in dense mode instead of scanning every cell */
+    private ContinuationMarchingCubes mTracker;
+
+    public MetaballManager(float pThreshold, PVector pGridSize) {
+        this();
+        mThreshold = pThreshold;
+        mGridSize.set(pGridSize);
+    }
+
+    public MetaballManager() {
+        mThreshold = 0.1f;
+        mGridSize = new PVector(10, 10, 10);
+        mScale = new PVector(1, 1, 1);
+        mTranslate = new PVector(0, 0, 0);
+        mTriangles = new Vector<PVector>();
+        mField = new ScalarField3D(2, 2, 2);
+    }
+
+    public void update() {
+        if (mWorker != null) {
+            mWorker.acquire();
+            mWorker.submit(new MetaballSnapshot(mMetaballs, mThreshold, mGridSize, mScale, mTranslate,
+                                                mSparse, mIncremental, mComputeNormals, mTracker != null));
+            return;
+        }
+        prepareField();
+        mFunction.set(mMetaballs);
+        /* field origin and spacing place the triangles directly in manager space */
+        if (mIncremental) {
+            updateIncremental();
+        } else if (mSparse) {
+            mBricksValid = false;
+            mTriangles.clear();
+            mNormals.clear();
+            splatGridValues();
+            for (int x = 0; x < mBricksX; x++) {
+                for (int y = 0; y < mBricksY; y++) {
+                    for (int z = 0; z < mBricksZ; z++) {
+                        if (mActiveBricks[brick(x, y, z)]) {
+                            polygoniseBrick(mTriangles, mNormals, x, y, z);
+                        }
+                    }
+                }
+            }
+        } else {
+            mBricksValid = false;
+            mTriangles.clear();
+            mNormals.clear();
+            updateGridValues();
+            if (mTracker != null) {
+                /* ball centers pick up blobs that appear away from the previous surface */
+                mTracker.clearSeeds();
+                for (int i = 0; i < mMetaballs.size(); i++) {
+                    final PVector p = mMetaballs.get(i).position;
+                    mTracker.seed(p.x, p.y, p.z);
+                }
+                mTracker.triangles(mTriangles, normalsOrNull(mNormals), mField, mThreshold, mFunction);
+            } else {
+                MarchingCubes.triangles(mTriangles, normalsOrNull(mNormals), mField, mThreshold, mFunction);
+            }
+        }
+    }
+
+    private void prepareField() {
+        final int mSizeX = (int) mGridSize.x;
+        final int mSizeY = (int) mGridSize.y;
+        final int mSizeZ = (int) mGridSize.z;
+        if (mField.sizeX() != mSizeX || mField.sizeY() != mSizeY || mField.sizeZ() != mSizeZ) {
+            mField.resize(mSizeX, mSizeY, mSizeZ);
+            mFieldCleared = false;
+            mBricksValid = false;
+            mBricksX = (mSizeX - 2) / mBrickSize + 1;
+            mBricksY = (mSizeY - 2) / mBrickSize + 1;
+            mBricksZ = (mSizeZ - 2) / mBrickSize + 1;
+            final int mBricks = mBricksX * mBricksY * mBricksZ;
+            mActiveBricks = new boolean[mBricks];
+            mDirtyBricks = new boolean[mBricks];
+            mBrickTriangles.setSize(mBricks);
+            mBrickNormals.setSize(mBricks);
+            for (int i = 0; i < mBricks; i++) {
+                if (mBrickTriangles.get(i) == null) {
+                    mBrickTriangles.set(i, new Vector<PVector>());
+                    mBrickNormals.set(i, new Vector<PVector>());
+                }
+            }
+        }
+        final float mSpacingX = mScale.x / mGridSize.x;
+        final float mSpacingY = mScale.y / mGridSize.y;
+        final float mSpacingZ = mScale.z / mGridSize.z;
+        if (mField.originX() != mTranslate.x || mField.originY() != mTranslate.y || mField.originZ() != mTranslate.z
+                || mField.spacingX() != mSpacingX || mField.spacingY() != mSpacingY || mField.spacingZ() != mSpacingZ) {
+            mBricksValid = false;
+        }
+        mField.origin(mTranslate.x, mTranslate.y, mTranslate.z);
+        mField.spacing(mSpacingX, mSpacingY, mSpacingZ);
+    }
+
+    private void updateGridValues() {
+        mFieldCleared = false;
+        FieldSampler.sample(mFunction, mField);
+    }
+
+    /**
+     * sparse evaluation. every metaball only adds its falloff to the grid points inside its bounding box and marks
+     * the bricks of cells it can reach. only the boxes written last time are cleared, so the cost is proportional to
+     * the occupied volume rather than to the whole grid.
+     */
+    private void splatGridValues() {
+        if (!mFieldCleared) {
+            mField.fill(0);
+            mSplatCount = 0;
+            mFieldCleared = true;
+        }
+        for (int i = 0; i < mSplatCount; i += 6) {
+            clear(mSplats[i], mSplats[i + 1], mSplats[i + 2], mSplats[i + 3], mSplats[i + 4], mSplats[i + 5]);
+        }
+        Arrays.fill(mActiveBricks, false);
+        mSplatCount = 0;
+        if (mSplats.length < mMetaballs.size() * 6) {
+            mSplats = new int[mMetaballs.size() * 6];
+        }
+
+        for (int i = 0; i < mMetaballs.size(); i++) {
+            final Metaball myMetaball = mMetaballs.get(i);
+            final PVector p = myMetaball.position;
+            if (!pointBox(p.x, p.y, p.z, myMetaball.radius, mBox)) {
+                continue;
+            }
+            splat(myMetaball, mBox[0], mBox[1], mBox[2], mBox[3], mBox[4], mBox[5]);
+            System.arraycopy(mBox, 0, mSplats, mSplatCount, 6);
+            mSplatCount += 6;
+            /* a cell is reachable if any of its corners is, i.e. cells [ from - 1, to ] */
+            final int mBrickFromX = Math.max(0, mBox[0] - 1) / mBrickSize;
+            final int mBrickToX = Math.min(mField.sizeX() - 2, mBox[1]) / mBrickSize;
+            final int mBrickFromY = Math.max(0, mBox[2] - 1) / mBrickSize;
+            final int mBrickToY = Math.min(mField.sizeY() - 2, mBox[3]) / mBrickSize;
+            final int mBrickFromZ = Math.max(0, mBox[4] - 1) / mBrickSize;
+            final int mBrickToZ = Math.min(mField.sizeZ() - 2, mBox[5]) / mBrickSize;
+            for (int x = mBrickFromX; x <= mBrickToX; x++) {
+                for (int y = mBrickFromY; y <= mBrickToY; y++) {
+                    for (int z = mBrickFromZ; z <= mBrickToZ; z++) {
+                        mActiveBricks[brick(x, y, z)] = true;
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * incremental evaluation. the field values and triangles of every brick are cached. only bricks touching the old
+     * or the new bounding box of a ball that moved, changed or was added or removed since the last update are
+     * re-evaluated and re-polygonised.
+     */
+    private void updateIncremental() {
+        mFieldCleared = false;
+        if (!mBricksValid || mTrackedThreshold != mThreshold || mTrackedNormals != mComputeNormals) {
+            Arrays.fill(mDirtyBricks, true);
+        } else {
+            final int mCount = Math.max(mTracked.size(), mMetaballs.size());
+            for (int i = 0; i < mCount; i++) {
+                final Metaball mOld = i < mTracked.size() ? mTracked.get(i) : null;
+                final Metaball mNew = i < mMetaballs.size() ? mMetaballs.get(i) : null;
+                final int j = i * 5;
+                if (mOld != null && mOld == mNew
+                        && mTrackedState[j] == mNew.position.x
+                        && mTrackedState[j + 1] == mNew.position.y
+                        && mTrackedState[j + 2] == mNew.position.z
+                        && mTrackedState[j + 3] == mNew.radius
+                        && mTrackedState[j + 4] == mNew.strength) {
+                    continue;
+                }
+                if (mOld != null && pointBox(mTrackedState[j], mTrackedState[j + 1], mTrackedState[j + 2],
+                                             mTrackedState[j + 3], mBox)) {
+                    markDirty(mBox);
+                }
+                if (mNew != null && pointBox(mNew.position.x, mNew.position.y, mNew.position.z, mNew.radius, mBox)) {
+                    markDirty(mBox);
+                }
+            }
+        }
+
+        /* re-evaluate the points of dirty bricks before polygonising, bricks read their neighbours' points */
+        boolean mChanged = false;
+        for (int x = 0; x < mBricksX; x++) {
+            for (int y = 0; y < mBricksY; y++) {
+                for (int z = 0; z < mBricksZ; z++) {
+                    if (mDirtyBricks[brick(x, y, z)]) {
+                        updateBrickValues(x, y, z);
+                        mChanged = true;
+                    }
+                }
+            }
+        }
+        for (int x = 0; x < mBricksX; x++) {
+            for (int y = 0; y < mBricksY; y++) {
+                for (int z = 0; z < mBricksZ; z++) {
+                    final int i = brick(x, y, z);
+                    if (mDirtyBricks[i]) {
+                        mBrickTriangles.get(i).clear();
+                        mBrickNormals.get(i).clear();
+                        polygoniseBrick(mBrickTriangles.get(i), mBrickNormals.get(i), x, y, z);
+                        mDirtyBricks[i] = false;
+                    }
+                }
+            }
+        }
+        if (mChanged || !mBricksValid) {
+            mTriangles.clear();
+            mNormals.clear();
+            for (int i = 0; i < mBrickTriangles.size(); i++) {
+                mTriangles.addAll(mBrickTriangles.get(i));
+                mNormals.addAll(mBrickNormals.get(i));
+            }
+        }
+
+        /* remember state of balls for the next update */
+        mTracked.clear();
+        mTracked.addAll(mMetaballs);
+        if (mTrackedState.length < mMetaballs.size() * 5) {
+            mTrackedState = new float[mMetaballs.size() * 5];
+        }
+        for (int i = 0; i < mMetaballs.size(); i++) {
+            final Metaball myMetaball = mMetaballs.get(i);
+            mTrackedState[i * 5] = myMetaball.position.x;
+            mTrackedState[i * 5 + 1] = myMetaball.position.y;
+            mTrackedState[i * 5 + 2] = myMetaball.position.z;
+            mTrackedState[i * 5 + 3] = myMetaball.radius;
+            mTrackedState[i * 5 + 4] = myMetaball.strength;
+        }
+        mTrackedThreshold = mThreshold;
+        mTrackedNormals = mComputeNormals;
+        mBricksValid = true;
+    }
+
+    /* marks all bricks whose cells read a grid point of the box */
+    private void markDirty(int[] pBox) {
+        final int mFromX = Math.max(0, (pBox[0] + mBrickSize - 1) / mBrickSize - 1);
+        final int mToX = Math.min(mBricksX - 1, pBox[1] / mBrickSize);
+        final int mFromY = Math.max(0, (pBox[2] + mBrickSize - 1) / mBrickSize - 1);
+        final int mToY = Math.min(mBricksY - 1, pBox[3] / mBrickSize);
+        final int mFromZ = Math.max(0, (pBox[4] + mBrickSize - 1) / mBrickSize - 1);
+        final int mToZ = Math.min(mBricksZ - 1, pBox[5] / mBrickSize);
+        for (int x = mFromX; x <= mToX; x++) {
+            for (int y = mFromY; y <= mToY; y++) {
+                for (int z = mFromZ; z <= mToZ; z++) {
+                    mDirtyBricks[brick(x, y, z)] = true;
+                }
+            }
+        }
+    }
+
+    /* re-evaluates the grid points owned by a brick, the last brick on an axis also owns the last grid point */
+    private void updateBrickValues(int pBrickX, int pBrickY, int pBrickZ) {
+        final int mFromX = pBrickX * mBrickSize;
+        final int mToX = pBrickX == mBricksX - 1 ? mField.sizeX() - 1 : mFromX + mBrickSize - 1;
+        final int mFromY = pBrickY * mBrickSize;
+        final int mToY = pBrickY == mBricksY - 1 ? mField.sizeY() - 1 : mFromY + mBrickSize - 1;
+        final int mFromZ = pBrickZ * mBrickSize;
+        final int mToZ = pBrickZ == mBricksZ - 1 ? mField.sizeZ() - 1 : mFromZ + mBrickSize - 1;
+        clear(mFromX, mToX, mFromY, mToY, mFromZ, mToZ);
+        for (int i = 0; i < mMetaballs.size(); i++) {
+            final Metaball myMetaball = mMetaballs.get(i);
+            final PVector p = myMetaball.position;
+            if (pointBox(p.x, p.y, p.z, myMetaball.radius, mBox)) {
+                splat(myMetaball,
+                      Math.max(mFromX, mBox[0]), Math.min(mToX, mBox[1]),
+                      Math.max(mFromY, mBox[2]), Math.min(mToY, mBox[3]),
+                      Math.max(mFromZ, mBox[4]), Math.min(mToZ, mBox[5]));
+            }
+        }
+    }
+
+    private void polygoniseBrick(Vector<PVector> pTriangles,
+                                 Vector<PVector> pNormals,
+                                 int pBrickX, int pBrickY, int pBrickZ) {
+        MarchingCubes.triangles(pTriangles, normalsOrNull(pNormals), mField, mThreshold, mFunction,
+                                pBrickX * mBrickSize, Math.min((pBrickX + 1) * mBrickSize, mField.sizeX() - 1),
+                                pBrickY * mBrickSize, Math.min((pBrickY + 1) * mBrickSize, mField.sizeY() - 1),
+                                pBrickZ * mBrickSize, Math.min((pBrickZ + 1) * mBrickSize, mField.sizeZ() - 1));
+    }
+
+    private Vector<PVector> normalsOrNull(Vector<PVector> pNormals) {
+        return mComputeNormals ? pNormals : null;
+    }
+
+    private int brick(int x, int y, int z) {
+        return (x * mBricksY + y) * mBricksZ + z;
+    }
+
+    /* sets the grid points of a box ( inclusive ) to zero */
+    private void clear(int pFromX, int pToX, int pFromY, int pToY, int pFromZ, int pToZ) {
+        final float[] mValues = mField.values();
+        for (int x = pFromX; x <= pToX; x++) {
+            for (int y = pFromY; y <= pToY; y++) {
+                final int j = mField.index(x, y, 0);
+                Arrays.fill(mValues, j + pFromZ, j + pToZ + 1, 0);
+            }
+        }
+    }
+
+    /* adds the falloff of a ball to the grid points of a box ( inclusive ) */
+    private void splat(Metaball pMetaball, int pFromX, int pToX, int pFromY, int pToY, int pFromZ, int pToZ) {
+        final float[] mValues = mField.values();
+        final PVector p = pMetaball.position;
+        final float myRadiusSquared = pMetaball.radius * pMetaball.radius;
+        for (int x = pFromX; x <= pToX; x++) {
+            final float dx = p.x - mField.positionX(x);
+            for (int y = pFromY; y <= pToY; y++) {
+                final float dy = p.y - mField.positionY(y);
+                int j = mField.index(x, y, pFromZ);
+                for (int z = pFromZ; z <= pToZ; z++, j++) {
+                    final float dz = p.z - mField.positionZ(z);
+                    final float myDistanceSquared = dx * dx + dy * dy + dz * dz;
+                    if (myDistanceSquared < myRadiusSquared) {
+                        final float fallOff = 1f - (myDistanceSquared / myRadiusSquared);
+                        mValues[j] += fallOff * fallOff * pMetaball.strength;
+                    }
+                }
+            }
+        }
+    }
+
+    /* grid points within reach of a ball ( from x, to x, from y, to y, from z, to z ), false if outside the grid */
+    private boolean pointBox(float x, float y, float z, float pRadius, int[] pBox) {
+        pBox[0] = lowerGridPoint(x, pRadius, mField.originX(), mField.spacingX());
+        pBox[1] = upperGridPoint(x, pRadius, mField.originX(), mField.spacingX(), mField.sizeX());
+        pBox[2] = lowerGridPoint(y, pRadius, mField.originY(), mField.spacingY());
+        pBox[3] = upperGridPoint(y, pRadius, mField.originY(), mField.spacingY(), mField.sizeY());
+        pBox[4] = lowerGridPoint(z, pRadius, mField.originZ(), mField.spacingZ());
+        pBox[5] = upperGridPoint(z, pRadius, mField.originZ(), mField.spacingZ(), mField.sizeZ());
+        return pBox[0] <= pBox[1] && pBox[2] <= pBox[3] && pBox[4] <= pBox[5];
+    }
+
+    /* first grid point within reach of a ball, clamped to the grid */
+    private static int lowerGridPoint(float pCenter, float pRadius, float pOrigin, float pSpacing) {
+        final float a = (pCenter - pRadius - pOrigin) / pSpacing;
+        final float b = (pCenter + pRadius - pOrigin) / pSpacing;
+        return Math.max(0, (int) Math.floor(Math.min(a, b)));
+    }
+
+    /* last grid point within reach of a ball, clamped to the grid */
+    private static int upperGridPoint(float pCenter, float pRadius, float pOrigin, float pSpacing, int pSize) {
+        final float a = (pCenter - pRadius - pOrigin) / pSpacing;
+        final float b = (pCenter + pRadius - pOrigin) / pSpacing;
+        return Math.min(pSize - 1, (int) Math.ceil(Math.max(a, b)));
+    }
+
+    public Vector<Metaball> metaballs() {
+        return mMetaballs;
+    }
+
+    /**
+     * @return triangles of the last update or, in async mode, of the latest mesh finished before the last update
+     */
+    public Vector<PVector> triangles() {
+        return mWorker != null ? mWorker.triangles() : mTriangles;
+    }
+
+    /**
+     * @return a normal for every point in <code>triangles()</code> if normals are enabled
+     */
+    public Vector<PVector> normals() {
+        return mWorker != null ? mWorker.normals() : mNormals;
+    }
+
+    /**
+     * enables smooth vertex normals computed from the analytic gradient of the metaballs during extraction.
+     */
+    public void normals(boolean pComputeNormals) {
+        mComputeNormals = pComputeNormals;
+    }
+
+    public void add(Metaball myMetaball) {
+        mMetaballs.add(myMetaball);
+    }
+
+    public void remove(Metaball myMetaball) {
+        mMetaballs.remove(myMetaball);
+    }
+
+    public void threshold(float threshold) {
+        mThreshold = threshold;
+    }
+
+    public float threshold() {
+        return mThreshold;
+    }
+
+    /**
+     * switches between dense evaluation ( every ball for every grid point ) and sparse evaluation ( every ball only
+     * for the grid points within its radius, marching only the bricks of cells any ball can reach ).
+     */
+    public void sparse(boolean pSparse) {
+        mSparse = pSparse;
+    }
+
+    public boolean sparse() {
+        return mSparse;
+    }
+
+    /**
+     * enables incremental updates. the grid is partitioned into bricks which cache their field values and triangles,
+     * only bricks affected by balls that changed since the last update are re-evaluated and re-polygonised. takes
+     * precedence over <code>sparse</code>.
+     */
+    public void incremental(boolean pIncremental) {
+        mIncremental = pIncremental;
+    }
+
+    public boolean incremental() {
+        return mIncremental;
+    }
+
+    /**
+     * enables surface tracking for dense updates. the triangles are extracted by following the surface of the
+     * previous update ( see <code>ContinuationMarchingCubes</code> ) so only the cells near the surface are marched,
+     * the field itself is still evaluated completely. in async mode the worker thread tracks the surface of the
+     * previous snapshot it meshed.
+     */
+    public void tracking(boolean pTracking) {
+        if (pTracking && mTracker == null) {
+            mTracker = new ContinuationMarchingCubes();
+        } else if (!pTracking) {
+            mTracker = null;
+        }
+    }
+
+    public boolean tracking() {
+        return mTracker != null;
+    }
+
+    /**
+     * enables asynchronous meshing. <code>update()</code> then only takes a snapshot of the balls and settings and
+     * hands it to a background thread, it never waits for meshing. <code>triangles()</code> and
+     * <code>normals()</code> return the latest mesh the worker had finished when <code>update()</code> was called, so
+     * they lag a frame or more behind the balls. if the worker fails to mesh a snapshot, the next
+     * <code>update()</code> throws an <code>IllegalStateException</code> caused by the exception of the worker.
+     */
+    public void async(boolean pAsync) {
+        if (pAsync && mWorker == null) {
+            mWorker = new MetaballWorker();
+            mWorker.start();
+        } else if (!pAsync && mWorker != null) {
+            mWorker.interrupt();
+            mWorker = null;
+        }
+    }
+
+    public boolean async() {
+        return mWorker != null;
+    }
+
+    /**
+     * @return milliseconds between taking the snapshot of the current mesh and its completion in async mode, 0
+     * otherwise
+     */
+    public float latency() {
+        return mWorker != null ? mWorker.latency() / 1000000.0f : 0;
+    }
+
+    public PVector gridsize() {
+        return mGridSize;
+    }
+
+    public PVector scale() {
+        return mScale;
+    }
+
+    public PVector translate() {
+        return mTranslate;
+    }
+}
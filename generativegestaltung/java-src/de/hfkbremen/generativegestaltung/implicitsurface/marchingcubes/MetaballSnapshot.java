@@ -0,0 +1,99 @@
+/**
+ * generative gestaltung
+ *
+ */
+package de.hfkbremen.generativegestaltung.implicitsurface.marchingcubes;
+
+
+import java.util.List;
+import processing.core.PVector;
+
+
+/**
+ * immutable copy of the balls and settings of a <code>MetaballManager</code> at one point in time, handed from the
+ * animation thread to the meshing worker.
+ */
+final class MetaballSnapshot {
+
+    /* System.nanoTime() when the snapshot was taken */
+    final long time;
+
+    final float threshold;
+
+    final int gridX;
+
+    final int gridY;
+
+    final int gridZ;
+
+    final float scaleX;
+
+    final float scaleY;
+
+    final float scaleZ;
+
+    final float translateX;
+
+    final float translateY;
+
+    final float translateZ;
+
+    final boolean sparse;
+
+    final boolean incremental;
+
+    final boolean normals;
+
+    final boolean tracking;
+
+    /* x, y, z, radius, strength per ball */
+    private final float[] mBalls;
+
+    MetaballSnapshot(List<Metaball> pMetaballs,
+                     float pThreshold,
+                     PVector pGridSize,
+                     PVector pScale,
+                     PVector pTranslate,
+                     boolean pSparse,
+                     boolean pIncremental,
+                     boolean pNormals,
+                     boolean pTracking) {
+        time = System.nanoTime();
+        threshold = pThreshold;
+        gridX = (int) pGridSize.x;
+        gridY = (int) pGridSize.y;
+        gridZ = (int) pGridSize.z;
+        scaleX = pScale.x;
+        scaleY = pScale.y;
+        scaleZ = pScale.z;
+        translateX = pTranslate.x;
+        translateY = pTranslate.y;
+        translateZ = pTranslate.z;
+        sparse = pSparse;
+        incremental = pIncremental;
+        normals = pNormals;
+        tracking = pTracking;
+        mBalls = new float[pMetaballs.size() * 5];
+        for (int i = 0; i < pMetaballs.size(); i++) {
+            final Metaball myMetaball = pMetaballs.get(i);
+            mBalls[i * 5] = myMetaball.position.x;
+            mBalls[i * 5 + 1] = myMetaball.position.y;
+            mBalls[i * 5 + 2] = myMetaball.position.z;
+            mBalls[i * 5 + 3] = myMetaball.radius;
+            mBalls[i * 5 + 4] = myMetaball.strength;
+        }
+    }
+
+    int count() {
+        return mBalls.length / 5;
+    }
+
+    /**
+     * writes the state of a ball into an existing metaball.
+     */
+    void get(int pIndex, Metaball pMetaball) {
+        pMetaball.position.set(mBalls[pIndex * 5], mBalls[pIndex * 5 + 1], mBalls[pIndex * 5 + 2]);
+        pMetaball.radius = mBalls[pIndex * 5 + 3];
+        pMetaball.strength = mBalls[pIndex * 5 + 4];
+    }
+}
@@ -0,0 +1,156 @@
+/**
+ * generative gestaltung
+ *
+ */
+package de.hfkbremen.generativegestaltung.implicitsurface.marchingcubes;
+
+
+import java.util.Vector;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.LockSupport;
+import processing.core.PVector;
+
+
+/**
+ * background thread that meshes snapshots of a <code>MetaballManager</code>. only the latest submitted snapshot is
+ * meshed, older ones are dropped if the worker falls behind.
+ * <p>
+ * finished meshes are passed back through a triple buffer. the worker fills the back mesh and swaps it with the
+ * middle one, the animation thread swaps the middle mesh with its front mesh in <code>acquire()</code> if a newer one
+ * was published. both sides only exchange an index atomically, nobody waits for the other.
+ * <p>
+ * a snapshot that fails to mesh is dropped and the worker keeps running. the exception is rethrown by the next
+ * <code>acquire()</code> on the animation thread.
+ */
+class MetaballWorker
+        extends Thread {
+
+    /* set in the middle index when it holds a mesh the front has not seen yet */
+    private static final int mFresh = 4;
+
+    private final AtomicReference<MetaballSnapshot> mPending = new AtomicReference<MetaballSnapshot>();
+
+    private final MetaballManager mMesher = new MetaballManager();
+
+    private final Mesh[] mMeshes = {new Mesh(), new Mesh(), new Mesh()};
+
+    private final AtomicInteger mMiddle = new AtomicInteger(1);
+
+    private final AtomicReference<RuntimeException> mFailure = new AtomicReference<RuntimeException>();
+
+    /* owned by the worker */
+    private int mBack = 2;
+
+    /* owned by the animation thread */
+    private int mFront = 0;
+
+    MetaballWorker() {
+        super("MetaballWorker");
+        setDaemon(true);
+    }
+
+    /**
+     * replaces the pending snapshot and wakes up the worker. never blocks.
+     */
+    void submit(MetaballSnapshot pSnapshot) {
+        mPending.set(pSnapshot);
+        LockSupport.unpark(this);
+    }
+
+    /**
+     * makes the latest published mesh the front mesh.
+     *
+     * @return true if a newer mesh was published since the last call
+     * @throws IllegalStateException if meshing a snapshot failed since the last call, caused by the exception of the
+     *                               worker
+     */
+    boolean acquire() {
+        final RuntimeException mException = mFailure.getAndSet(null);
+        if (mException != null) {
+            throw new IllegalStateException("meshing metaballs failed", mException);
+        }
+        if ((mMiddle.get() & mFresh) == 0) {
+            return false;
+        }
+        mFront = mMiddle.getAndSet(mFront) & ~mFresh;
+        return true;
+    }
+
+    Vector<PVector> triangles() {
+        return mMeshes[mFront].triangles;
+    }
+
+    Vector<PVector> normals() {
+        return mMeshes[mFront].normals;
+    }
+
+    /**
+     * @return nanoseconds between taking the snapshot of the front mesh and publishing it, 0 before the first mesh
+     */
+    long latency() {
+        final Mesh mMesh = mMeshes[mFront];
+        return mMesh.published - mMesh.captured;
+    }
+
+    public void run() {
+        while (!isInterrupted()) {
+            final MetaballSnapshot mSnapshot = mPending.getAndSet(null);
+            if (mSnapshot == null) {
+                LockSupport.park(this);
+                continue;
+            }
+            try {
+                mesh(mSnapshot);
+            } catch (RuntimeException ex) {
+                mFailure.set(ex);
+                continue;
+            }
+            final Mesh mMesh = mMeshes[mBack];
+            mMesh.triangles.clear();
+            mMesh.triangles.addAll(mMesher.triangles());
+            mMesh.normals.clear();
+            if (mSnapshot.normals) {
+                mMesh.normals.addAll(mMesher.normals());
+            }
+            mMesh.captured = mSnapshot.time;
+            mMesh.published = System.nanoTime();
+            mBack = mMiddle.getAndSet(mBack | mFresh) & ~mFresh;
+        }
+    }
+
+    private void mesh(MetaballSnapshot pSnapshot) {
+        mMesher.threshold(pSnapshot.threshold);
+        mMesher.gridsize().set(pSnapshot.gridX, pSnapshot.gridY, pSnapshot.gridZ);
+        mMesher.scale().set(pSnapshot.scaleX, pSnapshot.scaleY, pSnapshot.scaleZ);
+        mMesher.translate().set(pSnapshot.translateX, pSnapshot.translateY, pSnapshot.translateZ);
+        mMesher.sparse(pSnapshot.sparse);
+        mMesher.incremental(pSnapshot.incremental);
+        mMesher.normals(pSnapshot.normals);
+        /* the mesher of the worker keeps its own tracker, which follows the surface of the previous snapshot */
+        mMesher.tracking(pSnapshot.tracking);
+        /* balls are updated in place so incremental mode can tell which of them moved */
+        final Vector<Metaball> mMetaballs = mMesher.metaballs();
+        while (mMetaballs.size() > pSnapshot.count()) {
+            mMetaballs.remove(mMetaballs.size() - 1);
+        }
+        while (mMetaballs.size() < pSnapshot.count()) {
+            mMetaballs.add(new Metaball(new PVector(), 0, 0));
+        }
+        for (int i = 0; i < pSnapshot.count(); i++) {
+            pSnapshot.get(i, mMetaballs.get(i));
+        }
+        mMesher.update();
+    }
+
+    private static class Mesh {
+
+        final Vector<PVector> triangles = new Vector<PVector>();
+
+        final Vector<PVector> normals = new Vector<PVector>();
+
+        long captured;
+
+        long published;
+    }
+}
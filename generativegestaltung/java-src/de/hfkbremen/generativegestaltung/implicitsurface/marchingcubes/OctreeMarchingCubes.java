@@ -0,0 +1,287 @@
+/**
+ * generative gestaltung
+ *
+ */
+package de.hfkbremen.generativegestaltung.implicitsurface.marchingcubes;
+
+
+import java.util.Arrays;
+
+
+/**
+ * adaptive isosurface extraction for implicit functions. a cubic region is subdivided as an octree, every node
+ * stores conservative min / max bounds of the function inside of it. nodes the iso level cannot cross are pruned,
+ * the remaining nodes are refined down to <code>maxDepth</code> where the leaves are polygonised like the cells of
+ * <code>MarchingCubes</code>. the result has the uniform resolution of 2^maxDepth cells per axis, but empty space
+ * costs almost nothing.
+ * <p>
+ * bounds are derived from samples at the corners and the center of a node and the lipschitz constant of the
+ * function ( the maximum rate of change, 1 for distance fields ). a lipschitz constant of 0 uses the samples only,
+ * which is faster but may miss features smaller than a node.
+ */
+public class OctreeMarchingCubes {
+
+    private static final int mMaxSupportedDepth = 19;
+
+    private static final float mHalfDiagonal = (float) Math.sqrt(3) * 0.5f;
+
+    /* corner offsets in the order used by MarchingCubes.polygoniseCube */
+    private static final int[][] mCorners = {
+        {0, 0, 1}, {1, 0, 1}, {1, 0, 0}, {0, 0, 0},
+        {0, 1, 1}, {1, 1, 1}, {1, 1, 0}, {0, 1, 0}
+    };
+
+    private final ScalarFunction mFunction;
+
+    private int mMaxDepth = 6;
+
+    private float mLipschitz = 1;
+
+    private float mOriginX;
+
+    private float mOriginY;
+
+    private float mOriginZ;
+
+    private float mSize = 1;
+
+    private float mIsoLevel;
+
+    /* nodes in breadth first order. x, y, z of the lowest corner in lattice units of the finest level and depth */
+    private int[] mNodeCoords = new int[256 * 4];
+
+    private float[] mNodeBounds = new float[256 * 2];
+
+    private int[] mNodeChildren = new int[256];
+
+    private int mNodeCount;
+
+    /* function samples at lattice points, shared between nodes */
+    private final LongIntMap mSampleIndex = new LongIntMap();
+
+    private float[] mSamples = new float[1024];
+
+    private int mSampleCount;
+
+    private final LongIntMap mVertexIndex = new LongIntMap();
+
+    private final float[] mValues = new float[8];
+
+    private final int[] mVertices = new int[12];
+
+    public OctreeMarchingCubes(ScalarFunction pFunction) {
+        mFunction = pFunction;
+    }
+
+    /**
+     * sets the cubic region the function is extracted from.
+     */
+    public void bounds(float x, float y, float z, float pSize) {
+        mOriginX = x;
+        mOriginY = y;
+        mOriginZ = z;
+        mSize = pSize;
+    }
+
+    public void maxDepth(int pMaxDepth) {
+        if (pMaxDepth < 1 || pMaxDepth > mMaxSupportedDepth) {
+            throw new IllegalArgumentException("max depth must be between 1 and " + mMaxSupportedDepth);
+        }
+        mMaxDepth = pMaxDepth;
+    }
+
+    public int maxDepth() {
+        return mMaxDepth;
+    }
+
+    public void lipschitz(float pLipschitz) {
+        mLipschitz = pLipschitz;
+    }
+
+    public float lipschitz() {
+        return mLipschitz;
+    }
+
+    /**
+     * builds the octree for an iso level. nodes that cannot contain the surface are not refined.
+     */
+    public void build(float pIsoLevel) {
+        mIsoLevel = pIsoLevel;
+        mNodeCount = 0;
+        mSampleIndex.clear();
+        mSampleCount = 0;
+        addNode(0, 0, 0, 0);
+        for (int i = 0; i < mNodeCount; i++) {
+            final int mDepth = mNodeCoords[i * 4 + 3];
+            if (mDepth < mMaxDepth && crossed(i)) {
+                final int x = mNodeCoords[i * 4];
+                final int y = mNodeCoords[i * 4 + 1];
+                final int z = mNodeCoords[i * 4 + 2];
+                final int mHalf = 1 << (mMaxDepth - mDepth - 1);
+                mNodeChildren[i] = mNodeCount;
+                for (int c = 0; c < 8; c++) {
+                    addNode(x + (c & 1) * mHalf, y + ((c >> 1) & 1) * mHalf, z + ((c >> 2) & 1) * mHalf, mDepth + 1);
+                }
+            }
+        }
+    }
+
+    /**
+     * polygonises the leaves of the last <code>build</code> into an indexed mesh. vertices are shared between
+     * neighbouring leaves.
+     */
+    public void triangles(IndexedMesh pMesh) {
+        mVertexIndex.clear();
+        for (int i = 0; i < mNodeCount; i++) {
+            if (mNodeCoords[i * 4 + 3] != mMaxDepth || !crossed(i)) {
+                continue;
+            }
+            final int x = mNodeCoords[i * 4];
+            final int y = mNodeCoords[i * 4 + 1];
+            final int z = mNodeCoords[i * 4 + 2];
+            for (int c = 0; c < 8; c++) {
+                mValues[c] = sample(x + mCorners[c][0], y + mCorners[c][1], z + mCorners[c][2]);
+            }
+            final int cubeindex = MarchingCubes.cubeIndex(mValues, mIsoLevel);
+            final int mEdges = MarchingCubes.edgeFlags(cubeindex);
+            if (mEdges == 0) {
+                continue;
+            }
+            for (int e = 0; e < 12; e++) {
+                if ((mEdges & (1 << e)) != 0) {
+                    mVertices[e] = vertex(pMesh, x, y, z, e);
+                }
+            }
+            final int[] mTriangles = MarchingCubes.triangleTable(cubeindex);
+            for (int j = 0; mTriangles[j] != -1; j += 3) {
+                pMesh.addTriangle(mVertices[mTriangles[j]], mVertices[mTriangles[j + 1]], mVertices[mTriangles[j + 2]]);
+            }
+        }
+    }
+
+    public int nodeCount() {
+        return mNodeCount;
+    }
+
+    public int nodeDepth(int pNode) {
+        return mNodeCoords[pNode * 4 + 3];
+    }
+
+    public float nodeMin(int pNode) {
+        return mNodeBounds[pNode * 2];
+    }
+
+    public float nodeMax(int pNode) {
+        return mNodeBounds[pNode * 2 + 1];
+    }
+
+    /**
+     * @return index of the first of the eight children of a node or -1 if the node was not refined
+     */
+    public int nodeChildren(int pNode) {
+        return mNodeChildren[pNode];
+    }
+
+    private float cellSize() {
+        return mSize / (1 << mMaxDepth);
+    }
+
+    /* leaves are crossed if the corners straddle the iso level, inner nodes if the bounds contain it */
+    private boolean crossed(int pNode) {
+        final float mMin = mNodeBounds[pNode * 2];
+        final float mMax = mNodeBounds[pNode * 2 + 1];
+        if (mNodeCoords[pNode * 4 + 3] == mMaxDepth) {
+            return mMin < mIsoLevel && mIsoLevel <= mMax;
+        }
+        return mMin <= mIsoLevel && mIsoLevel <= mMax;
+    }
+
+    private void addNode(int x, int y, int z, int pDepth) {
+        if (mNodeCount == mNodeChildren.length) {
+            mNodeCoords = Arrays.copyOf(mNodeCoords, mNodeCoords.length * 2);
+            mNodeBounds = Arrays.copyOf(mNodeBounds, mNodeBounds.length * 2);
+            mNodeChildren = Arrays.copyOf(mNodeChildren, mNodeChildren.length * 2);
+        }
+        final int mNodeSize = 1 << (mMaxDepth - pDepth);
+        float mMin = Float.POSITIVE_INFINITY;
+        float mMax = Float.NEGATIVE_INFINITY;
+        for (int c = 0; c < 8; c++) {
+            mValues[c] = sample(x + mCorners[c][0] * mNodeSize,
+                                y + mCorners[c][1] * mNodeSize,
+                                z + mCorners[c][2] * mNodeSize);
+            mMin = Math.min(mMin, mValues[c]);
+            mMax = Math.max(mMax, mValues[c]);
+        }
+        if (mNodeSize > 1) {
+            final int mHalf = mNodeSize / 2;
+            final float mCenter = sample(x + mHalf, y + mHalf, z + mHalf);
+            if (mLipschitz > 0) {
+                /* every point of the node is within half a diagonal of the center and a diagonal of each corner */
+                final float r = mLipschitz * mNodeSize * cellSize() * mHalfDiagonal;
+                mMin = mCenter - r;
+                mMax = mCenter + r;
+                for (int c = 0; c < 8; c++) {
+                    mMin = Math.max(mMin, mValues[c] - 2 * r);
+                    mMax = Math.min(mMax, mValues[c] + 2 * r);
+                }
+            } else {
+                mMin = Math.min(mMin, mCenter);
+                mMax = Math.max(mMax, mCenter);
+            }
+        }
+        mNodeCoords[mNodeCount * 4] = x;
+        mNodeCoords[mNodeCount * 4 + 1] = y;
+        mNodeCoords[mNodeCount * 4 + 2] = z;
+        mNodeCoords[mNodeCount * 4 + 3] = pDepth;
+        mNodeBounds[mNodeCount * 2] = mMin;
+        mNodeBounds[mNodeCount * 2 + 1] = mMax;
+        mNodeChildren[mNodeCount] = -1;
+        mNodeCount++;
+    }
+
+    private int vertex(IndexedMesh pMesh, int x, int y, int z, int pEdge) {
+        final int[] mLattice = MarchingCubes.edgeLattice(pEdge);
+        final int ax = x + mLattice[1];
+        final int ay = y + mLattice[2];
+        final int az = z + mLattice[3];
+        final long mKey = (key(ax, ay, az) << 2) | mLattice[0];
+        final int mSlot = mVertexIndex.find(mKey);
+        if (mSlot >= 0) {
+            return mVertexIndex.valueAt(mSlot);
+        }
+        final int bx = mLattice[0] == 0 ? ax + 1 : ax;
+        final int by = mLattice[0] == 1 ? ay + 1 : ay;
+        final int bz = mLattice[0] == 2 ? az + 1 : az;
+        final float va = sample(ax, ay, az);
+        final float vb = sample(bx, by, bz);
+        final float mu = (mIsoLevel - va) / (vb - va);
+        final float mCellSize = cellSize();
+        final int mIndex = pMesh.addVertex(mOriginX + (ax + mu * (bx - ax)) * mCellSize,
+                                           mOriginY + (ay + mu * (by - ay)) * mCellSize,
+                                           mOriginZ + (az + mu * (bz - az)) * mCellSize);
+        mVertexIndex.put(mKey, mIndex);
+        return mIndex;
+    }
+
+    private float sample(int x, int y, int z) {
+        final long mKey = key(x, y, z);
+        final int mSlot = mSampleIndex.find(mKey);
+        if (mSlot >= 0) {
+            return mSamples[mSampleIndex.valueAt(mSlot)];
+        }
+        final float mCellSize = cellSize();
+        final float mValue = mFunction.value(mOriginX + x * mCellSize,
+                                             mOriginY + y * mCellSize,
+                                             mOriginZ + z * mCellSize);
+        if (mSampleCount == mSamples.length) {
+            mSamples = Arrays.copyOf(mSamples, mSamples.length * 2);
+        }
+        mSamples[mSampleCount] = mValue;
+        mSampleIndex.put(mKey, mSampleCount++);
+        return mValue;
+    }
+
+    private static long key(int x, int y, int z) {
+        return ((long) x << 40) | ((long) y << 20) | z;
+    }
+}
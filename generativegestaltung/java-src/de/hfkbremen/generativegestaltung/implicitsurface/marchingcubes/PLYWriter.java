@@ -0,0 +1,140 @@
+/**
+ * generative gestaltung
+ *
+ */
+package de.hfkbremen.generativegestaltung.implicitsurface.marchingcubes;
+
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+
+/**
+ * streams triangles into a binary little endian PLY file with optional vertex normals.
+ * <p>
+ * triangles passed to <code>triangle</code> get three vertices of their own, the faces ( 3i, 3i + 1, 3i + 2 ) are
+ * generated on <code>close</code>, so nothing has to be kept in memory. the element counts are written as fixed width
+ * numbers and filled in on <code>close</code>. <code>write(File, IndexedMesh)</code> writes shared vertices and
+ * indices instead.
+ */
+public class PLYWriter
+        extends MeshWriter {
+
+    private static final int mCountDigits = 10;
+
+    private final boolean mNormals;
+
+    private final int mVertexSize;
+
+    private int mVertexCount;
+
+    private int mFaceCount;
+
+    /* faces already written by write( IndexedMesh ), otherwise faces are generated from the vertices */
+    private boolean mIndexed;
+
+    public PLYWriter(File pFile, boolean pNormals) throws IOException {
+        super(pFile);
+        mNormals = pNormals;
+        mVertexSize = pNormals ? 24 : 12;
+        mBuffer.put(header(0, 0));
+    }
+
+    /**
+     * writes an indexed mesh with shared vertices, with normals if the mesh has them.
+     */
+    public static void write(File pFile, IndexedMesh pMesh) throws IOException {
+        final float[] mVertices = pMesh.vertices();
+        final float[] mMeshNormals = pMesh.normals();
+        final int[] mIndices = pMesh.indices();
+        final PLYWriter mWriter = new PLYWriter(pFile, mMeshNormals != null);
+        try {
+            for (int i = 0; i < pMesh.vertexCount(); i++) {
+                mWriter.vertex(mVertices, mMeshNormals, i * 3);
+            }
+            for (int i = 0; i < pMesh.indexCount(); i += 3) {
+                mWriter.face(mIndices[i], mIndices[i + 1], mIndices[i + 2]);
+            }
+            mWriter.mIndexed = true;
+        } finally {
+            mWriter.close();
+        }
+    }
+
+    public boolean normals() {
+        return mNormals;
+    }
+
+    public void triangle(float[] pPositions, float[] pNormals) {
+        for (int i = 0; i < 9; i += 3) {
+            vertex(pPositions, pNormals, i);
+        }
+    }
+
+    public int vertexCount() {
+        return mVertexCount;
+    }
+
+    protected void finish() throws IOException {
+        if (!mIndexed) {
+            for (int i = 0; i + 2 < mVertexCount; i += 3) {
+                face(i, i + 1, i + 2);
+            }
+        }
+        flush();
+        patch(0, ByteBuffer.wrap(header(mVertexCount, mFaceCount)));
+    }
+
+    private void vertex(float[] pPositions, float[] pNormals, int pOffset) {
+        reserve(mVertexSize);
+        mBuffer.putFloat(pPositions[pOffset]);
+        mBuffer.putFloat(pPositions[pOffset + 1]);
+        mBuffer.putFloat(pPositions[pOffset + 2]);
+        if (mNormals) {
+            mBuffer.putFloat(pNormals != null ? pNormals[pOffset] : 0);
+            mBuffer.putFloat(pNormals != null ? pNormals[pOffset + 1] : 0);
+            mBuffer.putFloat(pNormals != null ? pNormals[pOffset + 2] : 0);
+        }
+        mVertexCount++;
+    }
+
+    private void face(int a, int b, int c) {
+        reserve(13);
+        mBuffer.put((byte) 3);
+        mBuffer.putInt(a);
+        mBuffer.putInt(b);
+        mBuffer.putInt(c);
+        mFaceCount++;
+    }
+
+    /* header with fixed width counts, so it has the same length before and after the counts are known */
+    private byte[] header(int pVertexCount, int pFaceCount) throws IOException {
+        final StringBuilder mHeader = new StringBuilder();
+        mHeader.append("ply\n");
+        mHeader.append("format binary_little_endian 1.0\n");
+        mHeader.append("comment generative gestaltung\n");
+        mHeader.append("element vertex ").append(pad(pVertexCount)).append('\n');
+        mHeader.append("property float x\n");
+        mHeader.append("property float y\n");
+        mHeader.append("property float z\n");
+        if (mNormals) {
+            mHeader.append("property float nx\n");
+            mHeader.append("property float ny\n");
+            mHeader.append("property float nz\n");
+        }
+        mHeader.append("element face ").append(pad(pFaceCount)).append('\n');
+        mHeader.append("property list uchar int vertex_indices\n");
+        mHeader.append("end_header\n");
+        return mHeader.toString().getBytes("US-ASCII");
+    }
+
+    private static String pad(int pValue) {
+        final String mValue = Integer.toString(pValue);
+        final StringBuilder mPadded = new StringBuilder();
+        for (int i = mValue.length(); i < mCountDigits; i++) {
+            mPadded.append('0');
+        }
+        return mPadded.append(mValue).toString();
+    }
+}
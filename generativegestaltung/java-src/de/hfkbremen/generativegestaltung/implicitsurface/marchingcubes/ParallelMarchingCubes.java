@@ -0,0 +1,149 @@
+/**
+ * generative gestaltung
+ *
+ */
+package de.hfkbremen.generativegestaltung.implicitsurface.marchingcubes;
+
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Vector;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import processing.core.PVector;
+
+
+/**
+ * multi-core variant of <code>MarchingCubes</code>. the volume is split into slabs along the x-axis which are
+ * polygonised on the common fork/join pool, each into its own buffer. the buffers are merged in slab order, so the
+ * result is identical to the serial path ( same triangles, same order, same vertex indices ).
+ */
+public class ParallelMarchingCubes {
+
+    /* slabs per worker thread, more slabs balance better when the surface is unevenly distributed */
+    private static final int mSlabsPerThread = 4;
+
+    public static void triangles(Vector<PVector> pTriangles, final ScalarField3D pField, final float pThreshold) {
+        final int[] mSlabs = slabs(pField);
+        final int mChunks = mSlabs.length - 1;
+        final List<Vector<PVector>> mBuffers = new ArrayList<Vector<PVector>>(mChunks);
+        final RecursiveAction[] mTasks = new RecursiveAction[mChunks];
+        for (int i = 0; i < mChunks; i++) {
+            final int mChunk = i;
+            mBuffers.add(new Vector<PVector>());
+            mTasks[i] = new RecursiveAction() {
+                protected void compute() {
+                    MarchingCubes.triangles(mBuffers.get(mChunk),
+                                            pField,
+                                            pThreshold,
+                                            mSlabs[mChunk],
+                                            mSlabs[mChunk + 1]);
+                }
+            };
+        }
+        invoke(mTasks);
+        for (int i = 0; i < mChunks; i++) {
+            pTriangles.addAll(mBuffers.get(i));
+        }
+    }
+
+    public static void trianglesIndexed(IndexedMesh pMesh, ScalarField3D pField, float pThreshold) {
+        trianglesIndexed(pMesh, pField, pThreshold, null);
+    }
+
+    public static void trianglesIndexed(final IndexedMesh pMesh,
+                                        final ScalarField3D pField,
+                                        final float pThreshold,
+                                        final ScalarGradient pGradient) {
+        final int[] mSlabs = slabs(pField);
+        final int mChunks = mSlabs.length - 1;
+        final int mLayerSize = pField.sizeY() * pField.sizeZ();
+        final IndexedMesh[] mBuffers = new IndexedMesh[mChunks];
+        final int[][][] mBoundaries = new int[mChunks][4][mLayerSize];
+        final RecursiveAction[] mTasks = new RecursiveAction[mChunks];
+        for (int i = 0; i < mChunks; i++) {
+            final int mChunk = i;
+            mBuffers[i] = new IndexedMesh();
+            mBuffers[i].normals(pMesh.hasNormals());
+            mTasks[i] = new RecursiveAction() {
+                protected void compute() {
+                    MarchingCubes.trianglesIndexed(mBuffers[mChunk],
+                                                   pField,
+                                                   pThreshold,
+                                                   pGradient,
+                                                   mSlabs[mChunk],
+                                                   mSlabs[mChunk + 1],
+                                                   mBoundaries[mChunk]);
+                }
+            };
+        }
+        invoke(mTasks);
+
+        /* merge chunks. vertices on the first layer of a chunk were already created by the previous chunk */
+        int[] mRemap = new int[0];
+        for (int i = 0; i < mChunks; i++) {
+            final IndexedMesh mBuffer = mBuffers[i];
+            final int[][] mBoundary = mBoundaries[i];
+            if (mRemap.length < mBuffer.vertexCount()) {
+                mRemap = new int[mBuffer.vertexCount()];
+            }
+            Arrays.fill(mRemap, 0, mBuffer.vertexCount(), -1);
+            if (i > 0) {
+                final int[][] mPrevious = mBoundaries[i - 1];
+                for (int mSlot = 0; mSlot < 2; mSlot++) {
+                    for (int j = 0; j < mLayerSize; j++) {
+                        final int mLocal = mBoundary[mSlot][j];
+                        if (mLocal >= 0) {
+                            mRemap[mLocal] = mPrevious[2 + mSlot][j];
+                        }
+                    }
+                }
+            }
+            final float[] mVertices = mBuffer.vertices();
+            final float[] mNormals = mBuffer.normals();
+            for (int j = 0; j < mBuffer.vertexCount(); j++) {
+                if (mRemap[j] < 0) {
+                    if (mNormals != null) {
+                        mRemap[j] = pMesh.addVertex(mVertices[j * 3], mVertices[j * 3 + 1], mVertices[j * 3 + 2],
+                                                    mNormals[j * 3], mNormals[j * 3 + 1], mNormals[j * 3 + 2]);
+                    } else {
+                        mRemap[j] = pMesh.addVertex(mVertices[j * 3], mVertices[j * 3 + 1], mVertices[j * 3 + 2]);
+                    }
+                }
+            }
+            final int[] mIndices = mBuffer.indices();
+            for (int j = 0; j < mBuffer.indexCount(); j += 3) {
+                pMesh.addTriangle(mRemap[mIndices[j]], mRemap[mIndices[j + 1]], mRemap[mIndices[j + 2]]);
+            }
+            /* translate last layer to global indices for the next chunk */
+            for (int mSlot = 2; mSlot < 4; mSlot++) {
+                for (int j = 0; j < mLayerSize; j++) {
+                    final int mLocal = mBoundary[mSlot][j];
+                    if (mLocal >= 0) {
+                        mBoundary[mSlot][j] = mRemap[mLocal];
+                    }
+                }
+            }
+        }
+    }
+
+    /* slab boundaries along x, one chunk per entry pair */
+    private static int[] slabs(ScalarField3D pField) {
+        final int mCells = pField.sizeX() - 1;
+        final int mChunks = Math.max(1, Math.min(mCells, ForkJoinPool.getCommonPoolParallelism() * mSlabsPerThread));
+        final int[] mSlabs = new int[mChunks + 1];
+        for (int i = 0; i <= mChunks; i++) {
+            mSlabs[i] = (int) ((long) mCells * i / mChunks);
+        }
+        return mSlabs;
+    }
+
+    private static void invoke(final RecursiveAction[] pTasks) {
+        ForkJoinPool.commonPool().invoke(new RecursiveAction() {
+            protected void compute() {
+                invokeAll(pTasks);
+            }
+        });
+    }
+}
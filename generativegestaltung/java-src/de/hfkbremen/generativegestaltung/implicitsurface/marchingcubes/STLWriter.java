@@ -0,0 +1,89 @@
+/**
+ * generative gestaltung
+ *
+ */
+package de.hfkbremen.generativegestaltung.implicitsurface.marchingcubes;
+
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+
+/**
+ * streams triangles into a binary STL file. facet normals are computed from the vertices, the triangle count in the
+ * header is filled in on <code>close</code>.
+ */
+public class STLWriter
+        extends MeshWriter {
+
+    private static final int mHeaderSize = 80;
+
+    private static final int mRecordSize = 50;
+
+    private int mTriangleCount;
+
+    public STLWriter(File pFile) throws IOException {
+        super(pFile);
+        final byte[] mHeader = new byte[mHeaderSize];
+        final byte[] mName = "generative gestaltung".getBytes("US-ASCII");
+        System.arraycopy(mName, 0, mHeader, 0, mName.length);
+        mBuffer.put(mHeader);
+        mBuffer.putInt(0);
+    }
+
+    public static void write(File pFile, IndexedMesh pMesh) throws IOException {
+        final STLWriter mWriter = new STLWriter(pFile);
+        try {
+            mWriter.write(pMesh);
+        } finally {
+            mWriter.close();
+        }
+    }
+
+    /**
+     * STL stores facet normals only, so the extractor does not need to compute vertex normals.
+     */
+    public boolean normals() {
+        return false;
+    }
+
+    public void triangle(float[] p, float[] pNormals) {
+        reserve(mRecordSize);
+        final float ax = p[3] - p[0];
+        final float ay = p[4] - p[1];
+        final float az = p[5] - p[2];
+        final float bx = p[6] - p[0];
+        final float by = p[7] - p[1];
+        final float bz = p[8] - p[2];
+        float nx = ay * bz - az * by;
+        float ny = az * bx - ax * bz;
+        float nz = ax * by - ay * bx;
+        final float mLength = (float) Math.sqrt(nx * nx + ny * ny + nz * nz);
+        if (mLength > 0) {
+            nx /= mLength;
+            ny /= mLength;
+            nz /= mLength;
+        }
+        mBuffer.putFloat(nx);
+        mBuffer.putFloat(ny);
+        mBuffer.putFloat(nz);
+        for (int i = 0; i < 9; i++) {
+            mBuffer.putFloat(p[i]);
+        }
+        mBuffer.putShort((short) 0);
+        mTriangleCount++;
+    }
+
+    public int triangleCount() {
+        return mTriangleCount;
+    }
+
+    protected void finish() throws IOException {
+        flush();
+        final ByteBuffer mCount = ByteBuffer.allocate(4).order(ByteOrder.LITTLE_ENDIAN);
+        mCount.putInt(0, mTriangleCount);
+        patch(mHeaderSize, mCount);
+    }
+}
@@ -0,0 +1,201 @@
+/**
+ * generative gestaltung
+ *
+ */
+package de.hfkbremen.generativegestaltung.implicitsurface.marchingcubes;
+
+
+import java.util.Arrays;
+
+
+/**
+ * scalar field stored in a single flat float array. values are laid out x-major ( z varies fastest ) so that
+ * <code>index(x, y, z) = x * strideX() + y * strideY() + z</code>.
+ * <p>
+ * grid point ( x, y, z ) sits at <code>origin + ( x, y, z ) * spacing</code> in world space. by default origin is 0
+ * and spacing is 1 / size, which gives the same normalized ( 0 - 1 ) positions as the <code>float[][][]</code>
+ * variants in <code>MarchingCubes</code>.
+ */
+public class ScalarField3D {
+
+    private float[] mValues;
+
+    private int mSizeX;
+
+    private int mSizeY;
+
+    private int mSizeZ;
+
+    private int mStrideX;
+
+    private int mStrideY;
+
+    private float mOriginX;
+
+    private float mOriginY;
+
+    private float mOriginZ;
+
+    private float mSpacingX;
+
+    private float mSpacingY;
+
+    private float mSpacingZ;
+
+    public ScalarField3D(int pSizeX, int pSizeY, int pSizeZ) {
+        mValues = new float[0];
+        resize(pSizeX, pSizeY, pSizeZ);
+    }
+
+    /**
+     * changes the dimensions of the field and resets spacing to 1 / size. the backing array is only reallocated if
+     * it is too small, so resizing back and forth does not allocate. values are undefined after resizing.
+     */
+    public void resize(int pSizeX, int pSizeY, int pSizeZ) {
+        if (pSizeX < 2 || pSizeY < 2 || pSizeZ < 2) {
+            throw new IllegalArgumentException("field needs at least 2 grid points per axis");
+        }
+        mSizeX = pSizeX;
+        mSizeY = pSizeY;
+        mSizeZ = pSizeZ;
+        mStrideY = pSizeZ;
+        mStrideX = pSizeY * pSizeZ;
+        final int mLength = pSizeX * pSizeY * pSizeZ;
+        if (mValues.length < mLength) {
+            mValues = new float[mLength];
+        }
+        spacing(1.0f / pSizeX, 1.0f / pSizeY, 1.0f / pSizeZ);
+    }
+
+    public int index(int x, int y, int z) {
+        return x * mStrideX + y * mStrideY + z;
+    }
+
+    public float get(int x, int y, int z) {
+        return mValues[x * mStrideX + y * mStrideY + z];
+    }
+
+    public void set(int x, int y, int z, float pValue) {
+        mValues[x * mStrideX + y * mStrideY + z] = pValue;
+    }
+
+    /**
+     * copies a jagged array into the field, resizing it if necessary.
+     */
+    public void set(float[][][] pGridValues) {
+        final int mX = pGridValues.length;
+        final int mY = pGridValues[0].length;
+        final int mZ = pGridValues[0][0].length;
+        if (mX != mSizeX || mY != mSizeY || mZ != mSizeZ) {
+            resize(mX, mY, mZ);
+        }
+        for (int x = 0; x < mX; x++) {
+            for (int y = 0; y < mY; y++) {
+                System.arraycopy(pGridValues[x][y], 0, mValues, index(x, y, 0), mZ);
+            }
+        }
+    }
+
+    /**
+     * gradient at a grid point in world units, central differences inside the field and one-sided differences at
+     * its border.
+     *
+     * @param pGradient receives the gradient ( x, y, z )
+     */
+    public void gradient(int x, int y, int z, float[] pGradient) {
+        final int x0 = x > 0 ? x - 1 : x;
+        final int x1 = x < mSizeX - 1 ? x + 1 : x;
+        final int y0 = y > 0 ? y - 1 : y;
+        final int y1 = y < mSizeY - 1 ? y + 1 : y;
+        final int z0 = z > 0 ? z - 1 : z;
+        final int z1 = z < mSizeZ - 1 ? z + 1 : z;
+        pGradient[0] = (get(x1, y, z) - get(x0, y, z)) / ((x1 - x0) * mSpacingX);
+        pGradient[1] = (get(x, y1, z) - get(x, y0, z)) / ((y1 - y0) * mSpacingY);
+        pGradient[2] = (get(x, y, z1) - get(x, y, z0)) / ((z1 - z0) * mSpacingZ);
+    }
+
+    public void fill(float pValue) {
+        Arrays.fill(mValues, 0, length(), pValue);
+    }
+
+    /**
+     * @return backing array. only the first <code>length()</code> entries are valid.
+     */
+    public float[] values() {
+        return mValues;
+    }
+
+    public int length() {
+        return mSizeX * mSizeY * mSizeZ;
+    }
+
+    public int sizeX() {
+        return mSizeX;
+    }
+
+    public int sizeY() {
+        return mSizeY;
+    }
+
+    public int sizeZ() {
+        return mSizeZ;
+    }
+
+    public int strideX() {
+        return mStrideX;
+    }
+
+    public int strideY() {
+        return mStrideY;
+    }
+
+    public void origin(float x, float y, float z) {
+        mOriginX = x;
+        mOriginY = y;
+        mOriginZ = z;
+    }
+
+    public void spacing(float x, float y, float z) {
+        mSpacingX = x;
+        mSpacingY = y;
+        mSpacingZ = z;
+    }
+
+    public float originX() {
+        return mOriginX;
+    }
+
+    public float originY() {
+        return mOriginY;
+    }
+
+    public float originZ() {
+        return mOriginZ;
+    }
+
+    public float spacingX() {
+        return mSpacingX;
+    }
+
+    public float spacingY() {
+        return mSpacingY;
+    }
+
+    public float spacingZ() {
+        return mSpacingZ;
+    }
+
+    /* world space position of a grid point */
+
+    public float positionX(float x) {
+        return mOriginX + x * mSpacingX;
+    }
+
+    public float positionY(float y) {
+        return mOriginY + y * mSpacingY;
+    }
+
+    public float positionZ(float z) {
+        return mOriginZ + z * mSpacingZ;
+    }
+}
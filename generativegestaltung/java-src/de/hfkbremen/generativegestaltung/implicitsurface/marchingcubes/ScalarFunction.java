@@ -0,0 +1,30 @@
+/**
+ * generative gestaltung
+ *
+ */
+package de.hfkbremen.generativegestaltung.implicitsurface.marchingcubes;
+
+
+/**
+ * implicit function that can be evaluated at any point in space.
+ */
+public interface ScalarFunction {
+
+    float value(float x, float y, float z);
+
+    /**
+     * evaluates the function for a batch of points, e.g. a row or a slab of a grid. implementations should override
+     * this with a loop that does not call <code>value</code> per point, the default just does.
+     *
+     * @param pX x coordinates of the points
+     * @param pY y coordinates of the points
+     * @param pZ z coordinates of the points
+     * @param pValues receives the function value of every point
+     * @param pCount number of points
+     */
+    default void values(float[] pX, float[] pY, float[] pZ, float[] pValues, int pCount) {
+        for (int i = 0; i < pCount; i++) {
+            pValues[i] = value(pX[i], pY[i], pZ[i]);
+        }
+    }
+}
@@ -0,0 +1,17 @@
+/**
+ * generative gestaltung
+ *
+ */
+package de.hfkbremen.generativegestaltung.implicitsurface.marchingcubes;
+
+
+/**
+ * analytic gradient of a scalar field. extractors use it instead of finite differences to compute vertex normals.
+ */
+public interface ScalarGradient {
+
+    /**
+     * @param pGradient receives the gradient ( x, y, z ) at the given point
+     */
+    void gradient(float x, float y, float z, float[] pGradient);
+}
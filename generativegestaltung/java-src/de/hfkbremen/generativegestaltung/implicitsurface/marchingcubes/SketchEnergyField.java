@@ -6,7 +6,6 @@ package de.hfkbremen.generativegestaltung.implicitsurface.marchingcubes;
 
 
 import controlP5.ControlP5;
-import de.hfkbremen.generativegestaltung.util.PVectorUtil;
 import java.util.Vector;
 import processing.core.PApplet;
 import processing.core.PVector;
@@ -23,7 +22,23 @@ public class SketchEnergyField
 
     private float mNoiseScale = 6.0f;
 
-    private float[][][] mField;
+    private IsoSurfaceCache mCache;
+
+    private final IsoSurfaceExtractor[] mExtractors = {new MarchingCubesExtractor(),
+                                                       new SurfaceNets(),
+                                                       new MarchingTetrahedra()};
+
+    private int mExtractor;
+
+    private final GradientNoiseFunction mNoise = new GradientNoiseFunction(23);
+
+    private final IsoSurfaceCache.FieldGenerator mNoiseGenerator = new IsoSurfaceCache.FieldGenerator() {
+        public void generate(ScalarField3D pField) {
+            /* one noise unit every mNoiseScale grid points */
+            mNoise.frequency(1.0f / (mNoiseScale * pField.spacingX()));
+            mNoise.fill(pField);
+        }
+    };
 
     public void setup() {
         size(640, 480, OPENGL);
@@ -33,23 +48,18 @@ public class SketchEnergyField
         controlP5.addSlider("mThreshold", 0, 1, mThreshold, 10, 20, 100, 14);
         controlP5.addSlider("mNoiseScale", 0, 10, mNoiseScale, 10, 40, 100, 14);
 
-        mField = new float[20][20][20];
+        /* place the triangles in a box from -150 to 150 */
+        mCache = new IsoSurfaceCache(20, 20, 20);
+        mCache.field().origin(-150, -150, -150);
+        mCache.field().spacing(300 / 20.0f, 300 / 20.0f, 300 / 20.0f);
+        mCache.extractor(mExtractors[mExtractor]);
     }
 
     public void draw() {
 
-        /* populate field with perlin noise */
-        for (int x = 0; x < mField.length; x++) {
-            for (int y = 0; y < mField[x].length; y++) {
-                for (int z = 0; z < mField[x][y].length; z++) {
-                    mField[x][y][z] = noise(x / mNoiseScale, y / mNoiseScale, z / mNoiseScale);
-                }
-            }
-        }
-
-        /* calculate triangles */
-        Vector<PVector> mTriangles = new Vector<PVector>();
-        MarchingCubes.triangles(mTriangles, mField, mThreshold);
+        /* the field only depends on the noise scale, the mesh on field and threshold */
+        mCache.field(Float.floatToIntBits(mNoiseScale), mNoiseGenerator);
+        final Vector<PVector> mTriangles = mCache.triangles(mThreshold);
 
         /* draw */
         background(164);
@@ -66,18 +76,24 @@ public class SketchEnergyField
         fill(255, 32);
         stroke(255, 48);
         beginShape(TRIANGLES);
-        PVector mScale = new PVector(150, 150, 150);
         for (int i = 0; i < mTriangles.size(); i++) {
             PVector p = mTriangles.get(i);
-            /* scale triangles to make them visible. triangle values are returned normalized ( 0 - 1 ) */
-            PVectorUtil.mult(p, mScale);
-            p.mult(2);
-            p.sub(mScale);
             vertex(p.x, p.y, p.z);
         }
         endShape();
 
         popMatrix();
+
+        fill(0);
+        text(mCache.extractor() + " ( e )  triangles " + mTriangles.size() / 3, 10, height - 10);
+    }
+
+    public void keyPressed() {
+        if (key == 'e') {
+            /* cycle through the isosurface algorithms */
+            mExtractor = (mExtractor + 1) % mExtractors.length;
+            mCache.extractor(mExtractors[mExtractor]);
+        }
     }
 
     public static void main(String args[]) {
@@ -0,0 +1,93 @@
+/**
+ * generative gestaltung
+ *
+ */
+package de.hfkbremen.generativegestaltung.implicitsurface.marchingcubes;
+
+
+import controlP5.ControlP5;
+import java.util.Vector;
+import processing.core.PApplet;
+
+
+public class SketchEnergyFieldFlight
+        extends PApplet {
+
+    private ControlP5 controlP5;
+
+    private float mThreshold = 0.5f;
+
+    private float mNoiseScale = 6.0f;
+
+    private float mSpeed = 2.0f;
+
+    private ChunkManager mChunks;
+
+    private float mCameraZ;
+
+    private float mFunctionNoiseScale;
+
+    private GradientNoiseFunction mFunction;
+
+    public void setup() {
+        size(640, 480, OPENGL);
+
+        controlP5 = new ControlP5(this);
+        controlP5.addSlider("mThreshold", 0, 1, mThreshold, 10, 20, 100, 14);
+        controlP5.addSlider("mNoiseScale", 1, 10, mNoiseScale, 10, 40, 100, 14);
+        controlP5.addSlider("mSpeed", 0, 10, mSpeed, 10, 60, 100, 14);
+
+        /* chunks of 16 cells, one cell per unit. meshes may hold 64 MB */
+        mChunks = new ChunkManager(16, 16, 64L * 1024 * 1024);
+        mChunks.radius(96);
+        mChunks.normals(true);
+    }
+
+    public void draw() {
+        /* a new scale is a new function, chunks meshed with the old one stay cached until they are evicted */
+        if (mFunction == null || mFunctionNoiseScale != mNoiseScale) {
+            mFunctionNoiseScale = mNoiseScale;
+            mFunction = new GradientNoiseFunction();
+            mFunction.octaves(1);
+            mFunction.frequency(1.0f / mNoiseScale);
+        }
+        mChunks.function(mFunction, null, mThreshold, Float.floatToIntBits(mFunctionNoiseScale));
+
+        /* fly along -z through the field, into the screen */
+        mCameraZ -= mSpeed;
+        final Vector<ChunkMesh> mMeshes = mChunks.update(0, 0, mCameraZ);
+
+        background(164);
+        pushMatrix();
+        translate(width / 2, height / 2, 0);
+        scale(4);
+        translate(0, 0, -mCameraZ);
+
+        lights();
+        noStroke();
+        fill(255);
+        beginShape(TRIANGLES);
+        for (int i = 0; i < mMeshes.size(); i++) {
+            final ChunkMesh mMesh = mMeshes.get(i);
+            final float[] mPositions = mMesh.positions();
+            final float[] mNormals = mMesh.normals();
+            for (int j = 0; j < mMesh.vertexCount() * 3; j += 3) {
+                normal(mNormals[j], mNormals[j + 1], mNormals[j + 2]);
+                vertex(mPositions[j], mPositions[j + 1], mPositions[j + 2]);
+            }
+        }
+        endShape();
+        noLights();
+        popMatrix();
+
+        fill(0);
+        text("chunks " + mMeshes.size() + " / pending " + mChunks.pending()
+             + "  hit rate " + nf(mChunks.hitRate() * 100, 1, 1) + "%"
+             + "  evictions " + mChunks.evictions()
+             + "  resident " + mChunks.residentBytes() / 1024 + " KB", 10, height - 10);
+    }
+
+    public static void main(String args[]) {
+        PApplet.main(new String[]{SketchEnergyFieldFlight.class.getName()});
+    }
+}
@@ -6,42 +6,73 @@ package de.hfkbremen.generativegestaltung.implicitsurface.marchingcubes;
 
 
 import controlP5.ControlP5;
-import de.hfkbremen.generativegestaltung.util.PVectorUtil;
-import java.util.Vector;
+import java.nio.FloatBuffer;
+import java.nio.IntBuffer;
 import processing.core.PApplet;
-import processing.core.PVector;
+import processing.opengl.PGL;
+import processing.opengl.PGraphicsOpenGL;
+import processing.opengl.PShader;
 
 
 public class SketchEvaluateFunction
         extends PApplet {
 
+    private static final String[] mVertexShader = {
+        "uniform mat4 transform;",
+        "attribute vec3 position;",
+        "attribute vec3 normal;",
+        "varying float shade;",
+        "void main() {",
+        "    gl_Position = transform * vec4(position, 1.0);",
+        "    shade = 0.4 + 0.6 * abs(dot(normalize(normal), normalize(vec3(0.3, -0.5, 0.8))));",
+        "}"
+    };
+
+    private static final String[] mFragmentShader = {
+        "#ifdef GL_ES",
+        "precision mediump float;",
+        "#endif",
+        "varying float shade;",
+        "void main() {",
+        "    gl_FragColor = vec4(vec3(shade), 1.0);",
+        "}"
+    };
+
     private float mRotation;
 
-    private float[][][] mField;
+    private ScalarField3D mField;
+
+    private SphereFunction mFunction;
+
+    /* triangles go straight from the extraction into direct buffers and from there into vertex buffer objects */
+    private DirectBufferSink mSink;
+
+    private PShader mShader;
+
+    private final IntBuffer mVertexBuffers = IntBuffer.allocate(2);
 
     public void setup() {
         size(640, 480, OPENGL);
-        hint(ENABLE_DEPTH_SORT);
 
-        mField = new float[20][20][20];
+        mField = new ScalarField3D(20, 20, 20);
+        mFunction = new SphereFunction();
+        mSink = new DirectBufferSink(true);
+        mShader = new PShader(this, mVertexShader, mFragmentShader);
     }
 
     public void draw() {
 
-        /* populate field with perlin noise */
-        for (int x = 0; x < mField.length; x++) {
-            for (int y = 0; y < mField[x].length; y++) {
-                for (int z = 0; z < mField[x][y].length; z++) {
-                    PVector p = new PVector(x, y, z);
-                    PVectorUtil.div(p, new PVector(mField.length, mField[x].length, mField[x][y].length));
-                    mField[x][y][z] = evaluateFunction(p);
-                }
-            }
-        }
+        /* populate field with a sphere following the mouse */
+        mFunction.set(mouseX / (float) width, mouseY / (float) height, 0.5f, 0.3f);
+        FieldSampler.sample(mFunction, mField);
+        /* you can also sample weird functions by implementing ScalarFunction, e.g. returning */
+//        pow(sin(x * 10.0f), 2) * cos(y * y * 20) * 0.5f + sin(z * z * z * 4) * 0.5f;
+//        (0.5f * sin(x) + sqrt(y * y + z * z) - 1.5f);
 
         /* calculate triangles */
-        Vector<PVector> mTriangles = new Vector<PVector>();
-        MarchingCubes.triangles(mTriangles, mField, 0.0f);
+        mSink.begin();
+        MarchingCubes.triangles(mSink, mField, 0.0f);
+        mSink.end();
 
         /* draw */
         background(164);
@@ -53,35 +84,40 @@ public class SketchEvaluateFunction
         rotateX(abs(sin(mRotation * 0.25f)) * PI * 0.2f);
         rotateZ(cos(mRotation * 0.17f) * PI * 0.2f);
 
-        /* draw triangles */
-        noFill();
-        fill(255, 32);
-        stroke(255, 48);
-        beginShape(TRIANGLES);
-        PVector mScale = new PVector(150, 150, 150);
-        for (int i = 0; i < mTriangles.size(); i++) {
-            PVector p = mTriangles.get(i);
-            /* scale triangles to make them visible. triangle values are returned normalized ( 0 - 1 ) */
-            PVectorUtil.mult(p, mScale);
-            p.mult(2);
-            p.sub(mScale);
-            vertex(p.x, p.y, p.z);
+        /* scale triangles to make them visible. triangle values are returned normalized ( 0 - 1 ) */
+        translate(-150, -150, -150);
+        scale(300);
+
+        /* draw triangles from the direct buffers of the sink, without vertex() */
+        final PGL pgl = beginPGL();
+        if (mVertexBuffers.get(0) == 0) {
+            pgl.genBuffers(2, mVertexBuffers);
         }
-        endShape();
+        mShader.set("transform", ((PGraphicsOpenGL) g).projmodelview);
+        mShader.bind();
+        final int mPosition = pgl.getAttribLocation(mShader.glProgram, "position");
+        final int mNormal = pgl.getAttribLocation(mShader.glProgram, "normal");
+        attribute(pgl, mVertexBuffers.get(0), mPosition, mSink.positionBuffer());
+        attribute(pgl, mVertexBuffers.get(1), mNormal, mSink.normalBuffer());
+        pgl.drawArrays(PGL.TRIANGLES, 0, mSink.vertexCount());
+        pgl.disableVertexAttribArray(mPosition);
+        pgl.disableVertexAttribArray(mNormal);
+        pgl.bindBuffer(PGL.ARRAY_BUFFER, 0);
+        mShader.unbind();
+        endPGL();
 
         popMatrix();
+
+        fill(0);
+        text("triangles " + mSink.triangleCount(), 10, height - 10);
     }
 
-    private float evaluateFunction(PVector p) {
-        float r = 0.3f;
-        PVector c = new PVector(mouseX / (float) width, mouseY / (float) height, 0.5f);
-        float x = (p.x - c.x);
-        float y = (p.y - c.y);
-        float z = (p.z - c.z);
-        return sqrt(x * x + y * y + z * z) - r;
-        /* you can also use weird functions like the following: */
-//         return pow(sin(x * 10.0f), 2) * cos(y * y * 20) * 0.5f + sin(z * z * z * 4) * 0.5f;
-//        return (0.5f * sin(x) + sqrt(y * y + z * z) - 1.5f);
+    /* uploads a buffer of the sink and binds it to a vertex attribute of three floats */
+    private static void attribute(PGL pgl, int pVertexBuffer, int pAttribute, FloatBuffer pBuffer) {
+        pgl.bindBuffer(PGL.ARRAY_BUFFER, pVertexBuffer);
+        pgl.bufferData(PGL.ARRAY_BUFFER, pBuffer.limit() * 4, pBuffer, PGL.DYNAMIC_DRAW);
+        pgl.enableVertexAttribArray(pAttribute);
+        pgl.vertexAttribPointer(pAttribute, 3, PGL.FLOAT, false, 0, 0);
     }
 
     public static void main(String args[]) {
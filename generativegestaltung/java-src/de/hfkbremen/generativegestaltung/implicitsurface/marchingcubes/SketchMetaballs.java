@@ -23,6 +23,7 @@ public class SketchMetaballs
     public void setup() {
         size(640, 480, OPENGL);
         mMManager = new MetaballManager();
+        mMManager.normals(true);
 
         mMetaball = new Metaball(new PVector(0, 0, 0), 1, 50);
         mMManager.add(mMetaball);
@@ -42,6 +43,7 @@ public class SketchMetaballs
         /* calculate triangles */
         mMManager.update();
         Vector<PVector> myData = mMManager.triangles();
+        Vector<PVector> myNormals = mMManager.normals();
 
         /* draw */
         background(240);
@@ -57,14 +59,30 @@ public class SketchMetaballs
         stroke(255, 0, 0, 32);
         drawGrid();
 
-        /* draw triangles */
-        stroke(0, 64);
+        /* draw shaded triangles */
+        lights();
+        noStroke();
+        fill(255);
         beginShape(TRIANGLES);
         for (int i = 0; i < myData.size(); i++) {
             PVector p = myData.get(i);
+            PVector n = myNormals.get(i);
+            normal(n.x, n.y, n.z);
             vertex(p.x, p.y, p.z);
         }
         endShape();
+        noLights();
+    }
+
+    public void keyPressed() {
+        if (key == 'a') {
+            /* mesh on a background thread, the sketch draws the latest finished mesh */
+            mMManager.async(!mMManager.async());
+        }
+        if (key == 't') {
+            /* follow the surface of the previous frame instead of marching every cell */
+            mMManager.tracking(!mMManager.tracking());
+        }
     }
 
     private void drawGrid() {
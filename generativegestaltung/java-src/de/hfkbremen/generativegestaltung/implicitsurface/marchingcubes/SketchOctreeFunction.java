@@ -0,0 +1,78 @@
+/**
+ * generative gestaltung
+ *
+ */
+package de.hfkbremen.generativegestaltung.implicitsurface.marchingcubes;
+
+
+import processing.core.PApplet;
+
+
+public class SketchOctreeFunction
+        extends PApplet {
+
+    private float mRotation;
+
+    private OctreeMarchingCubes mOctree;
+
+    private IndexedMesh mMesh;
+
+    public void setup() {
+        size(640, 480, OPENGL);
+        hint(ENABLE_DEPTH_SORT);
+
+        /* 2^7 = 128 cells per axis, only cells near the surface are visited */
+        mOctree = new OctreeMarchingCubes(new ScalarFunction() {
+            public float value(float x, float y, float z) {
+                return evaluateFunction(x, y, z);
+            }
+        });
+        mOctree.maxDepth(7);
+        mMesh = new IndexedMesh();
+    }
+
+    public void draw() {
+
+        /* calculate triangles */
+        mOctree.build(0.0f);
+        mMesh.clear();
+        mOctree.triangles(mMesh);
+
+        /* draw */
+        background(164);
+        pushMatrix();
+
+        /* wiggle */
+        translate(width / 2, height / 2);
+        mRotation += 1.0f / frameRate;
+        rotateX(abs(sin(mRotation * 0.25f)) * PI * 0.2f);
+        rotateZ(cos(mRotation * 0.17f) * PI * 0.2f);
+
+        /* draw triangles */
+        fill(255, 32);
+        stroke(255, 48);
+        beginShape(TRIANGLES);
+        final float[] mVertices = mMesh.vertices();
+        final int[] mIndices = mMesh.indices();
+        for (int i = 0; i < mMesh.indexCount(); i++) {
+            final int j = mIndices[i] * 3;
+            /* scale triangles to make them visible. triangle values are returned normalized ( 0 - 1 ) */
+            vertex(mVertices[j] * 300 - 150, mVertices[j + 1] * 300 - 150, mVertices[j + 2] * 300 - 150);
+        }
+        endShape();
+
+        popMatrix();
+    }
+
+    private float evaluateFunction(float x, float y, float z) {
+        final float r = 0.3f;
+        final float dx = x - mouseX / (float) width;
+        final float dy = y - mouseY / (float) height;
+        final float dz = z - 0.5f;
+        return sqrt(dx * dx + dy * dy + dz * dz) - r;
+    }
+
+    public static void main(String args[]) {
+        PApplet.main(new String[]{SketchOctreeFunction.class.getName()});
+    }
+}
@@ -0,0 +1,68 @@
+/**
+ * generative gestaltung
+ *
+ */
+package de.hfkbremen.generativegestaltung.implicitsurface.marchingcubes;
+
+
+/**
+ * signed distance to a sphere, negative inside. extract it at iso level 0.
+ */
+public class SphereFunction
+        implements ScalarFunction, ScalarGradient {
+
+    private float mX;
+
+    private float mY;
+
+    private float mZ;
+
+    private float mRadius;
+
+    public SphereFunction() {
+        this(0.5f, 0.5f, 0.5f, 0.3f);
+    }
+
+    public SphereFunction(float x, float y, float z, float pRadius) {
+        set(x, y, z, pRadius);
+    }
+
+    public void set(float x, float y, float z, float pRadius) {
+        mX = x;
+        mY = y;
+        mZ = z;
+        mRadius = pRadius;
+    }
+
+    public float value(float x, float y, float z) {
+        final float dx = x - mX;
+        final float dy = y - mY;
+        final float dz = z - mZ;
+        return (float) Math.sqrt(dx * dx + dy * dy + dz * dz) - mRadius;
+    }
+
+    public void values(float[] pX, float[] pY, float[] pZ, float[] pValues, int pCount) {
+        for (int i = 0; i < pCount; i++) {
+            final float dx = pX[i] - mX;
+            final float dy = pY[i] - mY;
+            final float dz = pZ[i] - mZ;
+            pValues[i] = (float) Math.sqrt(dx * dx + dy * dy + dz * dz) - mRadius;
+        }
+    }
+
+    public void gradient(float x, float y, float z, float[] pGradient) {
+        final float dx = x - mX;
+        final float dy = y - mY;
+        final float dz = z - mZ;
+        final float d = (float) Math.sqrt(dx * dx + dy * dy + dz * dz);
+        if (d > 0) {
+            pGradient[0] = dx / d;
+            pGradient[1] = dy / d;
+            pGradient[2] = dz / d;
+        } else {
+            pGradient[0] = 0;
+            pGradient[1] = 0;
+            pGradient[2] = 0;
+        }
+    }
+}
@@ -0,0 +1,162 @@
+/**
+ * generative gestaltung
+ *
+ */
+package de.hfkbremen.generativegestaltung.implicitsurface.marchingcubes;
+
+
+import java.util.Arrays;
+
+
+/**
+ * naive surface nets. every cell the surface passes through gets exactly one vertex, placed at the mean of the points
+ * where the surface crosses the cell edges. every grid edge with a sign change is surrounded by four such cells, their
+ * vertices are connected into a quad of two triangles.
+ * <p>
+ * the mesh has about as many vertices and triangles as indexed marching cubes and a sixth of the vertices of the
+ * triangle lists of <code>MarchingCubes.triangles</code>, but almost no slivers ( a sphere: 108 against 1760 of 10000
+ * triangles ). sharp features are rounded off and the vertices do not lie exactly on the surface. an instance keeps
+ * its vertex index buffers between calls and must not be shared between threads.
+ */
+public class SurfaceNets
+        implements IsoSurfaceExtractor {
+
+    /* the 12 cube edges as pairs of corners, corner index is x * 4 + y * 2 + z */
+    private static final int[] mEdges = {
+        0, 4, 1, 5, 2, 6, 3, 7,
+        0, 2, 1, 3, 4, 6, 5, 7,
+        0, 1, 2, 3, 4, 5, 6, 7
+    };
+
+    /* vertex indices of the cells of the previous and the current x-layer, -1 for cells without vertex */
+    private int[] mPreviousLayer = new int[0];
+
+    private int[] mCurrentLayer = new int[0];
+
+    private final float[] mValues = new float[8];
+
+    private final float[] mCornerGradients = new float[24];
+
+    private final float[] mGradient = new float[3];
+
+    public void extract(IndexedMesh pMesh, ScalarField3D pField, float pThreshold, ScalarGradient pGradient) {
+        final int mCellsY = pField.sizeY() - 1;
+        final int mCellsZ = pField.sizeZ() - 1;
+        if (pField.sizeX() < 2 || mCellsY < 1 || mCellsZ < 1) {
+            return;
+        }
+        final int mLayerSize = mCellsY * mCellsZ;
+        if (mCurrentLayer.length < mLayerSize) {
+            mPreviousLayer = new int[mLayerSize];
+            mCurrentLayer = new int[mLayerSize];
+        }
+        final float[] v = pField.values();
+        final int sx = pField.strideX();
+        final int sy = pField.strideY();
+        for (int x = 0; x < pField.sizeX() - 1; x++) {
+            final int[] mCurrent = mCurrentLayer;
+            final int[] mPrevious = mPreviousLayer;
+            Arrays.fill(mCurrent, 0, mLayerSize, -1);
+            for (int y = 0; y < mCellsY; y++) {
+                for (int z = 0; z < mCellsZ; z++) {
+                    final int i = x * sx + y * sy + z;
+                    mValues[0] = v[i];
+                    mValues[1] = v[i + 1];
+                    mValues[2] = v[i + sy];
+                    mValues[3] = v[i + sy + 1];
+                    mValues[4] = v[i + sx];
+                    mValues[5] = v[i + sx + 1];
+                    mValues[6] = v[i + sx + sy];
+                    mValues[7] = v[i + sx + sy + 1];
+                    int mMask = 0;
+                    for (int k = 0; k < 8; k++) {
+                        if (mValues[k] < pThreshold) {
+                            mMask |= 1 << k;
+                        }
+                    }
+                    if (mMask == 0 || mMask == 0xff) {
+                        continue;
+                    }
+                    final int mCell = y * mCellsZ + z;
+                    final int mVertex = vertex(pMesh, pField, pThreshold, pGradient, x, y, z, mMask);
+                    mCurrent[mCell] = mVertex;
+
+                    /* quads around the three edges leaving corner 0, their other cells have been visited already */
+                    final boolean mFlip = (mMask & 1) != 0;
+                    if (((mMask ^ (mMask >> 4)) & 1) != 0 && y > 0 && z > 0) {
+                        quad(pMesh, mFlip,
+                             mVertex, mCurrent[mCell - mCellsZ], mCurrent[mCell - mCellsZ - 1], mCurrent[mCell - 1]);
+                    }
+                    if (((mMask ^ (mMask >> 2)) & 1) != 0 && x > 0 && z > 0) {
+                        quad(pMesh, mFlip,
+                             mVertex, mCurrent[mCell - 1], mPrevious[mCell - 1], mPrevious[mCell]);
+                    }
+                    if (((mMask ^ (mMask >> 1)) & 1) != 0 && x > 0 && y > 0) {
+                        quad(pMesh, mFlip,
+                             mVertex, mPrevious[mCell], mPrevious[mCell - mCellsZ], mCurrent[mCell - mCellsZ]);
+                    }
+                }
+            }
+            mCurrentLayer = mPrevious;
+            mPreviousLayer = mCurrent;
+        }
+    }
+
+    private int vertex(IndexedMesh pMesh,
+                       ScalarField3D pField,
+                       float pThreshold,
+                       ScalarGradient pGradient,
+                       int x, int y, int z,
+                       int pMask) {
+        float u = 0;
+        float v = 0;
+        float w = 0;
+        int mCrossings = 0;
+        for (int e = 0; e < mEdges.length; e += 2) {
+            final int a = mEdges[e];
+            final int b = mEdges[e + 1];
+            if (((pMask >> a) & 1) != ((pMask >> b) & 1)) {
+                final float mu = (pThreshold - mValues[a]) / (mValues[b] - mValues[a]);
+                u += (a >> 2) + mu * ((b >> 2) - (a >> 2));
+                v += ((a >> 1) & 1) + mu * (((b >> 1) & 1) - ((a >> 1) & 1));
+                w += (a & 1) + mu * ((b & 1) - (a & 1));
+                mCrossings++;
+            }
+        }
+        u /= mCrossings;
+        v /= mCrossings;
+        w /= mCrossings;
+        final float px = pField.positionX(x + u);
+        final float py = pField.positionY(y + v);
+        final float pz = pField.positionZ(z + w);
+        if (!pMesh.hasNormals()) {
+            return pMesh.addVertex(px, py, pz);
+        }
+        if (pGradient != null) {
+            pGradient.gradient(px, py, pz, mGradient);
+        } else {
+            for (int k = 0; k < 8; k++) {
+                pField.gradient(x + (k >> 2), y + ((k >> 1) & 1), z + (k & 1), mGradient);
+                System.arraycopy(mGradient, 0, mCornerGradients, k * 3, 3);
+            }
+            MarchingCubes.trilinear(mCornerGradients, u, v, w, mGradient);
+        }
+        MarchingCubes.normalizeNegated(mGradient);
+        return pMesh.addVertex(px, py, pz, mGradient[0], mGradient[1], mGradient[2]);
+    }
+
+    /* two triangles for four cell vertices given in order around the edge */
+    private static void quad(IndexedMesh pMesh, boolean pFlip, int a, int b, int c, int d) {
+        if (pFlip) {
+            pMesh.addTriangle(a, c, b);
+            pMesh.addTriangle(a, d, c);
+        } else {
+            pMesh.addTriangle(a, b, c);
+            pMesh.addTriangle(a, c, d);
+        }
+    }
+
+    public String toString() {
+        return "surface nets";
+    }
+}
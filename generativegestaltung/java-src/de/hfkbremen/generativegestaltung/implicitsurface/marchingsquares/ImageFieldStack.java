@@ -0,0 +1,164 @@
+/**
+ * generative gestaltung
+ *
+ */
+package de.hfkbremen.generativegestaltung.implicitsurface.marchingsquares;
+
+
+import java.util.concurrent.ForkJoinPool;
+import processing.core.PImage;
+
+
+/**
+ * ring buffer of scalar fields converted from captured images. every pushed image is converted exactly once into the
+ * field of its slot, on the common fork/join pool instead of the drawing thread. the field holds the luminance of the
+ * image in the range 0 - 255, optionally averaged over square blocks of pixels.
+ * <p>
+ * the conversion reads the <code>pixels</code> array of the image directly, without copying it. the image must
+ * therefore not change after it was pushed, which holds for the copies returned by <code>Capture.get()</code>.
+ * <p>
+ * the fields are allocated once and reused when the ring wraps around. push and read the stack from one thread, e.g.
+ * from <code>draw()</code> and <code>keyPressed()</code>.
+ */
+public class ImageFieldStack {
+
+    private final Slot[] mSlots;
+
+    private final int mWidth;
+
+    private final int mHeight;
+
+    private final int mDownsample;
+
+    private int mCurrent;
+
+    private int mFrames;
+
+    /**
+     * @param pCapacity   number of fields kept before the oldest one is replaced
+     * @param pWidth      width of the images in pixels
+     * @param pHeight     height of the images in pixels
+     * @param pDownsample edge length of the square blocks of pixels averaged into one grid point, 1 for none
+     */
+    public ImageFieldStack(int pCapacity, int pWidth, int pHeight, int pDownsample) {
+        mDownsample = Math.max(1, pDownsample);
+        mWidth = pWidth;
+        mHeight = pHeight;
+        mSlots = new Slot[pCapacity];
+        for (int i = 0; i < pCapacity; i++) {
+            mSlots[i] = new Slot(new float[pWidth / mDownsample][pHeight / mDownsample]);
+        }
+    }
+
+    public int capacity() {
+        return mSlots.length;
+    }
+
+    /**
+     * @return number of grid points along x, the image width divided by the downsampling factor
+     */
+    public int sizeX() {
+        return mWidth / mDownsample;
+    }
+
+    public int sizeY() {
+        return mHeight / mDownsample;
+    }
+
+    /**
+     * replaces the oldest field with a new image and starts its conversion.
+     *
+     * @return slot of the new field
+     */
+    public int push(PImage pImage) {
+        if (pImage.width != mWidth || pImage.height != mHeight) {
+            throw new IllegalArgumentException("image is " + pImage.width + " x " + pImage.height
+                                               + " pixels, stack expects " + mWidth + " x " + mHeight);
+        }
+        pImage.loadPixels();
+        final int mSlot = mCurrent;
+        mCurrent = (mCurrent + 1) % mSlots.length;
+        final Slot s = mSlots[mSlot];
+        final int[] mPixels = pImage.pixels;
+        final int mFrame = ++mFrames;
+        s.mFrame = mFrame;
+        ForkJoinPool.commonPool().execute(new Runnable() {
+            public void run() {
+                s.convert(mPixels, mFrame);
+            }
+        });
+        return mSlot;
+    }
+
+    /**
+     * @return true if the slot holds a field whose conversion has finished
+     */
+    public boolean ready(int pSlot) {
+        final Slot s = mSlots[pSlot];
+        return s.mFrame != 0 && s.mReadyFrame == s.mFrame;
+    }
+
+    /**
+     * @return field of a slot as <code>[ x ][ y ]</code>, or null if the slot is empty or still being converted
+     */
+    public float[][] field(int pSlot) {
+        return ready(pSlot) ? mSlots[pSlot].mField : null;
+    }
+
+    /**
+     * converts 32 bit ARGB pixels to luminance with integer weights ( 77 * r + 150 * g + 29 * b ) / 256, averaged over
+     * square blocks of <code>pDownsample</code> x <code>pDownsample</code> pixels. pixels beyond the last full block
+     * are ignored.
+     */
+    public static void luminance(int[] pPixels, int pWidth, int pHeight, int pDownsample, float[][] pField) {
+        final int mSizeX = pWidth / pDownsample;
+        final int mSizeY = pHeight / pDownsample;
+        final float mScale = 1.0f / (256 * pDownsample * pDownsample);
+        /* block sums of one row of blocks, pixels are read row by row in memory order */
+        final int[] mSums = new int[mSizeX];
+        for (int y = 0; y < mSizeY; y++) {
+            for (int j = 0; j < pDownsample; j++) {
+                final int mRow = (y * pDownsample + j) * pWidth;
+                for (int x = 0; x < mSizeX; x++) {
+                    final int mStart = mRow + x * pDownsample;
+                    int mSum = 0;
+                    for (int i = mStart; i < mStart + pDownsample; i++) {
+                        final int c = pPixels[i];
+                        mSum += ((c >> 16) & 0xFF) * 77 + ((c >> 8) & 0xFF) * 150 + (c & 0xFF) * 29;
+                    }
+                    if (j == 0) {
+                        mSums[x] = mSum;
+                    } else {
+                        mSums[x] += mSum;
+                    }
+                }
+            }
+            for (int x = 0; x < mSizeX; x++) {
+                pField[x][y] = mSums[x] * mScale;
+            }
+        }
+    }
+
+    private class Slot {
+
+        final float[][] mField;
+
+        /* frame pushed last and frame converted last, the field is ready when they match */
+        volatile int mFrame;
+
+        volatile int mReadyFrame;
+
+        Slot(float[][] pField) {
+            mField = pField;
+        }
+
+        /* conversions of the same slot may overlap when the ring wraps around quickly, the older one is dropped */
+        synchronized void convert(int[] pPixels, int pFrame) {
+            if (mFrame != pFrame) {
+                return;
+            }
+            luminance(pPixels, mWidth, mHeight, mDownsample, mField);
+            mReadyFrame = pFrame;
+        }
+    }
+}
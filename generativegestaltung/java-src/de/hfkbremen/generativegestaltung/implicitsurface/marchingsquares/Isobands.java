@@ -0,0 +1,197 @@
+/**
+ * generative gestaltung
+ *
+ */
+package de.hfkbremen.generativegestaltung.implicitsurface.marchingsquares;
+
+
+import java.util.Arrays;
+
+
+/**
+ * filled areas between pairs of iso levels, as triangles per band. the triangles of band <code>i</code> are stored
+ * as ( x, y, x, y, x, y, ... ) in grid coordinates in <code>triangles( i )</code>, draw them as <code>TRIANGLES</code>.
+ * <p>
+ * every cell contributes the part of the square whose values lie within the band, with values interpolated linearly
+ * along the cell edges. saddles are resolved like the isolines resolve them, with the corners below a level kept
+ * apart, so band borders run along exactly the same segments as the isolines of the same levels and neighbouring
+ * bands neither overlap nor leave gaps.
+ * <p>
+ * the arrays grow on demand and are kept between extractions, so an instance can be reused from frame to frame
+ * without allocating.
+ */
+public class Isobands {
+
+    private static final int mUpperEnter = 1;
+
+    private static final int mUpperExit = 2;
+
+    private float[][] mTriangles = new float[0][];
+
+    private int[] mCounts = new int[0];
+
+    private int mBands;
+
+    /* corner and crossing points of the part of a cell within a band, at most 4 corners and 8 crossings */
+    private final float[] mPolygon = new float[24];
+
+    /* whether a point enters or leaves the band through the upper level */
+    private final int[] mFlags = new int[12];
+
+    public void clear() {
+        Arrays.fill(mCounts, 0);
+    }
+
+    public int bandCount() {
+        return mBands;
+    }
+
+    /**
+     * @return backing triangle array of a band. only the first <code>triangleCount( pBand ) * 6</code> entries are
+     * valid.
+     */
+    public float[] triangles(int pBand) {
+        return mTriangles[pBand];
+    }
+
+    public int triangleCount(int pBand) {
+        return mCounts[pBand] / 6;
+    }
+
+    /* scan stage, called by the extractors of this package */
+
+    void bands(int pBands) {
+        if (mTriangles.length < pBands) {
+            final int mOld = mTriangles.length;
+            mTriangles = Arrays.copyOf(mTriangles, pBands);
+            mCounts = Arrays.copyOf(mCounts, pBands);
+            for (int i = mOld; i < pBands; i++) {
+                mTriangles[i] = new float[192];
+            }
+        }
+        mBands = pBands;
+        clear();
+    }
+
+    /**
+     * appends the triangles of a band of another instance.
+     */
+    void append(int pBand, Isobands pBands) {
+        final int mCount = pBands.mCounts[pBand];
+        if (mCounts[pBand] + mCount > mTriangles[pBand].length) {
+            mTriangles[pBand] = Arrays.copyOf(mTriangles[pBand], Math.max(mCounts[pBand] + mCount,
+                                                                          mTriangles[pBand].length * 2));
+        }
+        System.arraycopy(pBands.mTriangles[pBand], 0, mTriangles[pBand], mCounts[pBand], mCount);
+        mCounts[pBand] += mCount;
+    }
+
+    /**
+     * adds the part of cell ( x, y ) between two levels. corners are in the order ( x, y ), ( x, y + 1 ),
+     * ( x + 1, y + 1 ), ( x + 1, y ).
+     */
+    void band(int pBand,
+              float pLower,
+              float pUpper,
+              float[][] pGridValues,
+              int x, int y,
+              float[] pCorners,
+              float pMin,
+              float pMax) {
+        if (pMin >= pLower && pMax < pUpper) {
+            /* the whole cell lies within the band */
+            triangle(pBand, x, y, x, y + 1, x + 1, y + 1);
+            triangle(pBand, x, y, x + 1, y + 1, x + 1, y);
+            return;
+        }
+        /* walk around the cell and collect corners inside the band and level crossings in the order they appear */
+        int n = 0;
+        int mUpperCrossings = 0;
+        for (int i = 0; i < 4; i++) {
+            final float a = pCorners[i];
+            final float b = pCorners[(i + 1) & 3];
+            if (a >= pLower && a < pUpper) {
+                n = point(n, x + (i >> 1), y + (((i + 1) >> 1) & 1), 0);
+            }
+            final boolean mLower = (a < pLower) != (b < pLower);
+            final boolean mUpper = (a < pUpper) != (b < pUpper);
+            if (mUpper) {
+                mUpperCrossings++;
+            }
+            if (mLower && mUpper && a > b) {
+                /* descending edge, the upper level comes first */
+                n = point(n, pGridValues, pUpper, x, y, i, mUpperEnter);
+                n = point(n, pGridValues, pLower, x, y, i, 0);
+            } else {
+                if (mLower) {
+                    n = point(n, pGridValues, pLower, x, y, i, 0);
+                }
+                if (mUpper) {
+                    n = point(n, pGridValues, pUpper, x, y, i, a > b ? mUpperEnter : mUpperExit);
+                }
+            }
+        }
+        if (mUpperCrossings == 4) {
+            /*
+             * a saddle of the upper level. the isolines keep the corners below a level apart, so the band splits into
+             * the two parts between entering and leaving it through the upper level.
+             */
+            int mStart = 0;
+            while (mFlags[mStart] != mUpperEnter) {
+                mStart++;
+            }
+            int mEnd = mStart;
+            while (mFlags[mEnd] != mUpperExit) {
+                mEnd++;
+            }
+            fan(pBand, mStart, mEnd - mStart + 1, n);
+            fan(pBand, mEnd + 1, n - (mEnd - mStart + 1), n);
+        } else {
+            /* all points lie on the border of the square in order, so the polygon is convex and can be fanned */
+            fan(pBand, 0, n, n);
+        }
+    }
+
+    private int point(int n, float x, float y, int pFlag) {
+        mPolygon[n * 2] = x;
+        mPolygon[n * 2 + 1] = y;
+        mFlags[n] = pFlag;
+        return n + 1;
+    }
+
+    private int point(int n, float[][] pGridValues, float pLevel, int x, int y, int pEdge, int pFlag) {
+        return point(n,
+                     MarchingSquares.edgeX(pGridValues, pLevel, x, y, pEdge),
+                     MarchingSquares.edgeY(pGridValues, pLevel, x, y, pEdge),
+                     pFlag);
+    }
+
+    /* triangle fan over pCount points of the polygon, starting at pStart and wrapping around at pSize */
+    private void fan(int pBand, int pStart, int pCount, int pSize) {
+        final int a = pStart % pSize;
+        for (int i = 1; i + 1 < pCount; i++) {
+            final int b = (pStart + i) % pSize;
+            final int c = (pStart + i + 1) % pSize;
+            triangle(pBand,
+                     mPolygon[a * 2], mPolygon[a * 2 + 1],
+                     mPolygon[b * 2], mPolygon[b * 2 + 1],
+                     mPolygon[c * 2], mPolygon[c * 2 + 1]);
+        }
+    }
+
+    private void triangle(int pBand, float ax, float ay, float bx, float by, float cx, float cy) {
+        float[] mArray = mTriangles[pBand];
+        final int i = mCounts[pBand];
+        if (i + 6 > mArray.length) {
+            mArray = Arrays.copyOf(mArray, mArray.length * 2);
+            mTriangles[pBand] = mArray;
+        }
+        mArray[i] = ax;
+        mArray[i + 1] = ay;
+        mArray[i + 2] = bx;
+        mArray[i + 3] = by;
+        mArray[i + 4] = cx;
+        mArray[i + 5] = cy;
+        mCounts[pBand] = i + 6;
+    }
+}
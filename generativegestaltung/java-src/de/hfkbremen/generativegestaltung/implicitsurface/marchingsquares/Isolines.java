@@ -0,0 +1,211 @@
+/**
+ * generative gestaltung
+ *
+ */
+package de.hfkbremen.generativegestaltung.implicitsurface.marchingsquares;
+
+
+import java.util.Arrays;
+
+
+/**
+ * isolines as connected polylines in primitive arrays. the points of all polylines are stored one after the other as
+ * ( x, y, x, y, ... ) in grid coordinates, polyline <code>i</code> covers the points <code>offset( i )</code> to
+ * <code>offset( i ) + length( i ) - 1</code>. closed polylines do not repeat their first point, draw them as
+ * <code>LINE_LOOP</code> and open ones as <code>LINE_STRIP</code>.
+ * <p>
+ * all polylines are oriented the same way, with the values below the iso level on their left side in a coordinate
+ * system with y pointing up ( on the right on screen ). open polylines start and end on the border of the grid.
+ * <p>
+ * the arrays grow on demand and are kept between extractions, so an instance can be reused from frame to frame
+ * without allocating.
+ */
+public class Isolines {
+
+    /* one vertex per crossed grid edge, linked along the segments */
+    private float[] mVertices = new float[64];
+
+    private int[] mNext = new int[32];
+
+    private int[] mPrevious = new int[32];
+
+    /* grid edge of every vertex, see MarchingSquares.edgeKey */
+    private long[] mEdgeKeys = new long[32];
+
+    private int mVertexCount;
+
+    /* vertex of every x-edge in the current and the next column and of the y-edge below the current cell, see
+     * MarchingSquares.scan */
+    int[] mColumn = new int[0];
+
+    int[] mNextColumn = new int[0];
+
+    int mRowEdge;
+
+    final int[] mEdges = new int[4];
+
+    private float[] mPoints = new float[64];
+
+    private int mPointCount;
+
+    private int[] mOffsets = new int[9];
+
+    private boolean[] mClosed = new boolean[8];
+
+    /* grid edges of the first and the last point of every open polyline */
+    private long[] mStartKeys = new long[8];
+
+    private long[] mEndKeys = new long[8];
+
+    private int mLineCount;
+
+    public void clear() {
+        mVertexCount = 0;
+        mPointCount = 0;
+        mLineCount = 0;
+    }
+
+    /**
+     * @return backing point array. only the first <code>pointCount() * 2</code> entries are valid.
+     */
+    public float[] points() {
+        return mPoints;
+    }
+
+    public int pointCount() {
+        return mPointCount;
+    }
+
+    public int lineCount() {
+        return mLineCount;
+    }
+
+    /**
+     * @return index of the first point of a polyline
+     */
+    public int offset(int pLine) {
+        return mOffsets[pLine];
+    }
+
+    /**
+     * @return number of points of a polyline
+     */
+    public int length(int pLine) {
+        return mOffsets[pLine + 1] - mOffsets[pLine];
+    }
+
+    public boolean closed(int pLine) {
+        return mClosed[pLine];
+    }
+
+    /* scan stage, called by the extractors of this package */
+
+    void columns(int pSize) {
+        if (mColumn.length < pSize) {
+            mColumn = new int[pSize];
+            mNextColumn = new int[pSize];
+        }
+    }
+
+    void nextColumn() {
+        final int[] mTemp = mColumn;
+        mColumn = mNextColumn;
+        mNextColumn = mTemp;
+    }
+
+    int addVertex(float x, float y, long pEdgeKey) {
+        if (mVertexCount == mNext.length) {
+            mNext = Arrays.copyOf(mNext, mVertexCount * 2);
+            mPrevious = Arrays.copyOf(mPrevious, mVertexCount * 2);
+            mEdgeKeys = Arrays.copyOf(mEdgeKeys, mVertexCount * 2);
+            mVertices = Arrays.copyOf(mVertices, mVertexCount * 4);
+        }
+        mVertices[mVertexCount * 2] = x;
+        mVertices[mVertexCount * 2 + 1] = y;
+        mEdgeKeys[mVertexCount] = pEdgeKey;
+        mNext[mVertexCount] = -1;
+        mPrevious[mVertexCount] = -1;
+        return mVertexCount++;
+    }
+
+    void link(int pFrom, int pTo) {
+        mNext[pFrom] = pTo;
+        mPrevious[pTo] = pFrom;
+    }
+
+    /**
+     * walks the linked vertices into polylines, open ones first.
+     */
+    void build() {
+        mPointCount = 0;
+        mLineCount = 0;
+        points(mVertexCount);
+        for (int i = 0; i < mVertexCount; i++) {
+            if (mPrevious[i] == -1) {
+                walk(i, false);
+            }
+        }
+        for (int i = 0; i < mVertexCount; i++) {
+            if (mPrevious[i] >= 0) {
+                walk(i, true);
+            }
+        }
+    }
+
+    private void walk(int pStart, boolean pClosed) {
+        beginLine();
+        int i = pStart;
+        int mLast;
+        do {
+            addPoint(mVertices[i * 2], mVertices[i * 2 + 1]);
+            /* mark as visited */
+            mPrevious[i] = -2;
+            mLast = i;
+            i = mNext[i];
+        } while (i >= 0 && i != pStart);
+        endLine(pClosed, mEdgeKeys[pStart], mEdgeKeys[mLast]);
+    }
+
+    /* direct output, used to merge polylines of several scans */
+
+    void points(int pCapacity) {
+        if (mPoints.length < pCapacity * 2) {
+            mPoints = Arrays.copyOf(mPoints, Math.max(pCapacity * 2, mPoints.length * 2));
+        }
+    }
+
+    void beginLine() {
+        if (mLineCount + 1 == mOffsets.length) {
+            mOffsets = Arrays.copyOf(mOffsets, mOffsets.length * 2);
+            mClosed = Arrays.copyOf(mClosed, mOffsets.length);
+            mStartKeys = Arrays.copyOf(mStartKeys, mOffsets.length);
+            mEndKeys = Arrays.copyOf(mEndKeys, mOffsets.length);
+        }
+        mOffsets[mLineCount] = mPointCount;
+    }
+
+    void addPoint(float x, float y) {
+        if (mPointCount * 2 + 2 > mPoints.length) {
+            points(mPointCount + 1);
+        }
+        mPoints[mPointCount * 2] = x;
+        mPoints[mPointCount * 2 + 1] = y;
+        mPointCount++;
+    }
+
+    void endLine(boolean pClosed, long pStartKey, long pEndKey) {
+        mClosed[mLineCount] = pClosed;
+        mStartKeys[mLineCount] = pStartKey;
+        mEndKeys[mLineCount] = pEndKey;
+        mLineCount++;
+        mOffsets[mLineCount] = mPointCount;
+    }
+
+    long startKey(int pLine) {
+        return mStartKeys[pLine];
+    }
+
+    long endKey(int pLine) {
+        return mEndKeys[pLine];
+    }
+}
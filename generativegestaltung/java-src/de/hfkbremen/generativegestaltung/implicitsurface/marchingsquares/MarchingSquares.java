@@ -1,6 +1,7 @@
 package de.hfkbremen.generativegestaltung.implicitsurface.marchingsquares;
 
 
+import java.util.Arrays;
 import java.util.Vector;
 
 import processing.core.PVector;
@@ -36,7 +37,7 @@ public class MarchingSquares {
             3, 2, -1, -1, -1}, {
             3, 2, -1, -1, -1}, {
             0, 2, -1, -1, -1}, {
-            3, 2, 0, 2, -1}, {
+            0, 1, 2, 3, -1}, {
             1, 2, -1, -1, -1}, {
             3, 1, -1, -1, -1}, {
             0, 1, -1, -1, -1}, {
@@ -44,10 +45,54 @@ public class MarchingSquares {
             -1, -1, -1, -1, -1}
     };
 
+    /* the segments of mLine, each directed so that the corners below the iso level are on its left */
+    private static final int[][] mSegments = new int[16][];
+
+    static {
+        for (int i = 0; i < 16; i++) {
+            int n = 0;
+            while (mLine[i][n] != -1) {
+                n += 2;
+            }
+            mSegments[i] = new int[n];
+            for (int j = 0; j < n; j += 2) {
+                final int a = mLine[i][j];
+                final int b = mLine[i][j + 1];
+                /* the corner cut off by the segment or, if it crosses the whole square, the first corner of edge a */
+                int mCorner = mSquareEdge[a][0];
+                if (mSquareEdge[a][1] == mSquareEdge[b][0] || mSquareEdge[a][1] == mSquareEdge[b][1]) {
+                    mCorner = mSquareEdge[a][1];
+                }
+                /* cross product of the segment direction and the direction to the corner, in ( x, y ) */
+                final float ax = midpointX(a);
+                final float ay = midpointY(a);
+                final float dx = midpointX(b) - ax;
+                final float dy = midpointY(b) - ay;
+                final float cx = mOffset[mCorner][1] - ax;
+                final float cy = mOffset[mCorner][0] - ay;
+                final boolean mLeft = dx * cy - dy * cx > 0;
+                final boolean mLowOnLeft = mLeft == ((i & (1 << mCorner)) != 0);
+                mSegments[i][j] = mLowOnLeft ? a : b;
+                mSegments[i][j + 1] = mLowOnLeft ? b : a;
+            }
+        }
+    }
+
+    private static float midpointX(int pEdge) {
+        return (mOffset[mSquareEdge[pEdge][0]][1] + mOffset[mSquareEdge[pEdge][1]][1]) * 0.5f;
+    }
+
+    private static float midpointY(int pEdge) {
+        return (mOffset[mSquareEdge[pEdge][0]][0] + mOffset[mSquareEdge[pEdge][1]][0]) * 0.5f;
+    }
+
+    /**
+     * extracts isolines as two point segments with positions divided by the size of the grid.
+     */
     public static void lines(Vector<PVector> mLines, float[][] pGridValues, float pThreshold) {
+        final PVector mArrayDimensions = new PVector(pGridValues.length, pGridValues[0].length, 1);
         for (int x = 0; x < pGridValues.length - 1; x++) {
             for (int y = 0; y < pGridValues[x].length - 1; y++) {
-                PVector mArrayDimensions = new PVector(pGridValues.length, pGridValues[x].length, 1);
                 int square_idx = 0;
                 if (pGridValues[x][y] < pThreshold) {
                     square_idx |= 1;
@@ -61,7 +106,7 @@ public class MarchingSquares {
                 if (pGridValues[x + 1][y] < pThreshold) {
                     square_idx |= 8;
                 }
-                if (square_idx != 0 || square_idx != 15) {
+                if (square_idx != 0 && square_idx != 15) {
                     int n = 0;
                     while (mLine[square_idx][n] != -1) {
                         PVector p1 = new PVector();
@@ -83,10 +128,215 @@ public class MarchingSquares {
         }
     }
 
+    /**
+     * extracts isolines as connected polylines. segments are stitched while the grid is scanned: every crossed grid
+     * edge gets one vertex, shared by the two cells on either side of it, and every segment links its two vertices.
+     * positions are in grid coordinates, i.e. point ( x, y ) lies on grid value [ x ][ y ].
+     *
+     * @param pLines receives the polylines, its previous content is replaced
+     * @param pGridValues scalar field
+     * @param pThreshold iso level
+     */
+    public static void isolines(Isolines pLines, float[][] pGridValues, float pThreshold) {
+        contours(new Isolines[]{pLines}, null, pGridValues, new float[]{pThreshold});
+    }
+
+    /**
+     * extracts the isolines of several iso levels and the isobands between them in a single pass over the grid. every
+     * cell is classified once: the smallest and largest of its corner values select the levels that pass through it,
+     * all other levels skip the cell. a stack of 50 contours therefore costs little more than one pass plus the work
+     * for the lines that are actually there.
+     * <p>
+     * band <code>i</code> covers the values from <code>pThresholds[ i ]</code> up to but not including
+     * <code>pThresholds[ i + 1 ]</code> and is emitted as triangles. use infinite thresholds at both ends to also get
+     * the areas below the lowest and above the highest level.
+     *
+     * @param pLines receives the isolines of level <code>i</code> in <code>pLines[ i ]</code>, or null for no lines
+     * @param pBands receives the isobands, or null for no bands
+     * @param pGridValues scalar field
+     * @param pThresholds iso levels in ascending order
+     */
+    public static void contours(Isolines[] pLines, Isobands pBands, float[][] pGridValues, float[] pThresholds) {
+        check(pLines, pThresholds);
+        if (pLines != null) {
+            for (int i = 0; i < pThresholds.length; i++) {
+                pLines[i].clear();
+            }
+        }
+        if (pBands != null) {
+            pBands.bands(Math.max(0, pThresholds.length - 1));
+        }
+        scan(pLines, pBands, pGridValues, pThresholds, 0, pGridValues.length - 1, 0, pGridValues[0].length - 1);
+        if (pLines != null) {
+            for (int i = 0; i < pThresholds.length; i++) {
+                pLines[i].build();
+            }
+        }
+    }
+
+    static void check(Isolines[] pLines, float[] pThresholds) {
+        for (int i = 1; i < pThresholds.length; i++) {
+            if (pThresholds[i] < pThresholds[i - 1]) {
+                throw new IllegalArgumentException("thresholds must be in ascending order");
+            }
+        }
+        if (pLines != null && pLines.length < pThresholds.length) {
+            throw new IllegalArgumentException("need one isolines object per threshold");
+        }
+    }
+
+    /**
+     * scans the cells [ pFromX, pToX ) x [ pFromY, pToY ), adding vertices, links and band triangles without building
+     * the polylines.
+     */
+    static void scan(Isolines[] pLines,
+                     Isobands pBands,
+                     float[][] pGridValues,
+                     float[] pThresholds,
+                     int pFromX,
+                     int pToX,
+                     int pFromY,
+                     int pToY) {
+        final int mLevels = pThresholds.length;
+        final int mBands = pBands == null ? 0 : mLevels - 1;
+        if (pLines != null) {
+            for (int i = 0; i < mLevels; i++) {
+                pLines[i].columns(pToY - pFromY);
+                Arrays.fill(pLines[i].mColumn, 0, pToY - pFromY, -1);
+            }
+        }
+        final float[] mCorners = new float[4];
+        for (int x = pFromX; x < pToX; x++) {
+            final float[] mValues = pGridValues[x];
+            final float[] mNextValues = pGridValues[x + 1];
+            if (pLines != null) {
+                for (int i = 0; i < mLevels; i++) {
+                    pLines[i].mRowEdge = -1;
+                }
+            }
+            for (int y = pFromY; y < pToY; y++) {
+                mCorners[0] = mValues[y];
+                mCorners[1] = mValues[y + 1];
+                mCorners[2] = mNextValues[y + 1];
+                mCorners[3] = mNextValues[y];
+                final float mMin = Math.min(Math.min(mCorners[0], mCorners[1]), Math.min(mCorners[2], mCorners[3]));
+                final float mMax = Math.max(Math.max(mCorners[0], mCorners[1]), Math.max(mCorners[2], mCorners[3]));
+                /* levels with min < level <= max pass through the cell */
+                final int mFrom = levelAbove(pThresholds, mMin);
+                final int mTo = levelAbove(pThresholds, mMax);
+                if (pLines != null) {
+                    for (int i = mFrom; i < mTo; i++) {
+                        cell(pLines[i], pGridValues, pThresholds[i], x, y, y - pFromY, mCorners);
+                    }
+                }
+                /* bands with lower level <= max and upper level > min overlap the cell */
+                for (int i = Math.max(0, mFrom - 1); i < Math.min(mTo, mBands); i++) {
+                    pBands.band(i, pThresholds[i], pThresholds[i + 1], pGridValues, x, y, mCorners, mMin, mMax);
+                }
+            }
+            if (pLines != null) {
+                for (int i = 0; i < mLevels; i++) {
+                    pLines[i].nextColumn();
+                }
+            }
+        }
+    }
+
+    /* index of the first threshold above the value */
+    private static int levelAbove(float[] pThresholds, float pValue) {
+        int mLow = 0;
+        int mHigh = pThresholds.length;
+        while (mLow < mHigh) {
+            final int mMiddle = (mLow + mHigh) >>> 1;
+            if (pThresholds[mMiddle] > pValue) {
+                mHigh = mMiddle;
+            } else {
+                mLow = mMiddle + 1;
+            }
+        }
+        return mLow;
+    }
+
+    /*
+     * links the segments of one cell. columns are indexed by pRow, the row within the scanned range. a stale entry in
+     * the column or row of an edge is never read: a segment only touches an edge the level crosses, and then the cell
+     * on the other side of the edge has written the entry.
+     */
+    private static void cell(Isolines pLines,
+                             float[][] pGridValues,
+                             float pThreshold,
+                             int x,
+                             int y,
+                             int pRow,
+                             float[] pCorners) {
+        int mCase = 0;
+        for (int i = 0; i < 4; i++) {
+            if (pCorners[i] < pThreshold) {
+                mCase |= 1 << i;
+            }
+        }
+        final int[] mEdges = pLines.mEdges;
+        mEdges[0] = pLines.mColumn[pRow];
+        mEdges[1] = -1;
+        mEdges[2] = -1;
+        mEdges[3] = pLines.mRowEdge;
+        final int[] mSegment = mSegments[mCase];
+        for (int i = 0; i < mSegment.length; i += 2) {
+            final int a = mSegment[i];
+            final int b = mSegment[i + 1];
+            if (mEdges[a] < 0) {
+                mEdges[a] = pLines.addVertex(edgeX(pGridValues, pThreshold, x, y, a),
+                                             edgeY(pGridValues, pThreshold, x, y, a),
+                                             edgeKey(pGridValues, x, y, a));
+            }
+            if (mEdges[b] < 0) {
+                mEdges[b] = pLines.addVertex(edgeX(pGridValues, pThreshold, x, y, b),
+                                             edgeY(pGridValues, pThreshold, x, y, b),
+                                             edgeKey(pGridValues, x, y, b));
+            }
+            pLines.link(mEdges[a], mEdges[b]);
+        }
+        pLines.mNextColumn[pRow] = mEdges[2];
+        pLines.mRowEdge = mEdges[1];
+    }
+
+    /* unique number of a grid edge, edges along y are even and edges along x odd */
+    static long edgeKey(float[][] pGridValues, int x, int y, int pEdgeID) {
+        final long mPoint;
+        if (pEdgeID == 0 || pEdgeID == 2) {
+            mPoint = (long) (pEdgeID == 0 ? x : x + 1) * pGridValues[0].length + y;
+            return mPoint * 2;
+        }
+        mPoint = (long) x * pGridValues[0].length + (pEdgeID == 1 ? y + 1 : y);
+        return mPoint * 2 + 1;
+    }
+
+    /*
+     * position of a level on a cell edge. always interpolated from the grid point with the smaller coordinates, so
+     * every cell and every band arrives at exactly the same point for the same edge.
+     */
+    static float edgeX(float[][] pGridValues, float pThreshold, int x, int y, int pEdgeID) {
+        if (pEdgeID == 1 || pEdgeID == 3) {
+            final int ax = x;
+            final int ay = pEdgeID == 1 ? y + 1 : y;
+            return ax + (pThreshold - pGridValues[ax][ay]) / (pGridValues[ax + 1][ay] - pGridValues[ax][ay]);
+        }
+        return pEdgeID == 0 ? x : x + 1;
+    }
+
+    static float edgeY(float[][] pGridValues, float pThreshold, int x, int y, int pEdgeID) {
+        if (pEdgeID == 0 || pEdgeID == 2) {
+            final int ax = pEdgeID == 0 ? x : x + 1;
+            final int ay = y;
+            return ay + (pThreshold - pGridValues[ax][ay]) / (pGridValues[ax][ay + 1] - pGridValues[ax][ay]);
+        }
+        return pEdgeID == 1 ? y + 1 : y;
+    }
+
     private static void div(PVector p1, PVector p2) {
-        p1.x = 1.0f / p2.x;
-        p1.y = 1.0f / p2.y;
-        p1.z = 1.0f / p2.z;
+        p1.x /= p2.x;
+        p1.y /= p2.y;
+        p1.z /= p2.z;
     }
 
     private static void getPoint(float[][] pGridValues,
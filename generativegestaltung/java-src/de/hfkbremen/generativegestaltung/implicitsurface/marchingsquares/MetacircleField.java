@@ -0,0 +1,352 @@
+/**
+ * generative gestaltung
+ *
+ */
+package de.hfkbremen.generativegestaltung.implicitsurface.marchingsquares;
+
+
+import java.util.Arrays;
+
+
+/**
+ * field of metacircles with a falloff of <code>strength / distance^2</code>, evaluated barnes-hut style for many
+ * circles. the circles are sorted into a quadtree, and a node whose circles are far away compared to its size counts
+ * as one circle with their summed strength at their strength weighted center. circles close to a point are summed
+ * exactly, so the field stays exact where it is steep and the iso lines are most sensitive.
+ * <p>
+ * <code>theta</code> trades accuracy for speed. a node is approximated when it is further away than its size divided
+ * by theta, so 0 sums every circle exactly. with randomly spread circles 0.5 keeps the largest error around two
+ * percent and 0.3 below one percent. use <code>error</code> to measure it against the brute force sum for a given set
+ * of circles. up to a few hundred circles the tree does not pay off, and the field is summed exactly, see
+ * <code>directSum</code>.
+ * <p>
+ * the approximation assumes strengths of one sign, circles with mixed signs partially cancel and the relative error
+ * grows where they do. an instance must not be evaluated by several threads at the same time.
+ */
+public class MetacircleField {
+
+    private static final int mLeafSize = 8;
+
+    /* coincident circles would otherwise split forever */
+    private static final int mMaxDepth = 24;
+
+    private float[] mX = new float[64];
+
+    private float[] mY = new float[64];
+
+    private float[] mStrength = new float[64];
+
+    private int mCount;
+
+    private float mTheta = 0.5f;
+
+    /* below a few hundred circles summing them all is faster than walking the tree */
+    private int mDirectSum = 256;
+
+    private float mPlane2;
+
+    private boolean mBuilt;
+
+    /* nodes: summed strength, weighted center, squared distance beyond which the node is approximated, children or
+     * range of circles */
+    private float[] mNodeStrength = new float[64];
+
+    private float[] mNodeX = new float[64];
+
+    private float[] mNodeY = new float[64];
+
+    private float[] mNodeOpen = new float[64];
+
+    private int[] mChildren = new int[64 * 4];
+
+    private int[] mFirst = new int[64];
+
+    private int[] mEnd = new int[64];
+
+    private int mNodeCount;
+
+    private int[] mStack = new int[(mMaxDepth + 1) * 3 + 4];
+
+    private long mTerms;
+
+    public void clear() {
+        mCount = 0;
+        mBuilt = false;
+    }
+
+    public void add(float x, float y, float pStrength) {
+        if (mCount == mX.length) {
+            mX = Arrays.copyOf(mX, mCount * 2);
+            mY = Arrays.copyOf(mY, mCount * 2);
+            mStrength = Arrays.copyOf(mStrength, mCount * 2);
+        }
+        mX[mCount] = x;
+        mY[mCount] = y;
+        mStrength[mCount] = pStrength;
+        mCount++;
+        mBuilt = false;
+    }
+
+    public int count() {
+        return mCount;
+    }
+
+    /**
+     * @param pTheta opening angle, the ratio of node size to distance below which a node is approximated. 0 is exact.
+     */
+    public void theta(float pTheta) {
+        mTheta = Math.max(0, pTheta);
+        mBuilt = false;
+    }
+
+    public float theta() {
+        return mTheta;
+    }
+
+    /**
+     * @param pCircles number of circles up to which the field is summed exactly without the tree and theta has no
+     *                 effect, 0 to always use the tree
+     */
+    public void directSum(int pCircles) {
+        mDirectSum = Math.max(0, pCircles);
+    }
+
+    public int directSum() {
+        return mDirectSum;
+    }
+
+    /**
+     * evaluates the field on a plane at a distance from the plane of the circles, like a slice through spheres.
+     */
+    public void plane(float pDistance) {
+        mPlane2 = pDistance * pDistance;
+    }
+
+    /**
+     * @return number of circles and nodes summed since the last call, a measure of the work done
+     */
+    public long terms() {
+        final long mResult = mTerms;
+        mTerms = 0;
+        return mResult;
+    }
+
+    /**
+     * fills a grid with the field, grid point ( x, y ) lies at ( x * pScaleX, y * pScaleY ).
+     */
+    public void fill(float[][] pGrid, float pScaleX, float pScaleY) {
+        if (mCount <= mDirectSum) {
+            for (int x = 0; x < pGrid.length; x++) {
+                final float[] mColumn = pGrid[x];
+                for (int y = 0; y < mColumn.length; y++) {
+                    mColumn[y] = exact(x * pScaleX, y * pScaleY, 0, mCount);
+                }
+                mTerms += (long) mColumn.length * mCount;
+            }
+            return;
+        }
+        for (int x = 0; x < pGrid.length; x++) {
+            for (int y = 0; y < pGrid[x].length; y++) {
+                pGrid[x][y] = value(x * pScaleX, y * pScaleY);
+            }
+        }
+    }
+
+    public float value(float x, float y) {
+        if (mCount <= mDirectSum) {
+            mTerms += mCount;
+            return exact(x, y, 0, mCount);
+        }
+        if (!mBuilt) {
+            build();
+        }
+        if (mNodeCount == 0) {
+            return 0;
+        }
+        float mSum = 0;
+        long mEvaluated = 0;
+        int n = 0;
+        mStack[n++] = 0;
+        while (n > 0) {
+            final int mNode = mStack[--n];
+            final float dx = mNodeX[mNode] - x;
+            final float dy = mNodeY[mNode] - y;
+            final float r2 = dx * dx + dy * dy + mPlane2;
+            if (r2 > mNodeOpen[mNode]) {
+                mSum += mNodeStrength[mNode] / r2;
+                mEvaluated++;
+            } else if (mChildren[mNode * 4] == -2) {
+                mSum += exact(x, y, mFirst[mNode], mEnd[mNode]);
+                mEvaluated += mEnd[mNode] - mFirst[mNode];
+            } else {
+                for (int i = 0; i < 4; i++) {
+                    if (mChildren[mNode * 4 + i] >= 0) {
+                        mStack[n++] = mChildren[mNode * 4 + i];
+                    }
+                }
+            }
+        }
+        mTerms += mEvaluated;
+        return mSum;
+    }
+
+    /**
+     * @return field at a point, summed over every circle
+     */
+    public float exactValue(float x, float y) {
+        return exact(x, y, 0, mCount);
+    }
+
+    /**
+     * compares a grid filled by <code>fill</code> with the brute force sum. this costs as much as filling the grid
+     * without the tree, use it to choose theta rather than every frame.
+     *
+     * @return largest relative error over all grid points
+     */
+    public float error(float[][] pGrid, float pScaleX, float pScaleY) {
+        float mMaxError = 0;
+        for (int x = 0; x < pGrid.length; x++) {
+            for (int y = 0; y < pGrid[x].length; y++) {
+                final float mExact = exactValue(x * pScaleX, y * pScaleY);
+                if (mExact != 0) {
+                    mMaxError = Math.max(mMaxError, Math.abs((pGrid[x][y] - mExact) / mExact));
+                }
+            }
+        }
+        return mMaxError;
+    }
+
+    private float exact(float x, float y, int pFrom, int pTo) {
+        float mSum = 0;
+        for (int i = pFrom; i < pTo; i++) {
+            final float dx = mX[i] - x;
+            final float dy = mY[i] - y;
+            final float r2 = dx * dx + dy * dy + mPlane2;
+            if (r2 != 0.0f) {
+                mSum += mStrength[i] / r2;
+            }
+        }
+        return mSum;
+    }
+
+    private void build() {
+        mNodeCount = 0;
+        mBuilt = true;
+        if (mCount == 0) {
+            return;
+        }
+        float mMinX = Float.POSITIVE_INFINITY;
+        float mMinY = Float.POSITIVE_INFINITY;
+        float mMaxX = Float.NEGATIVE_INFINITY;
+        float mMaxY = Float.NEGATIVE_INFINITY;
+        for (int i = 0; i < mCount; i++) {
+            mMinX = Math.min(mMinX, mX[i]);
+            mMinY = Math.min(mMinY, mY[i]);
+            mMaxX = Math.max(mMaxX, mX[i]);
+            mMaxY = Math.max(mMaxY, mY[i]);
+        }
+        final float mHalf = Math.max(mMaxX - mMinX, mMaxY - mMinY) * 0.5f;
+        node(0, mCount, (mMinX + mMaxX) * 0.5f, (mMinY + mMaxY) * 0.5f, mHalf, 0);
+    }
+
+    /* builds the node of the circles [ pFrom, pTo ), which lie within a square around ( cx, cy ) */
+    private int node(int pFrom, int pTo, float cx, float cy, float pHalf, int pDepth) {
+        final int mNode = mNodeCount++;
+        if (mNode == mNodeStrength.length) {
+            final int mSize = mNode * 2;
+            mNodeStrength = Arrays.copyOf(mNodeStrength, mSize);
+            mNodeX = Arrays.copyOf(mNodeX, mSize);
+            mNodeY = Arrays.copyOf(mNodeY, mSize);
+            mNodeOpen = Arrays.copyOf(mNodeOpen, mSize);
+            mChildren = Arrays.copyOf(mChildren, mSize * 4);
+            mFirst = Arrays.copyOf(mFirst, mSize);
+            mEnd = Arrays.copyOf(mEnd, mSize);
+        }
+
+        /* summed strength and center weighted by the magnitude of the strengths */
+        float mSum = 0;
+        float mWeight = 0;
+        float mSumX = 0;
+        float mSumY = 0;
+        for (int i = pFrom; i < pTo; i++) {
+            final float w = Math.abs(mStrength[i]);
+            mSum += mStrength[i];
+            mWeight += w;
+            mSumX += w * mX[i];
+            mSumY += w * mY[i];
+        }
+        final float mCenterX = mWeight > 0 ? mSumX / mWeight : cx;
+        final float mCenterY = mWeight > 0 ? mSumY / mWeight : cy;
+        mNodeStrength[mNode] = mSum;
+        mNodeX[mNode] = mCenterX;
+        mNodeY[mNode] = mCenterY;
+
+        /*
+         * approximate beyond size / theta, measured from the weighted center and widened by the distance of the
+         * center from the middle of the square. without the widening a point inside a square could see its center far
+         * away while circles of the square are close to it.
+         */
+        if (mTheta > 0) {
+            final float ox = mCenterX - cx;
+            final float oy = mCenterY - cy;
+            final float mOpen = pHalf * 2 / mTheta + (float) Math.sqrt(ox * ox + oy * oy);
+            mNodeOpen[mNode] = mOpen * mOpen;
+        } else {
+            mNodeOpen[mNode] = Float.POSITIVE_INFINITY;
+        }
+
+        if (pTo - pFrom <= mLeafSize || pDepth == mMaxDepth) {
+            mChildren[mNode * 4] = -2;
+            mFirst[mNode] = pFrom;
+            mEnd[mNode] = pTo;
+            return mNode;
+        }
+
+        /* sort the circles into the quadrants: left | right, then bottom | top within each half */
+        final int mSplitX = partition(pFrom, pTo, cx, true);
+        final int mSplitLeft = partition(pFrom, mSplitX, cy, false);
+        final int mSplitRight = partition(mSplitX, pTo, cy, false);
+        final float q = pHalf * 0.5f;
+        final int[] mBounds = {pFrom, mSplitLeft, mSplitX, mSplitRight, pTo};
+        for (int i = 0; i < 4; i++) {
+            if (mBounds[i] < mBounds[i + 1]) {
+                final int mChild = node(mBounds[i], mBounds[i + 1],
+                                        cx + ((i >> 1) == 0 ? -q : q),
+                                        cy + ((i & 1) == 0 ? -q : q),
+                                        q, pDepth + 1);
+                mChildren[mNode * 4 + i] = mChild;
+            } else {
+                mChildren[mNode * 4 + i] = -1;
+            }
+        }
+        return mNode;
+    }
+
+    /* moves the circles below a split value in front of the others, returns the first of the others */
+    private int partition(int pFrom, int pTo, float pSplit, boolean pAlongX) {
+        final float[] mKeys = pAlongX ? mX : mY;
+        int i = pFrom;
+        int j = pTo - 1;
+        while (i <= j) {
+            if (mKeys[i] < pSplit) {
+                i++;
+            } else {
+                swap(i, j);
+                j--;
+            }
+        }
+        return i;
+    }
+
+    private void swap(int a, int b) {
+        float t = mX[a];
+        mX[a] = mX[b];
+        mX[b] = t;
+        t = mY[a];
+        mY[a] = mY[b];
+        mY[b] = t;
+        t = mStrength[a];
+        mStrength[a] = mStrength[b];
+        mStrength[b] = t;
+    }
+}
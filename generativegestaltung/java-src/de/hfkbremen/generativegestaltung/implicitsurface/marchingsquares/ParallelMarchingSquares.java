@@ -0,0 +1,274 @@
+/**
+ * generative gestaltung
+ *
+ */
+package de.hfkbremen.generativegestaltung.implicitsurface.marchingsquares;
+
+
+import java.util.HashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+
+/**
+ * multi-core variant of <code>MarchingSquares.isolines</code> and <code>MarchingSquares.contours</code>. the grid is
+ * split into square tiles which are scanned on the common fork/join pool, each into its own buffers. contours that
+ * cross a tile seam end in one tile and start in the next on the same grid edge, the pieces are joined through that
+ * edge afterwards, one level per task. the result has the same polylines and bands as the serial path, only the
+ * order of the polylines and the start point of closed ones may differ.
+ * <p>
+ * an instance keeps the buffers of its tiles between calls and must not be used by several threads at the same time.
+ */
+public class ParallelMarchingSquares {
+
+    /* tiles per worker thread, more tiles balance better when the contours are unevenly distributed */
+    private static final int mTilesPerThread = 4;
+
+    private static final int mMinimumTileSize = 32;
+
+    private int mTileSize;
+
+    private Tile[] mTiles = new Tile[0];
+
+    private int mTileCount;
+
+    /**
+     * @param pTileSize edge length of a tile in cells, or 0 to derive it from the grid size and the number of threads
+     */
+    public void tileSize(int pTileSize) {
+        mTileSize = pTileSize;
+    }
+
+    public int tileSize() {
+        return mTileSize;
+    }
+
+    /**
+     * @see MarchingSquares#isolines(Isolines, float[][], float)
+     */
+    public void isolines(Isolines pLines, float[][] pGridValues, float pThreshold) {
+        contours(new Isolines[]{pLines}, null, pGridValues, new float[]{pThreshold});
+    }
+
+    /**
+     * @see MarchingSquares#contours(Isolines[], Isobands, float[][], float[])
+     */
+    public void contours(final Isolines[] pLines,
+                         final Isobands pBands,
+                         final float[][] pGridValues,
+                         final float[] pThresholds) {
+        MarchingSquares.check(pLines, pThresholds);
+        final int mLevels = pThresholds.length;
+        final int mBands = Math.max(0, mLevels - 1);
+        tiles(pGridValues.length - 1, pGridValues[0].length - 1, mLevels, pBands != null);
+
+        /* scan the tiles */
+        final RecursiveAction[] mScans = new RecursiveAction[mTileCount];
+        for (int i = 0; i < mTileCount; i++) {
+            final Tile mTile = mTiles[i];
+            mScans[i] = new RecursiveAction() {
+                protected void compute() {
+                    mTile.scan(pLines != null, pGridValues, pThresholds);
+                }
+            };
+        }
+        invoke(mScans);
+
+        /* join the pieces of every level across the seams */
+        if (pLines != null) {
+            final RecursiveAction[] mMerges = new RecursiveAction[mLevels];
+            for (int i = 0; i < mLevels; i++) {
+                final int mLevel = i;
+                mMerges[i] = new RecursiveAction() {
+                    protected void compute() {
+                        merge(pLines[mLevel], mLevel);
+                    }
+                };
+            }
+            invoke(mMerges);
+        }
+        if (pBands != null) {
+            pBands.bands(mBands);
+            for (int i = 0; i < mTileCount; i++) {
+                for (int j = 0; j < mBands; j++) {
+                    pBands.append(j, mTiles[i].mBands);
+                }
+            }
+        }
+    }
+
+    private void tiles(int pCellsX, int pCellsY, int pLevels, boolean pBands) {
+        int mSize = mTileSize;
+        if (mSize <= 0) {
+            final int mTargetTiles = ForkJoinPool.getCommonPoolParallelism() * mTilesPerThread;
+            mSize = (int) Math.ceil(Math.sqrt((double) pCellsX * pCellsY / mTargetTiles));
+            mSize = Math.max(mMinimumTileSize, mSize);
+        }
+        final int mTilesX = Math.max(1, (pCellsX + mSize - 1) / mSize);
+        final int mTilesY = Math.max(1, (pCellsY + mSize - 1) / mSize);
+        mTileCount = mTilesX * mTilesY;
+        if (mTiles.length < mTileCount) {
+            final Tile[] mOld = mTiles;
+            mTiles = new Tile[mTileCount];
+            System.arraycopy(mOld, 0, mTiles, 0, mOld.length);
+            for (int i = mOld.length; i < mTileCount; i++) {
+                mTiles[i] = new Tile();
+            }
+        }
+        for (int x = 0; x < mTilesX; x++) {
+            for (int y = 0; y < mTilesY; y++) {
+                final Tile mTile = mTiles[x * mTilesY + y];
+                mTile.mFromX = x * mSize;
+                mTile.mToX = Math.min(pCellsX, (x + 1) * mSize);
+                mTile.mFromY = y * mSize;
+                mTile.mToY = Math.min(pCellsY, (y + 1) * mSize);
+                mTile.levels(pLevels, pBands);
+            }
+        }
+    }
+
+    /* joins the polylines of one level from all tiles */
+    private void merge(Isolines pLines, int pLevel) {
+        pLines.clear();
+        int mPieces = 0;
+        int mPoints = 0;
+        for (int i = 0; i < mTileCount; i++) {
+            mPieces += mTiles[i].mLines[pLevel].lineCount();
+            mPoints += mTiles[i].mLines[pLevel].pointCount();
+        }
+        pLines.points(mPoints);
+
+        /* a piece, i.e. a polyline of a tile, continues with the piece that starts on the edge it ends on */
+        final Isolines[] mPieceLines = new Isolines[mPieces];
+        final int[] mPieceIndices = new int[mPieces];
+        final HashMap<Long, Integer> mStarts = new HashMap<Long, Integer>();
+        int n = 0;
+        for (int i = 0; i < mTileCount; i++) {
+            final Isolines mTileLines = mTiles[i].mLines[pLevel];
+            for (int j = 0; j < mTileLines.lineCount(); j++) {
+                mPieceLines[n] = mTileLines;
+                mPieceIndices[n] = j;
+                if (!mTileLines.closed(j)) {
+                    mStarts.put(mTileLines.startKey(j), n);
+                }
+                n++;
+            }
+        }
+        final int[] mNext = new int[mPieces];
+        final boolean[] mHasPrevious = new boolean[mPieces];
+        for (int i = 0; i < mPieces; i++) {
+            mNext[i] = -1;
+            if (!mPieceLines[i].closed(mPieceIndices[i])) {
+                final Integer mSuccessor = mStarts.get(mPieceLines[i].endKey(mPieceIndices[i]));
+                if (mSuccessor != null) {
+                    mNext[i] = mSuccessor;
+                    mHasPrevious[mSuccessor] = true;
+                }
+            }
+        }
+
+        final boolean[] mVisited = new boolean[mPieces];
+        /* closed within a tile, and open chains from their first piece */
+        for (int i = 0; i < mPieces; i++) {
+            final Isolines mPiece = mPieceLines[i];
+            final int mLine = mPieceIndices[i];
+            if (mPiece.closed(mLine)) {
+                mVisited[i] = true;
+                pLines.beginLine();
+                append(pLines, mPiece, mLine, 0, 0);
+                pLines.endLine(true, mPiece.startKey(mLine), mPiece.endKey(mLine));
+            } else if (!mHasPrevious[i]) {
+                pLines.beginLine();
+                int p = i;
+                int mLast = i;
+                while (p >= 0) {
+                    mVisited[p] = true;
+                    /* the first point of a continuation repeats the last point of the piece before */
+                    append(pLines, mPieceLines[p], mPieceIndices[p], p == i ? 0 : 1, 0);
+                    mLast = p;
+                    p = mNext[p];
+                }
+                pLines.endLine(false, mPiece.startKey(mLine), mPieceLines[mLast].endKey(mPieceIndices[mLast]));
+            }
+        }
+        /* what is left are loops across seams */
+        for (int i = 0; i < mPieces; i++) {
+            if (!mVisited[i]) {
+                pLines.beginLine();
+                int p = i;
+                do {
+                    mVisited[p] = true;
+                    /* skip the last point of every piece, it is the first point of the next */
+                    append(pLines, mPieceLines[p], mPieceIndices[p], 0, 1);
+                    p = mNext[p];
+                } while (p != i);
+                final long mKey = mPieceLines[i].startKey(mPieceIndices[i]);
+                pLines.endLine(true, mKey, mKey);
+            }
+        }
+    }
+
+    private static void append(Isolines pLines, Isolines pPiece, int pLine, int pSkipFirst, int pSkipLast) {
+        final float[] mPoints = pPiece.points();
+        final int mEnd = pPiece.offset(pLine) + pPiece.length(pLine) - pSkipLast;
+        for (int i = pPiece.offset(pLine) + pSkipFirst; i < mEnd; i++) {
+            pLines.addPoint(mPoints[i * 2], mPoints[i * 2 + 1]);
+        }
+    }
+
+    private static void invoke(final RecursiveAction[] pTasks) {
+        ForkJoinPool.commonPool().invoke(new RecursiveAction() {
+            protected void compute() {
+                invokeAll(pTasks);
+            }
+        });
+    }
+
+    private static class Tile {
+
+        int mFromX;
+
+        int mToX;
+
+        int mFromY;
+
+        int mToY;
+
+        Isolines[] mLines = new Isolines[0];
+
+        Isobands mBands;
+
+        boolean mWithBands;
+
+        void levels(int pLevels, boolean pBands) {
+            if (mLines.length < pLevels) {
+                final Isolines[] mOld = mLines;
+                mLines = new Isolines[pLevels];
+                System.arraycopy(mOld, 0, mLines, 0, mOld.length);
+                for (int i = mOld.length; i < pLevels; i++) {
+                    mLines[i] = new Isolines();
+                }
+            }
+            if (pBands && mBands == null) {
+                mBands = new Isobands();
+            }
+            for (int i = 0; i < pLevels; i++) {
+                mLines[i].clear();
+            }
+            if (pBands) {
+                mBands.bands(Math.max(0, pLevels - 1));
+            }
+            mWithBands = pBands;
+        }
+
+        void scan(boolean pLines, float[][] pGridValues, float[] pThresholds) {
+            MarchingSquares.scan(pLines ? mLines : null, mWithBands ? mBands : null, pGridValues, pThresholds,
+                                 mFromX, mToX, mFromY, mToY);
+            if (pLines) {
+                for (int i = 0; i < pThresholds.length; i++) {
+                    mLines[i].build();
+                }
+            }
+        }
+    }
+}
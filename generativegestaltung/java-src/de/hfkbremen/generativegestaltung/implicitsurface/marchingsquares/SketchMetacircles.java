@@ -3,8 +3,6 @@
 package de.hfkbremen.generativegestaltung.implicitsurface.marchingsquares;
 
 
-import java.util.Vector;
-
 import processing.core.PApplet;
 import processing.core.PVector;
 
@@ -26,7 +24,9 @@ public class SketchMetacircles
 
     private Metacircle[] mBalls;
 
-    private Vector<PVector> mLines;
+    private Isolines mLines;
+
+    private MetacircleField mField;
 
     public void setup() {
         size(640, 480, OPENGL);
@@ -38,7 +38,8 @@ public class SketchMetacircles
         mGridY = 48;
         mGrid = new float[mGridX][mGridY];
 
-        mLines = new Vector<PVector>();
+        mLines = new Isolines();
+        mField = new MetacircleField();
 
         /* spawn metaballs */
         mBalls = new Metacircle[10];
@@ -56,8 +57,7 @@ public class SketchMetacircles
 
         /* perform marching squares */
         updateGridValues();
-        mLines.clear();
-        MarchingSquares.lines(mLines, mGrid, mTheshold);
+        MarchingSquares.isolines(mLines, mGrid, mTheshold);
 
         /* draw */
         background(255);
@@ -68,28 +68,26 @@ public class SketchMetacircles
     private void updateGridValues() {
         final float mScaleX = mResolutionScaleX / mGridX;
         final float mScaleY = mResolutionScaleX / mGridX;
-        for (int x = 0; x < mGrid.length; x++) {
-            for (int y = 0; y < mGrid[x].length; y++) {
-                mGrid[x][y] = 0;
-                for (int n = 0; n < mBalls.length; n++) {
-                    /* scale grid postions to screen positions */
-                    float mX = mScaleX * x;
-                    float mY = mScaleY * y;
-                    mGrid[x][y] += mBalls[n].strength(mX, mY);
-                }
-            }
+        mField.clear();
+        for (int n = 0; n < mBalls.length; n++) {
+            mField.add(mBalls[n].position.x, mBalls[n].position.y, mBalls[n].strength);
         }
+        /* scale grid postions to screen positions */
+        mField.fill(mGrid, mScaleX, mScaleY);
     }
 
-    private void drawLines(Vector<PVector> myLines) {
+    private void drawLines(Isolines pLines) {
         stroke(0, 175);
         pushMatrix();
-        scale(mResolutionScaleX, mResolutionScaleY);
-        beginShape(LINES);
-        for (int i = 0; i < myLines.size(); i++) {
-            vertex(myLines.get(i).x, myLines.get(i).y);
+        scale(mResolutionScaleX / (float) mGridX, mResolutionScaleY / (float) mGridY);
+        final float[] mPoints = pLines.points();
+        for (int i = 0; i < pLines.lineCount(); i++) {
+            beginShape(pLines.closed(i) ? LINE_LOOP : LINE_STRIP);
+            for (int j = pLines.offset(i); j < pLines.offset(i) + pLines.length(i); j++) {
+                vertex(mPoints[j * 2], mPoints[j * 2 + 1]);
+            }
+            endShape();
         }
-        endShape();
         popMatrix();
     }
 
@@ -113,16 +111,6 @@ public class SketchMetacircles
         public PVector position = new PVector();
 
         public float strength = 30000;
-
-        float strength(float x, float y) {
-            float dx = position.x - x;
-            float dy = position.y - y;
-            float mDistanceSquared = dx * dx + dy * dy;
-            if (mDistanceSquared == 0.0f) {
-                return 0.0f;
-            }
-            return strength / mDistanceSquared;
-        }
     }
 
     public static void main(String[] args) {
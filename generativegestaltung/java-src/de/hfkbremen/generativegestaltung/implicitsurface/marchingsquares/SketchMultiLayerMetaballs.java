@@ -28,7 +28,13 @@ public class SketchMultiLayerMetaballs
 
     private float mRotation = 0;
 
-    private Vector<PVector> mLines;
+    private float[] mLevels;
+
+    private Isolines[] mLines;
+
+    private Isobands mBands;
+
+    private MetacircleField mField;
 
     public void setup() {
         size(640, 480, OPENGL);
@@ -41,7 +47,17 @@ public class SketchMultiLayerMetaballs
         mGridY = 48;
         mGrid = new float[mGridX][mGridY];
 
-        mLines = new Vector<PVector>();
+        /* a topographic stack of iso levels, one grid pass extracts all of them */
+        mLevels = new float[20];
+        mLines = new Isolines[mLevels.length];
+        for (int i = 0; i < mLevels.length; i++) {
+            mLevels[i] = mISOValue * (i + 1) / 4;
+            mLines[i] = new Isolines();
+        }
+        mBands = new Isobands();
+        mField = new MetacircleField();
+        /* always use the tree, even for few balls, so that changing theta has a visible effect */
+        mField.directSum(0);
 
         /* spawn metaballs */
         mBalls = new Vector<Metaball>();
@@ -61,6 +77,22 @@ public class SketchMultiLayerMetaballs
         mBalls.add(mBall);
     }
 
+    public void keyPressed() {
+        /* trade accuracy of the field for speed */
+        if (key == '+') {
+            mField.theta(mField.theta() + 0.1f);
+        } else if (key == '-') {
+            mField.theta(mField.theta() - 0.1f);
+        } else {
+            return;
+        }
+        /* refill the grid with the new theta before comparing it with the exact sum */
+        updateGridValues(0);
+        final float mScale = mResolutionScaleX / mGridX;
+        println("theta: " + mField.theta() + " / balls: " + mBalls.size()
+                + " / error: " + mField.error(mGrid, mScale, mScale));
+    }
+
     public void draw() {
 
         /* stick first ball to mouse */
@@ -80,42 +112,60 @@ public class SketchMultiLayerMetaballs
         stroke(0, 64);
         rect(0, 0, width, height);
 
-        /* perform marching squares -- on seven layers */
-        for (int i = 0; i < 5; i++) {
-            float mZ = (i - 2) * 10;
-            updateGridValues(mZ);
-            mLines.clear();
-            MarchingSquares.lines(mLines, mGrid, mISOValue);
-            drawLines(mLines, mZ);
+        /* perform marching squares -- all layers in one pass */
+        updateGridValues(0);
+        MarchingSquares.contours(mLines, mBands, mGrid, mLevels);
+        for (int i = 0; i < mLevels.length; i++) {
+            float mZ = i * 4;
+            if (i < mBands.bandCount()) {
+                drawBand(mBands, i, mZ);
+            }
+            drawLines(mLines[i], mZ);
         }
     }
 
     private void updateGridValues(float pZ) {
         final float mScaleX = mResolutionScaleX / mGridX;
         final float mScaleY = mResolutionScaleX / mGridX;
-        for (int x = 0; x < mGrid.length; x++) {
-            for (int y = 0; y < mGrid[x].length; y++) {
-                mGrid[x][y] = 0;
-                for (int i = 0; i < mBalls.size(); i++) {
-                    /* scale grid postions to screen positions */
-                    float mX = mScaleX * x;
-                    float mY = mScaleY * y;
-                    mGrid[x][y] += mBalls.get(i).strength(mX, mY, pZ);
-                }
-            }
+        /* nearby balls are summed exactly, distant groups of balls approximated */
+        mField.clear();
+        for (int i = 0; i < mBalls.size(); i++) {
+            final Metaball mBall = mBalls.get(i);
+            mField.add(mBall.position.x, mBall.position.y, mBall.strength);
         }
+        mField.plane(pZ);
+        /* scale grid postions to screen positions */
+        mField.fill(mGrid, mScaleX, mScaleY);
     }
 
-    private void drawLines(Vector<PVector> myLines, float pZ) {
+    private void drawLines(Isolines pLines, float pZ) {
         stroke(0, 128);
         pushMatrix();
-        scale(mResolutionScaleX, mResolutionScaleY);
-        beginShape(LINES);
-        for (int i = 0; i < myLines.size(); i++) {
-            vertex(myLines.get(i).x, myLines.get(i).y, pZ);
+        scale(mResolutionScaleX / (float) mGridX, mResolutionScaleY / (float) mGridY);
+        final float[] mPoints = pLines.points();
+        for (int i = 0; i < pLines.lineCount(); i++) {
+            beginShape(pLines.closed(i) ? LINE_LOOP : LINE_STRIP);
+            for (int j = pLines.offset(i); j < pLines.offset(i) + pLines.length(i); j++) {
+                vertex(mPoints[j * 2], mPoints[j * 2 + 1], pZ);
+            }
+            endShape();
+        }
+        popMatrix();
+    }
+
+    private void drawBand(Isobands pBands, int pBand, float pZ) {
+        noStroke();
+        fill(0, 16);
+        pushMatrix();
+        scale(mResolutionScaleX / (float) mGridX, mResolutionScaleY / (float) mGridY);
+        final float[] mTriangles = pBands.triangles(pBand);
+        beginShape(TRIANGLES);
+        for (int i = 0; i < pBands.triangleCount(pBand) * 6; i += 2) {
+            vertex(mTriangles[i], mTriangles[i + 1], pZ);
         }
         endShape();
         popMatrix();
+        noFill();
     }
 
     private class Metaball {
@@ -123,17 +173,6 @@ public class SketchMultiLayerMetaballs
         public PVector position = new PVector();
 
         public float strength = 30000;
-
-        float strength(float x, float y, float z) {
-            float dx = position.x - x;
-            float dy = position.y - y;
-            float dz = position.z - z;
-            float mDistanceSquared = dx * dx + dy * dy + dz * dz;
-            if (mDistanceSquared == 0.0f) {
-                return 0.0f;
-            }
-            return strength / mDistanceSquared;
-        }
     }
 
     public static void main(String[] args) {
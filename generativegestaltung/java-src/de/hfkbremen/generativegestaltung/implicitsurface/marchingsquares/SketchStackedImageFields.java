@@ -3,11 +3,7 @@
 package de.hfkbremen.generativegestaltung.implicitsurface.marchingsquares;
 
 
-import java.util.Vector;
-
 import processing.core.PApplet;
-import processing.core.PImage;
-import processing.core.PVector;
 import processing.video.Capture;
 
 
@@ -24,17 +20,15 @@ public class SketchStackedImageFields
 
     private int mGridY;
 
-    private float[][] mGrid;
-
     private float mRotation = 0;
 
     private Capture mVideo;
 
-    private PImage[] mImageStack;
+    private ImageFieldStack mImageStack;
 
-    private int mCurrentImage = 0;
+    private Isolines mLines;
 
-    private Vector<PVector> mLines;
+    private ParallelMarchingSquares mMarchingSquares;
 
     public void setup() {
         size(640, 480, P3D);
@@ -47,10 +41,10 @@ public class SketchStackedImageFields
         mResolutionScaleY = 480;
         mGridX = 160;
         mGridY = 120;
-        mGrid = new float[mGridX][mGridY];
 
-        mLines = new Vector<PVector>();
-        mImageStack = new PImage[5];
+        mLines = new Isolines();
+        mMarchingSquares = new ParallelMarchingSquares();
+        mImageStack = new ImageFieldStack(5, mGridX, mGridY, 1);
     }
 
     public void draw() {
@@ -75,11 +69,9 @@ public class SketchStackedImageFields
         rect(0, 0, width, height);
 
         /* perform marching squares -- on layers */
-        for (int i = 0; i < mImageStack.length; i++) {
-            if (mImageStack[i] != null) {
-                extractEnergy(mImageStack[i]);
-                mLines.clear();
-                MarchingSquares.lines(mLines, mGrid, mISOValue);
+        for (int i = 0; i < mImageStack.capacity(); i++) {
+            if (mImageStack.ready(i)) {
+                mMarchingSquares.isolines(mLines, mImageStack.field(i), mISOValue);
                 float mZ = (i - 2) * 10;
                 drawLines(mLines, mZ);
             }
@@ -89,30 +81,23 @@ public class SketchStackedImageFields
     public void keyPressed() {
         if (mVideo.available()) {
             mVideo.read();
-            mImageStack[mCurrentImage] = mVideo.get();
-            mCurrentImage++;
-            mCurrentImage %= mImageStack.length;
+            /* converted once into a field, off the drawing thread */
+            mImageStack.push(mVideo.get());
         }
     }
 
-    private void extractEnergy(PImage theImage) {
-        theImage.loadPixels();
-        for (int x = 0; x < theImage.width; x++) {
-            for (int y = 0; y < theImage.height; y++) {
-                mGrid[x][y] = brightness(theImage.get(x, y));
-            }
-        }
-    }
-
-    private void drawLines(Vector<PVector> myLines, float pZ) {
+    private void drawLines(Isolines pLines, float pZ) {
         stroke(0, 128);
         pushMatrix();
-        scale(mResolutionScaleX, mResolutionScaleY);
-        beginShape(LINES);
-        for (int i = 0; i < myLines.size(); i++) {
-            vertex(myLines.get(i).x, myLines.get(i).y, pZ);
+        scale(mResolutionScaleX / (float) mGridX, mResolutionScaleY / (float) mGridY);
+        final float[] mPoints = pLines.points();
+        for (int i = 0; i < pLines.lineCount(); i++) {
+            beginShape(pLines.closed(i) ? LINE_LOOP : LINE_STRIP);
+            for (int j = pLines.offset(i); j < pLines.offset(i) + pLines.length(i); j++) {
+                vertex(mPoints[j * 2], mPoints[j * 2 + 1], pZ);
+            }
+            endShape();
         }
-        endShape();
         popMatrix();
     }
 
@@ -0,0 +1,41 @@
+package de.hfkbremen.interaktionundraum.csg;
+
+
+import de.hfkbremen.generativegestaltung.implicitsurface.marchingcubes.IsoSurfaceSink;
+import java.util.List;
+import org.texone.geometry.Face;
+import org.texone.geometry.Mesh;
+import org.texone.geometry.Vertex;
+
+
+/**
+ * feeds the faces of a mesh into a sink, e.g. an <code>STLWriter</code> or a <code>PLYWriter</code>. every face is
+ * passed on as it is read, the mesh is not copied. normals are the face normals.
+ */
+public class MeshExport {
+
+    public static void write(Mesh pMesh, IsoSurfaceSink pSink) {
+        final float[] mPositions = new float[9];
+        final float[] mNormals = pSink.normals() ? new float[9] : null;
+        final List mFaces = pMesh.faces();
+        for (int i = 0; i < mFaces.size(); i++) {
+            final Face mFace = (Face) mFaces.get(i);
+            set(mPositions, 0, mFace.v1);
+            set(mPositions, 3, mFace.v2);
+            set(mPositions, 6, mFace.v3);
+            if (mNormals != null) {
+                final Vertex mNormal = mFace.getNormal();
+                set(mNormals, 0, mNormal);
+                set(mNormals, 3, mNormal);
+                set(mNormals, 6, mNormal);
+            }
+            pSink.triangle(mPositions, mNormals);
+        }
+    }
+
+    private static void set(float[] pArray, int pOffset, Vertex pVertex) {
+        pArray[pOffset] = (float) pVertex.x;
+        pArray[pOffset + 1] = (float) pVertex.y;
+        pArray[pOffset + 2] = (float) pVertex.z;
+    }
+}
@@ -1,6 +1,9 @@
 package de.hfkbremen.interaktionundraum.csg;
 
 
+import de.hfkbremen.generativegestaltung.implicitsurface.marchingcubes.STLWriter;
+import java.io.File;
+import java.io.IOException;
 import org.texone.geometry.Mesh;
 import org.texone.geometry.bool.Difference;
 import org.texone.geometry.bool.Intersection;
@@ -61,6 +64,9 @@ public class SketchSubtractSphereFromBox
         if (key == '#') {
             mBoolean = new Intersection(mCube, mSphere);
         }
+        if (key == 's' && mBoolean != null) {
+            save(mBoolean, new File(sketchPath("boolean.stl")));
+        }
     }
 
     private void createMeshes() {
@@ -71,6 +77,20 @@ public class SketchSubtractSphereFromBox
         mBoolean = null;
     }
 
+    private void save(Mesh pMesh, File pFile) {
+        try {
+            final STLWriter mWriter = new STLWriter(pFile);
+            try {
+                MeshExport.write(pMesh, mWriter);
+            } finally {
+                mWriter.close();
+            }
+            println("saved " + mWriter.triangleCount() + " triangles to " + pFile);
+        } catch (IOException ex) {
+            println("could not save " + pFile + ": " + ex.getMessage());
+        }
+    }
+
     private void rotateWithMouse(Mesh mMesh) {
         final float mScale = 2.5f;
         mMesh.rotateY((pmouseX - mouseX) / (float) width * mScale);